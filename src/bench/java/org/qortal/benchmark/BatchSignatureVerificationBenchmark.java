@@ -0,0 +1,93 @@
+package org.qortal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.qortal.crypto.Crypto;
+import org.qortal.crypto.Qortal25519Extras;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares verifying many standard signatures, e.g. a block's transactions,
+ * one at a time against batch verification, both on one thread and spread across several.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchSignatureVerificationBenchmark {
+
+	@Param({"16", "64", "256"})
+	public int signatureCount;
+
+	private List<byte[]> publicKeys;
+	private List<byte[]> signatures;
+	private List<byte[]> messages;
+
+	private ExecutorService executor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkFixtures.init();
+
+		Random random = new Random(0L);
+
+		this.publicKeys = new ArrayList<>(this.signatureCount);
+		this.signatures = new ArrayList<>(this.signatureCount);
+		this.messages = new ArrayList<>(this.signatureCount);
+
+		for (int i = 0; i < this.signatureCount; ++i) {
+			byte[] privateKey = BenchmarkFixtures.randomBytes(random, 32);
+			// Roughly the size of a payment transaction's bytes for signing
+			byte[] message = BenchmarkFixtures.randomBytes(random, 150);
+
+			this.publicKeys.add(Crypto.toPublicKey(privateKey));
+			this.signatures.add(Crypto.sign(privateKey, message));
+			this.messages.add(message);
+		}
+
+		this.executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+		if (!this.verifyIndividually() || !this.verifyBatch())
+			throw new IllegalStateException("Benchmark signatures failed to verify");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	/** Per-signature loop, as per block transactions validation. */
+	@Benchmark
+	public boolean verifyIndividually() {
+		boolean allValid = true;
+
+		for (int i = 0; i < this.signatureCount; ++i)
+			allValid &= Crypto.verify(this.publicKeys.get(i), this.signatures.get(i), this.messages.get(i));
+
+		return allValid;
+	}
+
+	@Benchmark
+	public boolean verifyBatch() {
+		return Qortal25519Extras.verifyBatch(this.publicKeys, this.signatures, this.messages);
+	}
+
+	/** Batches of {@link Crypto#VERIFY_BATCH_SIZE}, including mapping back to individual results. */
+	@Benchmark
+	public boolean[] verifyBatches() {
+		return Crypto.verifyBatch(this.publicKeys, this.signatures, this.messages);
+	}
+
+	@Benchmark
+	public boolean[] verifyBatchesParallel() {
+		return Crypto.verifyBatch(this.publicKeys, this.signatures, this.messages, this.executor);
+	}
+
+}
@@ -0,0 +1,195 @@
+package org.qortal.benchmark;
+
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import io.druid.extendedset.intset.ConciseSet;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.jsse.provider.BouncyCastleJsseProvider;
+import org.qortal.asset.Asset;
+import org.qortal.crypto.Crypto;
+import org.qortal.data.block.BlockSummaryData;
+import org.qortal.data.transaction.*;
+import org.qortal.group.Group;
+import org.qortal.settings.Settings;
+import org.qortal.transaction.Transaction.TransactionType;
+import org.qortal.transform.TransformationException;
+import org.qortal.transform.Transformer;
+import org.qortal.transform.block.BlockTransformer;
+import org.qortal.transform.transaction.TransactionTransformer;
+import org.qortal.utils.Base58;
+import org.qortal.utils.NTP;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared setup for benchmarks: test chain settings and representative blocks, transactions, etc.
+ * <p>
+ * Uses the same settings and test accounts as the functional tests, but builds data directly
+ * rather than via a repository, so benchmarks measure only the code under test.
+ */
+public class BenchmarkFixtures {
+
+	public static final String SETTINGS_FILENAME = "test-settings-v2.json";
+
+	/** Private keys of test chain accounts alice, bob, chloe and dilbert */
+	private static final String[] TEST_PRIVATE_KEYS = {
+		"A9MNsATgQgruBUjxy2rjWY36Yf19uRioKZbiLFT2P7c6",
+		"AdTd9SUEYSdTW8mgK3Gu72K97bCHGdUwi2VvLNjUohot",
+		"HqVngdE1AmEyDpfwTZqUdFHB13o4bCmpoTNAKEqki66K",
+		"Gakhh6Ln4vtBFM88nE9JmDaLBDtUBg51aVFpWfSkyVw5"
+	};
+
+	private static boolean isInitialized = false;
+
+	private BenchmarkFixtures() {
+	}
+
+	/** Loads test chain settings and crypto providers. Safe to call from every benchmark's setup. */
+	public static synchronized void init() {
+		if (isInitialized)
+			return;
+
+		// This must go before any calls to LogManager/Logger
+		System.setProperty("java.util.logging.manager", "org.apache.logging.log4j.jul.LogManager");
+
+		Security.insertProviderAt(new BouncyCastleProvider(), 0);
+		Security.insertProviderAt(new BouncyCastleJsseProvider(), 1);
+
+		URL testSettingsUrl = BenchmarkFixtures.class.getClassLoader().getResource(SETTINGS_FILENAME);
+		if (testSettingsUrl == null)
+			throw new IllegalStateException("Test settings JSON file not found");
+
+		Settings.fileInstance(testSettingsUrl.getPath());
+		Long ntpOffset = Settings.getInstance().getTestNtpOffset();
+		NTP.setFixedOffset(ntpOffset != null ? ntpOffset : 0L);
+
+		isInitialized = true;
+	}
+
+	public static List<byte[]> getTestPrivateKeys() {
+		List<byte[]> privateKeys = new ArrayList<>();
+		for (String privateKey58 : TEST_PRIVATE_KEYS)
+			privateKeys.add(Base58.decode(privateKey58));
+
+		return privateKeys;
+	}
+
+	public static byte[] randomBytes(Random random, int length) {
+		byte[] bytes = new byte[length];
+		random.nextBytes(bytes);
+		return bytes;
+	}
+
+	private static BaseTransactionData randomBaseTransactionData(Random random, byte[] creatorPublicKey) {
+		long timestamp = NTP.getTime() - random.nextInt(60_000);
+		byte[] reference = randomBytes(random, Transformer.SIGNATURE_LENGTH);
+		byte[] signature = randomBytes(random, Transformer.SIGNATURE_LENGTH);
+
+		return new BaseTransactionData(timestamp, Group.NO_GROUP, reference, creatorPublicKey, 100_000L, signature);
+	}
+
+	/** Builds transaction of given type with random contents. Signatures are random, as transformers don't check them. */
+	public static TransactionData randomTransaction(Random random, TransactionType txType) {
+		List<byte[]> privateKeys = getTestPrivateKeys();
+		byte[] creatorPublicKey = Crypto.toPublicKey(privateKeys.get(random.nextInt(privateKeys.size())));
+		String recipient = Crypto.toAddress(Crypto.toPublicKey(privateKeys.get(random.nextInt(privateKeys.size()))));
+		BaseTransactionData baseTransactionData = randomBaseTransactionData(random, creatorPublicKey);
+
+		switch (txType) {
+			case PAYMENT:
+				return new PaymentTransactionData(baseTransactionData, recipient, 1 + random.nextInt(1_000_000));
+
+			case MESSAGE: {
+				byte[] data = ("benchmark message " + random.nextLong()).getBytes(StandardCharsets.UTF_8);
+				return new MessageTransactionData(baseTransactionData, 4, 0, recipient, 0L, null, data, true, false);
+			}
+
+			case TRANSFER_ASSET:
+				return new TransferAssetTransactionData(baseTransactionData, recipient, 1 + random.nextInt(1_000_000), Asset.QORT);
+
+			default:
+				throw new IllegalArgumentException("Unsupported benchmark transaction type " + txType.name());
+		}
+	}
+
+	/**
+	 * Builds serialized V2 block, as produced by {@code BlockTransformer.toBytesV2()},
+	 * containing <tt>transactionCount</tt> payments and <tt>onlineAccountsCount</tt> online accounts.
+	 */
+	public static byte[] buildBlockV2Bytes(Random random, int transactionCount, int onlineAccountsCount) throws TransformationException {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+			bytes.write(Ints.toByteArray(5)); // version
+			bytes.write(Longs.toByteArray(NTP.getTime()));
+			bytes.write(randomBytes(random, BlockTransformer.BLOCK_SIGNATURE_LENGTH)); // reference
+			bytes.write(Crypto.toPublicKey(getTestPrivateKeys().get(0))); // minter
+			bytes.write(randomBytes(random, Transformer.SIGNATURE_LENGTH)); // transactions signature
+			bytes.write(randomBytes(random, Transformer.SIGNATURE_LENGTH)); // minter signature
+
+			// AT count, AT fees, AT states hash
+			bytes.write(Ints.toByteArray(0));
+			bytes.write(Longs.toByteArray(0L));
+			bytes.write(Crypto.digest(new byte[0]));
+
+			bytes.write(Ints.toByteArray(transactionCount));
+			for (int i = 0; i < transactionCount; ++i) {
+				byte[] transactionBytes = TransactionTransformer.toBytes(randomTransaction(random, TransactionType.PAYMENT));
+				bytes.write(Ints.toByteArray(transactionBytes.length));
+				bytes.write(transactionBytes);
+			}
+
+			// As with toBytesV2(), blocks without online accounts have zero-length encoding
+			byte[] encodedOnlineAccounts = new byte[0];
+			if (onlineAccountsCount > 0) {
+				ConciseSet onlineAccounts = new ConciseSet();
+				for (int i = 0; i < onlineAccountsCount; ++i)
+					onlineAccounts.add(i * 2);
+
+				encodedOnlineAccounts = BlockTransformer.encodeOnlineAccounts(onlineAccounts);
+			}
+
+			bytes.write(Ints.toByteArray(onlineAccountsCount));
+			bytes.write(Ints.toByteArray(encodedOnlineAccounts.length));
+			bytes.write(encodedOnlineAccounts);
+
+			if (onlineAccountsCount > 0) {
+				// One aggregate signature, plus nonce per online account
+				bytes.write(Ints.toByteArray(1));
+				bytes.write(Longs.toByteArray(NTP.getTime()));
+				bytes.write(randomBytes(random, Transformer.SIGNATURE_LENGTH + onlineAccountsCount * Transformer.INT_LENGTH));
+			} else {
+				bytes.write(Ints.toByteArray(0));
+			}
+
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new TransformationException("Unable to build benchmark block", e);
+		}
+	}
+
+	/** Builds chain of block summaries, as used by chain weight comparisons, minted by random test accounts. */
+	public static List<BlockSummaryData> buildBlockSummaries(Random random, int startHeight, int blockCount) {
+		List<byte[]> privateKeys = getTestPrivateKeys();
+		List<BlockSummaryData> blockSummaries = new ArrayList<>(blockCount);
+
+		for (int i = 0; i < blockCount; ++i) {
+			byte[] minterPublicKey = Crypto.toPublicKey(privateKeys.get(random.nextInt(privateKeys.size())));
+			byte[] signature = randomBytes(random, BlockTransformer.BLOCK_SIGNATURE_LENGTH);
+
+			BlockSummaryData blockSummary = new BlockSummaryData(startHeight + i, signature, minterPublicKey, 1 + random.nextInt(500));
+			blockSummary.setMinterLevel(1 + random.nextInt(10));
+			blockSummaries.add(blockSummary);
+		}
+
+		return blockSummaries;
+	}
+
+}
@@ -0,0 +1,122 @@
+package org.qortal.benchmark;
+
+import com.google.common.primitives.Ints;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.qortal.repository.BlockArchiveReader;
+import org.qortal.utils.Triple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares regular file I/O archive reads against memory-mapped archive reads.
+ * <p>
+ * Uses synthetic archive files, in the same layout as {@code BlockArchiveWriter},
+ * filled with random "block" bytes so that no repository or chain config is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockArchiveReaderBenchmark {
+
+	private static final int BLOCKS_PER_FILE = 1000;
+	private static final int FILE_COUNT = 4;
+	private static final int BLOCK_SIZE = 4 * 1024;
+	private static final int RANGE_LENGTH = 100;
+
+	private static final int END_HEIGHT = BLOCKS_PER_FILE * FILE_COUNT;
+
+	private Path archivePath;
+	private BlockArchiveReader fileReader;
+	private BlockArchiveReader mappedReader;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.archivePath = Files.createTempDirectory("qortal-archive-bench");
+
+		Random random = new Random(0L);
+		for (int startHeight = 1; startHeight <= END_HEIGHT; startHeight += BLOCKS_PER_FILE)
+			writeArchiveFile(random, startHeight, startHeight + BLOCKS_PER_FILE - 1);
+
+		this.fileReader = new BlockArchiveReader(this.archivePath, 0);
+		this.mappedReader = new BlockArchiveReader(this.archivePath, FILE_COUNT);
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(this.archivePath.toFile());
+	}
+
+	private void writeArchiveFile(Random random, int startHeight, int endHeight) throws IOException {
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] blockBytes = new byte[BLOCK_SIZE];
+
+		for (int height = startHeight; height <= endHeight; ++height) {
+			headerBytes.write(Ints.toByteArray(bytes.size()));
+
+			random.nextBytes(blockBytes);
+			bytes.write(Ints.toByteArray(height));
+			bytes.write(Ints.toByteArray(blockBytes.length));
+			bytes.write(blockBytes);
+		}
+
+		Path filePath = this.archivePath.resolve(String.format("%d-%d.dat", startHeight, endHeight));
+		try (FileOutputStream fileOutputStream = new FileOutputStream(filePath.toFile())) {
+			fileOutputStream.write(Ints.toByteArray(2));
+			fileOutputStream.write(Ints.toByteArray(startHeight));
+			fileOutputStream.write(Ints.toByteArray(endHeight));
+			fileOutputStream.write(Ints.toByteArray(endHeight - startHeight + 1));
+			fileOutputStream.write(Ints.toByteArray(headerBytes.size()));
+			headerBytes.writeTo(fileOutputStream);
+			fileOutputStream.write(Ints.toByteArray(bytes.size()));
+			bytes.writeTo(fileOutputStream);
+		}
+	}
+
+	private static int randomHeight(int length) {
+		return 1 + ThreadLocalRandom.current().nextInt(END_HEIGHT - length + 1);
+	}
+
+	@Benchmark
+	public Triple<byte[], Integer, Integer> fileReaderSingleBlock() {
+		return this.fileReader.fetchSerializedBlockBytesForHeight(randomHeight(1));
+	}
+
+	@Benchmark
+	public Triple<byte[], Integer, Integer> mappedReaderSingleBlockCopy() {
+		return this.mappedReader.fetchSerializedBlockBytesForHeight(randomHeight(1));
+	}
+
+	@Benchmark
+	public Triple<ByteBuffer, Integer, Integer> mappedReaderSingleBlockSlice() {
+		return this.mappedReader.fetchSerializedBlockSliceForHeight(randomHeight(1));
+	}
+
+	@Benchmark
+	public void fileReaderRange(Blackhole blackhole) {
+		int startHeight = randomHeight(RANGE_LENGTH);
+		for (int height = startHeight; height < startHeight + RANGE_LENGTH; ++height)
+			blackhole.consume(this.fileReader.fetchSerializedBlockBytesForHeight(height));
+	}
+
+	@Benchmark
+	public void mappedReaderRange(Blackhole blackhole) {
+		int startHeight = randomHeight(RANGE_LENGTH);
+		for (int height = startHeight; height < startHeight + RANGE_LENGTH; ++height)
+			blackhole.consume(this.mappedReader.fetchSerializedBlockSliceForHeight(height));
+	}
+
+}
@@ -0,0 +1,43 @@
+package org.qortal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.qortal.transform.TransformationException;
+import org.qortal.transform.block.BlockTransformation;
+import org.qortal.transform.block.BlockTransformer;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures deserialization of V2 blocks, as received from peers or read from the block archive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockTransformerBenchmark {
+
+	@Param({"0", "100", "1000"})
+	public int transactionCount;
+
+	@Param({"0", "500"})
+	public int onlineAccountsCount;
+
+	private byte[] blockBytes;
+
+	@Setup(Level.Trial)
+	public void setup() throws TransformationException {
+		BenchmarkFixtures.init();
+
+		this.blockBytes = BenchmarkFixtures.buildBlockV2Bytes(new Random(0L), this.transactionCount, this.onlineAccountsCount);
+	}
+
+	@Benchmark
+	public BlockTransformation fromByteBufferV2() throws TransformationException {
+		return BlockTransformer.fromByteBufferV2(ByteBuffer.wrap(this.blockBytes));
+	}
+
+}
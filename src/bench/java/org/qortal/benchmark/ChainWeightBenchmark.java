@@ -0,0 +1,58 @@
+package org.qortal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.qortal.block.Block;
+import org.qortal.data.block.BlockSummaryData;
+import org.qortal.transform.Transformer;
+import org.qortal.transform.block.BlockTransformer;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures chain weight calculation, as used when comparing our chain against peers' chains during sync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChainWeightBenchmark {
+
+	private static final int COMMON_BLOCK_HEIGHT = 1000;
+
+	@Param({"10", "100", "500"})
+	public int blockCount;
+
+	private byte[] commonBlockSignature;
+	private List<BlockSummaryData> blockSummaries;
+	private byte[] idealKey;
+	private byte[] perturbedKey;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkFixtures.init();
+
+		Random random = new Random(0L);
+		this.commonBlockSignature = BenchmarkFixtures.randomBytes(random, BlockTransformer.BLOCK_SIGNATURE_LENGTH);
+		this.blockSummaries = BenchmarkFixtures.buildBlockSummaries(random, COMMON_BLOCK_HEIGHT + 1, this.blockCount);
+		this.idealKey = BenchmarkFixtures.randomBytes(random, Transformer.PUBLIC_KEY_LENGTH);
+		this.perturbedKey = BenchmarkFixtures.randomBytes(random, Transformer.PUBLIC_KEY_LENGTH);
+	}
+
+	/** Repeated calls mostly reuse cached block weights, as when comparing peers sharing a common block. */
+	@Benchmark
+	public BigInteger calcChainWeight() {
+		return Block.calcChainWeight(COMMON_BLOCK_HEIGHT, this.commonBlockSignature, this.blockSummaries, COMMON_BLOCK_HEIGHT + this.blockCount);
+	}
+
+	/** Key distance arithmetic alone, excluding digests, as used when block weight isn't cached. */
+	@Benchmark
+	public BigInteger calcKeyDistance() {
+		return Block.calcKeyDistance(this.idealKey, this.perturbedKey, 5);
+	}
+
+}
@@ -0,0 +1,50 @@
+package org.qortal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.qortal.controller.OnlineAccountsManager;
+import org.qortal.crypto.MemoryPoW;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures online accounts' MemoryPoW verification, with mainnet buffer size and current difficulty.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemoryPoWBenchmark {
+
+	private static final int WORK_BUFFER_LENGTH = OnlineAccountsManager.POW_BUFFER_SIZE;
+	private static final int DIFFICULTY = OnlineAccountsManager.POW_DIFFICULTY_V3;
+
+	private byte[] data;
+	private int nonce;
+	private long[] workBuffer;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkFixtures.init();
+
+		Random random = new Random(0L);
+		this.data = new byte[256];
+		random.nextBytes(this.data);
+
+		this.nonce = MemoryPoW.compute2(this.data, WORK_BUFFER_LENGTH, DIFFICULTY);
+		this.workBuffer = new long[WORK_BUFFER_LENGTH / 8];
+	}
+
+	@Benchmark
+	public boolean verifyAllocatingBuffer() {
+		return MemoryPoW.verify2(this.data, WORK_BUFFER_LENGTH, DIFFICULTY, this.nonce);
+	}
+
+	@Benchmark
+	public boolean verifyReusingBuffer() {
+		return MemoryPoW.verify2(this.data, this.workBuffer, WORK_BUFFER_LENGTH, DIFFICULTY, this.nonce);
+	}
+
+}
@@ -0,0 +1,115 @@
+package org.qortal.benchmark;
+
+import com.google.common.primitives.Ints;
+import org.openjdk.jmh.annotations.*;
+import org.qortal.crypto.Crypto;
+import org.qortal.data.block.BlockSummaryData;
+import org.qortal.data.network.OnlineAccountData;
+import org.qortal.network.message.*;
+import org.qortal.transaction.Transaction.TransactionType;
+import org.qortal.transform.TransformationException;
+import org.qortal.transform.Transformer;
+import org.qortal.transform.block.BlockTransformer;
+import org.qortal.transform.transaction.TransactionTransformer;
+import org.qortal.utils.NTP;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding of complete network message frames, including checksum verification,
+ * and encoding of outgoing messages, for the message types that dominate network traffic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+	public enum MessageKind {
+		BLOCK_V2, TRANSACTION, ONLINE_ACCOUNTS_V3, BLOCK_SUMMARIES_V2
+	}
+
+	private static final int BLOCK_TRANSACTION_COUNT = 100;
+	private static final int ONLINE_ACCOUNTS_COUNT = 500;
+	private static final int BLOCK_SUMMARIES_COUNT = 200;
+
+	@Param({"BLOCK_V2", "TRANSACTION", "ONLINE_ACCOUNTS_V3", "BLOCK_SUMMARIES_V2"})
+	public MessageKind messageKind;
+
+	private Message message;
+	private byte[] frameBytes;
+
+	@Setup(Level.Trial)
+	public void setup() throws TransformationException, MessageException {
+		BenchmarkFixtures.init();
+
+		Random random = new Random(0L);
+		this.message = buildMessage(random, this.messageKind);
+		this.frameBytes = this.message.toBytes();
+	}
+
+	private static Message buildMessage(Random random, MessageKind messageKind) throws TransformationException {
+		switch (messageKind) {
+			case BLOCK_V2: {
+				byte[] blockBytes = BenchmarkFixtures.buildBlockV2Bytes(random, BLOCK_TRANSACTION_COUNT, ONLINE_ACCOUNTS_COUNT);
+
+				// Height, then block
+				ByteBuffer dataBytes = ByteBuffer.allocate(Transformer.INT_LENGTH + blockBytes.length);
+				dataBytes.put(Ints.toByteArray(1000));
+				dataBytes.put(blockBytes);
+
+				return new CachedBlockV2Message(dataBytes.array());
+			}
+
+			case TRANSACTION:
+				return new TransactionMessage(BenchmarkFixtures.randomTransaction(random, TransactionType.PAYMENT));
+
+			case ONLINE_ACCOUNTS_V3: {
+				long timestamp = NTP.getTime();
+				List<OnlineAccountData> onlineAccounts = new ArrayList<>(ONLINE_ACCOUNTS_COUNT);
+
+				for (int i = 0; i < ONLINE_ACCOUNTS_COUNT; ++i) {
+					byte[] signature = BenchmarkFixtures.randomBytes(random, Transformer.SIGNATURE_LENGTH);
+					byte[] publicKey = BenchmarkFixtures.randomBytes(random, Transformer.PUBLIC_KEY_LENGTH);
+					onlineAccounts.add(new OnlineAccountData(timestamp, signature, publicKey, random.nextInt(500000)));
+				}
+
+				return new OnlineAccountsV3Message(onlineAccounts);
+			}
+
+			case BLOCK_SUMMARIES_V2: {
+				List<BlockSummaryData> blockSummaries = new ArrayList<>(BLOCK_SUMMARIES_COUNT);
+				byte[] minterPublicKey = Crypto.toPublicKey(BenchmarkFixtures.getTestPrivateKeys().get(0));
+				byte[] reference = BenchmarkFixtures.randomBytes(random, BlockTransformer.BLOCK_SIGNATURE_LENGTH);
+
+				for (int i = 0; i < BLOCK_SUMMARIES_COUNT; ++i) {
+					byte[] signature = BenchmarkFixtures.randomBytes(random, BlockTransformer.BLOCK_SIGNATURE_LENGTH);
+					blockSummaries.add(new BlockSummaryData(1000 + i, signature, minterPublicKey, 100, NTP.getTime(), 10, reference));
+					reference = signature;
+				}
+
+				return new BlockSummariesV2Message(blockSummaries);
+			}
+
+			default:
+				throw new IllegalArgumentException("Unsupported benchmark message kind " + messageKind.name());
+		}
+	}
+
+	@Benchmark
+	public Message fromByteBuffer() throws MessageException {
+		return Message.fromByteBuffer(ByteBuffer.wrap(this.frameBytes).asReadOnlyBuffer());
+	}
+
+	@Benchmark
+	public byte[] toBytes() throws MessageException {
+		return this.message.toBytes();
+	}
+
+}
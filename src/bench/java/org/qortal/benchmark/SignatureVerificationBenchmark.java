@@ -0,0 +1,74 @@
+package org.qortal.benchmark;
+
+import com.google.common.primitives.Longs;
+import org.openjdk.jmh.annotations.*;
+import org.qortal.crypto.Crypto;
+import org.qortal.crypto.Qortal25519Extras;
+import org.qortal.utils.NTP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures verification of online accounts' aggregate signatures,
+ * both individually (as when importing online accounts) and as a block's aggregate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureVerificationBenchmark {
+
+	@Param({"10", "100"})
+	public int signerCount;
+
+	private byte[] message;
+
+	private byte[] singlePublicKey;
+	private byte[] singleSignature;
+
+	private List<byte[]> publicKeys;
+	private List<byte[]> signatures;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		BenchmarkFixtures.init();
+
+		Random random = new Random(0L);
+		this.message = Longs.toByteArray(NTP.getTime());
+
+		this.publicKeys = new ArrayList<>(this.signerCount);
+		this.signatures = new ArrayList<>(this.signerCount);
+
+		for (int i = 0; i < this.signerCount; ++i) {
+			byte[] privateKey = BenchmarkFixtures.randomBytes(random, 32);
+			this.publicKeys.add(Crypto.toPublicKey(privateKey));
+			this.signatures.add(Qortal25519Extras.signForAggregation(privateKey, this.message));
+		}
+
+		this.singlePublicKey = this.publicKeys.get(0);
+		this.singleSignature = this.signatures.get(0);
+
+		if (!this.verifyAggregate() || !this.verifySingle())
+			throw new IllegalStateException("Benchmark signatures failed to verify");
+	}
+
+	@Benchmark
+	public boolean verifySingle() {
+		return Qortal25519Extras.verifyAggregated(this.singlePublicKey, this.singleSignature, this.message);
+	}
+
+	/** Aggregates public keys and signatures, then verifies, as per block online accounts validation. */
+	@Benchmark
+	public boolean verifyAggregate() {
+		byte[] aggregatePublicKey = Qortal25519Extras.aggregatePublicKeys(this.publicKeys);
+		byte[] aggregateSignature = Qortal25519Extras.aggregateSignatures(this.signatures);
+
+		return Qortal25519Extras.verifyAggregated(aggregatePublicKey, aggregateSignature, this.message);
+	}
+
+}
@@ -0,0 +1,52 @@
+package org.qortal.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.qortal.data.transaction.TransactionData;
+import org.qortal.transaction.Transaction.TransactionType;
+import org.qortal.transform.TransformationException;
+import org.qortal.transform.transaction.TransactionTransformer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serialization and deserialization of common transaction types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionTransformerBenchmark {
+
+	@Param({"PAYMENT", "MESSAGE", "TRANSFER_ASSET"})
+	public TransactionType txType;
+
+	private TransactionData transactionData;
+	private byte[] transactionBytes;
+
+	@Setup(Level.Trial)
+	public void setup() throws TransformationException {
+		BenchmarkFixtures.init();
+
+		this.transactionData = BenchmarkFixtures.randomTransaction(new Random(0L), this.txType);
+		this.transactionBytes = TransactionTransformer.toBytes(this.transactionData);
+	}
+
+	@Benchmark
+	public TransactionData fromBytes() throws TransformationException {
+		return TransactionTransformer.fromBytes(this.transactionBytes);
+	}
+
+	@Benchmark
+	public byte[] toBytes() throws TransformationException {
+		return TransactionTransformer.toBytes(this.transactionData);
+	}
+
+	@Benchmark
+	public byte[] toBytesForSigning() throws TransformationException {
+		return TransactionTransformer.toBytesForSigning(this.transactionData);
+	}
+
+}
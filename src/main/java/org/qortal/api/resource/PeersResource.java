@@ -27,7 +27,6 @@ import org.qortal.network.PeerAddress;
 import org.qortal.repository.DataException;
 import org.qortal.repository.Repository;
 import org.qortal.repository.RepositoryManager;
-import org.qortal.utils.ExecuteProduceConsume;
 import org.qortal.utils.NTP;
 
 import javax.servlet.http.HttpServletRequest;
@@ -122,7 +121,7 @@ public class PeersResource {
 					mediaType = MediaType.APPLICATION_JSON,
 					array = @ArraySchema(
 						schema = @Schema(
-							implementation = ExecuteProduceConsume.StatsSnapshot.class
+							implementation = Network.StatsSnapshot.class
 						)
 					)
 				)
@@ -130,7 +129,7 @@ public class PeersResource {
 		}
 	)
 	@SecurityRequirement(name = "apiKey")
-	public ExecuteProduceConsume.StatsSnapshot getEngineStats(@HeaderParam(Security.API_KEY_HEADER) String apiKey, @QueryParam("newLoggingLevel") Level newLoggingLevel) {
+	public Network.StatsSnapshot getEngineStats(@HeaderParam(Security.API_KEY_HEADER) String apiKey, @QueryParam("newLoggingLevel") Level newLoggingLevel) {
 		Security.checkApiCallAllowed(request);
 
 		if (newLoggingLevel != null) {
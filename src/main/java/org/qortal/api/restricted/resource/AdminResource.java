@@ -33,6 +33,8 @@ import org.qortal.controller.repository.BlockArchiveRebuilder;
 import org.qortal.data.account.MintingAccountData;
 import org.qortal.data.account.RewardShareData;
 import org.qortal.data.system.DbConnectionInfo;
+import org.qortal.data.system.DbMetrics;
+import org.qortal.data.system.ReindexStatus;
 import org.qortal.network.Network;
 import org.qortal.network.Peer;
 import org.qortal.network.PeerAddress;
@@ -40,6 +42,7 @@ import org.qortal.repository.ReindexManager;
 import org.qortal.repository.DataException;
 import org.qortal.repository.Repository;
 import org.qortal.repository.RepositoryManager;
+import org.qortal.repository.hsqldb.HSQLDBMetrics;
 import org.qortal.settings.Settings;
 import org.qortal.data.system.SystemInfo;
 import org.qortal.utils.Base58;
@@ -902,7 +905,7 @@ public class AdminResource {
 	@Path("/repository/reindex")
 	@Operation(
 			summary = "Reindex repository",
-			description = "Rebuilds all transactions and balances from archived blocks. Warning: takes around 1 week, and the core will not function normally during this time. If 'false' is returned, the database may be left in an inconsistent state, requiring another reindex or a bootstrap to correct it.",
+			description = "Rebuilds all transactions and balances from archived blocks. Warning: takes around 1 week, and the core will not function normally during this time. If 'false' is returned, the database may be left in an inconsistent state, requiring another reindex (optionally resuming from the last committed block) or a bootstrap to correct it.",
 			responses = {
 					@ApiResponse(
 							description = "\"true\"",
@@ -912,7 +915,8 @@ public class AdminResource {
 	)
 	@ApiErrors({ApiError.REPOSITORY_ISSUE, ApiError.BLOCKCHAIN_NEEDS_SYNC})
 	@SecurityRequirement(name = "apiKey")
-	public String reindex(@HeaderParam(Security.API_KEY_HEADER) String apiKey) {
+	public String reindex(@HeaderParam(Security.API_KEY_HEADER) String apiKey,
+			@Parameter(description = "Continue from last block committed by an interrupted reindex, instead of starting from genesis") @QueryParam("resume") Boolean resume) {
 		Security.checkApiCallAllowed(request);
 
 		if (Synchronizer.getInstance().isSynchronizing())
@@ -924,7 +928,7 @@ public class AdminResource {
 			blockchainLock.lockInterruptibly();
 
 			try {
-				ReindexManager reindexManager = new ReindexManager();
+				ReindexManager reindexManager = new ReindexManager(resume != null && resume);
 				reindexManager.reindex();
 				return "true";
 
@@ -942,6 +946,24 @@ public class AdminResource {
 		return "false";
 	}
 
+	@GET
+	@Path("/repository/reindex")
+	@Operation(
+			summary = "Get reindex progress",
+			description = "Progress and throughput of current, or most recent, reindex. Returns nothing if no reindex has run since startup.",
+			responses = {
+					@ApiResponse(
+							content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = ReindexStatus.class))
+					)
+			}
+	)
+	@SecurityRequirement(name = "apiKey")
+	public ReindexStatus getReindexStatus(@HeaderParam(Security.API_KEY_HEADER) String apiKey) {
+		Security.checkApiCallAllowed(request);
+
+		return ReindexManager.getStatus();
+	}
+
 	@DELETE
 	@Path("/repository")
 	@Operation(
@@ -1113,4 +1135,32 @@ public class AdminResource {
 			return new ArrayList<>(0);
 		}
 	}
-}
\ No newline at end of file
+
+	@GET
+	@Path("/dbmetrics")
+	@Operation(
+			summary = "Get repository metrics",
+			description = "Per-SQL call counts, latencies and rows, plus open sessions and connection pool waits, since node start or last reset.",
+			responses = {
+					@ApiResponse(
+							content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = DbMetrics.class))
+					)
+			}
+	)
+	@SecurityRequirement(name = "apiKey")
+	public DbMetrics getDbMetrics(@HeaderParam(Security.API_KEY_HEADER) String apiKey,
+			@Parameter(description = "Order of SQL statements, highest first") @QueryParam("orderBy") HSQLDBMetrics.Order orderBy,
+			@Parameter(ref = "limit") @QueryParam("limit") Integer limit,
+			@Parameter(description = "Clear metrics after returning them") @QueryParam("reset") Boolean reset) {
+		Security.checkApiCallAllowed(request);
+
+		HSQLDBMetrics metrics = HSQLDBMetrics.getInstance();
+		DbMetrics dbMetrics = metrics.getMetrics(orderBy != null ? orderBy : HSQLDBMetrics.Order.TOTAL_TIME,
+				limit != null && limit > 0 ? limit : 50);
+
+		if (reset != null && reset)
+			metrics.reset();
+
+		return dbMetrics;
+	}
+}
@@ -2,6 +2,7 @@ package org.qortal.api.websocket;
 
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.WebSocketException;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 import org.eclipse.jetty.websocket.api.annotations.*;
 import org.eclipse.jetty.websocket.servlet.WebSocketServletFactory;
 import org.qortal.controller.ChatNotifier;
@@ -10,10 +11,12 @@ import org.qortal.data.transaction.ChatTransactionData;
 import org.qortal.repository.DataException;
 import org.qortal.repository.Repository;
 import org.qortal.repository.RepositoryManager;
+import org.qortal.utils.ByteArray;
 
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.qortal.data.chat.ChatMessage.Encoding;
 
@@ -21,6 +24,19 @@ import static org.qortal.data.chat.ChatMessage.Encoding;
 @SuppressWarnings("serial")
 public class ChatMessagesWebSocket extends ApiWebSocket {
 
+	/** Maximum number of outgoing messages queued for a session before we consider it too slow and close it */
+	private static final int MAX_PENDING_SENDS = 64;
+	/** Number of recently notified CHAT messages to keep serialized, so they're shared by all recipient sessions */
+	private static final int MAX_RECENT_CHATS = 100;
+
+	/** Serialized JSON of recently notified CHAT messages, keyed by signature, then encoding */
+	private static final Map<ByteArray, Map<Encoding, String>> RECENT_CHAT_JSON = new LinkedHashMap<>(MAX_RECENT_CHATS + 1, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ByteArray, Map<Encoding, String>> eldest) {
+			return this.size() > MAX_RECENT_CHATS;
+		}
+	};
+
 	@Override
 	public void configure(WebSocketServletFactory factory) {
 		factory.register(ChatMessagesWebSocket.class);
@@ -31,6 +47,7 @@ public class ChatMessagesWebSocket extends ApiWebSocket {
 	public void onWebSocketConnect(Session session) {
 		Map<String, List<String>> queryParams = session.getUpgradeRequest().getParameterMap();
 		Encoding encoding = getTargetEncoding(session);
+		AtomicInteger pendingSends = new AtomicInteger();
 
 		List<String> limitList = queryParams.get("limit");
 		Integer limit = (limitList != null && limitList.size() == 1) ? Integer.parseInt(limitList.get(0)) : null;
@@ -58,15 +75,15 @@ public class ChatMessagesWebSocket extends ApiWebSocket {
 						encoding,
 						limit, offset, reverse);
 
-				sendMessages(session, chatMessages);
+				sendMessages(session, chatMessages, pendingSends);
 			} catch (DataException e) {
 				// Not a good start
 				session.close(4001, "Couldn't fetch initial messages from repository");
 				return;
 			}
 
-			ChatNotifier.Listener listener = chatTransactionData -> onNotify(session, chatTransactionData, txGroupId);
-			ChatNotifier.getInstance().register(session, listener);
+			ChatNotifier.Listener listener = chatTransactionData -> onNotify(session, chatTransactionData, txGroupId, encoding, pendingSends);
+			ChatNotifier.getInstance().registerForGroup(session, txGroupId, listener);
 
 			return;
 		}
@@ -90,15 +107,16 @@ public class ChatMessagesWebSocket extends ApiWebSocket {
 					encoding,
 					limit, offset, reverse);
 
-			sendMessages(session, chatMessages);
+			sendMessages(session, chatMessages, pendingSends);
 		} catch (DataException e) {
 			// Not a good start
 			session.close(4001, "Couldn't fetch initial messages from repository");
 			return;
 		}
 
-		ChatNotifier.Listener listener = chatTransactionData -> onNotify(session, chatTransactionData, involvingAddresses);
-		ChatNotifier.getInstance().register(session, listener);
+		// Only need to be routed messages involving one of the addresses, as we filter for both in onNotify()
+		ChatNotifier.Listener listener = chatTransactionData -> onNotify(session, chatTransactionData, involvingAddresses, encoding, pendingSends);
+		ChatNotifier.getInstance().registerForAddress(session, involvingAddresses.get(0), listener);
 	}
 
 	@OnWebSocketClose
@@ -119,7 +137,7 @@ public class ChatMessagesWebSocket extends ApiWebSocket {
 		}
 	}
 
-	private void onNotify(Session session, ChatTransactionData chatTransactionData, int txGroupId) {
+	private void onNotify(Session session, ChatTransactionData chatTransactionData, int txGroupId, Encoding encoding, AtomicInteger pendingSends) {
 		if (chatTransactionData == null)
 			// There has been a group-membership change, but we're not interested
 			return;
@@ -128,10 +146,10 @@ public class ChatMessagesWebSocket extends ApiWebSocket {
 		if (chatTransactionData.getRecipient() != null || chatTransactionData.getTxGroupId() != txGroupId)
 			return;
 
-		sendChat(session, chatTransactionData);
+		sendChat(session, chatTransactionData, encoding, pendingSends);
 	}
 
-	private void onNotify(Session session, ChatTransactionData chatTransactionData, List<String> involvingAddresses) {
+	private void onNotify(Session session, ChatTransactionData chatTransactionData, List<String> involvingAddresses, Encoding encoding, AtomicInteger pendingSends) {
 		if (chatTransactionData == null)
 			return;
 
@@ -145,32 +163,102 @@ public class ChatMessagesWebSocket extends ApiWebSocket {
 		if (!transactionAddresses.containsAll(involvingAddresses))
 			return;
 
-		sendChat(session, chatTransactionData);
+		sendChat(session, chatTransactionData, encoding, pendingSends);
 	}
 
-	private void sendMessages(Session session, List<ChatMessage> chatMessages) {
+	private void sendMessages(Session session, List<ChatMessage> chatMessages, AtomicInteger pendingSends) {
 		StringWriter stringWriter = new StringWriter();
 
 		try {
 			marshall(stringWriter, chatMessages);
-
-			session.getRemote().sendStringByFuture(stringWriter.toString());
-		} catch (IOException | WebSocketException e) {
+		} catch (IOException e) {
 			// No output this time?
+			return;
 		}
+
+		sendAsync(session, stringWriter.toString(), pendingSends);
 	}
 
-	private void sendChat(Session session, ChatTransactionData chatTransactionData) {
-		// Convert ChatTransactionData to ChatMessage
-		ChatMessage chatMessage;
-		try (final Repository repository = RepositoryManager.getRepository()) {
-			chatMessage = repository.getChatRepository().toChatMessage(chatTransactionData, getTargetEncoding(session));
-		} catch (DataException e) {
+	private void sendChat(Session session, ChatTransactionData chatTransactionData, Encoding encoding, AtomicInteger pendingSends) {
+		String output = getChatJson(chatTransactionData, encoding);
+		if (output == null)
 			// No output this time?
 			return;
+
+		sendAsync(session, output, pendingSends);
+	}
+
+	/**
+	 * Returns CHAT transaction as JSON list containing a single ChatMessage, in <tt>encoding</tt>.
+	 * <p>
+	 * Conversion and serialization is only done once per transaction and encoding,
+	 * then shared by every session notified about the same transaction.
+	 *
+	 * @return JSON, or null if conversion failed
+	 */
+	private static String getChatJson(ChatTransactionData chatTransactionData, Encoding encoding) {
+		Map<Encoding, String> jsonByEncoding;
+		synchronized (RECENT_CHAT_JSON) {
+			jsonByEncoding = RECENT_CHAT_JSON.computeIfAbsent(ByteArray.wrap(chatTransactionData.getSignature()), k -> new EnumMap<>(Encoding.class));
+		}
+
+		// Other threads notifying about the same transaction wait for us, rather than repeat the work
+		synchronized (jsonByEncoding) {
+			String json = jsonByEncoding.get(encoding);
+			if (json != null)
+				return json;
+
+			// Convert ChatTransactionData to ChatMessage
+			ChatMessage chatMessage;
+			try (final Repository repository = RepositoryManager.getRepository()) {
+				chatMessage = repository.getChatRepository().toChatMessage(chatTransactionData, encoding);
+			} catch (DataException e) {
+				return null;
+			}
+
+			StringWriter stringWriter = new StringWriter();
+			try {
+				marshall(stringWriter, Collections.singletonList(chatMessage));
+			} catch (IOException e) {
+				return null;
+			}
+
+			json = stringWriter.toString();
+			jsonByEncoding.put(encoding, json);
+			return json;
+		}
+	}
+
+	/**
+	 * Sends <tt>output</tt> without waiting for remote end.
+	 * <p>
+	 * If too many sends are still outstanding, the remote end isn't keeping up,
+	 * so we close the session rather than let messages pile up in memory.
+	 * Clients can reconnect to fetch any messages they missed.
+	 */
+	private void sendAsync(Session session, String output, AtomicInteger pendingSends) {
+		if (pendingSends.incrementAndGet() > MAX_PENDING_SENDS) {
+			pendingSends.decrementAndGet();
+			session.close(4002, "client too slow");
+			return;
 		}
 
-		sendMessages(session, Collections.singletonList(chatMessage));
+		try {
+			session.getRemote().sendString(output, new WriteCallback() {
+				@Override
+				public void writeFailed(Throwable x) {
+					pendingSends.decrementAndGet();
+				}
+
+				@Override
+				public void writeSuccess() {
+					pendingSends.decrementAndGet();
+				}
+			});
+		} catch (WebSocketException e) {
+			// Remote end probably closed
+			pendingSends.decrementAndGet();
+		}
 	}
 
 	private Encoding getTargetEncoding(Session session) {
@@ -123,7 +123,7 @@ public class ArbitraryDataCombiner {
             throw new DataException("Unable to extract previous hash from patch metadata");
         }
 
-        ArbitraryDataDigest digest = new ArbitraryDataDigest(this.pathBefore);
+        ArbitraryDataDigest digest = new ArbitraryDataDigest(this.pathBefore, this.metadata.getHashVersion());
         digest.compute();
         boolean valid = digest.isHashValid(previousHash);
         if (!valid) {
@@ -149,7 +149,7 @@ public class ArbitraryDataCombiner {
             throw new DataException("Unable to extract current hash from patch metadata");
         }
 
-        ArbitraryDataDigest digest = new ArbitraryDataDigest(this.finalPath);
+        ArbitraryDataDigest digest = new ArbitraryDataDigest(this.finalPath, this.metadata.getHashVersion());
         digest.compute();
         boolean valid = digest.isHashValid(currentHash);
         if (!valid) {
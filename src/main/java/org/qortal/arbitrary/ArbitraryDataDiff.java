@@ -71,6 +71,7 @@ public class ArbitraryDataDiff {
     private final byte[] previousSignature;
     private byte[] previousHash;
     private byte[] currentHash;
+    private final int hashVersion;
     private Path diffPath;
     private String identifier;
 
@@ -85,6 +86,7 @@ public class ArbitraryDataDiff {
         this.pathBefore = pathBefore;
         this.pathAfter = pathAfter;
         this.previousSignature = previousSignature;
+        this.hashVersion = Settings.getInstance().getArbitraryDataPatchDigestVersion();
 
         this.addedPaths = new ArrayList<>();
         this.modifiedPaths = new ArrayList<>();
@@ -134,7 +136,7 @@ public class ArbitraryDataDiff {
     }
 
     private void hashPreviousState() throws IOException, DataException {
-        ArbitraryDataDigest digest = new ArbitraryDataDigest(this.pathBefore);
+        ArbitraryDataDigest digest = new ArbitraryDataDigest(this.pathBefore, this.hashVersion);
         digest.compute();
         this.previousHash = digest.getHash();
     }
@@ -294,7 +296,7 @@ public class ArbitraryDataDiff {
     }
 
     private void hashCurrentState() throws IOException, DataException {
-        ArbitraryDataDigest digest = new ArbitraryDataDigest(this.pathAfter);
+        ArbitraryDataDigest digest = new ArbitraryDataDigest(this.pathAfter, this.hashVersion);
         digest.compute();
         this.currentHash = digest.getHash();
     }
@@ -307,6 +309,7 @@ public class ArbitraryDataDiff {
         metadata.setPreviousSignature(this.previousSignature);
         metadata.setPreviousHash(this.previousHash);
         metadata.setCurrentHash(this.currentHash);
+        metadata.setHashVersion(this.hashVersion);
         metadata.write();
         this.metadata = metadata;
     }
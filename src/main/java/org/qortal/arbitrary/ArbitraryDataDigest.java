@@ -1,37 +1,89 @@
 package org.qortal.arbitrary;
 
+import com.google.common.primitives.Ints;
 import org.qortal.repository.DataException;
+import org.qortal.settings.Settings;
 import org.qortal.utils.Base58;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Computes a digest of all user files within a directory, excluding the .qortal metadata folder.
+ * <p>
+ * Version 1 feeds every relative path, followed by that file's contents, into a single SHA-256,
+ * in sorted path order. This is the format recorded in existing patches.
+ * <p>
+ * Version 2 hashes each file's contents independently, in parallel, then hashes the sorted list of
+ * (path length, path, file hash) entries. Paths always use '/' as separator so the digest is
+ * identical on all platforms.
+ * <p>
+ * Both versions stream file contents through a small reusable buffer, per thread,
+ * so memory use does not depend on file sizes.
+ */
 public class ArbitraryDataDigest {
 
+    public static final int V1 = 1;
+    public static final int V2 = 2;
+
+    private static final int READ_BUFFER_SIZE = 256 * 1024; // bytes
+
+    /** Per-thread read buffer, shared by all digests computed on that thread */
+    private static final ThreadLocal<ByteBuffer> READ_BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_BUFFER_SIZE));
+
     private final Path path;
+    private final int version;
     private byte[] hash;
 
     public ArbitraryDataDigest(Path path) {
+        this(path, V1);
+    }
+
+    public ArbitraryDataDigest(Path path, int version) {
         this.path = path;
+        this.version = version;
     }
 
     public void compute() throws IOException, DataException {
-        List<Path> allPaths = Files.walk(path).filter(Files::isRegularFile).sorted().collect(Collectors.toList());
-        Path basePathAbsolute = this.path.toAbsolutePath();
+        switch (this.version) {
+            case V1:
+                this.hash = this.computeV1();
+                break;
 
-        MessageDigest sha256;
-        try {
-            sha256 = MessageDigest.getInstance("SHA-256");
-        } catch (NoSuchAlgorithmException e) {
-            throw new DataException("SHA-256 hashing algorithm unavailable");
+            case V2:
+                this.hash = this.computeV2();
+                break;
+
+            default:
+                throw new DataException(String.format("Unsupported digest version %d", this.version));
         }
+    }
+
+    private byte[] computeV1() throws IOException, DataException {
+        List<Path> allPaths;
+        try (Stream<Path> pathStream = Files.walk(this.path)) {
+            allPaths = pathStream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        Path basePathAbsolute = this.path.toAbsolutePath();
+
+        MessageDigest sha256 = newSha256();
 
         for (Path path : allPaths) {
             // We need to work with paths relative to the base path, to ensure the same hash
@@ -40,7 +92,7 @@ public class ArbitraryDataDigest {
 
             // Exclude Qortal folder since it can be different each time
             // We only care about hashing the actual user data
-            if (relativePath.startsWith(".qortal/")) {
+            if (isQortalPath(relativePath)) {
                 continue;
             }
 
@@ -49,10 +101,122 @@ public class ArbitraryDataDigest {
             sha256.update(filePathBytes);
 
             // Hash contents
-            byte[] fileContent = Files.readAllBytes(path);
-            sha256.update(fileContent);
+            updateWithFile(sha256, path);
+        }
+        return sha256.digest();
+    }
+
+    private byte[] computeV2() throws IOException, DataException {
+        Path basePathAbsolute = this.path.toAbsolutePath();
+
+        List<FileEntry> entries = new ArrayList<>();
+        try (Stream<Path> pathStream = Files.walk(this.path)) {
+            for (Path path : (Iterable<Path>) pathStream.filter(Files::isRegularFile)::iterator) {
+                Path relativePath = basePathAbsolute.relativize(path.toAbsolutePath());
+                if (isQortalPath(relativePath)) {
+                    continue;
+                }
+
+                entries.add(new FileEntry(path, relativePath));
+            }
+        }
+        entries.sort(Comparator.comparing(entry -> entry.relativePathString));
+
+        // Hash file contents in parallel
+        try {
+            getHashingPool().submit(() -> entries.parallelStream().forEach(FileEntry::computeHash)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataException("Interrupted while computing digest");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException)
+                throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+
+            throw new DataException("Unable to compute digest", cause);
+        }
+
+        // Combine in sorted path order
+        MessageDigest sha256 = newSha256();
+        for (FileEntry entry : entries) {
+            byte[] filePathBytes = entry.relativePathString.getBytes(StandardCharsets.UTF_8);
+            sha256.update(Ints.toByteArray(filePathBytes.length));
+            sha256.update(filePathBytes);
+            sha256.update(entry.hash);
+        }
+        return sha256.digest();
+    }
+
+    private static boolean isQortalPath(Path relativePath) {
+        return relativePath.startsWith(".qortal/");
+    }
+
+    private static MessageDigest newSha256() throws DataException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new DataException("SHA-256 hashing algorithm unavailable");
+        }
+    }
+
+    /** Feeds file contents into digest, using this thread's reusable read buffer. */
+    private static void updateWithFile(MessageDigest digest, Path path) throws IOException {
+        ByteBuffer buffer = READ_BUFFERS.get();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
         }
-        this.hash = sha256.digest();
+    }
+
+    private static class FileEntry {
+        private final Path path;
+        private final String relativePathString;
+        private byte[] hash;
+
+        private FileEntry(Path path, Path relativePath) {
+            this.path = path;
+
+            // Always use '/' so that digest is platform independent
+            List<String> names = new ArrayList<>();
+            relativePath.forEach(name -> names.add(name.toString()));
+            this.relativePathString = String.join("/", names);
+        }
+
+        private void computeHash() {
+            try {
+                MessageDigest sha256 = newSha256();
+                updateWithFile(sha256, this.path);
+                this.hash = sha256.digest();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (DataException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static class HashingPoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(Settings.getInstance().getArbitraryDataDigestThreadCount(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Arbitrary Data Digest " + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    private static ForkJoinPool getHashingPool() {
+        return HashingPoolHolder.POOL;
+    }
+
+    public int getVersion() {
+        return this.version;
     }
 
     public boolean isHashValid(byte[] hash) {
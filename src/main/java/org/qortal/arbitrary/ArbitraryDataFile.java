@@ -11,10 +11,12 @@ import org.qortal.utils.Base58;
 import org.qortal.utils.FilesystemUtils;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 import static java.util.Arrays.stream;
@@ -52,10 +54,50 @@ public class ArbitraryDataFile {
 
     private static final Logger LOGGER = LogManager.getLogger(ArbitraryDataFile.class);
 
+    /** Digest of a complete file, along with the file's size and modification time when it was digested */
+    private static class VerifiedDigest {
+        private final byte[] digest;
+        private final Path path;
+        private final long size;
+        private final FileTime lastModifiedTime;
+
+        private VerifiedDigest(byte[] digest, Path path, long size, FileTime lastModifiedTime) {
+            this.digest = digest;
+            this.path = path;
+            this.size = size;
+            this.lastModifiedTime = lastModifiedTime;
+        }
+
+        /** Returns VerifiedDigest for file at path, or null if file's attributes can't be read. */
+        private static VerifiedDigest of(byte[] digest, Path path) {
+            try {
+                return new VerifiedDigest(digest, path, Files.size(path), Files.getLastModifiedTime(path));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        /** Returns whether file at path is still the file that was digested, as far as its size and modification time tell. */
+        private boolean isCurrent(Path path) {
+            if (!this.path.equals(path)) {
+                return false;
+            }
+
+            try {
+                return Files.size(path) == this.size && Files.getLastModifiedTime(path).equals(this.lastModifiedTime);
+            } catch (IOException e) {
+                // e.g. file no longer exists
+                return false;
+            }
+        }
+    }
+
     public static final long MAX_FILE_SIZE = 500 * 1024 * 1024; // 500MiB
     protected static final int MAX_CHUNK_SIZE = 1 * 1024 * 1024; // 1MiB
     public static final int CHUNK_SIZE = 512 * 1024; // 0.5MiB
     public static int SHORT_DIGEST_LENGTH = 8;
+    private static final int JOIN_BUFFER_SIZE = 256 * 1024; // 256KiB
+    private static final String JOIN_FILE_SUFFIX = ".join";
 
     protected Path filePath;
     protected byte[] fileContent;
@@ -65,6 +107,8 @@ public class ArbitraryDataFile {
     protected byte[] signature;
     private ArrayList<ArbitraryDataFileChunk> chunks;
     private byte[] secret;
+    /** Digest of complete file, computed while joining chunks, to save re-reading file */
+    private VerifiedDigest verifiedDigest;
 
     // Metadata
     private byte[] metadataHash;
@@ -116,7 +160,7 @@ public class ArbitraryDataFile {
         File outputFile = outputFilePath.toFile();
         try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
             outputStream.write(fileContent);
-            this.filePath = outputFilePath;
+            this.setFilePath(outputFilePath);
         } catch (IOException e) {
             this.delete();
             throw new DataException(String.format("Unable to write data with hash %s: %s", this.hash58, e.getMessage()));
@@ -211,6 +255,9 @@ public class ArbitraryDataFile {
         sourcePath = sourcePath.toAbsolutePath();
         Path destPath = outputFilePath.toAbsolutePath();
         try {
+            // File at our path is about to be replaced
+            this.verifiedDigest = null;
+
             return Files.copy(sourcePath, destPath, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
             throw new DataException(String.format("Unable to copy file %s to data directory %s", sourcePath, destPath));
@@ -315,7 +362,6 @@ public class ArbitraryDataFile {
         try {
 
             File file = this.getFile();
-            byte[] buffer = new byte[chunkSize];
             this.chunks = new ArrayList<>();
 
             if (file != null) {
@@ -324,23 +370,23 @@ public class ArbitraryDataFile {
                     return 0;
                 }
 
-                try (FileInputStream fileInputStream = new FileInputStream(file);
-                     BufferedInputStream bis = new BufferedInputStream(fileInputStream)) {
-
-                    int numberOfBytes;
-                    while ((numberOfBytes = bis.read(buffer)) > 0) {
-                        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-                            out.write(buffer, 0, numberOfBytes);
-                            out.flush();
-
-                            ArbitraryDataFileChunk chunk = new ArbitraryDataFileChunk(out.toByteArray(), this.signature);
-                            chunk.save();
-                            ValidationResult validationResult = chunk.isValid();
-                            if (validationResult == ValidationResult.OK) {
-                                this.chunks.add(chunk);
-                            } else {
-                                throw new DataException(String.format("Chunk %s is invalid", chunk));
-                            }
+                // Each chunk is read once into this reused, off-heap buffer, hashed,
+                // then written from the same buffer straight to its final path
+                ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize);
+                MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+
+                try (FileChannel inputChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    while (readFully(inputChannel, buffer) > 0) {
+                        sha256.update(buffer.duplicate());
+
+                        ArbitraryDataFileChunk chunk = ArbitraryDataFileChunk.fromHash(sha256.digest(), this.signature);
+                        chunk.writeToOutputPath(buffer);
+
+                        ValidationResult validationResult = chunk.isValid();
+                        if (validationResult == ValidationResult.OK) {
+                            this.chunks.add(chunk);
+                        } else {
+                            throw new DataException(String.format("Chunk %s is invalid", chunk));
                         }
                     }
                 }
@@ -352,46 +398,96 @@ public class ArbitraryDataFile {
         return this.chunks.size();
     }
 
+    /**
+     * Clears buffer then fills it from channel until full or end of channel is reached.
+     * Buffer is left flipped, ready for reading.
+     *
+     * @return number of bytes read into buffer
+     */
+    private static int readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+
+        while (buffer.hasRemaining())
+            if (channel.read(buffer) == -1)
+                break;
+
+        buffer.flip();
+        return buffer.remaining();
+    }
+
+    /** Writes buffer's remaining bytes to this file's output path in the data directory, creating directories as needed. */
+    protected void writeToOutputPath(ByteBuffer buffer) throws DataException, IOException {
+        Path outputFilePath = getOutputFilePath(this.hash58, this.signature, true);
+
+        try (FileChannel outputChannel = FileChannel.open(outputFilePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining())
+                outputChannel.write(buffer);
+        }
+
+        this.setFilePath(outputFilePath);
+    }
+
     public boolean join() {
+        // Any previous digest won't apply to newly joined file
+        this.verifiedDigest = null;
+
         // Ensure we have chunks
-        if (this.chunks != null && !this.chunks.isEmpty()) {
+        if (this.chunks != null && !this.chunks.isEmpty() && this.hash58 != null) {
 
-            // Create temporary path for joined file
-            // Use the user-specified temp dir, as it is deterministic, and is more likely to be located on reusable storage hardware
-            String baseDir = Settings.getInstance().getTempDataPath();
-            Path tempDir = Paths.get(baseDir, "join");
+            // Join straight into the data directory, via a temporary sibling file so that
+            // a partially joined (or corrupt) file is never visible at the final path
+            Path outputPath;
             try {
-                Files.createDirectories(tempDir);
-            } catch (IOException e) {
+                outputPath = getOutputFilePath(this.hash58, this.signature, true);
+            } catch (DataException e) {
                 return false;
             }
+            Path joinPath = outputPath.resolveSibling(outputPath.getFileName().toString() + JOIN_FILE_SUFFIX);
 
-            // Join the chunks
-            Path outputPath = Paths.get(tempDir.toString(), this.chunks.get(0).digest58());
-            File outputFile = new File(outputPath.toString());
-            try (BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile))) {
-                for (ArbitraryDataFileChunk chunk : this.chunks) {
-                    File sourceFile = chunk.filePath.toFile();
-                    BufferedInputStream in = new BufferedInputStream(new FileInputStream(sourceFile));
-                    byte[] buffer = new byte[2048];
-                    int inSize;
-                    while ((inSize = in.read(buffer)) != -1) {
-                        out.write(buffer, 0, inSize);
+            try {
+                MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+                ByteBuffer buffer = ByteBuffer.allocateDirect(JOIN_BUFFER_SIZE);
+
+                // Join the chunks, hashing as we go
+                try (FileChannel outputChannel = FileChannel.open(joinPath,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    for (ArbitraryDataFileChunk chunk : this.chunks) {
+                        try (FileChannel inputChannel = FileChannel.open(chunk.filePath, StandardOpenOption.READ)) {
+                            while (readFully(inputChannel, buffer) > 0) {
+                                sha256.update(buffer.duplicate());
+
+                                while (buffer.hasRemaining())
+                                    outputChannel.write(buffer);
+                            }
+                        }
                     }
-                    in.close();
                 }
-                out.close();
 
-                // Copy temporary file to data directory
-                this.filePath = this.copyToDataDirectory(outputPath, this.signature);
-                if (FilesystemUtils.pathInsideDataOrTempPath(outputPath)) {
-                    Files.delete(outputPath);
+                // Ensure the complete hash matches the joined chunks
+                byte[] digest = sha256.digest();
+                if (!Arrays.equals(digest, Base58.decode(this.hash58))) {
+                    LOGGER.info("Joined chunks' hash doesn't match expected hash {}", this.hash58);
+                    Files.deleteIfExists(joinPath);
+                    return false;
                 }
 
+                try {
+                    Files.move(joinPath, outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(joinPath, outputPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                this.filePath = outputPath;
+                this.verifiedDigest = VerifiedDigest.of(digest, outputPath);
+
                 return true;
-            } catch (FileNotFoundException e) {
-                return false;
-            } catch (IOException | DataException e) {
+            } catch (IOException | NoSuchAlgorithmException e) {
+                try {
+                    Files.deleteIfExists(joinPath);
+                } catch (IOException de) {
+                    // Not much we can do
+                }
                 return false;
             }
         }
@@ -399,6 +495,8 @@ public class ArbitraryDataFile {
     }
 
     public boolean delete() {
+        this.verifiedDigest = null;
+
         // Delete the complete file
         // ... but only if it's inside the Qortal data or temp directory
         if (FilesystemUtils.pathInsideDataOrTempPath(this.filePath)) {
@@ -781,7 +879,24 @@ public class ArbitraryDataFile {
         return this.filePath;
     }
 
+    private void setFilePath(Path filePath) {
+        this.filePath = filePath;
+
+        // File has been (re)written, so any digest computed while joining no longer applies
+        this.verifiedDigest = null;
+    }
+
     public byte[] digest() {
+        // Already hashed while joining, and file unchanged since?
+        VerifiedDigest verifiedDigest = this.verifiedDigest;
+        if (verifiedDigest != null) {
+            if (verifiedDigest.isCurrent(this.filePath)) {
+                return Arrays.copyOf(verifiedDigest.digest, verifiedDigest.digest.length);
+            }
+
+            this.verifiedDigest = null;
+        }
+
         File file = this.getFile();
         if (file != null && file.exists()) {
             try {
@@ -6,6 +6,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.qortal.arbitrary.ArbitraryDataDiff.ModifiedPath;
+import org.qortal.arbitrary.ArbitraryDataDigest;
 import org.qortal.repository.DataException;
 import org.qortal.utils.Base58;
 
@@ -26,6 +27,8 @@ public class ArbitraryDataMetadataPatch extends ArbitraryDataQortalMetadata {
     private byte[] previousSignature;
     private byte[] previousHash;
     private byte[] currentHash;
+    /** Digest version used for prevHash/curHash. Only included in JSON if not version 1, for compatibility. */
+    private int hashVersion = ArbitraryDataDigest.V1;
 
     public ArbitraryDataMetadataPatch(Path filePath) {
         super(filePath);
@@ -65,6 +68,9 @@ public class ArbitraryDataMetadataPatch extends ArbitraryDataQortalMetadata {
                 this.currentHash = Base58.decode(curHash);
             }
         }
+        if (patch.has("hashVer")) {
+            this.hashVersion = patch.getInt("hashVer");
+        }
         if (patch.has("added")) {
             JSONArray added = (JSONArray) patch.get("added");
             if (added != null) {
@@ -111,6 +117,9 @@ public class ArbitraryDataMetadataPatch extends ArbitraryDataQortalMetadata {
         patch.put("prevSig", Base58.encode(this.previousSignature));
         patch.put("prevHash", Base58.encode(this.previousHash));
         patch.put("curHash", Base58.encode(this.currentHash));
+        if (this.hashVersion != ArbitraryDataDigest.V1) {
+            patch.put("hashVer", this.hashVersion);
+        }
         patch.put("added", new JSONArray(this.addedPaths));
         patch.put("removed", new JSONArray(this.removedPaths));
 
@@ -175,6 +184,14 @@ public class ArbitraryDataMetadataPatch extends ArbitraryDataQortalMetadata {
         return this.currentHash;
     }
 
+    public void setHashVersion(int hashVersion) {
+        this.hashVersion = hashVersion;
+    }
+
+    public int getHashVersion() {
+        return this.hashVersion;
+    }
+
 
     public int getFileDifferencesCount() {
         return this.addedPaths.size() + this.modifiedPaths.size() + this.removedPaths.size();
@@ -11,12 +11,28 @@ import org.qortal.repository.DataException;
 import org.qortal.repository.Repository;
 import org.qortal.transaction.AtTransaction;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 public class AT {
 
+	/** Maximum number of ATs whose latest state data is cached */
+	private static final int MAX_STATE_CACHE_ENTRIES = 2000;
+
+	/**
+	 * Latest known state data for each AT, by AT address.
+	 * <p>
+	 * Entries are only used if their state hash matches AT's latest state hash in repository,
+	 * so entries from blocks that are later orphaned, or never committed, are simply ignored.
+	 */
+	private static final Map<String, ATStateData> STATE_CACHE = Collections.synchronizedMap(new LinkedHashMap<>(MAX_STATE_CACHE_ENTRIES + 1, 0.75F, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean removeEldestEntry(Map.Entry<String, ATStateData> eldest) {
+			return size() > MAX_STATE_CACHE_ENTRIES;
+		}
+	});
+
 	// Properties
 	private Repository repository;
 	private ATData atData;
@@ -84,6 +100,8 @@ public class AT {
 	public void undeploy() throws DataException {
 		// AT states deleted implicitly by repository
 		this.repository.getATRepository().delete(this.atData.getATAddress());
+
+		STATE_CACHE.remove(this.atData.getATAddress());
 	}
 
 	/**
@@ -110,7 +128,7 @@ public class AT {
 			return Collections.emptyList();
 
 		// Fetch latest ATStateData for this AT
-		ATStateData latestAtStateData = this.repository.getATRepository().getLatestATState(atAddress);
+		ATStateData latestAtStateData = this.getLatestATState(atAddress);
 
 		// There should be at least initial deployment AT state data
 		if (latestAtStateData == null)
@@ -150,6 +168,7 @@ public class AT {
 
 		// Save latest AT state data
 		this.repository.getATRepository().save(this.atStateData);
+		STATE_CACHE.put(this.atData.getATAddress(), this.atStateData);
 
 		// Update AT info in repository too
 		this.atData.setIsSleeping(state.isSleeping());
@@ -179,6 +198,8 @@ public class AT {
 		if (previousStateData == null)
 			throw new DataException("Can't find previous AT state data for " + atAddress);
 
+		STATE_CACHE.put(atAddress, previousStateData);
+
 		// Extract minimal/flags-only AT machine state using AT state data
 		MachineState state = MachineState.flagsOnlyfromBytes(previousStateData.getStateData());
 
@@ -196,4 +217,27 @@ public class AT {
 		this.repository.getATRepository().save(this.atData);
 	}
 
+	/**
+	 * Returns latest ATStateData for AT, reusing cached state data if unchanged.
+	 * <p>
+	 * Only state data and state hash are guaranteed to be current.
+	 */
+	private ATStateData getLatestATState(String atAddress) throws DataException {
+		ATRepository atRepository = this.repository.getATRepository();
+
+		byte[] latestStateHash = atRepository.getLatestATStateHash(atAddress);
+		if (latestStateHash == null)
+			return null;
+
+		ATStateData cachedAtStateData = STATE_CACHE.get(atAddress);
+		if (cachedAtStateData != null && Arrays.equals(cachedAtStateData.getStateHash(), latestStateHash))
+			return cachedAtStateData;
+
+		ATStateData latestAtStateData = atRepository.getLatestATState(atAddress);
+		if (latestAtStateData != null)
+			STATE_CACHE.put(atAddress, latestAtStateData);
+
+		return latestAtStateData;
+	}
+
 }
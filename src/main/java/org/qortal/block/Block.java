@@ -15,6 +15,7 @@ import org.qortal.at.AT;
 import org.qortal.block.BlockChain.AccountLevelShareBin;
 import org.qortal.block.BlockChain.BlockTimingByHeight;
 import org.qortal.controller.OnlineAccountsManager;
+import org.qortal.controller.hsqldb.BalanceDeltaJournal;
 import org.qortal.crypto.Crypto;
 import org.qortal.crypto.Qortal25519Extras;
 import org.qortal.data.account.*;
@@ -39,6 +40,7 @@ import org.qortal.transform.block.BlockTransformer;
 import org.qortal.transform.transaction.TransactionTransformer;
 import org.qortal.utils.Amounts;
 import org.qortal.utils.Base58;
+import org.qortal.utils.ByteArray;
 import org.qortal.utils.NTP;
 
 import java.io.ByteArrayOutputStream;
@@ -150,16 +152,22 @@ public class Block {
 
 		final BlockChain blockChain = BlockChain.getInstance();
 
-		ExpandedAccount(Repository repository, RewardShareData rewardShareData) throws DataException {
+		/**
+		 * Expands reward-share using already-fetched account data and minting group membership.
+		 *
+		 * @param accountsByAddress account data for reward-share's minter and recipient, as fetched for whole block
+		 * @param isMinterMember whether minter is a member of the minting group
+		 */
+		ExpandedAccount(Repository repository, RewardShareData rewardShareData, Map<String, AccountData> accountsByAddress, boolean isMinterMember) {
 			this.rewardShareData = rewardShareData;
 			this.sharePercent = this.rewardShareData.getSharePercent();
 
 			this.mintingAccount = new Account(repository, this.rewardShareData.getMinter());
-			this.mintingAccountData = repository.getAccountRepository().getAccount(this.mintingAccount.getAddress());
+			this.mintingAccountData = accountsByAddress.get(this.mintingAccount.getAddress());
 			this.isMinterFounder = Account.isFounder(mintingAccountData.getFlags());
 
 			this.isRecipientAlsoMinter = this.rewardShareData.getRecipient().equals(this.mintingAccount.getAddress());
-			this.isMinterMember = repository.getGroupRepository().memberExists(BlockChain.getInstance().getMintingGroupId(), this.mintingAccount.getAddress());
+			this.isMinterMember = isMinterMember;
 
 			if (this.isRecipientAlsoMinter) {
 				// Self-share: minter is also recipient
@@ -168,21 +176,24 @@ public class Block {
 			} else {
 				// Recipient differs from minter
 				this.recipientAccount = new Account(repository, this.rewardShareData.getRecipient());
-				this.recipientAccountData = repository.getAccountRepository().getAccount(this.recipientAccount.getAddress());
+				this.recipientAccountData = accountsByAddress.get(this.recipientAccount.getAddress());
 			}
 		}
 
 		/**
 		 * Get Effective Minting Level
+		 * <p>
+		 * Uses this block's copy of minter's account data, which includes any level bumps made during Block.process(),
+		 * instead of querying the repository again. Same logic as {@link Account#getEffectiveMintingLevel()}.
 		 *
-		 * @return the effective minting level, if a data exception is thrown, it catches the exception and returns a zero
+		 * @return the effective minting level
 		 */
 		public int getEffectiveMintingLevel() {
-			try {
-				return this.mintingAccount.getEffectiveMintingLevel();
-			} catch (DataException e) {
-				return 0;
-			}
+			// Founders are assigned a different effective minting level, as long as they have no penalty
+			if (this.isMinterFounder && this.mintingAccountData.getBlocksMintedPenalty() == 0)
+				return BlockChain.getInstance().getFounderEffectiveMintingLevel();
+
+			return this.mintingAccountData.getLevel();
 		}
 
 		public Account getMintingAccount() {
@@ -262,11 +273,21 @@ public class Block {
 	/** Always use getExpandedAccounts() to access this, as it's lazy-instantiated. */
 	private List<ExpandedAccount> cachedExpandedAccounts = null;
 
+	/** QORT balance changes from reward distribution during process(), for balance recorder. */
+	private Map<String, Long> processedRewardBalanceChanges = null;
+
 	/** Opportunistic cache of this block's valid online reward-shares. Only created by call to isValid(). */
 	private List<RewardShareData> cachedOnlineRewardShares = null;
 
+	/** Result of signature checks by preValidate(), or null if not pre-validated. */
+	private Boolean areSignaturesPreValidated = null;
+
+	/** Public keys of online reward-shares whose nonces and aggregate signature passed preValidate(), or null if not checked. */
+	private List<byte[]> preValidatedOnlineAccountPublicKeys = null;
+
 	// Other useful constants
 
+	private static final int KEY_DISTANCE_LENGTH = Transformer.PUBLIC_KEY_LENGTH;
 	public static final BigInteger MAX_DISTANCE;
 	static {
 		byte[] maxValue = new byte[Transformer.PUBLIC_KEY_LENGTH];
@@ -276,6 +297,47 @@ public class Block {
 
 	public static final ConciseSet EMPTY_ONLINE_ACCOUNTS = new ConciseSet();
 
+	private static final int MAX_BLOCK_WEIGHT_CACHE_ENTRIES = 20_000;
+
+	/** Weight of a block, as used by calcChainWeight(), along with the summary fields it was calculated from. */
+	private static class CachedBlockWeight {
+		private final int parentHeight;
+		private final byte[] minterPublicKey;
+		private final Integer minterLevel;
+		private final Integer onlineAccountsCount;
+		private final BigInteger weight;
+
+		private CachedBlockWeight(int parentHeight, BlockSummaryData blockSummaryData, BigInteger weight) {
+			this.parentHeight = parentHeight;
+			this.minterPublicKey = blockSummaryData.getMinterPublicKey();
+			this.minterLevel = blockSummaryData.getMinterLevel();
+			this.onlineAccountsCount = blockSummaryData.getOnlineAccountsCount();
+			this.weight = weight;
+		}
+
+		/** Peers' block summaries aren't verified against block signature, so cached weight is only used if all inputs match. */
+		private boolean matches(int parentHeight, BlockSummaryData blockSummaryData) {
+			return this.parentHeight == parentHeight
+					&& Arrays.equals(this.minterPublicKey, blockSummaryData.getMinterPublicKey())
+					&& Objects.equals(this.minterLevel, blockSummaryData.getMinterLevel())
+					&& Objects.equals(this.onlineAccountsCount, blockSummaryData.getOnlineAccountsCount());
+		}
+	}
+
+	/**
+	 * Block weights, keyed by parent block signature and block signature.
+	 * <p>
+	 * Chains compared during sync share most of their blocks, so this saves recalculating the same weights for every peer.
+	 */
+	private static final Map<ByteArray, CachedBlockWeight> BLOCK_WEIGHT_CACHE = Collections.synchronizedMap(new LinkedHashMap<>(MAX_BLOCK_WEIGHT_CACHE_ENTRIES + 1, 0.75F, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean removeEldestEntry(Map.Entry<ByteArray, CachedBlockWeight> eldest) {
+			return size() > MAX_BLOCK_WEIGHT_CACHE_ENTRIES;
+		}
+	});
+
 	// Constructors
 
 	/**
@@ -750,10 +812,24 @@ public class Block {
 				throw new DataException("Online accounts invalid?");
 		}
 
+		// Fetch all minters' and recipients' account data, and minting group membership, in bulk
+		Set<String> addresses = new HashSet<>();
+		for (RewardShareData rewardShare : this.cachedOnlineRewardShares) {
+			addresses.add(rewardShare.getMinter());
+			addresses.add(rewardShare.getRecipient());
+		}
+
+		Map<String, AccountData> accountsByAddress = repository.getAccountRepository().getAccounts(addresses).stream()
+				.collect(Collectors.toMap(AccountData::getAddress, accountData -> accountData));
+
+		List<String> minters = this.cachedOnlineRewardShares.stream().map(RewardShareData::getMinter).collect(Collectors.toList());
+		Set<String> mintingGroupMembers = new HashSet<>(repository.getGroupRepository().getMemberAddresses(BlockChain.getInstance().getMintingGroupId(), minters));
+
 		List<ExpandedAccount> expandedAccounts = new ArrayList<>();
 
 		for (RewardShareData rewardShare : this.cachedOnlineRewardShares) {
-			expandedAccounts.add(new ExpandedAccount(repository, rewardShare));
+			boolean isMinterMember = mintingGroupMembers.contains(rewardShare.getMinter());
+			expandedAccounts.add(new ExpandedAccount(repository, rewardShare, accountsByAddress, isMinterMember));
 		}
 
 		this.cachedExpandedAccounts = expandedAccounts;
@@ -888,6 +964,28 @@ public class Block {
 		calcTransactionsSignature();
 	}
 
+	/**
+	 * Appends already-validated transaction to block, without re-sorting or recalculating transactions signature.
+	 * <p>
+	 * Used by {@link BlockAssembler}, which re-sorts and re-signs once all transactions are added.
+	 */
+	/* package */ void appendTransaction(Transaction transaction) {
+		this.transactions.add(transaction);
+
+		// Update transaction count
+		this.blockData.setTransactionCount(this.blockData.getTransactionCount() + 1);
+
+		// Update totalFees
+		this.blockData.setTotalFees(this.blockData.getTotalFees() + transaction.getTransactionData().getFee());
+	}
+
+	/** Re-sorts transactions and recalculates transactions signature after calls to {@link #appendTransaction(Transaction)}. */
+	/* package */ void finishAppendingTransactions() {
+		this.transactions.sort(Transaction.getComparator());
+
+		calcTransactionsSignature();
+	}
+
 	/**
 	 * Recalculate block's minter signature.
 	 * <p>
@@ -944,7 +1042,65 @@ public class Block {
 		byte[] idealKey = calcIdealMinterPublicKey(parentHeight, parentBlockSignature);
 		byte[] perturbedKey = calcHeightPerturbedPublicKey(parentHeight + 1, publicKey);
 
-		return MAX_DISTANCE.subtract(new BigInteger(idealKey).subtract(new BigInteger(perturbedKey)).abs()).divide(BigInteger.valueOf(accountLevel));
+		return calcKeyDistance(idealKey, perturbedKey, accountLevel);
+	}
+
+	/**
+	 * Returns <tt>(MAX_DISTANCE - |idealKey - perturbedKey|) / accountLevel</tt>, with keys as signed big-endian integers.
+	 * <p>
+	 * Keys are digests, so always 256 bits, which allows working in 32-bit words instead of via intermediate BigIntegers.
+	 */
+	public static BigInteger calcKeyDistance(byte[] idealKey, byte[] perturbedKey, int accountLevel) {
+		if (accountLevel <= 0 || idealKey.length != KEY_DISTANCE_LENGTH || perturbedKey.length != KEY_DISTANCE_LENGTH)
+			return MAX_DISTANCE.subtract(new BigInteger(idealKey).subtract(new BigInteger(perturbedKey)).abs()).divide(BigInteger.valueOf(accountLevel));
+
+		final int wordCount = KEY_DISTANCE_LENGTH / 4;
+
+		// Unsigned subtraction, giving low 256 bits of difference
+		long[] words = new long[wordCount];
+		long borrow = 0;
+		for (int i = wordCount - 1; i >= 0; --i) {
+			long difference = readUnsignedWord(idealKey, i) - readUnsignedWord(perturbedKey, i) - borrow;
+			borrow = difference < 0 ? 1 : 0;
+			words[i] = difference & 0xFFFFFFFFL;
+		}
+
+		// Signed difference is low bits + (perturbedSign - idealSign - borrow) * 2^256, which can only be zero or negative
+		long highBits = (perturbedKey[0] < 0 ? 1 : 0) - (idealKey[0] < 0 ? 1 : 0) - borrow;
+
+		// MAX_DISTANCE is all ones, so MAX_DISTANCE - |difference| is either ~low bits, or low bits - 1 if difference is negative
+		if (highBits < 0) {
+			for (int i = wordCount - 1; i >= 0; --i) {
+				boolean wasZero = words[i] == 0;
+				words[i] = (words[i] - 1) & 0xFFFFFFFFL;
+				if (!wasZero)
+					break;
+			}
+		} else {
+			for (int i = 0; i < wordCount; ++i)
+				words[i] = ~words[i] & 0xFFFFFFFFL;
+		}
+
+		// Long division by account level, a word at a time
+		byte[] quotient = new byte[KEY_DISTANCE_LENGTH];
+		long remainder = 0;
+		for (int i = 0; i < wordCount; ++i) {
+			long dividend = (remainder << 32) | words[i];
+			long word = dividend / accountLevel;
+			remainder = dividend % accountLevel;
+
+			quotient[i * 4] = (byte) (word >>> 24);
+			quotient[i * 4 + 1] = (byte) (word >>> 16);
+			quotient[i * 4 + 2] = (byte) (word >>> 8);
+			quotient[i * 4 + 3] = (byte) word;
+		}
+
+		return new BigInteger(1, quotient);
+	}
+
+	private static long readUnsignedWord(byte[] bytes, int wordIndex) {
+		int offset = wordIndex * 4;
+		return ((bytes[offset] & 0xFFL) << 24) | ((bytes[offset + 1] & 0xFFL) << 16) | ((bytes[offset + 2] & 0xFFL) << 8) | (bytes[offset + 3] & 0xFFL);
 	}
 
 	public static BigInteger calcBlockWeight(int parentHeight, byte[] parentBlockSignature, BlockSummaryData blockSummaryData) {
@@ -952,6 +1108,23 @@ public class Block {
 		return BigInteger.valueOf(blockSummaryData.getOnlineAccountsCount()).shiftLeft(ACCOUNTS_COUNT_SHIFT).add(keyDistance);
 	}
 
+	/** Returns block weight, as calcBlockWeight(), but reusing previously calculated weight if possible. */
+	private static BigInteger getCachedBlockWeight(int parentHeight, byte[] parentBlockSignature, BlockSummaryData blockSummaryData) {
+		if (parentBlockSignature == null || blockSummaryData.getSignature() == null)
+			return calcBlockWeight(parentHeight, parentBlockSignature, blockSummaryData);
+
+		ByteArray key = ByteArray.wrap(Bytes.concat(parentBlockSignature, blockSummaryData.getSignature()));
+
+		CachedBlockWeight cachedBlockWeight = BLOCK_WEIGHT_CACHE.get(key);
+		if (cachedBlockWeight != null && cachedBlockWeight.matches(parentHeight, blockSummaryData))
+			return cachedBlockWeight.weight;
+
+		BigInteger blockWeight = calcBlockWeight(parentHeight, parentBlockSignature, blockSummaryData);
+		BLOCK_WEIGHT_CACHE.put(key, new CachedBlockWeight(parentHeight, blockSummaryData, blockWeight));
+
+		return blockWeight;
+	}
+
 	public static BigInteger calcChainWeight(int commonBlockHeight, byte[] commonBlockSignature, List<BlockSummaryData> blockSummaries, int maxHeight) {
 		BigInteger cumulativeWeight = BigInteger.ZERO;
 		int parentHeight = commonBlockHeight;
@@ -971,7 +1144,7 @@ public class Block {
 			if (isLogging)
 				stringBuilder.append(formatter.format(cumulativeWeight)).append(" + ");
 
-			BigInteger blockWeight = calcBlockWeight(parentHeight, parentBlockSignature, blockSummaryData);
+			BigInteger blockWeight = getCachedBlockWeight(parentHeight, parentBlockSignature, blockSummaryData);
 			if (isLogging)
 				stringBuilder.append("(height: ")
 						.append(parentHeight + 1)
@@ -1054,6 +1227,9 @@ public class Block {
 	 * @return true if both minter and transaction signatures are valid, false otherwise
 	 */
 	public boolean isSignatureValid() {
+		if (this.areSignaturesPreValidated != null)
+			return this.areSignaturesPreValidated && this.areTransactionSignaturesValid();
+
 		try {
 			// Check minter's signature first
 			if (!this.minter.verify(this.blockData.getMinterSignature(), BlockTransformer.getBytesForMinterSignature(this.blockData)))
@@ -1069,6 +1245,120 @@ public class Block {
 		return true;
 	}
 
+	/** Runs transactions' signature checks, which reuse creator signature results from preValidate(), but may still need repository. */
+	private boolean areTransactionSignaturesValid() {
+		try {
+			for (Transaction transaction : this.getTransactions()) {
+				// We don't include AT-Transactions as AT-state/output is dealt with elsewhere in the block code
+				if (transaction.getTransactionData().getType() == TransactionType.AT)
+					continue;
+
+				if (!transaction.isSignatureValid())
+					return false;
+			}
+		} catch (DataException e) {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Performs stateless checks ahead of {@link #isSignatureValid()} and {@link #isValid()}, caching the results in this block.
+	 * <p>
+	 * Checks minter and transactions signatures, transactions' creator signatures,
+	 * then online accounts' nonces and aggregate signature.
+	 * <p>
+	 * Doesn't use this block's repository, so it can be called on a worker thread
+	 * without holding the blockchain lock, as long as nothing else is using this block at the same time.
+	 * Online reward-shares are looked up using a separate repository session,
+	 * so those results are only reused if <tt>isValid()</tt> finds the same reward-shares.
+	 *
+	 * @return false if block's signatures are invalid, so block can be rejected without further validation
+	 */
+	public boolean preValidate() {
+		this.areSignaturesPreValidated = this.preValidateSignatures();
+
+		if (this.areSignaturesPreValidated)
+			this.preValidateOnlineAccounts();
+
+		return this.areSignaturesPreValidated;
+	}
+
+	private boolean preValidateSignatures() {
+		try {
+			// Check minter's signature first
+			if (!this.minter.verify(this.blockData.getMinterSignature(), BlockTransformer.getBytesForMinterSignature(this.blockData)))
+				return false;
+
+			List<Transaction> transactions = this.getTransactions();
+
+			for (Transaction transaction : transactions) {
+				TransactionType type = transaction.getTransactionData().getType();
+
+				// AT-Transactions aren't signed, and genesis transactions are checked differently
+				if (type == TransactionType.AT || type == TransactionType.GENESIS)
+					continue;
+
+				if (!transaction.preVerifySignature())
+					return false;
+			}
+
+			// Check transactions signature
+			byte[] transactionsSignatureBytes = BlockTransformer.getBytesForTransactionsSignature(this.blockData.getMinterSignature(), transactions);
+			return this.minter.verify(this.blockData.getTransactionsSignature(), transactionsSignatureBytes);
+		} catch (TransformationException | DataException e) {
+			return false;
+		}
+	}
+
+	private void preValidateOnlineAccounts() {
+		// Only blocks with online accounts signatures that would actually be checked
+		if (this.blockData.getHeight() == null || this.blockData.getHeight() == 1
+				|| !this.isOnlineAccountsBlock() || this.isBatchRewardDistributionBlock())
+			return;
+
+		Long now = NTP.getTime();
+		if (now == null || this.blockData.getTimestamp() < now - BlockChain.getInstance().getOnlineAccountSignaturesMinLifetime())
+			return;
+
+		ConciseSet accountIndexes = BlockTransformer.decodeOnlineAccounts(this.blockData.getEncodedOnlineAccounts());
+		if (accountIndexes.size() != this.blockData.getOnlineAccountsCount())
+			// isValid() will reject
+			return;
+
+		List<RewardShareData> onlineRewardShares;
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			onlineRewardShares = repository.getAccountRepository().getRewardSharesByIndexes(accountIndexes.toArray());
+		} catch (DataException e) {
+			return;
+		}
+
+		if (onlineRewardShares == null)
+			return;
+
+		if (this.areOnlineAccountSignaturesValid(onlineRewardShares) != ValidationResult.OK)
+			// Leave isValid() to decide, as reward-shares might have changed by then
+			return;
+
+		this.preValidatedOnlineAccountPublicKeys = onlineRewardShares.stream()
+				.map(RewardShareData::getRewardSharePublicKey)
+				.collect(Collectors.toList());
+	}
+
+	/** Returns whether online reward-shares match those already checked by preValidate(). */
+	private boolean areOnlineAccountsPreValidated(List<RewardShareData> onlineRewardShares) {
+		List<byte[]> publicKeys = this.preValidatedOnlineAccountPublicKeys;
+		if (publicKeys == null || publicKeys.size() != onlineRewardShares.size())
+			return false;
+
+		for (int i = 0; i < publicKeys.size(); ++i)
+			if (!Arrays.equals(publicKeys.get(i), onlineRewardShares.get(i).getRewardSharePublicKey()))
+				return false;
+
+		return true;
+	}
+
 	/**
 	 * Returns whether Block's timestamp is valid.
 	 * <p>
@@ -1173,7 +1463,7 @@ public class Block {
 					.collect(Collectors.toList());
 
 			for (ExpandedAccount account : expandedAccounts) {
-				if (account.getMintingAccount().getEffectiveMintingLevel() == 0)
+				if (account.getEffectiveMintingLevel() == 0)
 					return ValidationResult.ONLINE_ACCOUNTS_INVALID;
 
 				if (this.getBlockData().getHeight() >= BlockChain.getInstance().getFixBatchRewardHeight()) {
@@ -1195,6 +1485,24 @@ public class Block {
 		if (this.blockData.getTimestamp() < signatureRequirementThreshold)
 			return ValidationResult.OK;
 
+		// Nonces and aggregate signature might have been checked already, on another thread
+		if (!this.areOnlineAccountsPreValidated(onlineRewardShares)) {
+			ValidationResult signaturesResult = this.areOnlineAccountSignaturesValid(onlineRewardShares);
+			if (signaturesResult != ValidationResult.OK)
+				return signaturesResult;
+		}
+
+		// All online accounts valid, so save our list of online accounts for potential later use
+		this.cachedOnlineRewardShares = onlineRewardShares;
+
+		// Remember that the accounts are valid, to speed up subsequent checks
+		this.onlineAccountsAlreadyValid = true;
+
+		return ValidationResult.OK;
+	}
+
+	/** Checks online accounts' nonces and aggregate signature. Doesn't use repository. */
+	private ValidationResult areOnlineAccountSignaturesValid(List<RewardShareData> onlineRewardShares) {
 		if (this.blockData.getOnlineAccountsSignatures() == null || this.blockData.getOnlineAccountsSignatures().length == 0)
 			return ValidationResult.ONLINE_ACCOUNT_SIGNATURES_MISSING;
 
@@ -1231,10 +1539,9 @@ public class Block {
 		// Remove those already validated & cached by online accounts manager - no need to re-validate them
 		OnlineAccountsManager.getInstance().removeKnown(onlineAccounts, onlineTimestamp);
 
-		// Validate the rest
-		for (OnlineAccountData onlineAccount : onlineAccounts)
-			if (!OnlineAccountsManager.getInstance().verifyMemoryPoW(onlineAccount, null))
-				return ValidationResult.ONLINE_ACCOUNT_NONCE_INCORRECT;
+		// Validate the rest, in parallel
+		if (!OnlineAccountsManager.getInstance().verifyMemoryPoW(onlineAccounts))
+			return ValidationResult.ONLINE_ACCOUNT_NONCE_INCORRECT;
 
 		// Cache the valid online accounts as they will likely be needed for the next block
 		OnlineAccountsManager.getInstance().addBlocksOnlineAccounts(onlineAccounts, onlineTimestamp);
@@ -1255,12 +1562,6 @@ public class Block {
 		if (!Qortal25519Extras.verifyAggregated(aggregatePublicKey, aggregateSignature, onlineTimestampBytes))
 			return ValidationResult.ONLINE_ACCOUNT_SIGNATURE_INCORRECT;
 
-		// All online accounts valid, so save our list of online accounts for potential later use
-		this.cachedOnlineRewardShares = onlineRewardShares;
-
-		// Remember that the accounts are valid, to speed up subsequent checks
-		this.onlineAccountsAlreadyValid = true;
-
 		return ValidationResult.OK;
 	}
 
@@ -1358,69 +1659,9 @@ public class Block {
 			}
 
 			for (Transaction transaction : this.getTransactions()) {
-				TransactionData transactionData = transaction.getTransactionData();
-
-				// Skip AT transactions as they are covered by prior call to Block.areAtsValid()
-				if (transactionData.getType() == TransactionType.AT)
-					continue;
-
-				// GenesisTransactions are not allowed (GenesisBlock overrides isValid() to allow them)
-				if (transactionData.getType() == TransactionType.GENESIS || transactionData.getType() == TransactionType.ACCOUNT_FLAGS)
-					return ValidationResult.GENESIS_TRANSACTIONS_INVALID;
-
-				// Check timestamp and deadline
-				if (transactionData.getTimestamp() > this.blockData.getTimestamp()
-						|| transaction.getDeadline() <= this.blockData.getTimestamp())
-					return ValidationResult.TRANSACTION_TIMESTAMP_INVALID;
-
-				// After feature trigger, check that this transaction is confirmable
-				if (transactionData.getTimestamp() >= BlockChain.getInstance().getMemPoWTransactionUpdatesTimestamp()) {
-					if (!transaction.isConfirmable()) {
-						return ValidationResult.TRANSACTION_NOT_CONFIRMABLE;
-					}
-					if (!transaction.isConfirmableAtHeight(this.blockData.getHeight())) {
-						return ValidationResult.TRANSACTION_NOT_CONFIRMABLE;
-					}
-				}
-
-				// Check transaction isn't already included in a block
-				if (this.repository.getTransactionRepository().isConfirmed(transactionData.getSignature()))
-					return ValidationResult.TRANSACTION_ALREADY_PROCESSED;
-
-				// Check transaction has correct reference, etc.
-				if (!transaction.hasValidReference()) {
-					LOGGER.debug(String.format("Error during transaction validation, tx %s: INVALID_REFERENCE", Base58.encode(transactionData.getSignature())));
-					return ValidationResult.TRANSACTION_INVALID;
-				}
-
-				// Check transaction is even valid
-				// NOTE: in Gen1 there was an extra block height passed to DeployATTransaction.isValid
-				Transaction.ValidationResult validationResult = transaction.isValid();
-				if (validationResult != Transaction.ValidationResult.OK) {
-					LOGGER.debug(String.format("Error during transaction validation, tx %s: %s", Base58.encode(transactionData.getSignature()), validationResult.name()));
-					return ValidationResult.TRANSACTION_INVALID;
-				}
-
-				// Check transaction can even be processed
-				validationResult = transaction.isProcessable();
-				if (validationResult != Transaction.ValidationResult.OK) {
-					LOGGER.debug(String.format("Error during transaction validation, tx %s: %s", Base58.encode(transactionData.getSignature()), validationResult.name()));
-					return ValidationResult.TRANSACTION_INVALID;
-				}
-
-				// Process transaction to make sure other transactions validate properly
-				try {
-					// Only process transactions that don't require group-approval.
-					// Group-approval transactions are dealt with later.
-					if (transactionData.getApprovalStatus() == ApprovalStatus.NOT_REQUIRED)
-						transaction.process();
-
-					// Regardless of group-approval, update relevant info for creator (e.g. lastReference)
-					transaction.processReferencesAndFees();
-				} catch (Exception e) {
-					LOGGER.error(String.format("Exception during transaction validation, tx %s", Base58.encode(transactionData.getSignature())), e);
-					return ValidationResult.TRANSACTION_PROCESSING_FAILED;
-				}
+				ValidationResult transactionResult = this.isTransactionValid(transaction);
+				if (transactionResult != ValidationResult.OK)
+					return transactionResult;
 			}
 		} catch (DataException e) {
 			LOGGER.info("DataException during transaction validation", e);
@@ -1439,6 +1680,79 @@ public class Block {
 		return ValidationResult.OK;
 	}
 
+	/**
+	 * Returns whether transaction is valid in this block, then test-processes it so later transactions validate properly.
+	 * <p>
+	 * Caller is responsible for rolling back repository changes, and for providing an {@link AccountRefCache}.
+	 */
+	/* package */ ValidationResult isTransactionValid(Transaction transaction) throws DataException {
+		TransactionData transactionData = transaction.getTransactionData();
+
+		// Skip AT transactions as they are covered by prior call to Block.areAtsValid()
+		if (transactionData.getType() == TransactionType.AT)
+			return ValidationResult.OK;
+
+		// GenesisTransactions are not allowed (GenesisBlock overrides isValid() to allow them)
+		if (transactionData.getType() == TransactionType.GENESIS || transactionData.getType() == TransactionType.ACCOUNT_FLAGS)
+			return ValidationResult.GENESIS_TRANSACTIONS_INVALID;
+
+		// Check timestamp and deadline
+		if (transactionData.getTimestamp() > this.blockData.getTimestamp()
+				|| transaction.getDeadline() <= this.blockData.getTimestamp())
+			return ValidationResult.TRANSACTION_TIMESTAMP_INVALID;
+
+		// After feature trigger, check that this transaction is confirmable
+		if (transactionData.getTimestamp() >= BlockChain.getInstance().getMemPoWTransactionUpdatesTimestamp()) {
+			if (!transaction.isConfirmable()) {
+				return ValidationResult.TRANSACTION_NOT_CONFIRMABLE;
+			}
+			if (!transaction.isConfirmableAtHeight(this.blockData.getHeight())) {
+				return ValidationResult.TRANSACTION_NOT_CONFIRMABLE;
+			}
+		}
+
+		// Check transaction isn't already included in a block
+		if (this.repository.getTransactionRepository().isConfirmed(transactionData.getSignature()))
+			return ValidationResult.TRANSACTION_ALREADY_PROCESSED;
+
+		// Check transaction has correct reference, etc.
+		if (!transaction.hasValidReference()) {
+			LOGGER.debug(String.format("Error during transaction validation, tx %s: INVALID_REFERENCE", Base58.encode(transactionData.getSignature())));
+			return ValidationResult.TRANSACTION_INVALID;
+		}
+
+		// Check transaction is even valid
+		// NOTE: in Gen1 there was an extra block height passed to DeployATTransaction.isValid
+		Transaction.ValidationResult validationResult = transaction.isValid();
+		if (validationResult != Transaction.ValidationResult.OK) {
+			LOGGER.debug(String.format("Error during transaction validation, tx %s: %s", Base58.encode(transactionData.getSignature()), validationResult.name()));
+			return ValidationResult.TRANSACTION_INVALID;
+		}
+
+		// Check transaction can even be processed
+		validationResult = transaction.isProcessable();
+		if (validationResult != Transaction.ValidationResult.OK) {
+			LOGGER.debug(String.format("Error during transaction validation, tx %s: %s", Base58.encode(transactionData.getSignature()), validationResult.name()));
+			return ValidationResult.TRANSACTION_INVALID;
+		}
+
+		// Process transaction to make sure other transactions validate properly
+		try {
+			// Only process transactions that don't require group-approval.
+			// Group-approval transactions are dealt with later.
+			if (transactionData.getApprovalStatus() == ApprovalStatus.NOT_REQUIRED)
+				transaction.process();
+
+			// Regardless of group-approval, update relevant info for creator (e.g. lastReference)
+			transaction.processReferencesAndFees();
+		} catch (Exception e) {
+			LOGGER.error(String.format("Exception during transaction validation, tx %s", Base58.encode(transactionData.getSignature())), e);
+			return ValidationResult.TRANSACTION_PROCESSING_FAILED;
+		}
+
+		return ValidationResult.OK;
+	}
+
 	/**
 	 * Returns whether blocks' ATs are valid.
 	 * <p>
@@ -1537,8 +1851,10 @@ public class Block {
 		this.ourAtStates = new ArrayList<>();
 		this.ourAtFees = 0;
 
-		// Find all executable ATs, ordered by earliest creation date first
-		List<ATData> executableATs = this.repository.getATRepository().getAllExecutableATs();
+		// Find executable ATs due to run, ordered by earliest creation date first.
+		// ATs compare sleep-until height with blockchain height, so we do too.
+		int blockchainHeight = this.repository.getBlockRepository().getBlockchainHeight();
+		List<ATData> executableATs = this.repository.getATRepository().getExecutableATs(blockchainHeight);
 
 		// Run each AT, appends AT-Transactions and corresponding AT states, to our lists
 		for (ATData atData : executableATs) {
@@ -1605,6 +1921,8 @@ public class Block {
 		this.blockData.setHeight(blockchainHeight + 1);
 
 		LOGGER.trace(() -> String.format("Processing block %d", this.blockData.getHeight()));
+
+		this.processedRewardBalanceChanges = null;
 		LOGGER.trace(() -> String.format("Online Reward Shares in process %s", this.cachedOnlineRewardShares));
 
 		if (this.blockData.getHeight() > 1) {
@@ -1666,6 +1984,11 @@ public class Block {
 		// Also update "transaction participants" in repository for "transactions involving X" support in API
 		linkTransactionsToBlock();
 
+		// Balance recorder journals reward changes, once committed
+		if (BalanceDeltaJournal.getInstance().isRecording())
+			this.repository.getAccountRepository().recordBlockBalanceChanges(this.blockData.getHeight(),
+					this.processedRewardBalanceChanges != null ? this.processedRewardBalanceChanges : Collections.emptyMap());
+
 		postBlockTidy();
 
 		// Log some debugging info relating to the block weight calculation
@@ -1959,6 +2282,10 @@ public class Block {
 			}
 		}
 
+		// Balance recorder rolls back journalled changes, once committed
+		if (BalanceDeltaJournal.getInstance().isRecording())
+			this.repository.getAccountRepository().recordBlockOrphaned(this.blockData.getHeight());
+
 		// Delete block from blockchain
 		this.repository.getBlockRepository().delete(this.blockData);
 		this.blockData.setHeight(null);
@@ -2294,6 +2621,9 @@ public class Block {
 				.collect(Collectors.toList());
 		LOGGER.trace("Account Balance Deltas: {}", accountBalanceDeltas);
 		this.repository.getAccountRepository().modifyAssetBalances(accountBalanceDeltas);
+
+		if (isProcessingNotOrphaning)
+			this.processedRewardBalanceChanges = balanceChanges;
 	}
 
 	protected List<BlockRewardCandidate> determineBlockRewardCandidates(boolean isProcessingNotOrphaning) throws DataException {
@@ -0,0 +1,162 @@
+package org.qortal.block;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.qortal.account.AccountRefCache;
+import org.qortal.block.Block.ValidationResult;
+import org.qortal.data.transaction.TransactionData;
+import org.qortal.repository.DataException;
+import org.qortal.repository.Repository;
+import org.qortal.transaction.Transaction;
+import org.qortal.transform.TransformationException;
+import org.qortal.transform.Transformer;
+import org.qortal.transform.block.BlockTransformer;
+import org.qortal.transform.transaction.TransactionTransformer;
+import org.qortal.utils.Base58;
+import org.qortal.utils.ByteArray;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Adds transactions to a block being minted, validating each new transaction only against
+ * repository state left by test-processing the transactions already added.
+ * <p>
+ * Block-level checks (parent, timestamp, minter, online accounts, ATs) happen once, on construction.
+ * Each candidate transaction is then validated and test-processed under its own savepoint,
+ * so an invalid transaction is rolled back on its own, without revalidating earlier transactions.
+ * This avoids calling {@link Block#isValid()} after every addition, which is O(n&sup2;) in transactions.
+ * <p>
+ * Closing rolls back all test-processing, then re-sorts the block's transactions and recalculates
+ * its transactions signature. Block's minter signature must already be set, e.g. via {@link Block#sign()}.
+ * <p>
+ * Callers should still call {@link Block#isValid()} on the finished block before processing it.
+ */
+public class BlockAssembler implements AutoCloseable {
+
+	private static final Logger LOGGER = LogManager.getLogger(BlockAssembler.class);
+
+	private final Block block;
+	private final Repository repository;
+	private ValidationResult blockResult;
+	private final Set<ByteArray> signatures = new HashSet<>();
+
+	private AccountRefCache accountRefCache;
+	private int savepointCount = 0;
+	private int blockLength;
+
+	public BlockAssembler(Block block) throws DataException {
+		this.block = block;
+		this.repository = block.repository;
+
+		// Block-level checks, also runs ATs which adds their transactions to block
+		this.blockResult = block.isValid();
+		if (this.blockResult != ValidationResult.OK)
+			return;
+
+		try {
+			this.blockLength = BlockTransformer.getDataLength(block);
+		} catch (TransformationException e) {
+			throw new DataException("Unable to determine serialized block length", e);
+		}
+
+		this.accountRefCache = new AccountRefCache(this.repository);
+		this.repository.setSavepoint();
+		++this.savepointCount;
+
+		// Test-process any existing transactions so new transactions are validated against resulting state
+		try {
+			for (Transaction transaction : block.getTransactions()) {
+				this.signatures.add(ByteArray.wrap(transaction.getTransactionData().getSignature()));
+
+				ValidationResult transactionResult = block.isTransactionValid(transaction);
+				if (transactionResult != ValidationResult.OK) {
+					// Shouldn't occur, as block.isValid() checked these transactions above
+					this.blockResult = transactionResult;
+					return;
+				}
+			}
+		} catch (DataException e) {
+			this.close();
+			throw e;
+		}
+	}
+
+	/** Returns result of block-level checks, made before any transactions were added. */
+	public ValidationResult getBlockResult() {
+		return this.blockResult;
+	}
+
+	/** Returns whether serialized block has space for <tt>transactionData</tt>. */
+	public boolean hasSpaceFor(TransactionData transactionData) {
+		try {
+			return this.blockLength + TransactionTransformer.getDataLength(transactionData) <= BlockChain.getInstance().getMaxBlockSize();
+		} catch (TransformationException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Validates, then test-processes, transaction and adds it to block.
+	 * <p>
+	 * If transaction is invalid, then any changes are rolled back and block is left unchanged.
+	 * Callers should check {@link #hasSpaceFor(TransactionData)} first.
+	 *
+	 * @return ValidationResult.OK if transaction added (or already present), or reason transaction was rejected
+	 */
+	public ValidationResult addTransaction(TransactionData transactionData) throws DataException {
+		if (this.blockResult != ValidationResult.OK)
+			return this.blockResult;
+
+		// Already added?
+		if (this.signatures.contains(ByteArray.wrap(transactionData.getSignature())))
+			return ValidationResult.OK;
+
+		Transaction transaction = Transaction.fromData(this.repository, transactionData);
+
+		this.repository.setSavepoint();
+
+		ValidationResult transactionResult;
+		try {
+			transactionResult = this.block.isTransactionValid(transaction);
+		} catch (DataException e) {
+			LOGGER.info(String.format("DataException during transaction validation, tx %s", Base58.encode(transactionData.getSignature())), e);
+			transactionResult = ValidationResult.TRANSACTION_INVALID;
+		}
+
+		if (transactionResult != ValidationResult.OK) {
+			// Undo any partial test-processing by this transaction only
+			this.repository.rollbackToSavepoint();
+			return transactionResult;
+		}
+
+		// Keep savepoint so later transactions can be rolled back individually
+		++this.savepointCount;
+
+		this.signatures.add(ByteArray.wrap(transactionData.getSignature()));
+		this.block.appendTransaction(transaction);
+
+		try {
+			this.blockLength += Transformer.INT_LENGTH + TransactionTransformer.getDataLength(transactionData);
+		} catch (TransformationException e) {
+			throw new DataException("Unable to determine serialized transaction length", e);
+		}
+
+		return ValidationResult.OK;
+	}
+
+	/** Rolls back all test-processing, then re-sorts block's transactions and recalculates transactions signature. */
+	@Override
+	public void close() throws DataException {
+		try {
+			for (; this.savepointCount > 0; --this.savepointCount)
+				this.repository.rollbackToSavepoint();
+		} finally {
+			if (this.accountRefCache != null)
+				this.accountRefCache.close();
+
+			this.block.finishAppendingTransactions();
+		}
+	}
+
+}
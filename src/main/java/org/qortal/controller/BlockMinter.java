@@ -5,6 +5,7 @@ import org.apache.logging.log4j.Logger;
 import org.qortal.account.Account;
 import org.qortal.account.PrivateKeyAccount;
 import org.qortal.block.Block;
+import org.qortal.block.BlockAssembler;
 import org.qortal.block.Block.ValidationResult;
 import org.qortal.block.BlockChain;
 import org.qortal.data.account.MintingAccountData;
@@ -509,21 +510,26 @@ public class BlockMinter extends Thread {
 
 		// Attempt to add transactions until block is full, or we run out
 		// If a transaction makes the block invalid then skip it and it'll either expire or be in next block.
-		for (TransactionData transactionData : unconfirmedTransactions) {
-			if (!newBlock.addTransaction(transactionData))
-				break;
-
-			// If newBlock is no longer valid then we can't use transaction
-			ValidationResult validationResult = newBlock.isValid();
-			if (validationResult != ValidationResult.OK) {
-				LOGGER.debug(() -> String.format("Skipping invalid transaction %s during block minting", Base58.encode(transactionData.getSignature())));
-				newBlock.deleteTransaction(transactionData);
+		// Each transaction is only validated against the state left by those already added, rather than revalidating whole block.
+		try (BlockAssembler blockAssembler = new BlockAssembler(newBlock)) {
+			if (blockAssembler.getBlockResult() != ValidationResult.OK) {
+				LOGGER.debug(() -> String.format("Not adding transactions to invalid block: %s", blockAssembler.getBlockResult().name()));
+				return;
 			}
 
-			// User-defined limit per block
-			List<Transaction> transactions = newBlock.getTransactions();
-			if (transactions != null && transactions.size() >= limit) {
-				break;
+			for (TransactionData transactionData : unconfirmedTransactions) {
+				if (!blockAssembler.hasSpaceFor(transactionData))
+					break;
+
+				ValidationResult validationResult = blockAssembler.addTransaction(transactionData);
+				if (validationResult != ValidationResult.OK)
+					LOGGER.debug(() -> String.format("Skipping invalid transaction %s during block minting", Base58.encode(transactionData.getSignature())));
+
+				// User-defined limit per block
+				List<Transaction> transactions = newBlock.getTransactions();
+				if (transactions != null && transactions.size() >= limit) {
+					break;
+				}
 			}
 		}
 	}
@@ -0,0 +1,137 @@
+package org.qortal.controller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.qortal.block.Block;
+import org.qortal.network.Peer;
+import org.qortal.network.message.GetBlockMessage;
+import org.qortal.network.message.Message;
+import org.qortal.repository.Repository;
+import org.qortal.utils.Base58;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Requests blocks from a peer ahead of when Synchronizer needs them,
+ * so that network round-trips overlap with validating/processing earlier blocks.
+ * <p>
+ * At most <tt>windowSize</tt> blocks are in flight at once. Each block is fetched, decoded
+ * and pre-validated on a worker thread, then handed back in request order.
+ * <p>
+ * Workers only do stateless checks (see {@link Block#preValidate()}), as the synchronizer's repository session isn't thread-safe.
+ * Stateful validation and processing stay on the synchronizer thread.
+ */
+class BlockPrefetcher implements AutoCloseable {
+
+	private static final Logger LOGGER = LogManager.getLogger(BlockPrefetcher.class);
+
+	static class PrefetchedBlock {
+		private final byte[] signature;
+		private final boolean hasResponse;
+		private final Block block;
+		private final boolean isPreValidated;
+
+		private PrefetchedBlock(byte[] signature, boolean hasResponse, Block block, boolean isPreValidated) {
+			this.signature = signature;
+			this.hasResponse = hasResponse;
+			this.block = block;
+			this.isPreValidated = isPreValidated;
+		}
+
+		public byte[] getSignature() {
+			return this.signature;
+		}
+
+		/** Whether peer responded at all, even if response wasn't a usable block */
+		public boolean hasResponse() {
+			return this.hasResponse;
+		}
+
+		/** Decoded block, or null if peer didn't respond with a block */
+		public Block getBlock() {
+			return this.block;
+		}
+
+		/** Whether block passed {@link Block#preValidate()}, e.g. has valid signatures */
+		public boolean isPreValidated() {
+			return this.isPreValidated;
+		}
+	}
+
+	private static class PendingBlock {
+		private final byte[] signature;
+		private final Future<PrefetchedBlock> future;
+
+		private PendingBlock(byte[] signature, Future<PrefetchedBlock> future) {
+			this.signature = signature;
+			this.future = future;
+		}
+	}
+
+	private final Repository repository;
+	private final Peer peer;
+	private final ExecutorService executor;
+	private final int windowSize;
+
+	private final Deque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+
+	BlockPrefetcher(Repository repository, Peer peer, ExecutorService executor, int windowSize) {
+		this.repository = repository;
+		this.peer = peer;
+		this.executor = executor;
+		this.windowSize = windowSize;
+	}
+
+	public boolean isFull() {
+		return this.pendingBlocks.size() >= this.windowSize;
+	}
+
+	public boolean isEmpty() {
+		return this.pendingBlocks.isEmpty();
+	}
+
+	/** Starts fetching block with <tt>signature</tt> from peer. Blocks are returned by {@link #take()} in the order requested. */
+	public void request(byte[] signature) {
+		Future<PrefetchedBlock> future = this.executor.submit(() -> this.fetch(signature));
+		this.pendingBlocks.addLast(new PendingBlock(signature, future));
+	}
+
+	/** Waits for, then returns, the earliest requested block, or null if nothing has been requested. */
+	public PrefetchedBlock take() throws InterruptedException {
+		PendingBlock pendingBlock = this.pendingBlocks.pollFirst();
+		if (pendingBlock == null)
+			return null;
+
+		try {
+			return pendingBlock.future.get();
+		} catch (ExecutionException | CancellationException e) {
+			LOGGER.debug(String.format("Unable to prefetch block %.8s from peer %s", Base58.encode(pendingBlock.signature), this.peer), e);
+			return new PrefetchedBlock(pendingBlock.signature, false, null, false);
+		}
+	}
+
+	/** Abandons any blocks still in flight. */
+	@Override
+	public void close() {
+		for (PendingBlock pendingBlock : this.pendingBlocks)
+			pendingBlock.future.cancel(true);
+
+		this.pendingBlocks.clear();
+	}
+
+	private PrefetchedBlock fetch(byte[] signature) throws InterruptedException {
+		Message message = this.peer.getResponse(new GetBlockMessage(signature));
+
+		Block block = Synchronizer.toBlock(this.repository, message);
+		if (block == null)
+			return new PrefetchedBlock(signature, message != null, null, false);
+
+		return new PrefetchedBlock(signature, true, block, block.preValidate());
+	}
+
+}
@@ -3,11 +3,15 @@ package org.qortal.controller;
 import org.eclipse.jetty.websocket.api.Session;
 import org.qortal.data.transaction.ChatTransactionData;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
+/**
+ * Notifies registered listeners, typically websocket sessions, of new CHAT transactions.
+ * <p>
+ * Listeners that only care about one group's messages, or direct messages involving one address,
+ * can register with that routing key, so they're only called for matching transactions.
+ * Unrouted listeners are called for every CHAT transaction, and for group-membership changes.
+ */
 public class ChatNotifier {
 
 	private static ChatNotifier instance;
@@ -17,7 +21,25 @@ public class ChatNotifier {
 		void notify(ChatTransactionData chatTransactionData);
 	}
 
-	private final Map<Session, Listener> listenersBySession = new HashMap<>();
+	private static class Subscription {
+		private final Listener listener;
+		/** Group whose (non-direct) messages we want, or null */
+		private final Integer txGroupId;
+		/** Address whose direct messages we want, or null */
+		private final String address;
+
+		private Subscription(Listener listener, Integer txGroupId, String address) {
+			this.listener = listener;
+			this.txGroupId = txGroupId;
+			this.address = address;
+		}
+	}
+
+	/** All subscriptions, guarded by synchronizing on this map */
+	private final Map<Session, Subscription> subscriptionsBySession = new HashMap<>();
+	private final Map<Session, Listener> unroutedListeners = new HashMap<>();
+	private final Map<Integer, Map<Session, Listener>> listenersByTxGroupId = new HashMap<>();
+	private final Map<String, Map<Session, Listener>> listenersByAddress = new HashMap<>();
 
 	private ChatNotifier() {
 	}
@@ -29,33 +51,106 @@ public class ChatNotifier {
 		return instance;
 	}
 
+	/** Registers listener to be called for every CHAT transaction, and for group-membership changes. */
 	public void register(Session session, Listener listener) {
-		synchronized (this.listenersBySession) {
-			this.listenersBySession.put(session, listener);
-		}
+		this.register(session, new Subscription(listener, null, null));
+	}
+
+	/** Registers listener to be called only for group-based (i.e. no recipient) CHAT transactions with <tt>txGroupId</tt>. */
+	public void registerForGroup(Session session, int txGroupId, Listener listener) {
+		this.register(session, new Subscription(listener, txGroupId, null));
+	}
+
+	/** Registers listener to be called only for direct CHAT transactions where <tt>address</tt> is sender or recipient. */
+	public void registerForAddress(Session session, String address, Listener listener) {
+		this.register(session, new Subscription(listener, null, Objects.requireNonNull(address)));
 	}
 
 	public void deregister(Session session) {
-		synchronized (this.listenersBySession) {
-			this.listenersBySession.remove(session);
+		synchronized (this.subscriptionsBySession) {
+			Subscription subscription = this.subscriptionsBySession.remove(session);
+			if (subscription == null)
+				return;
+
+			if (subscription.txGroupId != null)
+				removeRouted(this.listenersByTxGroupId, subscription.txGroupId, session);
+			else if (subscription.address != null)
+				removeRouted(this.listenersByAddress, subscription.address, session);
+			else
+				this.unroutedListeners.remove(session);
 		}
 	}
 
 	public void onNewChatTransaction(ChatTransactionData chatTransactionData) {
-		for (Listener listener : getAllListeners())
+		for (Listener listener : getListeners(chatTransactionData))
 			listener.notify(chatTransactionData);
 	}
 
+	/** Notifies unrouted listeners, with null transaction data, that group memberships have changed. */
 	public void onGroupMembershipChange() {
-		for (Listener listener : getAllListeners())
+		for (Listener listener : getUnroutedListeners())
 			listener.notify(null);
 	}
 
-	private Collection<Listener> getAllListeners() {
-		// Make a copy of listeners to both avoid concurrent modification
+	private void register(Session session, Subscription subscription) {
+		synchronized (this.subscriptionsBySession) {
+			// Replace any previous registration for this session
+			this.deregister(session);
+
+			this.subscriptionsBySession.put(session, subscription);
+
+			if (subscription.txGroupId != null)
+				this.listenersByTxGroupId.computeIfAbsent(subscription.txGroupId, k -> new HashMap<>()).put(session, subscription.listener);
+			else if (subscription.address != null)
+				this.listenersByAddress.computeIfAbsent(subscription.address, k -> new HashMap<>()).put(session, subscription.listener);
+			else
+				this.unroutedListeners.put(session, subscription.listener);
+		}
+	}
+
+	private static <K> void removeRouted(Map<K, Map<Session, Listener>> listenersByKey, K key, Session session) {
+		Map<Session, Listener> listeners = listenersByKey.get(key);
+		if (listeners == null)
+			return;
+
+		listeners.remove(session);
+		if (listeners.isEmpty())
+			listenersByKey.remove(key);
+	}
+
+	private Collection<Listener> getListeners(ChatTransactionData chatTransactionData) {
+		// Make a copy of matching listeners to both avoid concurrent modification
 		// and reduce synchronization time
-		synchronized (this.listenersBySession) {
-			return new ArrayList<>(this.listenersBySession.values());
+		synchronized (this.subscriptionsBySession) {
+			List<Listener> listeners = new ArrayList<>(this.unroutedListeners.values());
+
+			String recipient = chatTransactionData.getRecipient();
+			if (recipient == null) {
+				Map<Session, Listener> groupListeners = this.listenersByTxGroupId.get(chatTransactionData.getTxGroupId());
+				if (groupListeners != null)
+					listeners.addAll(groupListeners.values());
+
+				return listeners;
+			}
+
+			// Each session is only indexed under one address, so no duplicates unless sender is also recipient
+			Map<Session, Listener> senderListeners = this.listenersByAddress.get(chatTransactionData.getSender());
+			if (senderListeners != null)
+				listeners.addAll(senderListeners.values());
+
+			if (!recipient.equals(chatTransactionData.getSender())) {
+				Map<Session, Listener> recipientListeners = this.listenersByAddress.get(recipient);
+				if (recipientListeners != null)
+					listeners.addAll(recipientListeners.values());
+			}
+
+			return listeners;
+		}
+	}
+
+	private Collection<Listener> getUnroutedListeners() {
+		synchronized (this.subscriptionsBySession) {
+			return new ArrayList<>(this.unroutedListeners.values());
 		}
 	}
 
@@ -0,0 +1,175 @@
+package org.qortal.controller;
+
+import org.qortal.data.network.OnlineAccountData;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Hash-summary of online accounts, keyed by timestamp, then leading byte of public key.
+ * <p>
+ * Each leading-byte bucket's hash is the XOR of all its accounts' public keys (excluding leading byte, which is kept as-is),
+ * as produced by {@link #xorByteArrayInPlace(byte[], byte[])}.
+ * Since XOR is its own inverse, hashes are updated in place as accounts are added or removed,
+ * instead of being rebuilt from every account in the bucket.
+ * <p>
+ * Only a handful of timestamps are ever current, so timestamps are held in a small array
+ * and each timestamp has a 256-slot array of buckets, indexed by unsigned leading byte.
+ *
+ * @ThreadSafe
+ */
+public class OnlineAccountsHashIndex {
+
+    private static final int BUCKET_COUNT = 256;
+
+    private static class TimestampBuckets {
+        private final long timestamp;
+        /** Per-bucket XOR hash, or null if bucket is empty */
+        private final byte[][] hashes = new byte[BUCKET_COUNT][];
+        /** Per-bucket accounts, or null if bucket is empty */
+        @SuppressWarnings("unchecked")
+        private final Set<OnlineAccountData>[] accounts = new Set[BUCKET_COUNT];
+
+        private TimestampBuckets(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        private boolean isEmpty() {
+            for (byte[] hash : this.hashes)
+                if (hash != null)
+                    return false;
+
+            return true;
+        }
+    }
+
+    private TimestampBuckets[] buckets = new TimestampBuckets[0];
+
+    /** Adds account to its bucket's hash. Caller must only add each account once. */
+    public synchronized void add(OnlineAccountData onlineAccountData) {
+        TimestampBuckets timestampBuckets = this.getOrCreate(onlineAccountData.getTimestamp());
+        byte[] publicKey = onlineAccountData.getPublicKey();
+        int bucket = Byte.toUnsignedInt(publicKey[0]);
+
+        timestampBuckets.hashes[bucket] = xorByteArrayInPlace(timestampBuckets.hashes[bucket], publicKey);
+
+        if (timestampBuckets.accounts[bucket] == null)
+            timestampBuckets.accounts[bucket] = new HashSet<>();
+
+        timestampBuckets.accounts[bucket].add(onlineAccountData);
+    }
+
+    /** Removes previously added account from its bucket's hash. */
+    public synchronized void remove(OnlineAccountData onlineAccountData) {
+        TimestampBuckets timestampBuckets = this.get(onlineAccountData.getTimestamp());
+        if (timestampBuckets == null)
+            return;
+
+        byte[] publicKey = onlineAccountData.getPublicKey();
+        int bucket = Byte.toUnsignedInt(publicKey[0]);
+
+        Set<OnlineAccountData> bucketAccounts = timestampBuckets.accounts[bucket];
+        if (bucketAccounts == null || !bucketAccounts.remove(onlineAccountData))
+            return;
+
+        if (bucketAccounts.isEmpty()) {
+            timestampBuckets.accounts[bucket] = null;
+            timestampBuckets.hashes[bucket] = null;
+
+            if (timestampBuckets.isEmpty())
+                this.removeIf(existing -> existing == timestampBuckets);
+
+            return;
+        }
+
+        xorByteArrayInPlace(timestampBuckets.hashes[bucket], publicKey);
+    }
+
+    /** Removes all timestamps older than <tt>cutoffThreshold</tt>. */
+    public synchronized void removeOlderThan(long cutoffThreshold) {
+        this.removeIf(timestampBuckets -> timestampBuckets.timestamp < cutoffThreshold);
+    }
+
+    public synchronized void clear() {
+        this.buckets = new TimestampBuckets[0];
+    }
+
+    /** Returns copy of hashes, keyed by timestamp, then leading byte, e.g. for building GetOnlineAccountsV3Message. */
+    public synchronized Map<Long, Map<Byte, byte[]>> getHashesByTimestampThenByte() {
+        Map<Long, Map<Byte, byte[]>> hashesByTimestampThenByte = new HashMap<>();
+
+        for (TimestampBuckets timestampBuckets : this.buckets) {
+            Map<Byte, byte[]> hashesByByte = new HashMap<>();
+
+            for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket)
+                if (timestampBuckets.hashes[bucket] != null)
+                    hashesByByte.put((byte) bucket, timestampBuckets.hashes[bucket].clone());
+
+            hashesByTimestampThenByte.put(timestampBuckets.timestamp, hashesByByte);
+        }
+
+        return hashesByTimestampThenByte;
+    }
+
+    /**
+     * Returns our accounts from all buckets whose hash differs from, or is missing in, <tt>peersHashes</tt>.
+     */
+    public synchronized List<OnlineAccountData> getMismatchedAccounts(Map<Long, Map<Byte, byte[]>> peersHashes) {
+        List<OnlineAccountData> mismatchedAccounts = new ArrayList<>();
+
+        for (TimestampBuckets timestampBuckets : this.buckets) {
+            Map<Byte, byte[]> peersHashesByByte = peersHashes.getOrDefault(timestampBuckets.timestamp, Collections.emptyMap());
+
+            for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket) {
+                byte[] ourHash = timestampBuckets.hashes[bucket];
+                if (ourHash == null)
+                    continue;
+
+                if (!Arrays.equals(ourHash, peersHashesByByte.get((byte) bucket)))
+                    mismatchedAccounts.addAll(timestampBuckets.accounts[bucket]);
+            }
+        }
+
+        return mismatchedAccounts;
+    }
+
+    public static byte[] xorByteArrayInPlace(byte[] inplaceArray, byte[] otherArray) {
+        if (inplaceArray == null)
+            return Arrays.copyOf(otherArray, otherArray.length);
+
+        // Start from index 1 to enforce static leading byte
+        for (int i = 1; i < otherArray.length; i++)
+            inplaceArray[i] ^= otherArray[i];
+
+        return inplaceArray;
+    }
+
+    private TimestampBuckets get(long timestamp) {
+        for (TimestampBuckets timestampBuckets : this.buckets)
+            if (timestampBuckets.timestamp == timestamp)
+                return timestampBuckets;
+
+        return null;
+    }
+
+    private TimestampBuckets getOrCreate(long timestamp) {
+        TimestampBuckets timestampBuckets = this.get(timestamp);
+        if (timestampBuckets != null)
+            return timestampBuckets;
+
+        timestampBuckets = new TimestampBuckets(timestamp);
+
+        TimestampBuckets[] newBuckets = Arrays.copyOf(this.buckets, this.buckets.length + 1);
+        newBuckets[this.buckets.length] = timestampBuckets;
+        this.buckets = newBuckets;
+
+        return timestampBuckets;
+    }
+
+    private void removeIf(Predicate<TimestampBuckets> predicate) {
+        this.buckets = Arrays.stream(this.buckets)
+                .filter(predicate.negate())
+                .toArray(TimestampBuckets[]::new);
+    }
+
+}
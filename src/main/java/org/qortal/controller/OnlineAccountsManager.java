@@ -1,6 +1,5 @@
 package org.qortal.controller;
 
-import com.google.common.hash.HashCode;
 import com.google.common.primitives.Longs;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,6 +9,7 @@ import org.qortal.block.Block;
 import org.qortal.block.BlockChain;
 import org.qortal.crypto.Crypto;
 import org.qortal.crypto.MemoryPoW;
+import org.qortal.crypto.MemoryPoWVerifier;
 import org.qortal.crypto.Qortal25519Extras;
 import org.qortal.data.account.MintingAccountData;
 import org.qortal.data.account.RewardShareData;
@@ -79,9 +79,10 @@ public class OnlineAccountsManager {
     public static final int POW_DIFFICULTY_TESTNET = 5; // leading zero bits
 
     // IMPORTANT: if we ever need to dynamically modify the buffer size using a feature trigger, the
-    // pre-allocated buffer below will NOT work, and we should instead use a dynamically allocated
-    // one for the transition period.
-    private static long[] POW_VERIFY_WORK_BUFFER = new long[getPoWBufferSize() / 8];
+    // verifier's pre-allocated, per-thread buffers will NOT work, and we should instead use
+    // dynamically allocated ones for the transition period.
+    private static final MemoryPoWVerifier POW_VERIFIER = new MemoryPoWVerifier("OnlineAccounts-PoW",
+            getPoWBufferSize(), Settings.getInstance().getOnlineAccountsPoWVerifyPoolSize());
 
     private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(4, new NamedThreadFactory("OnlineAccounts", Thread.NORM_PRIORITY));
     private volatile boolean isStopping = false;
@@ -94,8 +95,9 @@ public class OnlineAccountsManager {
     private final Map<Long, Set<OnlineAccountData>> currentOnlineAccounts = new ConcurrentHashMap<>();
     /**
      * Cache of hash-summary of 'current' online accounts, keyed by timestamp, then leading byte of public key.
+     * Updated incrementally as accounts are added to / removed from {@link #currentOnlineAccounts}.
      */
-    private final Map<Long, Map<Byte, byte[]>> currentOnlineAccountsHashes = new ConcurrentHashMap<>();
+    private final OnlineAccountsHashIndex currentOnlineAccountsHashes = new OnlineAccountsHashIndex();
 
     /**
      * Cache of online accounts for latest blocks - not necessarily 'current' / now.
@@ -181,6 +183,7 @@ public class OnlineAccountsManager {
     public void shutdown() {
         isStopping = true;
         executor.shutdownNow();
+        POW_VERIFIER.shutdown();
     }
 
     // Testing support
@@ -210,6 +213,7 @@ public class OnlineAccountsManager {
         }
 
         this.currentOnlineAccounts.clear();
+        this.currentOnlineAccountsHashes.clear();
         addAccounts(replacementAccounts);
     }
 
@@ -222,7 +226,9 @@ public class OnlineAccountsManager {
 
         LOGGER.debug("Processing online accounts import queue (size: {})", this.onlineAccountsImportQueue.size());
 
-        Set<OnlineAccountData> onlineAccountsToAdd = new HashSet<>();
+        // Candidates still need their MemoryPoW nonces verifying before they can be added
+        Set<OnlineAccountData> candidateOnlineAccounts = new HashSet<>();
+        Set<OnlineAccountData> onlineAccountsToAdd = Collections.emptySet();
         Set<OnlineAccountData> onlineAccountsToRemove = new HashSet<>();
         try (final Repository repository = RepositoryManager.getRepository()) {
             List<String> mintingGroupMemberAddresses
@@ -243,17 +249,23 @@ public class OnlineAccountsManager {
                     continue;
                 }
 
+                // MemoryPoW is checked afterwards, in parallel, for all otherwise-valid accounts
                 boolean isValid = this.isValidCurrentAccount(repository, mintingGroupMemberAddresses, onlineAccountData);
                 if (isValid)
-                    onlineAccountsToAdd.add(onlineAccountData);
+                    candidateOnlineAccounts.add(onlineAccountData);
 
                 // Don't remove from the queue yet - we'll do this at the end of the process
                 // This prevents duplicates being added to the queue whilst it's being processed
                 onlineAccountsToRemove.add(onlineAccountData);
             }
+
+            onlineAccountsToAdd = POW_VERIFIER.filterValid(candidateOnlineAccounts, this::verifyMemoryPoW);
         } catch (DataException e) {
             LOGGER.error("Repository issue while verifying online accounts", e);
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
         } finally {
             if (!onlineAccountsToAdd.isEmpty()) {
                 LOGGER.debug("Merging {} validated online accounts from import queue", onlineAccountsToAdd.size());
@@ -312,14 +324,7 @@ public class OnlineAccountsManager {
     // Utilities
 
     public static byte[] xorByteArrayInPlace(byte[] inplaceArray, byte[] otherArray) {
-        if (inplaceArray == null)
-            return Arrays.copyOf(otherArray, otherArray.length);
-
-        // Start from index 1 to enforce static leading byte
-        for (int i = 1; i < otherArray.length; i++)
-            inplaceArray[i] ^= otherArray[i];
-
-        return inplaceArray;
+        return OnlineAccountsHashIndex.xorByteArrayInPlace(inplaceArray, otherArray);
     }
 
     private static boolean isValidCurrentAccount(Repository repository, List<String> mintingGroupMemberAddresses, OnlineAccountData onlineAccountData) throws DataException {
@@ -370,59 +375,19 @@ public class OnlineAccountsManager {
             return false;
         }
 
-        // Validate mempow
-        if (!getInstance().verifyMemoryPoW(onlineAccountData, POW_VERIFY_WORK_BUFFER)) {
-            LOGGER.trace(() -> String.format("Rejecting online reward-share for account %s due to invalid PoW nonce", mintingAccount.getAddress()));
-            return false;
-        }
-
         return true;
     }
 
-    /** Adds accounts, maybe rebuilds hashes, returns whether any new accounts were added / hashes rebuilt. */
+    /** Adds accounts, updating hashes, returns whether any new accounts were added. */
     private boolean addAccounts(Collection<OnlineAccountData> onlineAccountsToAdd) {
-        // For keeping track of which hashes to rebuild
-        Map<Long, Set<Byte>> hashesToRebuild = new HashMap<>();
+        boolean anyNewEntries = false;
 
-        for (OnlineAccountData onlineAccountData : onlineAccountsToAdd) {
-            boolean isNewEntry = this.addAccount(onlineAccountData);
+        for (OnlineAccountData onlineAccountData : onlineAccountsToAdd)
+            anyNewEntries |= this.addAccount(onlineAccountData);
 
-            if (isNewEntry)
-                hashesToRebuild.computeIfAbsent(onlineAccountData.getTimestamp(), k -> new HashSet<>()).add(onlineAccountData.getPublicKey()[0]);
-        }
-
-        if (hashesToRebuild.isEmpty())
+        if (!anyNewEntries)
             return false;
 
-        for (var entry : hashesToRebuild.entrySet()) {
-            Long timestamp = entry.getKey();
-
-            LOGGER.trace(() -> String.format("Rehashing for timestamp %d and leading bytes %s",
-                            timestamp,
-                            entry.getValue().stream().sorted(Byte::compareUnsigned).map(leadingByte -> String.format("%02x", leadingByte)).collect(Collectors.joining(", "))
-                    )
-            );
-
-            for (Byte leadingByte : entry.getValue()) {
-                byte[] pubkeyHash = currentOnlineAccounts.get(timestamp).stream()
-                        .map(OnlineAccountData::getPublicKey)
-                        .filter(publicKey -> leadingByte == publicKey[0])
-                        .reduce(null, OnlineAccountsManager::xorByteArrayInPlace);
-
-                currentOnlineAccountsHashes.computeIfAbsent(timestamp, k -> new ConcurrentHashMap<>()).put(leadingByte, pubkeyHash);
-
-                LOGGER.trace(() -> String.format("Rebuilt hash %s for timestamp %d and leading byte %02x using %d public keys",
-                        HashCode.fromBytes(pubkeyHash),
-                        timestamp,
-                        leadingByte,
-                        currentOnlineAccounts.get(timestamp).stream()
-                                .map(OnlineAccountData::getPublicKey)
-                                .filter(publicKey -> leadingByte == publicKey[0])
-                                .count()
-                ));
-            }
-        }
-
         LOGGER.trace(String.format("we have online accounts for timestamps: %s", String.join(", ", this.currentOnlineAccounts.keySet().stream().map(l -> Long.toString(l)).collect(Collectors.joining(", ")))));
 
         return true;
@@ -435,15 +400,22 @@ public class OnlineAccountsManager {
         Set<OnlineAccountData> onlineAccounts = this.currentOnlineAccounts.computeIfAbsent(onlineAccountTimestamp, k -> ConcurrentHashMap.newKeySet());
 
         boolean isSuperiorEntry = isOnlineAccountsDataSuperior(onlineAccountData);
-        if (isSuperiorEntry)
+        if (isSuperiorEntry) {
             // Remove existing inferior entry so it can be re-added below (it's likely the existing copy is missing a nonce value)
-            onlineAccounts.removeIf(a -> Objects.equals(a.getPublicKey(), onlineAccountData.getPublicKey()));
+            for (OnlineAccountData existingOnlineAccountData : onlineAccounts)
+                if (Objects.equals(existingOnlineAccountData.getPublicKey(), onlineAccountData.getPublicKey())
+                        && onlineAccounts.remove(existingOnlineAccountData))
+                    this.currentOnlineAccountsHashes.remove(existingOnlineAccountData);
+        }
 
         boolean isNewEntry = onlineAccounts.add(onlineAccountData);
 
-        if (isNewEntry)
+        if (isNewEntry) {
+            // XOR new public key into hash for its timestamp and leading byte
+            this.currentOnlineAccountsHashes.add(onlineAccountData);
+
             LOGGER.trace(() -> String.format("Added online account %s with timestamp %d", Base58.encode(rewardSharePublicKey), onlineAccountTimestamp));
-        else
+        } else
             LOGGER.trace(() -> String.format("Not updating existing online account %s with timestamp %d", Base58.encode(rewardSharePublicKey), onlineAccountTimestamp));
 
         return isNewEntry;
@@ -459,7 +431,7 @@ public class OnlineAccountsManager {
 
         final long cutoffThreshold = now - MAX_CACHED_TIMESTAMP_SETS * getOnlineTimestampModulus();
         this.currentOnlineAccounts.keySet().removeIf(timestamp -> timestamp < cutoffThreshold);
-        this.currentOnlineAccountsHashes.keySet().removeIf(timestamp -> timestamp < cutoffThreshold);
+        this.currentOnlineAccountsHashes.removeOlderThan(cutoffThreshold);
     }
 
     /**
@@ -491,7 +463,7 @@ public class OnlineAccountsManager {
         LOGGER.debug("Requesting online accounts via broadcast...");
 
         lastOnlineAccountsRequest = now;
-        Message messageV3 = new GetOnlineAccountsV3Message(currentOnlineAccountsHashes);
+        Message messageV3 = new GetOnlineAccountsV3Message(currentOnlineAccountsHashes.getHashesByTimestampThenByte());
         Network.getInstance().broadcast(peer -> messageV3);
     }
 
@@ -630,7 +602,8 @@ public class OnlineAccountsManager {
             if (!hasInfoChanged)
                 return false;
 
-            Network.getInstance().broadcast(peer -> new OnlineAccountsV3Message(ourOnlineAccounts));
+            Message messageV3 = new OnlineAccountsV3Message(ourOnlineAccounts);
+            Network.getInstance().broadcast(peer -> messageV3);
 
             LOGGER.debug("Broadcasted {} online account{} with timestamp {}", ourOnlineAccounts.size(), (ourOnlineAccounts.size() != 1 ? "s" : ""), onlineAccountsTimestamp);
 
@@ -677,6 +650,20 @@ public class OnlineAccountsManager {
         return nonce;
     }
 
+    /**
+     * Verifies MemoryPoW nonces of all passed online accounts, in parallel.
+     *
+     * @return true if all nonces are valid
+     */
+    public boolean verifyMemoryPoW(Collection<OnlineAccountData> onlineAccounts) {
+        try {
+            return POW_VERIFIER.verifyAll(onlineAccounts, this::verifyMemoryPoW);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     public boolean verifyMemoryPoW(OnlineAccountData onlineAccountData, long[] workBuffer) {
         // Require a valid nonce value
         if (onlineAccountData.getNonce() == null || onlineAccountData.getNonce() < 0) {
@@ -804,6 +791,7 @@ public class OnlineAccountsManager {
 
     public void removeAllOnlineAccounts() {
         this.currentOnlineAccounts.clear();
+        this.currentOnlineAccountsHashes.clear();
     }
 
 
@@ -813,54 +801,9 @@ public class OnlineAccountsManager {
         GetOnlineAccountsV3Message getOnlineAccountsMessage = (GetOnlineAccountsV3Message) message;
 
         Map<Long, Map<Byte, byte[]>> peersHashes = getOnlineAccountsMessage.getHashesByTimestampThenByte();
-        List<OnlineAccountData> outgoingOnlineAccounts = new ArrayList<>();
-
-        // Warning: no double-checking/fetching - we must be ConcurrentMap compatible!
-        // So no contains()-then-get() or multiple get()s on the same key/map.
-        // We also use getOrDefault() with emptySet() on currentOnlineAccounts in case corresponding timestamp entry isn't there.
-        for (var ourOuterMapEntry : currentOnlineAccountsHashes.entrySet()) {
-            Long timestamp = ourOuterMapEntry.getKey();
-
-            var ourInnerMap = ourOuterMapEntry.getValue();
-            var peersInnerMap = peersHashes.get(timestamp);
-
-            if (peersInnerMap == null) {
-                // Peer doesn't have this timestamp, so if it's valid (i.e. not too old) then we'd have to send all of ours
-                Set<OnlineAccountData> timestampsOnlineAccounts = this.currentOnlineAccounts.getOrDefault(timestamp, Collections.emptySet());
-                outgoingOnlineAccounts.addAll(timestampsOnlineAccounts);
-
-                LOGGER.trace(() -> String.format("Going to send all %d online accounts for timestamp %d", timestampsOnlineAccounts.size(), timestamp));
-            } else {
-                // Quick cache of which leading bytes to send so we only have to filter once
-                Set<Byte> outgoingLeadingBytes = new HashSet<>();
-
-                // We have entries for this timestamp so compare against peer's entries
-                for (var ourInnerMapEntry : ourInnerMap.entrySet()) {
-                    Byte leadingByte = ourInnerMapEntry.getKey();
-                    byte[] peersHash = peersInnerMap.get(leadingByte);
-
-                    if (!Arrays.equals(ourInnerMapEntry.getValue(), peersHash)) {
-                        // For this leading byte: hashes don't match or peer doesn't have entry
-                        // Send all online accounts for this timestamp and leading byte
-                        outgoingLeadingBytes.add(leadingByte);
-                    }
-                }
-
-                int beforeAddSize = outgoingOnlineAccounts.size();
 
-                this.currentOnlineAccounts.getOrDefault(timestamp, Collections.emptySet()).stream()
-                        .filter(account -> outgoingLeadingBytes.contains(account.getPublicKey()[0]))
-                        .forEach(outgoingOnlineAccounts::add);
-
-                if (outgoingOnlineAccounts.size() > beforeAddSize)
-                    LOGGER.trace(String.format("Going to send %d online accounts for timestamp %d and leading bytes %s",
-                            outgoingOnlineAccounts.size() - beforeAddSize,
-                            timestamp,
-                            outgoingLeadingBytes.stream().sorted(Byte::compareUnsigned).map(leadingByte -> String.format("%02x", leadingByte)).collect(Collectors.joining(", "))
-                            )
-                    );
-            }
-        }
+        // Send all our online accounts for any timestamp and leading byte where peer's hash doesn't match ours
+        List<OnlineAccountData> outgoingOnlineAccounts = this.currentOnlineAccountsHashes.getMismatchedAccounts(peersHashes);
 
         peer.sendMessage(new OnlineAccountsV3Message(outgoingOnlineAccounts));
 
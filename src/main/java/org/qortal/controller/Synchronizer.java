@@ -24,6 +24,7 @@ import org.qortal.settings.Settings;
 import org.qortal.transaction.Transaction;
 import org.qortal.utils.Base58;
 import org.qortal.utils.ByteArray;
+import org.qortal.utils.DaemonThreadFactory;
 import org.qortal.utils.NTP;
 
 import java.math.BigInteger;
@@ -31,6 +32,11 @@ import java.security.SecureRandom;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
@@ -89,6 +95,11 @@ public class Synchronizer extends Thread {
 
 	private static Synchronizer instance;
 
+	/** Worker threads for fetching blocks ahead during sync, created on first use */
+	private static ExecutorService prefetchExecutor;
+	/** Worker threads for weighing peers' chains in parallel, created on first use */
+	private static ExecutorService chainWeightExecutor;
+
 	public enum SynchronizationResult {
 		OK, NOTHING_TO_DO, GENESIS_ONLY, NO_COMMON_BLOCK, TOO_DIVERGENT, NO_REPLY, INFERIOR_CHAIN, INVALID_DATA, NO_BLOCKCHAIN_LOCK, REPOSITORY_ISSUE, SHUTTING_DOWN, CHAIN_TIP_TOO_OLD
     }
@@ -163,6 +174,20 @@ public class Synchronizer extends Thread {
 	public void shutdown() {
 		this.running = false;
 		this.interrupt();
+
+		shutdownExecutors();
+	}
+
+	private static synchronized void shutdownExecutors() {
+		if (prefetchExecutor != null) {
+			prefetchExecutor.shutdownNow();
+			prefetchExecutor = null;
+		}
+
+		if (chainWeightExecutor != null) {
+			chainWeightExecutor.shutdownNow();
+			chainWeightExecutor = null;
+		}
 	}
 
 
@@ -730,14 +755,8 @@ public class Synchronizer extends Thread {
 					// Calculate max height for chain weight comparisons
 					int maxHeightForChainWeightComparisons = commonBlockSummary.getHeight() + minChainLength;
 
-					// Calculate our chain weight
-					BigInteger ourChainWeight = BigInteger.valueOf(0);
-					if (!ourBlockSummaries.isEmpty())
-						ourChainWeight = Block.calcChainWeight(commonBlockSummary.getHeight(), commonBlockSummary.getSignature(), ourBlockSummaries, maxHeightForChainWeightComparisons);
-
-					LOGGER.debug(String.format("Our chain weight based on %d blocks is %s", (usingSameLengthChainWeight ? minChainLength : ourBlockSummaries.size()), accurateFormatter.format(ourChainWeight)));
-
 					LOGGER.debug(String.format("Listing peers with common block %.8s...", Base58.encode(commonBlockSummary.getSignature())));
+					List<Peer> peersForChainWeight = new ArrayList<>();
 					for (Peer peer : peersSharingCommonBlock) {
 						BlockSummaryData peerChainTipData = peer.getChainTipData();
 						final int peerHeight = peerChainTipData.getHeight();
@@ -763,9 +782,26 @@ public class Synchronizer extends Thread {
 						final List<BlockSummaryData> peerBlockSummariesAfterCommonBlock = peerCommonBlockData.getBlockSummariesAfterCommonBlock();
 						populateBlockSummariesMinterLevels(repository, peerBlockSummariesAfterCommonBlock);
 
-						// Calculate cumulative chain weight of this blockchain subset, from common block to highest mutual block held by all peers in this group.
 						LOGGER.debug(String.format("About to calculate chain weight based on %d blocks for peer %s with common block %.8s (peer has %d blocks after common block)", (usingSameLengthChainWeight ? minChainLength : peerBlockSummariesAfterCommonBlock.size()), peer, Base58.encode(commonBlockSummary.getSignature()), peerAdditionalBlocksAfterCommonBlock));
-						BigInteger peerChainWeight = Block.calcChainWeight(commonBlockSummary.getHeight(), commonBlockSummary.getSignature(), peerBlockSummariesAfterCommonBlock, maxHeightForChainWeightComparisons);
+						peersForChainWeight.add(peer);
+					}
+
+					// Calculate cumulative chain weights of these blockchain subsets, ours included, from common block to highest mutual block held by all peers in this group.
+					List<List<BlockSummaryData>> chainsForWeighing = new ArrayList<>();
+					chainsForWeighing.add(ourBlockSummaries);
+					for (Peer peer : peersForChainWeight)
+						chainsForWeighing.add(peer.getCommonBlockData().getBlockSummariesAfterCommonBlock());
+
+					List<BigInteger> chainWeights = calcChainWeights(commonBlockSummary, chainsForWeighing, maxHeightForChainWeightComparisons);
+
+					BigInteger ourChainWeight = chainWeights.get(0);
+					LOGGER.debug(String.format("Our chain weight based on %d blocks is %s", (usingSameLengthChainWeight ? minChainLength : ourBlockSummaries.size()), accurateFormatter.format(ourChainWeight)));
+
+					for (int i = 0; i < peersForChainWeight.size(); ++i) {
+						Peer peer = peersForChainWeight.get(i);
+						final List<BlockSummaryData> peerBlockSummariesAfterCommonBlock = peer.getCommonBlockData().getBlockSummariesAfterCommonBlock();
+
+						BigInteger peerChainWeight = chainWeights.get(i + 1);
 						peer.getCommonBlockData().setChainWeight(peerChainWeight);
 						LOGGER.debug(String.format("Chain weight of peer %s based on %d blocks (%d - %d) is %s", peer, (usingSameLengthChainWeight ? minChainLength : peerBlockSummariesAfterCommonBlock.size()), peerBlockSummariesAfterCommonBlock.get(0).getHeight(), peerBlockSummariesAfterCommonBlock.get(peerBlockSummariesAfterCommonBlock.size()-1).getHeight(), accurateFormatter.format(peerChainWeight)));
 
@@ -815,6 +851,47 @@ public class Synchronizer extends Thread {
 		}
 	}
 
+	/**
+	 * Returns chain weight of each list of block summaries after common block, in the same order.
+	 * <p>
+	 * Chains are weighed in parallel. Empty chains have zero weight.
+	 */
+	private List<BigInteger> calcChainWeights(BlockSummaryData commonBlockSummary, List<List<BlockSummaryData>> chains, int maxHeight) throws InterruptedException {
+		// Not worth handing off a single chain
+		if (chains.size() == 1)
+			return Collections.singletonList(calcChainWeight(commonBlockSummary, chains.get(0), maxHeight));
+
+		List<Callable<BigInteger>> weighers = new ArrayList<>(chains.size());
+		for (List<BlockSummaryData> blockSummaries : chains)
+			weighers.add(() -> calcChainWeight(commonBlockSummary, blockSummaries, maxHeight));
+
+		List<BigInteger> chainWeights = new ArrayList<>(chains.size());
+		for (Future<BigInteger> future : getChainWeightExecutor().invokeAll(weighers)) {
+			try {
+				chainWeights.add(future.get());
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Unable to calculate chain weight", e.getCause());
+			}
+		}
+
+		return chainWeights;
+	}
+
+	private static BigInteger calcChainWeight(BlockSummaryData commonBlockSummary, List<BlockSummaryData> blockSummaries, int maxHeight) {
+		if (blockSummaries.isEmpty())
+			return BigInteger.ZERO;
+
+		return Block.calcChainWeight(commonBlockSummary.getHeight(), commonBlockSummary.getSignature(), blockSummaries, maxHeight);
+	}
+
+	private static synchronized ExecutorService getChainWeightExecutor() {
+		if (chainWeightExecutor == null)
+			chainWeightExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new DaemonThreadFactory("Synchronizer-ChainWeight", Settings.getInstance().getSynchronizerThreadPriority()));
+
+		return chainWeightExecutor;
+	}
+
 	private List<BlockSummaryData> uniqueCommonBlocks(List<Peer> peers) {
 		List<BlockSummaryData> commonBlocks = new ArrayList<>();
 
@@ -1487,6 +1564,10 @@ public class Synchronizer extends Thread {
 
 	private SynchronizationResult applyNewBlocks(Repository repository, BlockData commonBlockData, int ourInitialHeight,
 												 Peer peer, int peerHeight, List<BlockSummaryData> peerBlockSummaries) throws InterruptedException, DataException {
+		final int prefetchCount = Settings.getInstance().getSyncPrefetchBlockCount();
+		if (prefetchCount > 1)
+			return this.applyNewBlocksPipelined(repository, commonBlockData, ourInitialHeight, peer, peerHeight, peerBlockSummaries, prefetchCount);
+
 		LOGGER.debug(String.format("Fetching new blocks from peer %s", peer));
 
 		final int commonBlockHeight = commonBlockData.getHeight();
@@ -1543,45 +1624,151 @@ public class Synchronizer extends Thread {
 				return SynchronizationResult.INVALID_DATA;
 			}
 
-			// Transactions are transmitted without approval status so determine that now
-			for (Transaction transaction : newBlock.getTransactions())
-				transaction.setInitialApprovalStatus();
+			SynchronizationResult blockResult = this.applyNewBlock(repository, peer, newBlock, ourHeight);
+			if (blockResult != SynchronizationResult.OK)
+				return blockResult;
+		}
 
-			newBlock.preProcess();
+		return SynchronizationResult.OK;
+	}
 
-			ValidationResult blockResult = newBlock.isValid();
-			if (blockResult != ValidationResult.OK) {
-				LOGGER.info(String.format("Peer %s sent invalid block for height %d, sig %.8s: %s", peer,
-						ourHeight, Base58.encode(latestPeerSignature), blockResult.name()));
-				this.addInvalidBlockSignature(newBlock.getSignature());
-				this.timeInvalidBlockLastReceived = NTP.getTime();
-				return SynchronizationResult.INVALID_DATA;
-			}
+	/**
+	 * Like {@link #applyNewBlocks(Repository, BlockData, int, Peer, int, List)} but with up to <tt>prefetchCount</tt>
+	 * blocks requested from peer ahead of the block being validated/processed.
+	 * <p>
+	 * Fetching, decoding and stateless pre-validation happen on worker threads (see {@link BlockPrefetcher}),
+	 * while stateful validation and processing remain sequential, on this thread.
+	 */
+	private SynchronizationResult applyNewBlocksPipelined(Repository repository, BlockData commonBlockData, int ourInitialHeight,
+												 Peer peer, int peerHeight, List<BlockSummaryData> peerBlockSummaries, int prefetchCount) throws InterruptedException, DataException {
+		LOGGER.debug(String.format("Fetching new blocks from peer %s, up to %d ahead", peer, prefetchCount));
 
-			// Block is valid
-			this.timeValidBlockLastReceived = NTP.getTime();
+		final int commonBlockHeight = commonBlockData.getHeight();
 
-			// Save transactions attached to this block
-			for (Transaction transaction : newBlock.getTransactions()) {
-				TransactionData transactionData = transaction.getTransactionData();
-				repository.getTransactionRepository().save(transactionData);
-			}
+		int ourHeight = ourInitialHeight;
+		int maxBatchHeight = commonBlockHeight + SYNC_BATCH_SIZE;
+		int lastHeight = Math.min(peerHeight, maxBatchHeight);
 
-			newBlock.process();
+		// Signature (and height) of the last block we know about, which might not have been requested yet
+		byte[] lastKnownSignature = commonBlockData.getSignature();
+		int lastKnownHeight = commonBlockHeight;
+		boolean noMoreSignatures = false;
 
-			LOGGER.trace(String.format("Processed block height %d, sig %.8s", newBlock.getBlockData().getHeight(), Base58.encode(newBlock.getBlockData().getSignature())));
+		// Convert any block summaries from above into signatures to request from peer
+		List<byte[]> peerBlockSignatures = peerBlockSummaries.stream().map(BlockSummaryData::getSignature).collect(Collectors.toList());
+		if (!peerBlockSignatures.isEmpty()) {
+			lastKnownSignature = peerBlockSignatures.get(peerBlockSignatures.size() - 1);
+			lastKnownHeight += peerBlockSignatures.size();
+		}
 
-			repository.saveChanges();
+		try (BlockPrefetcher prefetcher = new BlockPrefetcher(repository, peer, getPrefetchExecutor(prefetchCount), prefetchCount)) {
+			while (ourHeight < lastHeight) {
+				if (Controller.isStopping())
+					return SynchronizationResult.SHUTTING_DOWN;
 
-			synchronized (this.syncLock) {
-				if (peer.getChainTipData() != null) {
-					this.blocksRemaining = peer.getChainTipData().getHeight() - newBlock.getBlockData().getHeight();
+				// Do we need more signatures?
+				if (peerBlockSignatures.isEmpty() && !noMoreSignatures && lastKnownHeight < lastHeight) {
+					int numberRequested = Math.min(lastHeight - lastKnownHeight, MAXIMUM_REQUEST_SIZE);
+
+					LOGGER.trace(String.format("Requesting %d signature%s after height %d, sig %.8s",
+							numberRequested, (numberRequested != 1 ? "s": ""), lastKnownHeight, Base58.encode(lastKnownSignature)));
+
+					List<byte[]> moreSignatures = this.getBlockSignatures(peer, lastKnownSignature, numberRequested);
+
+					if (moreSignatures == null || moreSignatures.isEmpty()) {
+						LOGGER.info(String.format("Peer %s failed to respond with more block signatures after height %d, sig %.8s", peer,
+								lastKnownHeight, Base58.encode(lastKnownSignature)));
+
+						// Still apply any blocks already requested
+						noMoreSignatures = true;
+					} else {
+						LOGGER.trace(String.format("Received %s signature%s", moreSignatures.size(), (moreSignatures.size() != 1 ? "s" : "")));
+
+						peerBlockSignatures = moreSignatures;
+						lastKnownSignature = moreSignatures.get(moreSignatures.size() - 1);
+						lastKnownHeight += moreSignatures.size();
+					}
+				}
+
+				// Keep prefetch window full
+				while (!prefetcher.isFull() && !peerBlockSignatures.isEmpty())
+					prefetcher.request(peerBlockSignatures.remove(0));
+
+				BlockPrefetcher.PrefetchedBlock prefetchedBlock = prefetcher.take();
+				if (prefetchedBlock == null)
+					// Nothing left to fetch, as peer stopped sending signatures
+					return SynchronizationResult.NO_REPLY;
+
+				++ourHeight;
+				byte[] latestPeerSignature = prefetchedBlock.getSignature();
+
+				this.recordBlockResponse(peer, prefetchedBlock.hasResponse());
+
+				Block newBlock = prefetchedBlock.getBlock();
+				LOGGER.trace(String.format("Fetched block %d, sig %.8s from %s", ourHeight, Base58.encode(latestPeerSignature), peer));
+
+				if (newBlock == null) {
+					LOGGER.info(String.format("Peer %s failed to respond with block for height %d, sig %.8s", peer,
+							ourHeight, Base58.encode(latestPeerSignature)));
+					return SynchronizationResult.NO_REPLY;
+				}
+
+				// Signatures were pre-validated by prefetcher, but transactions might have further checks that need repository
+				if (!prefetchedBlock.isPreValidated() || !newBlock.isSignatureValid()) {
+					LOGGER.info(String.format("Peer %s sent block with invalid signature for height %d, sig %.8s", peer,
+							ourHeight, Base58.encode(latestPeerSignature)));
+					return SynchronizationResult.INVALID_DATA;
 				}
+
+				SynchronizationResult blockResult = this.applyNewBlock(repository, peer, newBlock, ourHeight);
+				if (blockResult != SynchronizationResult.OK)
+					return blockResult;
 			}
+		}
 
-			Controller.getInstance().onNewBlock(newBlock.getBlockData());
+		return SynchronizationResult.OK;
+	}
+
+	/** Validates, then processes, block from peer that has already passed signature checks. */
+	private SynchronizationResult applyNewBlock(Repository repository, Peer peer, Block newBlock, int height) throws DataException {
+		// Transactions are transmitted without approval status so determine that now
+		for (Transaction transaction : newBlock.getTransactions())
+			transaction.setInitialApprovalStatus();
+
+		newBlock.preProcess();
+
+		ValidationResult blockResult = newBlock.isValid();
+		if (blockResult != ValidationResult.OK) {
+			LOGGER.info(String.format("Peer %s sent invalid block for height %d, sig %.8s: %s", peer,
+					height, Base58.encode(newBlock.getSignature()), blockResult.name()));
+			this.addInvalidBlockSignature(newBlock.getSignature());
+			this.timeInvalidBlockLastReceived = NTP.getTime();
+			return SynchronizationResult.INVALID_DATA;
+		}
+
+		// Block is valid
+		this.timeValidBlockLastReceived = NTP.getTime();
+
+		// Save transactions attached to this block
+		for (Transaction transaction : newBlock.getTransactions()) {
+			TransactionData transactionData = transaction.getTransactionData();
+			repository.getTransactionRepository().save(transactionData);
+		}
+
+		newBlock.process();
+
+		LOGGER.trace(String.format("Processed block height %d, sig %.8s", newBlock.getBlockData().getHeight(), Base58.encode(newBlock.getBlockData().getSignature())));
+
+		repository.saveChanges();
+
+		synchronized (this.syncLock) {
+			if (peer.getChainTipData() != null) {
+				this.blocksRemaining = peer.getChainTipData().getHeight() - newBlock.getBlockData().getHeight();
+			}
 		}
 
+		Controller.getInstance().onNewBlock(newBlock.getBlockData());
+
 		return SynchronizationResult.OK;
 	}
 
@@ -1620,20 +1807,32 @@ public class Synchronizer extends Thread {
 		Message getBlockMessage = new GetBlockMessage(signature);
 
 		Message message = peer.getResponse(getBlockMessage);
-		if (message == null) {
+		this.recordBlockResponse(peer, message != null);
+
+		return toBlock(repository, message);
+	}
+
+	private void recordBlockResponse(Peer peer, boolean hasResponse) {
+		if (!hasResponse) {
 			peer.getPeerData().incrementFailedSyncCount();
 			if (peer.getPeerData().getFailedSyncCount() >= MAX_CONSECUTIVE_FAILED_SYNC_ATTEMPTS) {
 				// Several failed attempts, so mark peer as misbehaved
 				LOGGER.info("Marking peer {} as misbehaved due to {} failed sync attempts", peer, peer.getPeerData().getFailedSyncCount());
 				Network.getInstance().peerMisbehaved(peer);
 			}
-			return null;
+			return;
 		}
 
 		// Reset failed sync count now that we have a block response
 		// FUTURE: we could move this to the end of the sync process, but to reduce risk this can be done
 		// at a later stage. For now we are only defending against serialization errors or no responses.
 		peer.getPeerData().setFailedSyncCount(0);
+	}
+
+	/** Converts peer's response to GetBlockMessage into Block, or returns null if response isn't a block. Doesn't access repository. */
+	static Block toBlock(Repository repository, Message message) {
+		if (message == null)
+			return null;
 
 		switch (message.getType()) {
 			case BLOCK: {
@@ -1651,6 +1850,14 @@ public class Synchronizer extends Thread {
 		}
 	}
 
+	private static synchronized ExecutorService getPrefetchExecutor(int windowSize) {
+		if (prefetchExecutor == null)
+			prefetchExecutor = Executors.newFixedThreadPool(windowSize,
+					new DaemonThreadFactory("Synchronizer-Prefetch", Settings.getInstance().getSynchronizerThreadPriority()));
+
+		return prefetchExecutor;
+	}
+
 	public void populateBlockSummariesMinterLevels(Repository repository, List<BlockSummaryData> blockSummaries) throws DataException {
 		final int firstBlockHeight = blockSummaries.get(0).getHeight();
 
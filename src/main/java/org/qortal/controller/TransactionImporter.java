@@ -17,9 +17,16 @@ import org.qortal.settings.Settings;
 import org.qortal.transaction.Transaction;
 import org.qortal.transform.TransformationException;
 import org.qortal.utils.Base58;
+import org.qortal.utils.ByteArray;
+import org.qortal.utils.DaemonThreadFactory;
 import org.qortal.utils.NTP;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -41,8 +48,33 @@ public class TransactionImporter extends Thread {
     public static final long EXPIRED_TRANSACTION_RECHECK_INTERVAL = 10 * 60 * 1000L; // ms
 
 
-    /** Map of incoming transaction that are in the import queue. Key is transaction data, value is whether signature has been validated. */
-    private final Map<TransactionData, Boolean> incomingTransactions = Collections.synchronizedMap(new HashMap<>());
+    /** State of a transaction in the import queue. */
+    private enum ImportState {
+        /** Received from peer, signature not yet checked */
+        PENDING,
+        /** Signature checked, waiting for blockchain lock to import */
+        SIG_VALID,
+        /** Currently being imported */
+        IMPORTING
+    }
+
+    private static class QueuedTransaction {
+        private final TransactionData transactionData;
+        /** Only modified by importer thread */
+        private volatile ImportState state = ImportState.PENDING;
+
+        private QueuedTransaction(TransactionData transactionData) {
+            this.transactionData = transactionData;
+        }
+    }
+
+    /** Map of incoming transactions that are in the import queue, keyed by transaction signature. */
+    private final Map<ByteArray, QueuedTransaction> incomingTransactions = new ConcurrentHashMap<>();
+
+    /** Verifies incoming transactions' signatures (and any proof-of-work nonces) in parallel. */
+    private final ExecutorService signatureVerifyExecutor = Executors.newFixedThreadPool(
+            Settings.getInstance().getTransactionSignatureVerifyPoolSize(),
+            new DaemonThreadFactory("Transaction-SigVerify", Thread.NORM_PRIORITY));
 
     /** Map of recent invalid unconfirmed transactions. Key is base58 transaction signature, value is do-not-request expiry timestamp. */
     private final Map<String, Long> invalidUnconfirmedTransactions = Collections.synchronizedMap(new HashMap<>());
@@ -81,6 +113,7 @@ public class TransactionImporter extends Thread {
 
     public void shutdown() {
         isStopping = true;
+        this.signatureVerifyExecutor.shutdownNow();
         this.interrupt();
     }
 
@@ -88,139 +121,176 @@ public class TransactionImporter extends Thread {
     // Incoming transactions queue
 
     private boolean incomingTransactionQueueContains(byte[] signature) {
-        synchronized (incomingTransactions) {
-            return incomingTransactions.keySet().stream().anyMatch(t -> Arrays.equals(t.getSignature(), signature));
-        }
+        return incomingTransactions.containsKey(ByteArray.wrap(signature));
     }
 
     private void removeIncomingTransaction(byte[] signature) {
-        incomingTransactions.keySet().removeIf(t -> Arrays.equals(t.getSignature(), signature));
+        incomingTransactions.remove(ByteArray.wrap(signature));
     }
 
     /**
-     * Retrieve all pending unconfirmed transactions that have had their signatures validated.
-     * @return a list of TransactionData objects, with valid signatures.
+     * Retrieve all pending unconfirmed transactions that have had their signatures validated,
+     * but aren't currently being imported.
+     * @return a list of queue entries, with valid signatures.
      */
-    private List<TransactionData> getCachedSigValidTransactions() {
-        synchronized (this.incomingTransactions) {
-            return this.incomingTransactions.entrySet().stream()
-                    .filter(t -> Boolean.TRUE.equals(t.getValue()))
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-        }
+    private List<QueuedTransaction> getCachedSigValidTransactions() {
+        return this.incomingTransactions.values().stream()
+                .filter(t -> t.state == ImportState.SIG_VALID)
+                .collect(Collectors.toList());
     }
 
     /**
      * Validate the signatures of any transactions pending import, then update their
-     * entries in the queue to mark them as valid/invalid.
+     * entries in the queue to mark them as valid, or remove them if invalid.
+     *
+     * Signatures are checked in parallel, using {@link #signatureVerifyExecutor}.
      *
      * No database lock is required.
      */
-    private void validateTransactionsInQueue() {
+    private void validateTransactionsInQueue() throws InterruptedException {
         if (this.incomingTransactions.isEmpty()) {
             // Nothing to do?
             return;
         }
 
-        try (final Repository repository = RepositoryManager.getRepository()) {
-            // Take a snapshot of incomingTransactions, so we don't need to lock it while processing
-            Map<TransactionData, Boolean> incomingTransactionsCopy = Map.copyOf(this.incomingTransactions);
+        Long now = NTP.getTime();
+        if (now == null) {
+            return;
+        }
+
+        // We need the latest block in order to check for expired transactions
+        BlockData latestBlock = Controller.getInstance().getChainTip();
 
-            int unvalidatedCount = Collections.frequency(incomingTransactionsCopy.values(), Boolean.FALSE);
-            int validatedCount = 0;
+        List<QueuedTransaction> unvalidatedTransactions = new ArrayList<>();
 
-            if (unvalidatedCount > 0) {
-                LOGGER.debug("Validating signatures in incoming transactions queue (size {})...", unvalidatedCount);
+        for (QueuedTransaction queuedTransaction : this.incomingTransactions.values()) {
+            if (queuedTransaction.state == ImportState.IMPORTING) {
+                continue;
             }
 
-            // A list of all currently pending transactions that have valid signatures
-            List<Transaction> sigValidTransactions = new ArrayList<>();
+            TransactionData transactionData = queuedTransaction.transactionData;
 
-            // A list of signatures that became valid in this round
-            List<byte[]> newlyValidSignatures = new ArrayList<>();
+            // Drop expired transactions, including any already found to be "sig valid" but still waiting to be imported
+            if (latestBlock != null && Transaction.getDeadline(transactionData) <= latestBlock.getTimestamp()) {
+                String signature58 = Base58.encode(transactionData.getSignature());
+                LOGGER.debug("Removing expired {} transaction {} from import queue", transactionData.getType().name(), signature58);
+                removeIncomingTransaction(transactionData.getSignature());
+                invalidUnconfirmedTransactions.put(signature58, (now + EXPIRED_TRANSACTION_RECHECK_INTERVAL));
+                continue;
+            }
 
-            boolean isLiteNode = Settings.getInstance().isLite();
+            // Only validate signature if we haven't already done so
+            if (queuedTransaction.state != ImportState.PENDING) {
+                continue;
+            }
 
-            // We need the latest block in order to check for expired transactions
-            BlockData latestBlock = Controller.getInstance().getChainTip();
+            unvalidatedTransactions.add(queuedTransaction);
+        }
 
-            // Signature validation round - does not require blockchain lock
-            for (Map.Entry<TransactionData, Boolean> transactionEntry : incomingTransactionsCopy.entrySet()) {
-                // Quick exit?
-                if (isStopping) {
-                    return;
-                }
+        if (unvalidatedTransactions.isEmpty()) {
+            return;
+        }
 
-                TransactionData transactionData = transactionEntry.getKey();
-                Transaction transaction = Transaction.fromData(repository, transactionData);
-                String signature58 = Base58.encode(transactionData.getSignature());
+        if (Settings.getInstance().isLite()) {
+            // Lite nodes can't easily validate transactions, so for now we will have to assume that everything is valid
+            unvalidatedTransactions.forEach(t -> t.state = ImportState.SIG_VALID);
+            return;
+        }
 
-                Long now = NTP.getTime();
-                if (now == null) {
-                    return;
-                }
+        LOGGER.debug("Validating signatures in incoming transactions queue (size {})...", unvalidatedTransactions.size());
 
-                // Drop expired transactions before they are considered "sig valid"
-                if (latestBlock != null && transaction.getDeadline() <= latestBlock.getTimestamp()) {
-                    LOGGER.debug("Removing expired {} transaction {} from import queue", transactionData.getType().name(), signature58);
-                    removeIncomingTransaction(transactionData.getSignature());
-                    invalidUnconfirmedTransactions.put(signature58, (now + EXPIRED_TRANSACTION_RECHECK_INTERVAL));
+        // Split into one batch per verifier thread. Each batch needs its own repository session,
+        // as some transaction types look up the sender's balance to determine PoW difficulty.
+        int batchCount = Math.min(Settings.getInstance().getTransactionSignatureVerifyPoolSize(), unvalidatedTransactions.size());
+        int batchSize = (unvalidatedTransactions.size() + batchCount - 1) / batchCount;
+
+        List<List<QueuedTransaction>> batches = new ArrayList<>();
+        List<Future<boolean[]>> batchResults = new ArrayList<>();
+        for (int i = 0; i < unvalidatedTransactions.size(); i += batchSize) {
+            List<QueuedTransaction> batch = unvalidatedTransactions.subList(i, Math.min(i + batchSize, unvalidatedTransactions.size()));
+            batches.add(batch);
+            batchResults.add(this.signatureVerifyExecutor.submit(() -> this.verifySignatures(batch)));
+        }
+
+        int validatedCount = 0;
+
+        try {
+            for (int b = 0; b < batches.size(); ++b) {
+                List<QueuedTransaction> batch = batches.get(b);
+                boolean[] isSigValid;
+
+                try {
+                    isSigValid = batchResults.get(b).get();
+                } catch (ExecutionException e) {
+                    LOGGER.error("Unable to validate signatures in incoming transactions queue", e.getCause());
+                    // Leave batch as pending, to be retried next round
                     continue;
                 }
 
-                // Only validate signature if we haven't already done so
-                Boolean isSigValid = transactionEntry.getValue();
-                if (!Boolean.TRUE.equals(isSigValid)) {
-                    if (isLiteNode) {
-                        // Lite nodes can't easily validate transactions, so for now we will have to assume that everything is valid
-                        sigValidTransactions.add(transaction);
-                        newlyValidSignatures.add(transactionData.getSignature());
-                        // Add mark signature as valid if transaction still exists in import queue
-                        incomingTransactions.computeIfPresent(transactionData, (k, v) -> Boolean.TRUE);
-                        continue;
-                    }
+                if (isSigValid == null) {
+                    // Stopping
+                    return;
+                }
+
+                for (int i = 0; i < batch.size(); ++i) {
+                    QueuedTransaction queuedTransaction = batch.get(i);
+                    TransactionData transactionData = queuedTransaction.transactionData;
 
-                    if (!transaction.isSignatureValid()) {
+                    if (!isSigValid[i]) {
+                        String signature58 = Base58.encode(transactionData.getSignature());
                         LOGGER.debug("Ignoring {} transaction {} with invalid signature", transactionData.getType().name(), signature58);
                         removeIncomingTransaction(transactionData.getSignature());
 
                         // Also add to invalidIncomingTransactions map
-                        now = NTP.getTime();
-                        if (now != null) {
-                            Long expiry = now + INVALID_TRANSACTION_RECHECK_INTERVAL;
-                            LOGGER.trace("Adding invalid transaction {} to invalidUnconfirmedTransactions...", signature58);
-                            // Add to invalidUnconfirmedTransactions so that we don't keep requesting it
-                            invalidUnconfirmedTransactions.put(signature58, expiry);
-                        }
+                        Long expiry = now + INVALID_TRANSACTION_RECHECK_INTERVAL;
+                        LOGGER.trace("Adding invalid transaction {} to invalidUnconfirmedTransactions...", signature58);
+                        // Add to invalidUnconfirmedTransactions so that we don't keep requesting it
+                        invalidUnconfirmedTransactions.put(signature58, expiry);
 
-                        // We're done with this transaction
                         continue;
                     }
 
                     // Count the number that were validated in this round, for logging purposes
                     validatedCount++;
 
-                    // Add mark signature as valid if transaction still exists in import queue
-                    incomingTransactions.computeIfPresent(transactionData, (k, v) -> Boolean.TRUE);
+                    queuedTransaction.state = ImportState.SIG_VALID;
+                }
+            }
+        } finally {
+            // Don't leave workers running if we bailed out early
+            batchResults.forEach(future -> future.cancel(true));
+        }
+
+        LOGGER.debug("Finished validating signatures in incoming transactions queue (valid this round: {}, total pending import: {})...",
+                validatedCount, this.getCachedSigValidTransactions().size());
+    }
 
-                    // Signature validated in this round
-                    newlyValidSignatures.add(transactionData.getSignature());
+    /**
+     * Checks signatures of <tt>batch</tt>, on a verifier thread.
+     * <p>
+     * Each signature is verified individually, by the transaction's own {@link Transaction#isSignatureValid()},
+     * exactly as block validation does. Randomized batch verification
+     * isn't used here: crafted signatures with small-order components can pass a batch check yet fail individually,
+     * so would be imported, relayed and minted into blocks that every other node then rejects.
+     *
+     * @return whether each transaction's signature is valid, in same order as <tt>batch</tt>, or null if stopping
+     */
+    private boolean[] verifySignatures(List<QueuedTransaction> batch) throws DataException {
+        boolean[] isSigValid = new boolean[batch.size()];
 
-                } else {
-                    LOGGER.trace(() -> String.format("Transaction %s known to have valid signature", Base58.encode(transactionData.getSignature())));
+        try (final Repository repository = RepositoryManager.getRepository()) {
+            for (int i = 0; i < batch.size(); ++i) {
+                // Quick exit?
+                if (isStopping || Thread.currentThread().isInterrupted()) {
+                    return null;
                 }
 
-                // Signature valid - add to shortlist
-                sigValidTransactions.add(transaction);
-            }
-
-            if (unvalidatedCount > 0) {
-                LOGGER.debug("Finished validating signatures in incoming transactions queue (valid this round: {}, total pending import: {})...", validatedCount, sigValidTransactions.size());
+                Transaction transaction = Transaction.fromData(repository, batch.get(i).transactionData);
+                isSigValid[i] = transaction.isSignatureValid();
             }
-
-        } catch (DataException e) {
-            LOGGER.error("Repository issue while processing incoming transactions", e);
         }
+
+        return isSigValid;
     }
 
     /**
@@ -229,7 +299,7 @@ public class TransactionImporter extends Thread {
      * A database lock is required.
      */
     private void importTransactionsInQueue() {
-        List<TransactionData> sigValidTransactions = this.getCachedSigValidTransactions();
+        List<QueuedTransaction> sigValidTransactions = this.getCachedSigValidTransactions();
         if (sigValidTransactions.isEmpty()) {
             // Don't bother locking if there are no new transactions to process
             return;
@@ -272,7 +342,10 @@ public class TransactionImporter extends Thread {
                         return;
                     }
 
-                    TransactionData transactionData = sigValidTransactions.get(i);
+                    QueuedTransaction queuedTransaction = sigValidTransactions.get(i);
+                    queuedTransaction.state = ImportState.IMPORTING;
+
+                    TransactionData transactionData = queuedTransaction.transactionData;
                     Transaction transaction = Transaction.fromData(repository, transactionData);
 
                     Transaction.ValidationResult validationResult = transaction.importAsUnconfirmed();
@@ -339,6 +412,11 @@ public class TransactionImporter extends Thread {
                 LOGGER.debug("Finished importing {} incoming transaction{}", processedCount, (processedCount == 1 ? "" : "s"));
                 blockchainLock.unlock();
 
+                // Anything left mid-import, e.g. due to repository issue, can be retried next cycle
+                this.incomingTransactions.values().stream()
+                        .filter(t -> t.state == ImportState.IMPORTING)
+                        .forEach(t -> t.state = ImportState.SIG_VALID);
+
                 // Clear the unconfirmed transaction cache so new data can be populated in the next cycle
                 unconfirmedTransactionsCache = null;
             }
@@ -362,12 +440,9 @@ public class TransactionImporter extends Thread {
         TransactionMessage transactionMessage = (TransactionMessage) message;
         TransactionData transactionData = transactionMessage.getTransactionData();
 
+        // Queue might briefly exceed limit, by up to one transaction per network thread, which is fine
         if (this.incomingTransactions.size() < MAX_INCOMING_TRANSACTIONS) {
-            synchronized (this.incomingTransactions) {
-                if (!incomingTransactionQueueContains(transactionData.getSignature())) {
-                    this.incomingTransactions.put(transactionData, Boolean.FALSE);
-                }
-            }
+            this.incomingTransactions.putIfAbsent(ByteArray.wrap(transactionData.getSignature()), new QueuedTransaction(transactionData));
         }
     }
 
@@ -377,9 +452,10 @@ public class TransactionImporter extends Thread {
 
         try (final Repository repository = RepositoryManager.getRepository()) {
             // Firstly check the sig-valid transactions that are currently queued for import
-            TransactionData transactionData = this.getCachedSigValidTransactions().stream()
-                    .filter(t -> Arrays.equals(signature, t.getSignature()))
-                    .findFirst().orElse(null);
+            QueuedTransaction queuedTransaction = this.incomingTransactions.get(ByteArray.wrap(signature));
+            TransactionData transactionData = queuedTransaction != null && queuedTransaction.state != ImportState.PENDING
+                    ? queuedTransaction.transactionData
+                    : null;
 
             if (transactionData == null) {
                 // Not found in import queue, so try the database
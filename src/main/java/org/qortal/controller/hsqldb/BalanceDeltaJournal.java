@@ -0,0 +1,320 @@
+package org.qortal.controller.hsqldb;
+
+import org.qortal.data.account.AddressAmountData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Journal of per-block QORT balance changes from block reward distribution, for balance recorder.
+ * <p>
+ * Each committed block's changes are appended, in height order, to primitive columns of
+ * address IDs and amounts, so memory use follows reward activity rather than number of accounts.
+ * Orphaning a block rolls back its, and any later, entries.
+ * <p>
+ * Balance dynamics for a block height range are derived by summing that range's deltas.
+ * <p>
+ * Once recording is enabled, repository sessions report block changes when they commit.
+ */
+public class BalanceDeltaJournal {
+
+	/** Balance changes from processing block at <tt>height</tt>, or orphaning of that block if <tt>amounts</tt> is null. */
+	public static class BlockDeltas {
+		public final int height;
+		public final String[] addresses;
+		public final long[] amounts;
+
+		private BlockDeltas(int height, String[] addresses, long[] amounts) {
+			this.height = height;
+			this.addresses = addresses;
+			this.amounts = amounts;
+		}
+
+		public static BlockDeltas processed(int height, Map<String, Long> balanceChanges) {
+			String[] addresses = new String[balanceChanges.size()];
+			long[] amounts = new long[balanceChanges.size()];
+
+			int i = 0;
+			for (Map.Entry<String, Long> entry : balanceChanges.entrySet()) {
+				addresses[i] = entry.getKey();
+				amounts[i] = entry.getValue();
+				++i;
+			}
+
+			return new BlockDeltas(height, addresses, amounts);
+		}
+
+		public static BlockDeltas orphaned(int height) {
+			return new BlockDeltas(height, null, null);
+		}
+	}
+
+	private static final int INITIAL_ENTRY_CAPACITY = 64;
+	private static final int INITIAL_COLUMN_CAPACITY = 4096;
+
+	private volatile boolean isRecording = false;
+
+	/** Maximum number of address/amount pairs held, after which oldest blocks are dropped */
+	private int capacity = Integer.MAX_VALUE;
+
+	/** Journal covers all blocks above this height */
+	private int baseHeight = 0;
+	/** Height of latest block processed, or orphaned, since recording started */
+	private int latestHeight = 0;
+	/** Lowest height orphaned since last call to {@link #takeLowestOrphanedHeight()}, or null */
+	private Integer lowestOrphanedHeight = null;
+
+	private final Map<String, Integer> addressIds = new HashMap<>();
+	private final List<String> addresses = new ArrayList<>();
+
+	// One row per block with changes: height, and start of block's changes in columns below
+	private int[] entryHeights = new int[INITIAL_ENTRY_CAPACITY];
+	private int[] entryOffsets = new int[INITIAL_ENTRY_CAPACITY];
+	private int entryCount = 0;
+
+	// One row per address changed by a block
+	private int[] addressIdColumn = new int[INITIAL_COLUMN_CAPACITY];
+	private long[] amountColumn = new long[INITIAL_COLUMN_CAPACITY];
+	private int columnSize = 0;
+
+	private BalanceDeltaJournal() {}
+
+	private static BalanceDeltaJournal SINGLETON = new BalanceDeltaJournal();
+
+	public static BalanceDeltaJournal getInstance() {
+		return SINGLETON;
+	}
+
+	public boolean isRecording() {
+		return this.isRecording;
+	}
+
+	/**
+	 * Starts accepting block changes, covering blocks above <tt>height</tt>, discarding any previously held.
+	 * <p>
+	 * Pass a height at least one above the blockchain height, as the block being processed
+	 * when recording starts might not be reported.
+	 */
+	public synchronized void startRecording(int height, int capacity) {
+		this.capacity = capacity;
+		this.baseHeight = height;
+		this.latestHeight = height;
+		this.lowestOrphanedHeight = null;
+
+		this.entryCount = 0;
+		this.columnSize = 0;
+		this.addressIds.clear();
+		this.addresses.clear();
+
+		this.isRecording = true;
+	}
+
+	public synchronized int getBaseHeight() {
+		return this.baseHeight;
+	}
+
+	public synchronized int getLatestHeight() {
+		return this.latestHeight;
+	}
+
+	/** Returns heights of blocks with recorded balance changes. */
+	public synchronized List<Integer> getHeights() {
+		List<Integer> heights = new ArrayList<>(this.entryCount);
+		for (int i = 0; i < this.entryCount; ++i)
+			heights.add(this.entryHeights[i]);
+
+		return heights;
+	}
+
+	/** Number of address/amount pairs held. */
+	public synchronized int size() {
+		return this.columnSize;
+	}
+
+	/** Returns, and forgets, lowest height orphaned since last call, or null if no blocks orphaned. */
+	public synchronized Integer takeLowestOrphanedHeight() {
+		Integer height = this.lowestOrphanedHeight;
+		this.lowestOrphanedHeight = null;
+		return height;
+	}
+
+	public void onChangesCommitted(List<BlockDeltas> changes) {
+		if (!this.isRecording)
+			return;
+
+		synchronized (this) {
+			for (BlockDeltas blockDeltas : changes)
+				if (blockDeltas.amounts == null)
+					this.rollback(blockDeltas.height);
+				else
+					this.append(blockDeltas);
+
+			this.trimToCapacity();
+		}
+	}
+
+	/** Returns whether journal covers all blocks in range, <tt>begin</tt> exclusive, <tt>end</tt> inclusive. */
+	public synchronized boolean covers(int begin, int end) {
+		return begin >= this.baseHeight && end <= this.latestHeight && begin < end;
+	}
+
+	/**
+	 * Returns summed balance changes for blocks in range, <tt>begin</tt> exclusive, <tt>end</tt> inclusive.
+	 * <p>
+	 * Only addresses with non-zero total are included.
+	 */
+	public synchronized List<AddressAmountData> sum(int begin, int end) {
+		int fromEntry = this.firstEntryAbove(begin);
+		int toEntry = this.firstEntryAbove(end);
+
+		if (fromEntry >= toEntry)
+			return new ArrayList<>(0);
+
+		long[] totals = new long[this.addresses.size()];
+		boolean[] seen = new boolean[this.addresses.size()];
+		List<Integer> seenIds = new ArrayList<>();
+
+		for (int row = this.entryOffsets[fromEntry]; row < this.endOfEntry(toEntry - 1); ++row) {
+			int addressId = this.addressIdColumn[row];
+			totals[addressId] += this.amountColumn[row];
+
+			if (!seen[addressId]) {
+				seen[addressId] = true;
+				seenIds.add(addressId);
+			}
+		}
+
+		List<AddressAmountData> amounts = new ArrayList<>(seenIds.size());
+		for (int addressId : seenIds)
+			if (totals[addressId] != 0)
+				amounts.add(new AddressAmountData(this.addresses.get(addressId), totals[addressId]));
+
+		return amounts;
+	}
+
+	/**
+	 * Returns summed balance changes for blocks in range, <tt>begin</tt> exclusive, <tt>end</tt> inclusive,
+	 * or empty if journal doesn't cover whole range.
+	 * <p>
+	 * Unlike separate calls to {@link #covers(int, int)} and {@link #sum(int, int)},
+	 * range can't be trimmed or rolled back in between.
+	 */
+	public synchronized Optional<List<AddressAmountData>> sumIfCovered(int begin, int end) {
+		if (!this.covers(begin, end))
+			return Optional.empty();
+
+		return Optional.of(this.sum(begin, end));
+	}
+
+	// Internals, called while synchronized
+
+	private void append(BlockDeltas blockDeltas) {
+		// Replaces any existing entries at this height or above, e.g. if orphan wasn't reported
+		this.rollback(blockDeltas.height);
+		this.latestHeight = blockDeltas.height;
+
+		if (blockDeltas.amounts.length == 0)
+			return;
+
+		if (this.entryCount == this.entryHeights.length) {
+			this.entryHeights = Arrays.copyOf(this.entryHeights, this.entryCount * 2);
+			this.entryOffsets = Arrays.copyOf(this.entryOffsets, this.entryCount * 2);
+		}
+
+		int requiredColumnSize = this.columnSize + blockDeltas.amounts.length;
+		if (requiredColumnSize > this.addressIdColumn.length) {
+			int newLength = Math.max(requiredColumnSize, this.addressIdColumn.length * 2);
+			this.addressIdColumn = Arrays.copyOf(this.addressIdColumn, newLength);
+			this.amountColumn = Arrays.copyOf(this.amountColumn, newLength);
+		}
+
+		this.entryHeights[this.entryCount] = blockDeltas.height;
+		this.entryOffsets[this.entryCount] = this.columnSize;
+		++this.entryCount;
+
+		for (int i = 0; i < blockDeltas.amounts.length; ++i) {
+			this.addressIdColumn[this.columnSize] = this.addressId(blockDeltas.addresses[i]);
+			this.amountColumn[this.columnSize] = blockDeltas.amounts[i];
+			++this.columnSize;
+		}
+	}
+
+	/** Removes entries for blocks at <tt>height</tt> and above. */
+	private void rollback(int height) {
+		int entry = this.firstEntryAbove(height - 1);
+		if (entry < this.entryCount) {
+			this.columnSize = this.entryOffsets[entry];
+			this.entryCount = entry;
+		}
+
+		if (height <= this.latestHeight) {
+			this.latestHeight = height - 1;
+			this.baseHeight = Math.min(this.baseHeight, this.latestHeight);
+
+			if (this.lowestOrphanedHeight == null || height < this.lowestOrphanedHeight)
+				this.lowestOrphanedHeight = height;
+		}
+	}
+
+	/** Drops oldest blocks' entries until within capacity, moving base height up accordingly. */
+	private void trimToCapacity() {
+		if (this.columnSize <= this.capacity)
+			return;
+
+		int dropEntries = 0;
+		while (dropEntries < this.entryCount && this.columnSize - this.entryOffsets[dropEntries] > this.capacity)
+			++dropEntries;
+
+		// Always keep latest block, even if over capacity
+		dropEntries = Math.min(dropEntries, this.entryCount - 1);
+		if (dropEntries <= 0)
+			return;
+
+		int dropRows = this.entryOffsets[dropEntries];
+		this.baseHeight = this.entryHeights[dropEntries - 1];
+
+		System.arraycopy(this.addressIdColumn, dropRows, this.addressIdColumn, 0, this.columnSize - dropRows);
+		System.arraycopy(this.amountColumn, dropRows, this.amountColumn, 0, this.columnSize - dropRows);
+		this.columnSize -= dropRows;
+
+		System.arraycopy(this.entryHeights, dropEntries, this.entryHeights, 0, this.entryCount - dropEntries);
+		System.arraycopy(this.entryOffsets, dropEntries, this.entryOffsets, 0, this.entryCount - dropEntries);
+		this.entryCount -= dropEntries;
+
+		for (int i = 0; i < this.entryCount; ++i)
+			this.entryOffsets[i] -= dropRows;
+	}
+
+	private int addressId(String address) {
+		return this.addressIds.computeIfAbsent(address, a -> {
+			this.addresses.add(a);
+			return this.addresses.size() - 1;
+		});
+	}
+
+	/** Returns index of first entry with height above passed height, or entryCount if none. */
+	private int firstEntryAbove(int height) {
+		int low = 0;
+		int high = this.entryCount;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+
+			if (this.entryHeights[mid] <= height)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		return low;
+	}
+
+	private int endOfEntry(int entry) {
+		return entry + 1 < this.entryCount ? this.entryOffsets[entry + 1] : this.columnSize;
+	}
+
+}
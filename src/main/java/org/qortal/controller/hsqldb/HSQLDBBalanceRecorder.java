@@ -10,7 +10,6 @@ import org.qortal.repository.hsqldb.HSQLDBCacheUtils;
 import org.qortal.settings.Settings;
 import org.qortal.utils.BalanceRecorderUtils;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -23,8 +22,6 @@ public class HSQLDBBalanceRecorder extends Thread{
 
     private static HSQLDBBalanceRecorder SINGLETON = null;
 
-    private ConcurrentHashMap<Integer, List<AccountBalanceData>> balancesByHeight = new ConcurrentHashMap<>();
-
     private ConcurrentHashMap<String, List<AccountBalanceData>> balancesByAddress = new ConcurrentHashMap<>();
 
     private CopyOnWriteArrayList<BlockHeightRangeAddressAmounts> balanceDynamics = new CopyOnWriteArrayList<>();
@@ -67,7 +64,7 @@ public class HSQLDBBalanceRecorder extends Thread{
 
         Thread.currentThread().setName("Balance Recorder");
 
-        HSQLDBCacheUtils.startRecordingBalances(this.balancesByHeight, this.balanceDynamics, this.priorityRequested, this.frequency, this.capacity);
+        HSQLDBCacheUtils.startRecordingBalances(this.balanceDynamics, this.priorityRequested, this.frequency, this.capacity);
     }
 
     public List<BlockHeightRangeAddressAmounts> getLatestDynamics(int limit, long offset) {
@@ -103,9 +100,22 @@ public class HSQLDBBalanceRecorder extends Thread{
 
     public Optional<BlockHeightRangeAddressAmounts> getAddressAmounts(BlockHeightRange range) {
 
-        return this.balanceDynamics.stream()
+        Optional<BlockHeightRangeAddressAmounts> recorded = this.balanceDynamics.stream()
             .filter( dynamic -> dynamic.getRange().equals(range))
             .findAny();
+
+        if( recorded.isPresent() ) return recorded;
+
+        // ranges not recorded can still be summed from the journal, if it still holds them
+        return BalanceDeltaJournal.getInstance().sumIfCovered(range.getBegin(), range.getEnd())
+            .map( sums ->
+                new BlockHeightRangeAddressAmounts(
+                    range,
+                    BalanceRecorderUtils.buildBalanceDynamics(
+                        sums,
+                        Settings.getInstance().getMinimumBalanceRecording())
+                )
+            );
     }
 
     public Optional<BlockHeightRange> getRange( int height ) {
@@ -115,13 +125,9 @@ public class HSQLDBBalanceRecorder extends Thread{
             .findAny();
     }
 
-    private Optional<Integer> getLastHeight() {
-        return this.balancesByHeight.keySet().stream().sorted(Comparator.reverseOrder()).findFirst();
-    }
-
     public List<Integer> getBlocksRecorded() {
 
-        return this.balancesByHeight.keySet().stream().collect(Collectors.toList());
+        return BalanceDeltaJournal.getInstance().getHeights();
     }
 
     public List<AccountBalanceData> getAccountBalanceRecordings(String address) {
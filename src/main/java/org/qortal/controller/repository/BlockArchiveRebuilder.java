@@ -57,9 +57,15 @@ public class BlockArchiveRebuilder {
                     final int maximumArchiveHeight = BlockArchiveReader.getInstance().getHeightOfLastArchivedBlock();
                     if (startHeight >= maximumArchiveHeight) {
                         // We've finished.
+                        // Release existing archive's mappings first, as mapped files can't be deleted on some platforms.
+                        // (This relies on nothing still holding a slice from BlockArchiveReader.fetchSerializedBlockSliceForHeight())
+                        BlockArchiveReader.getInstance().invalidateFileListCache();
+
                         // Delete existing archive and move the newly built one into its place
                         FileUtils.deleteDirectory(originalArchivePath.toFile());
                         FileUtils.moveDirectory(newArchivePath.toFile(), originalArchivePath.toFile());
+
+                        // Drop anything read from the old archive in the meantime
                         BlockArchiveReader.getInstance().invalidateFileListCache();
                         LOGGER.info("Block archive successfully rebuilt");
                         return;
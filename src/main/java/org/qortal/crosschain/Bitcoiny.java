@@ -309,6 +309,28 @@ public abstract class Bitcoiny implements ForeignBlockchain {
 		throw(e2);
 	}
 
+	/**
+	 * Returns transaction info for passed transaction hashes, in the same order.
+	 * <p>
+	 * Blockchain providers may fetch these in batches, rather than one at a time.
+	 *
+	 * @throws ForeignBlockchainException.NotFoundException if a transaction is unknown
+	 * @throws ForeignBlockchainException if error occurs
+	 */
+	public List<BitcoinyTransaction> getTransactions(List<String> txHashes) throws ForeignBlockchainException {
+		int retries = 0;
+		ForeignBlockchainException e2 = null;
+		while (retries <= 3) {
+			try {
+				return this.blockchainProvider.getTransactions(txHashes);
+			} catch (ForeignBlockchainException e) {
+				e2 = e;
+				retries++;
+			}
+		}
+		throw(e2);
+	}
+
 	/**
 	 * Broadcasts raw transaction to network.
 	 * <p>
@@ -501,6 +523,8 @@ public abstract class Bitcoiny implements ForeignBlockchain {
 			int ki = 0;
 			do {
 				boolean areAllKeysUnused = true;
+				// Transactions we haven't cached, fetched together once we've checked this batch of keys
+				List<String> uncachedTxHashes = new ArrayList<>();
 
 				for (; ki < keys.size(); ++ki) {
 					DeterministicKey dKey = keys.get(ki);
@@ -527,14 +551,20 @@ public abstract class Bitcoiny implements ForeignBlockchain {
 							}
 							// otherwise get the transaction from the blockchain server
 							else {
-								BitcoinyTransaction transaction = getTransaction(transactionHash.txHash);
-								walletTransactions.add( transaction );
-								this.blockchainCache.addTransactionByHash(transactionHash.txHash, transaction);
+								uncachedTxHashes.add(transactionHash.txHash);
 							}
 						}
 					}
 				}
 
+				if (!uncachedTxHashes.isEmpty()) {
+					List<BitcoinyTransaction> transactions = getTransactions(uncachedTxHashes);
+					for (BitcoinyTransaction transaction : transactions) {
+						walletTransactions.add( transaction );
+						this.blockchainCache.addTransactionByHash(transaction.txHash, transaction);
+					}
+				}
+
 				if (areAllKeysUnused) {
 					// No transactions
 					if (unusedCounter >= Settings.getInstance().getGapLimit()) {
@@ -559,8 +589,10 @@ public abstract class Bitcoiny implements ForeignBlockchain {
 			// Update cache and return
 			transactionsCacheTimestamp = NTP.getTime();
 			transactionsCacheXpub = key58;
+			Map<String, BitcoinyTransaction> inputTransactions = getInputTransactions(walletTransactions);
+
 			transactionsCache = walletTransactions.stream()
-					.map(t -> convertToSimpleTransaction(t, keySet))
+					.map(t -> convertToSimpleTransaction(t, keySet, inputTransactions))
 					.sorted(newestTimestampFirstComparator).collect(Collectors.toList());
 
 			return transactionsCache;
@@ -741,7 +773,40 @@ public abstract class Bitcoiny implements ForeignBlockchain {
 		}
 	}
 
+	/**
+	 * Returns transactions spent by <tt>transactions</tt>' inputs, mapped by hash, fetched in batches.
+	 * <p>
+	 * Returns empty map if any couldn't be fetched, leaving them to be fetched, or skipped, individually.
+	 */
+	private Map<String, BitcoinyTransaction> getInputTransactions(Collection<BitcoinyTransaction> transactions) {
+		List<String> inputTxHashes = transactions.stream()
+				.flatMap(t -> t.inputs.stream())
+				.map(input -> input.outputTxHash)
+				.filter(Objects::nonNull)
+				.distinct()
+				.collect(Collectors.toList());
+
+		Map<String, BitcoinyTransaction> inputTransactions = new HashMap<>();
+		if (inputTxHashes.isEmpty())
+			return inputTransactions;
+
+		try {
+			for (BitcoinyTransaction inputTransaction : this.blockchainProvider.getTransactions(inputTxHashes))
+				inputTransactions.put(inputTransaction.txHash, inputTransaction);
+		} catch (ForeignBlockchainException e) {
+			LOGGER.trace("Failed to retrieve input transactions in bulk: {}", e.getMessage());
+			inputTransactions.clear();
+		}
+
+		return inputTransactions;
+	}
+
 	protected SimpleTransaction convertToSimpleTransaction(BitcoinyTransaction t, Set<String> keySet) {
+		return convertToSimpleTransaction(t, keySet, Collections.emptyMap());
+	}
+
+	/** As above, but looking up input transactions in <tt>inputTransactions</tt> before fetching them. */
+	protected SimpleTransaction convertToSimpleTransaction(BitcoinyTransaction t, Set<String> keySet, Map<String, BitcoinyTransaction> inputTransactions) {
 		long amount = 0;
 		long total = 0L;
 		long totalInputAmount = 0L;
@@ -754,7 +819,10 @@ public abstract class Bitcoiny implements ForeignBlockchain {
 
 		for (BitcoinyTransaction.Input input : t.inputs) {
 			try {
-				BitcoinyTransaction t2 = getTransaction(input.outputTxHash);
+				BitcoinyTransaction t2 = inputTransactions.get(input.outputTxHash);
+				if (t2 == null)
+					t2 = getTransaction(input.outputTxHash);
+
 				List<String> senders = t2.outputs.get(input.outputVout).addresses;
 				long inputAmount = t2.outputs.get(input.outputVout).value;
 				totalInputAmount += inputAmount;
@@ -2,6 +2,7 @@ package org.qortal.crosschain;
 
 import cash.z.wallet.sdk.rpc.CompactFormats.CompactBlock;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -47,6 +48,16 @@ public abstract class BitcoinyBlockchainProvider {
 	/** Returns unpacked transaction given <tt>txHash</tt>. */
 	public abstract BitcoinyTransaction getTransaction(String txHash) throws ForeignBlockchainException;
 
+	/** Returns unpacked transactions given <tt>txHashes</tt>, in the same order. Providers may override to fetch these more efficiently. */
+	public List<BitcoinyTransaction> getTransactions(List<String> txHashes) throws ForeignBlockchainException {
+		List<BitcoinyTransaction> transactions = new ArrayList<>(txHashes.size());
+
+		for (String txHash : txHashes)
+			transactions.add(this.getTransaction(txHash));
+
+		return transactions;
+	}
+
 	/** Returns list of transaction hashes (and heights) for address represented by <tt>scriptPubKey</tt>, optionally including unconfirmed transactions. */
 	public abstract List<TransactionHash> getAddressTransactions(byte[] scriptPubKey, boolean includeUnconfirmed) throws ForeignBlockchainException;
 
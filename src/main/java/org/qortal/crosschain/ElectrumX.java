@@ -7,7 +7,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.JSONValue;
 import org.qortal.api.resource.CrossChainUtils;
 import org.qortal.crypto.Crypto;
 import org.qortal.crypto.TrustlessSSLSocketFactory;
@@ -21,6 +20,7 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.text.DecimalFormat;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -66,7 +66,7 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 		}
 
 		@Override
-		public void addResponseTime(long responseTime) {
+		public synchronized void addResponseTime(long responseTime) {
 			while (this.responseTimes.size() > RESPONSE_TIME_READINGS) {
 				this.responseTimes.remove(0);
 			}
@@ -74,7 +74,7 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 		}
 
 		@Override
-		public long averageResponseTime() {
+		public synchronized long averageResponseTime() {
 			if (this.responseTimes.size() < RESPONSE_TIME_READINGS) {
 				// Not enough readings yet
 				return 0L;
@@ -135,11 +135,20 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 	private final Map<Server.ConnectionType, Integer> defaultPorts = new EnumMap<>(Server.ConnectionType.class);
 	private Bitcoiny blockchain;
 
+	/** Maximum number of servers to be connected to at once */
+	private static final int MAX_CONNECTIONS = 3;
+	/** Once every connection has this many requests in flight, we try connecting to another server */
+	private static final int BUSY_CONNECTION_REQUESTS = 4;
+	private static final long RESPONSE_TIMEOUT = 30_000L; // ms
+	/** Maximum number of requests sent in one JSON-RPC batch */
+	private static final int MAX_BATCH_SIZE = 50;
+
+	/** Guards server lists and connection pool, but not requests, which are made concurrently */
 	private final Object serverLock = new Object();
-	private ChainableServer currentServer;
-	private Socket socket;
-	private Scanner scanner;
-	private int nextId = 1;
+	/** Connected servers, with current server, i.e. the preferred one, first */
+	private final List<ElectrumXConnection> connections = new CopyOnWriteArrayList<>();
+	/** Servers being connected to, without holding serverLock. Guarded by serverLock. */
+	private final Set<ChainableServer> connectingServers = new HashSet<>();
 
 	private static final int TX_CACHE_SIZE = 1000;
 
@@ -151,6 +160,14 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 		}
 	});
 
+	/** Block headers are only persisted once this many blocks deep, so they won't be reorganized */
+	private static final int PERSISTED_HEADER_DEPTH = 6;
+
+	/** Persistent cache of confirmed transactions and deep block headers, or null if not persisting */
+	private ForeignChainCache persistentCache;
+	/** Latest blockchain height we've seen, or 0 if unknown */
+	private volatile int lastKnownHeight = 0;
+
 	// Constructors
 
 	public ElectrumX(String netId, String genesisHash, Collection<Server> initialServerList, Map<Server.ConnectionType, Integer> defaultPorts) {
@@ -165,6 +182,14 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 	@Override
 	public void setBlockchain(Bitcoiny blockchain) {
 		this.blockchain = blockchain;
+
+		// Now in use by a blockchain, so start warm from data persisted last time
+		this.persistentCache = ForeignChainCache.getInstance(this.netId);
+	}
+
+	/** Sets persistent cache to use, or null to stop persisting. */
+	public void setPersistentCache(ForeignChainCache persistentCache) {
+		this.persistentCache = persistentCache;
 	}
 
 	@Override
@@ -190,7 +215,10 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 		if (!(heightObj instanceof Long))
 			throw new ForeignBlockchainException.NetworkException("Missing/invalid 'height' in JSON from ElectrumX blockchain.headers.subscribe RPC");
 
-		return ((Long) heightObj).intValue();
+		int height = ((Long) heightObj).intValue();
+		this.lastKnownHeight = height;
+
+		return height;
 	}
 
 	/**
@@ -210,6 +238,38 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 	 */
 	@Override
 	public List<byte[]> getRawBlockHeaders(int startHeight, int count) throws ForeignBlockchainException {
+		ForeignChainCache persistentCache = this.persistentCache;
+		if (persistentCache == null)
+			return this.fetchRawBlockHeaders(startHeight, count);
+
+		// Use any persisted headers from the start of the range, and only fetch the rest
+		List<byte[]> rawBlockHeaders = new ArrayList<>();
+		while (rawBlockHeaders.size() < count) {
+			byte[] rawBlockHeader = persistentCache.getBlockHeader(startHeight + rawBlockHeaders.size());
+			if (rawBlockHeader == null)
+				break;
+
+			rawBlockHeaders.add(rawBlockHeader);
+		}
+
+		if (rawBlockHeaders.size() == count)
+			return rawBlockHeaders;
+
+		int fetchStartHeight = startHeight + rawBlockHeaders.size();
+		List<byte[]> fetchedBlockHeaders = this.fetchRawBlockHeaders(fetchStartHeight, count - rawBlockHeaders.size());
+
+		int maxPersistedHeight = this.lastKnownHeight - PERSISTED_HEADER_DEPTH;
+		for (int i = 0; i < fetchedBlockHeaders.size(); ++i) {
+			int height = fetchStartHeight + i;
+			if (height > 0 && height <= maxPersistedHeight)
+				persistentCache.putBlockHeader(height, fetchedBlockHeaders.get(i));
+		}
+
+		rawBlockHeaders.addAll(fetchedBlockHeaders);
+		return rawBlockHeaders;
+	}
+
+	private List<byte[]> fetchRawBlockHeaders(int startHeight, int count) throws ForeignBlockchainException {
 		Object blockObj = this.rpc("blockchain.block.headers", startHeight, count);
 		if (!(blockObj instanceof JSONObject))
 			throw new ForeignBlockchainException.NetworkException("Unexpected output from ElectrumX blockchain.block.headers RPC");
@@ -367,6 +427,13 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 	 */
 	@Override
 	public byte[] getRawTransaction(String txHash) throws ForeignBlockchainException {
+		ForeignChainCache persistentCache = this.persistentCache;
+		if (persistentCache != null) {
+			byte[] rawTransaction = persistentCache.getRawTransaction(txHash);
+			if (rawTransaction != null)
+				return rawTransaction;
+		}
+
 		Object rawTransactionHex;
 		try {
 			rawTransactionHex = this.rpc("blockchain.transaction.get", txHash, false);
@@ -381,7 +448,13 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 		if (!(rawTransactionHex instanceof String))
 			throw new ForeignBlockchainException.NetworkException("Expected hex string as raw transaction from ElectrumX blockchain.transaction.get RPC");
 
-		return HashCode.fromString((String) rawTransactionHex).asBytes();
+		byte[] rawTransaction = HashCode.fromString((String) rawTransactionHex).asBytes();
+
+		// Transaction hash commits to transaction's content, so this can't change
+		if (persistentCache != null)
+			persistentCache.putRawTransaction(txHash, rawTransaction);
+
+		return rawTransaction;
 	}
 
 	/**
@@ -406,15 +479,15 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 	@Override
 	public BitcoinyTransaction getTransaction(String txHash) throws ForeignBlockchainException {
 		// Check cache first
-		BitcoinyTransaction transaction = transactionCache.get(txHash);
+		BitcoinyTransaction transaction = this.getCachedTransaction(txHash);
 		if (transaction != null)
 			return transaction;
 
-		Object transactionObj = null;
+		RpcResult rpcResult = null;
 
 		do {
 			try {
-				transactionObj = this.rpc("blockchain.transaction.get", txHash, true);
+				rpcResult = this.rpcResult("blockchain.transaction.get", txHash, true);
 			} catch (ForeignBlockchainException.NetworkException e) {
 				// DaemonError({'code': -5, 'message': 'No such mempool or blockchain transaction. Use gettransaction for wallet transactions.'})
 				if (Integer.valueOf(-5).equals(e.getDaemonErrorCode()))
@@ -433,8 +506,117 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 
 				throw e;
 			}
-		} while (transactionObj == null);
+		} while (rpcResult == null);
 
+		transaction = this.parseTransaction(txHash, rpcResult.result, rpcResult.server);
+
+		// Save into cache
+		this.cacheTransaction(transaction);
+
+		return transaction;
+	}
+
+	/**
+	 * Returns transaction info for passed transaction hashes, in the same order.
+	 * <p>
+	 * Uncached transactions are requested from ElectrumX in JSON-RPC batches.
+	 * Any that can't be fetched that way are requested individually.
+	 *
+	 * @throws ForeignBlockchainException.NotFoundException if a transaction not found
+	 * @throws ForeignBlockchainException if error occurs
+	 */
+	@Override
+	public List<BitcoinyTransaction> getTransactions(List<String> txHashes) throws ForeignBlockchainException {
+		Map<String, BitcoinyTransaction> transactionsByHash = new HashMap<>();
+		List<String> uncachedTxHashes = new ArrayList<>();
+
+		for (String txHash : txHashes) {
+			BitcoinyTransaction transaction = this.getCachedTransaction(txHash);
+			if (transaction != null)
+				transactionsByHash.put(txHash, transaction);
+			else if (!uncachedTxHashes.contains(txHash))
+				uncachedTxHashes.add(txHash);
+		}
+
+		for (int fromIndex = 0; fromIndex < uncachedTxHashes.size(); fromIndex += MAX_BATCH_SIZE) {
+			List<String> batchTxHashes = uncachedTxHashes.subList(fromIndex, Math.min(fromIndex + MAX_BATCH_SIZE, uncachedTxHashes.size()));
+
+			List<Object[]> paramsList = new ArrayList<>(batchTxHashes.size());
+			for (String txHash : batchTxHashes)
+				paramsList.add(new Object[] { txHash, true });
+
+			BatchResult batchResult;
+			try {
+				batchResult = this.rpcBatch("blockchain.transaction.get", paramsList);
+			} catch (ForeignBlockchainException.NetworkException e) {
+				// Fall back to individual requests below
+				continue;
+			}
+
+			for (int i = 0; i < batchTxHashes.size(); ++i) {
+				Object transactionObj = batchResult.results.get(i);
+				if (transactionObj == null)
+					continue;
+
+				String txHash = batchTxHashes.get(i);
+				try {
+					BitcoinyTransaction transaction = this.parseTransaction(txHash, transactionObj, batchResult.server);
+					this.cacheTransaction(transaction);
+					transactionsByHash.put(txHash, transaction);
+				} catch (ForeignBlockchainException e) {
+					// Fall back to individual request below
+				}
+			}
+		}
+
+		List<BitcoinyTransaction> transactions = new ArrayList<>(txHashes.size());
+		for (String txHash : txHashes) {
+			BitcoinyTransaction transaction = transactionsByHash.get(txHash);
+			if (transaction == null) {
+				// Errors, such as unknown transactions, are handled individually
+				transaction = this.getTransaction(txHash);
+				transactionsByHash.put(txHash, transaction);
+			}
+
+			transactions.add(transaction);
+		}
+
+		return transactions;
+	}
+
+	/** Returns transaction from in-memory cache, or persistent cache, or null if not cached. */
+	private BitcoinyTransaction getCachedTransaction(String txHash) {
+		BitcoinyTransaction transaction = transactionCache.get(txHash);
+		if (transaction != null)
+			return transaction;
+
+		ForeignChainCache persistentCache = this.persistentCache;
+		if (persistentCache == null)
+			return null;
+
+		transaction = persistentCache.getTransaction(txHash);
+		if (transaction != null)
+			transactionCache.put(txHash, transaction);
+
+		return transaction;
+	}
+
+	private void cacheTransaction(BitcoinyTransaction transaction) {
+		transactionCache.put(transaction.txHash, transaction);
+
+		// Only confirmed transactions have a timestamp, which could otherwise change
+		ForeignChainCache persistentCache = this.persistentCache;
+		if (persistentCache != null && transaction.timestamp != null)
+			persistentCache.putTransaction(transaction);
+	}
+
+	/**
+	 * Returns transaction info from <tt>transactionObj</tt>, the verbose result of blockchain.transaction.get.
+	 *
+	 * @param server the server that supplied <tt>transactionObj</tt>
+	 * @throws ForeignBlockchainException if result is unusable
+	 */
+	private BitcoinyTransaction parseTransaction(String txHash, Object transactionObj, ChainableServer server) throws ForeignBlockchainException {
 		if (!(transactionObj instanceof JSONObject))
 			throw new ForeignBlockchainException.NetworkException("Expected JSONObject as response from ElectrumX blockchain.transaction.get RPC");
 
@@ -502,9 +684,9 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 				// The code below can remain in place, just in case a peer returns a missing address in the future
 				if (addresses == null || addresses.isEmpty()) {
 					final String message = String.format("No output addresses returned for transaction %s", txHash);
-					if (this.currentServer != null) {
-						this.uselessServers.add(this.currentServer);
-						this.closeServer(this.currentServer, this.getClass().getSimpleName(), message);
+					if (server != null) {
+						this.uselessServers.add(server);
+						this.closeServer(server, this.getClass().getSimpleName(), message);
 					}
 					LOGGER.info("No output addresses returned for transaction {}", txHash);
 					throw new ForeignBlockchainException(message);
@@ -513,12 +695,7 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 				outputs.add(new BitcoinyTransaction.Output(scriptPubKey, value, addresses));
 			}
 
-			transaction = new BitcoinyTransaction(txHash, size, locktime, timestamp, inputs, outputs);
-
-			// Save into cache
-			transactionCache.put(txHash, transaction);
-
-			return transaction;
+			return new BitcoinyTransaction(txHash, size, locktime, timestamp, inputs, outputs);
 		} catch (NullPointerException | ClassCastException e) {
 			// Unexpected / invalid response from ElectrumX server
 		}
@@ -582,15 +759,15 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 	// Class-private utility methods
 
 	/**
-	 * Query current server for its list of peer servers, and return those we can parse.
+	 * Query server for its list of peer servers, and return those we can parse.
 	 * <p>
 	 * @throws ForeignBlockchainException
 	 * @throws ClassCastException to be handled by caller
 	 */
-	private Set<Server> serverPeersSubscribe() throws ForeignBlockchainException {
+	private Set<Server> serverPeersSubscribe(ElectrumXConnection connection) throws ForeignBlockchainException {
 		Set<Server> newServers = new HashSet<>();
 
-		Object peers = this.connectedRpc("server.peers.subscribe");
+		Object peers = this.connectedRpc(connection, "server.peers.subscribe");
 
 		for (Object rawPeer : (JSONArray) Objects.requireNonNull(peers)) {
 			JSONArray peer = (JSONArray) rawPeer;
@@ -643,6 +820,29 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 		return newServers;
 	}
 
+	/** "result" of an RPC call, and the server that supplied it. */
+	private static class RpcResult {
+		private final Object result;
+		private final ChainableServer server;
+
+		private RpcResult(Object result, ChainableServer server) {
+			this.result = result;
+			this.server = server;
+		}
+	}
+
+	/** "result"s of a batch RPC call, in request order, and the server that supplied them. */
+	private static class BatchResult {
+		/** Entries are null where server returned an error, or nothing */
+		private final List<Object> results;
+		private final ChainableServer server;
+
+		private BatchResult(List<Object> results, ChainableServer server) {
+			this.results = results;
+			this.server = server;
+		}
+	}
+
 	/**
 	 * Performs RPC call, with automatic reconnection to different server if needed.
 	 * <p>
@@ -650,128 +850,313 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 	 * @throws ForeignBlockchainException if server returns error or something goes wrong
 	 */
 	private Object rpc(String method, Object...params) throws ForeignBlockchainException {
+		return this.rpcResult(method, params).result;
+	}
+
+	/**
+	 * Performs RPC call, with automatic reconnection to different server if needed.
+	 * <p>
+	 * Calls from different threads can be in flight at the same time,
+	 * over the same connection or spread across our pool of connections.
+	 *
+	 * @return "result" object from within JSON output, with the server that supplied it
+	 * @throws ForeignBlockchainException if server returns error or something goes wrong
+	 */
+	private RpcResult rpcResult(String method, Object...params) throws ForeignBlockchainException {
+		this.refillRemainingServers();
+
+		ElectrumXConnection connection;
+		while ((connection = this.getConnection()) != null) {
+			Object response = this.connectedRpc(connection, method, params);
+
+			if (response != null) {
+				this.checkResponseTime(connection);
+				return new RpcResult(response, connection.getServer());
+			}
+
+			LOGGER.info(NULL_RESPONSE_FROM_ELECTRUM_X_SERVER);
+			// Didn't work, try another server...
+			this.closeConnection(connection, this.getClass().getSimpleName(), NULL_RESPONSE_FROM_ELECTRUM_X_SERVER);
+		}
+
+		// Failed to perform RPC - maybe lack of servers?
+		LOGGER.info("Error: No connected Electrum servers when trying to make RPC call");
+		throw new ForeignBlockchainException.NetworkException(String.format("Failed to perform ElectrumX RPC %s", method));
+	}
+
+	/**
+	 * Performs same RPC method with each entry of <tt>paramsList</tt>, as one JSON-RPC batch,
+	 * with automatic reconnection to different server if needed.
+	 * <p>
+	 * Errors for individual requests are not thrown, but leave null entries in results,
+	 * so caller can retry those requests individually.
+	 *
+	 * @throws ForeignBlockchainException if no server could handle batch
+	 */
+	private BatchResult rpcBatch(String method, List<Object[]> paramsList) throws ForeignBlockchainException {
+		this.refillRemainingServers();
+
+		List<JSONArray> requestParamsList = new ArrayList<>(paramsList.size());
+		for (Object[] params : paramsList)
+			requestParamsList.add(buildRequestParams(method, params));
+
+		ElectrumXConnection connection;
+		while ((connection = this.getConnection()) != null) {
+			List<JSONObject> responses = connection.requestBatch(method, requestParamsList, RESPONSE_TIMEOUT);
+
+			if (responses != null) {
+				List<Object> results = new ArrayList<>(responses.size());
+				for (JSONObject responseJson : responses)
+					results.add(responseJson == null || responseJson.get("error") != null ? null : responseJson.get("result"));
+
+				return new BatchResult(results, connection.getServer());
+			}
+
+			LOGGER.info(NULL_RESPONSE_FROM_ELECTRUM_X_SERVER);
+			// Didn't work, try another server...
+			this.closeConnection(connection, this.getClass().getSimpleName(), NULL_RESPONSE_FROM_ELECTRUM_X_SERVER);
+		}
+
+		LOGGER.info("Error: No connected Electrum servers when trying to make batch RPC call");
+		throw new ForeignBlockchainException.NetworkException(String.format("Failed to perform ElectrumX batch RPC %s", method));
+	}
+
+	/** Gives every server another chance, once we've run out of servers to try. */
+	private void refillRemainingServers() {
 		synchronized (this.serverLock) {
 			if (this.remainingServers.isEmpty())
 				this.remainingServers.addAll(this.servers);
+		}
+	}
 
-			while (haveConnection()) {
-				Object response = connectedRpc(method, params);
+	/** If we have more servers and this one replies slowly, try another. */
+	private void checkResponseTime(ElectrumXConnection connection) {
+		synchronized (this.serverLock) {
+			if (this.remainingServers.isEmpty())
+				return;
 
-				// If we have more servers and this one replied slowly, try another
-				if (!this.remainingServers.isEmpty()) {
-					long averageResponseTime = this.currentServer.averageResponseTime();
-					if (averageResponseTime > MAX_AVG_RESPONSE_TIME) {
-						String message = String.format("Slow average response time %dms from %s - trying another server...", averageResponseTime, this.currentServer.getHostName());
-						LOGGER.info(message);
-						this.closeServer(this.getClass().getSimpleName(), message);
-						break;
+			long averageResponseTime = connection.getServer().averageResponseTime();
+			if (averageResponseTime > MAX_AVG_RESPONSE_TIME) {
+				String message = String.format("Slow average response time %dms from %s - trying another server...", averageResponseTime, connection.getServer().getHostName());
+				LOGGER.info(message);
+				this.closeConnection(connection, this.getClass().getSimpleName(), message);
+			}
+		}
+	}
+
+	/**
+	 * Returns least busy connection, connecting to another server if we have no connections,
+	 * or if all our connections are busy and we have room for more.
+	 *
+	 * @return connection, or null if we couldn't connect to any server
+	 */
+	private ElectrumXConnection getConnection() {
+		ElectrumXConnection connection = this.getLeastBusyConnection();
+		if (connection != null && !this.wantsMoreConnections(connection))
+			return connection;
+
+		// If we already have a (busy) connection, only try one more server rather than holding everyone up
+		boolean tryAllServers = connection == null;
+
+		while (true) {
+			ChainableServer server;
+
+			synchronized (this.serverLock) {
+				this.connections.removeIf(ElectrumXConnection::isClosed);
+
+				// Another thread might have connected while we were waiting
+				connection = this.getLeastBusyConnection();
+				if (connection != null && !this.wantsMoreConnections(connection))
+					return connection;
+
+				// If another thread is already connecting, wait for it rather than connecting to every server at once
+				if (connection == null && !this.connectingServers.isEmpty()) {
+					try {
+						this.serverLock.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return null;
 					}
+
+					continue;
 				}
 
-				if (response != null)
-					return response;
+				server = this.takeRemainingServer();
+				if (server == null)
+					return connection;
+
+				this.connectingServers.add(server);
+			}
 
-				LOGGER.info(NULL_RESPONSE_FROM_ELECTRUM_X_SERVER);
-				// Didn't work, try another server...
-				this.closeServer(this.getClass().getSimpleName(), NULL_RESPONSE_FROM_ELECTRUM_X_SERVER);
+			// Connect without holding serverLock, as this takes several round-trips
+			Optional<ChainableServerConnection> chainableServerConnection = this.makeConnection(server, this.getClass().getSimpleName(), false);
+			if (chainableServerConnection.isPresent() && chainableServerConnection.get().isSuccess()) {
+				ElectrumXConnection newConnection = this.findConnection(server);
+				if (newConnection != null)
+					return newConnection;
 			}
 
-			// Failed to perform RPC - maybe lack of servers?
-			LOGGER.info("Error: No connected Electrum servers when trying to make RPC call");
-			throw new ForeignBlockchainException.NetworkException(String.format("Failed to perform ElectrumX RPC %s", method));
+			if (!tryAllServers)
+				return this.getLeastBusyConnection();
 		}
 	}
 
-	/** Returns true if we have, or create, a connection to an ElectrumX server. */
-	private boolean haveConnection() throws ForeignBlockchainException {
-		if (this.currentServer != null)
-			return true;
-
+	/** Removes, and returns, random server from remaining servers that we're not connected, or connecting, to, or null if none. Caller must hold serverLock. */
+	private ChainableServer takeRemainingServer() {
 		while (!this.remainingServers.isEmpty()) {
 			ChainableServer server = this.remainingServers.remove(RANDOM.nextInt(this.remainingServers.size()));
-			Optional<ChainableServerConnection> chainableServerConnection = makeConnection(server, this.getClass().getSimpleName());
-			if(chainableServerConnection.isPresent() && chainableServerConnection.get().isSuccess() ) return true;
+			if (this.findConnection(server) == null && !this.connectingServers.contains(server))
+				return server;
+		}
+
+		return null;
+	}
+
+	private boolean wantsMoreConnections(ElectrumXConnection leastBusyConnection) {
+		return leastBusyConnection.getPendingRequestCount() >= BUSY_CONNECTION_REQUESTS
+				&& this.connections.size() < MAX_CONNECTIONS
+				&& !this.remainingServers.isEmpty();
+	}
+
+	/** Returns open connection with fewest requests in flight, preferring current server, or null if none. */
+	private ElectrumXConnection getLeastBusyConnection() {
+		ElectrumXConnection leastBusyConnection = null;
+
+		for (ElectrumXConnection connection : this.connections) {
+			if (connection.isClosed())
+				continue;
+
+			if (leastBusyConnection == null || connection.getPendingRequestCount() < leastBusyConnection.getPendingRequestCount())
+				leastBusyConnection = connection;
 		}
 
-		return false;
+		return leastBusyConnection;
 	}
 
-	private Optional<ChainableServerConnection> makeConnection(ChainableServer server, String requestedBy) {
+	private ElectrumXConnection findConnection(ChainableServer server) {
+		for (ElectrumXConnection connection : this.connections)
+			if (connection.getServer().equals(server))
+				return connection;
+
+		return null;
+	}
+
+	/**
+	 * Connects to <tt>server</tt>, adding it to our pool of connections if suitable.
+	 * <p>
+	 * Must not be called while holding <tt>serverLock</tt>, as connecting takes several round-trips.
+	 * The lock is only taken to publish the new connection.
+	 * Caller must add <tt>server</tt> to <tt>connectingServers</tt> beforehand.
+	 *
+	 * @param makeCurrent whether server should become current, i.e. preferred, server
+	 */
+	private Optional<ChainableServerConnection> makeConnection(ChainableServer server, String requestedBy, boolean makeCurrent) {
 		LOGGER.info(() -> String.format("Connecting to %s", server));
 
+		Socket socket = null;
+		boolean isConnected = false;
+
 		try {
 			SocketAddress endpoint = new InetSocketAddress(server.getHostName(), server.getPort());
 			int timeout = 5000; // ms
 
-			this.socket = new Socket();
-			this.socket.connect(endpoint, timeout);
-			this.socket.setTcpNoDelay(true);
+			socket = new Socket();
+			socket.connect(endpoint, timeout);
+			socket.setTcpNoDelay(true);
 
 			if (server.getConnectionType() == Server.ConnectionType.SSL) {
 				SSLSocketFactory factory = TrustlessSSLSocketFactory.getSocketFactory();
-				this.socket = factory.createSocket(this.socket, server.getHostName(), server.getPort(), true);
+				socket = factory.createSocket(socket, server.getHostName(), server.getPort(), true);
 			}
 
-			this.scanner = new Scanner(this.socket.getInputStream());
-			this.scanner.useDelimiter("\n");
+			ElectrumXConnection connection = new ElectrumXConnection(server, socket);
 
 			// All connections need to start with a version negotiation
-			this.connectedRpc("server.version");
+			this.connectedRpc(connection, "server.version");
 
 			// Check connection is suitable by asking for server features, including genesis block hash
-			JSONObject featuresJson = (JSONObject) this.connectedRpc("server.features");
+			JSONObject featuresJson = (JSONObject) this.connectedRpc(connection, "server.features");
 
 			if (featuresJson == null )
-				return Optional.of( recorder.recordConnection(server, requestedBy, true,  false, MISSING_FEATURES_ERROR) );
+				return Optional.of( this.recordConnection(server, requestedBy, true,  false, MISSING_FEATURES_ERROR) );
 
 			try {
 				double protocol_min = CrossChainUtils.getVersionDecimal(featuresJson, "protocol_min");
 
 				if (protocol_min < MIN_PROTOCOL_VERSION)
-					return Optional.of( recorder.recordConnection(server, requestedBy, true,  false, "old version: protocol_min = " + protocol_min + " < MIN_PROTOCOL_VERSION = " + MIN_PROTOCOL_VERSION) );
+					return Optional.of( this.recordConnection(server, requestedBy, true,  false, "old version: protocol_min = " + protocol_min + " < MIN_PROTOCOL_VERSION = " + MIN_PROTOCOL_VERSION) );
 			} catch (NumberFormatException e) {
-				return Optional.of( recorder.recordConnection(server, requestedBy,true, false,featuresJson.get("protocol_min").toString() + " is not a valid version"));
+				return Optional.of( this.recordConnection(server, requestedBy,true, false,featuresJson.get("protocol_min").toString() + " is not a valid version"));
 			} catch (NullPointerException e) {
-				return Optional.of( recorder.recordConnection(server, requestedBy,true, false,"server version not available: protocol_min"));
+				return Optional.of( this.recordConnection(server, requestedBy,true, false,"server version not available: protocol_min"));
 			}
 
 			if (this.expectedGenesisHash != null && !((String) featuresJson.get("genesis_hash")).equals(this.expectedGenesisHash))
-				return Optional.of( recorder.recordConnection(server, requestedBy, true, false, EXPECTED_GENESIS_ERROR) );
+				return Optional.of( this.recordConnection(server, requestedBy, true, false, EXPECTED_GENESIS_ERROR) );
 
 			// Ask for more servers
-			Set<Server> moreServers = serverPeersSubscribe();
+			Set<Server> moreServers = serverPeersSubscribe(connection);
 
-			// Discard duplicate servers we already know
-			moreServers.removeAll(this.servers);
+			synchronized (this.serverLock) {
+				// Discard duplicate servers we already know
+				moreServers.removeAll(this.servers);
 
-			// Add all servers to both lists
-			this.remainingServers.addAll(moreServers);
-			this.servers.addAll(moreServers);
+				// Add all servers to both lists
+				this.remainingServers.addAll(moreServers);
+				this.servers.addAll(moreServers);
+
+				// Another thread might have connected to this server while we were connecting
+				ElectrumXConnection existingConnection = this.findConnection(server);
+				if (existingConnection != null) {
+					if (makeCurrent && this.connections.remove(existingConnection))
+						this.connections.add(0, existingConnection);
+
+					return Optional.of( this.recorder.recordConnection( server, requestedBy, true, true, "already connected") );
+				}
 
-			LOGGER.info(() -> String.format("Connected to %s", server));
-			this.currentServer = server;
-			return Optional.of( this.recorder.recordConnection( server, requestedBy, true, true, EMPTY) );
+				// ...or filled our pool
+				if (!makeCurrent && this.connections.size() >= MAX_CONNECTIONS)
+					return Optional.of( this.recorder.recordConnection( server, requestedBy, true, false, "enough connections") );
+
+				LOGGER.info(() -> String.format("Connected to %s", server));
+				if (makeCurrent)
+					this.connections.add(0, connection);
+				else
+					this.connections.add(connection);
+
+				isConnected = true;
+				return Optional.of( this.recorder.recordConnection( server, requestedBy, true, true, EMPTY) );
+			}
 		} catch (IOException | ForeignBlockchainException | ClassCastException | NullPointerException e) {
 			// Didn't work, try another server...
-			return Optional.of( this.recorder.recordConnection( server, requestedBy, true, false, CrossChainUtils.getNotes(e)));
+			return Optional.of( this.recordConnection( server, requestedBy, true, false, CrossChainUtils.getNotes(e)));
+		} finally {
+			if (!isConnected && socket != null)
+				try {
+					// Also stops connection's reader, if any
+					socket.close();
+				} catch (IOException e) {
+					// We did try...
+				}
+
+			synchronized (this.serverLock) {
+				this.connectingServers.remove(server);
+
+				// Wake threads waiting for this attempt
+				this.serverLock.notifyAll();
+			}
 		}
 	}
 
-	/**
-	 * Perform RPC using currently connected server.
-	 * <p>
-	 * @param method
-	 * @param params
-	 * @return response Object, or null if server fails to respond
-	 * @throws ForeignBlockchainException if server returns error
-	 */
-	@SuppressWarnings("unchecked")
-	private Object connectedRpc(String method, Object...params) throws ForeignBlockchainException {
-		JSONObject requestJson = new JSONObject();
-		requestJson.put("id", this.nextId++);
-		requestJson.put("method", method);
-		requestJson.put("jsonrpc", "2.0");
+	/** Records connection attempt, as recorder isn't thread-safe. */
+	private ChainableServerConnection recordConnection(ChainableServer server, String requestedBy, boolean open, boolean success, String notes) {
+		synchronized (this.serverLock) {
+			return this.recorder.recordConnection(server, requestedBy, open, success, notes);
+		}
+	}
 
+	@SuppressWarnings("unchecked")
+	private static JSONArray buildRequestParams(String method, Object...params) {
 		JSONArray requestParams = new JSONArray();
 		requestParams.addAll(Arrays.asList(params));
 
@@ -785,58 +1170,36 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 			requestParams.add(versions);
 		}
 
-		requestJson.put("params", requestParams);
-
-		String request = requestJson.toJSONString() + "\n";
-		LOGGER.trace(() -> String.format("Request: %s", request));
+		return requestParams;
+	}
 
-		long startTime = System.currentTimeMillis();
-		final String response;
+	/**
+	 * Perform RPC using passed connection.
+	 * <p>
+	 * @param connection
+	 * @param method
+	 * @param params
+	 * @return response Object, or null if server fails to respond
+	 * @throws ForeignBlockchainException if server returns error
+	 */
+	private Object connectedRpc(ElectrumXConnection connection, String method, Object...params) throws ForeignBlockchainException {
+		ChainableServer server = connection.getServer();
 
-		try {
-			this.socket.getOutputStream().write(request.getBytes());
-			response = scanner.next();
-		} catch (IOException | NoSuchElementException e) {
+		JSONObject responseJson = connection.request(method, buildRequestParams(method, params), RESPONSE_TIMEOUT);
+		if (responseJson == null)
 			// Unable to send, or receive -- try another server?
 			return null;
-		} catch (NoSuchMethodError e) {
-			// Likely an SSL dependency issue - retries are unlikely to succeed
-			LOGGER.error("ElectrumX output stream error", e);
-			return null;
-		}
-
-		long endTime = System.currentTimeMillis();
-		long responseTime = endTime-startTime;
-
-		LOGGER.trace(() -> String.format("Response: %s", response));
-		LOGGER.trace(() -> String.format("Time taken: %dms", endTime-startTime));
-
-		if (response.isEmpty())
-			// Empty response - try another server?
-			return null;
-
-		Object responseObj = JSONValue.parse(response);
-		if (!(responseObj instanceof JSONObject))
-			// Unexpected response - try another server?
-			return null;
-
-		// Keep track of response times
-		if (this.currentServer != null) {
-			this.currentServer.addResponseTime(responseTime);
-		}
-
-		JSONObject responseJson = (JSONObject) responseObj;
 
 		Object errorObj = responseJson.get("error");
 		if (errorObj != null) {
 			if (errorObj instanceof String) {
-				LOGGER.debug(String.format("Unexpected error message from ElectrumX server %s for RPC method %s: %s", this.currentServer, method, (String) errorObj));
+				LOGGER.debug(String.format("Unexpected error message from ElectrumX server %s for RPC method %s: %s", server, method, (String) errorObj));
 				// Try another server
 				return null;
 			}
 
 			if (!(errorObj instanceof JSONObject)) {
-				LOGGER.debug(String.format("Unexpected error response from ElectrumX server %s for RPC method %s", this.currentServer, method));
+				LOGGER.debug(String.format("Unexpected error response from ElectrumX server %s for RPC method %s", server, method));
 				// Try another server
 				return null;
 			}
@@ -846,7 +1209,7 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 			Object messageObj = errorJson.get("message");
 
 			if (!(messageObj instanceof String)) {
-				LOGGER.debug(String.format("Missing/invalid message in error response from ElectrumX server %s for RPC method %s", this.currentServer, method));
+				LOGGER.debug(String.format("Missing/invalid message in error response from ElectrumX server %s for RPC method %s", server, method));
 				// Try another server
 				return null;
 			}
@@ -860,52 +1223,44 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 			if (messageMatcher.find())
 				try {
 					int daemonErrorCode = Integer.parseInt(messageMatcher.group(1));
-					throw new ForeignBlockchainException.NetworkException(daemonErrorCode, message, this.currentServer);
+					throw new ForeignBlockchainException.NetworkException(daemonErrorCode, message, server);
 				} catch (NumberFormatException e) {
 					// We couldn't parse the error code integer? Fall-through to generic exception...
 				}
 
-			throw new ForeignBlockchainException.NetworkException(message, this.currentServer);
+			throw new ForeignBlockchainException.NetworkException(message, server);
 		}
 
 		return responseJson.get("result");
 	}
 
 	/**
-	 * Closes connection to <tt>server</tt> if it is currently connected server.
+	 * Closes connection to <tt>server</tt>, if connected.
 	 *
 	 * @param server
 	 * @param notes
 	 */
 	private Optional<ChainableServerConnection> closeServer(ChainableServer server, String requestedBy, String notes) {
-
-		ChainableServerConnection chainableServerConnection;
-
 		synchronized (this.serverLock) {
-			if (this.currentServer == null || !this.currentServer.equals(server))
+			ElectrumXConnection connection = this.findConnection(server);
+			if (connection == null)
 				return Optional.empty();
 
-			chainableServerConnection = this.recorder.recordConnection(server, requestedBy, false, true, notes);
-
-			if (this.socket != null && !this.socket.isClosed())
-				try {
-					this.socket.close();
-				} catch (IOException e) {
-					// We did try...
-				}
-
-			this.socket = null;
-			this.scanner = null;
-			this.currentServer = null;
+			return this.closeConnection(connection, requestedBy, notes);
 		}
-
-		return Optional.of( chainableServerConnection );
 	}
 
-	/** Closes connection to currently connected server (if any). */
-	private Optional<ChainableServerConnection> closeServer(String requestedBy, String notes) {
+	/** Closes <tt>connection</tt>, unless it has already been removed from our pool. */
+	private Optional<ChainableServerConnection> closeConnection(ElectrumXConnection connection, String requestedBy, String notes) {
 		synchronized (this.serverLock) {
-			return this.closeServer(this.currentServer, requestedBy, notes);
+			if (!this.connections.remove(connection))
+				return Optional.empty();
+
+			ChainableServerConnection chainableServerConnection = this.recorder.recordConnection(connection.getServer(), requestedBy, false, true, notes);
+
+			connection.close();
+
+			return Optional.of( chainableServerConnection );
 		}
 	}
 
@@ -927,7 +1282,8 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 
 	@Override
 	public ChainableServer getCurrentServer() {
-		return currentServer;
+		ElectrumXConnection connection = this.connections.stream().filter(c -> !c.isClosed()).findFirst().orElse(null);
+		return connection != null ? connection.getServer() : null;
 	}
 
 	@Override
@@ -945,7 +1301,16 @@ public class ElectrumX extends BitcoinyBlockchainProvider {
 
 	@Override
 	public Optional<ChainableServerConnection> setCurrentServer(ChainableServer server, String requestedBy) {
-		return this.makeConnection(server, requestedBy);
+		synchronized (this.serverLock) {
+			ElectrumXConnection existingConnection = this.findConnection(server);
+			if (existingConnection != null)
+				this.closeConnection(existingConnection, requestedBy, "Reconnecting by request.");
+
+			this.connectingServers.add(server);
+		}
+
+		// Connect without holding serverLock, as this takes several round-trips
+		return this.makeConnection(server, requestedBy, true);
 	}
 
 	@Override
@@ -0,0 +1,264 @@
+package org.qortal.crosschain;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection to a single ElectrumX server, allowing many JSON-RPC requests to be in flight at once.
+ * <p>
+ * Each request is tagged with a unique ID and written as soon as it is made.
+ * A reader thread matches each response, or each entry of a batch response, back to its request by ID,
+ * so callers only wait for their own responses, not for every request queued ahead of them.
+ */
+public class ElectrumXConnection {
+
+	private static final Logger LOGGER = LogManager.getLogger(ElectrumXConnection.class);
+
+	private static final class PendingRequest {
+		private final CompletableFuture<JSONObject> future = new CompletableFuture<>();
+		private final long sendTime = System.currentTimeMillis();
+		/** Whether to record response time, which is only meaningful for single requests */
+		private final boolean isTimed;
+
+		private PendingRequest(boolean isTimed) {
+			this.isTimed = isTimed;
+		}
+	}
+
+	private final ChainableServer server;
+	private final Socket socket;
+	private final OutputStream outputStream;
+	private final BufferedReader reader;
+	private final Thread readerThread;
+
+	private final AtomicLong nextId = new AtomicLong(1);
+	private final Map<Long, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+	private volatile boolean isClosed = false;
+
+	/**
+	 * Wraps already-connected <tt>socket</tt> to <tt>server</tt>, and starts reading responses.
+	 *
+	 * @throws IOException if socket's streams are unavailable
+	 */
+	public ElectrumXConnection(ChainableServer server, Socket socket) throws IOException {
+		this.server = server;
+		this.socket = socket;
+		this.outputStream = socket.getOutputStream();
+		this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+		this.readerThread = new Thread(this::readResponses, String.format("ElectrumX reader %s", server));
+		this.readerThread.setDaemon(true);
+		this.readerThread.start();
+	}
+
+	public ChainableServer getServer() {
+		return this.server;
+	}
+
+	public boolean isClosed() {
+		return this.isClosed;
+	}
+
+	/** Returns number of requests still awaiting responses. */
+	public int getPendingRequestCount() {
+		return this.pendingRequests.size();
+	}
+
+	/**
+	 * Sends request, returning response JSON object, including "id", "result" and/or "error".
+	 *
+	 * @return response, or null if connection failed or no response arrived within <tt>timeout</tt> ms
+	 */
+	public JSONObject request(String method, JSONArray params, long timeout) {
+		long id = this.nextId.getAndIncrement();
+
+		JSONObject requestJson = buildRequest(id, method, params);
+		PendingRequest pendingRequest = new PendingRequest(true);
+		this.pendingRequests.put(id, pendingRequest);
+
+		try {
+			if (!this.send(requestJson.toJSONString()))
+				return null;
+
+			return this.await(pendingRequest, System.currentTimeMillis() + timeout);
+		} finally {
+			this.pendingRequests.remove(id);
+		}
+	}
+
+	/**
+	 * Sends requests as one JSON-RPC batch, returning responses in same order as <tt>paramsList</tt>.
+	 * <p>
+	 * Entries are null for requests that the server didn't answer.
+	 *
+	 * @return responses, or null if connection failed or no responses arrived within <tt>timeout</tt> ms
+	 */
+	@SuppressWarnings("unchecked")
+	public List<JSONObject> requestBatch(String method, List<JSONArray> paramsList, long timeout) {
+		JSONArray batchJson = new JSONArray();
+		List<Long> ids = new ArrayList<>(paramsList.size());
+		List<PendingRequest> batchRequests = new ArrayList<>(paramsList.size());
+
+		for (JSONArray params : paramsList) {
+			long id = this.nextId.getAndIncrement();
+			PendingRequest pendingRequest = new PendingRequest(false);
+			this.pendingRequests.put(id, pendingRequest);
+
+			batchJson.add(buildRequest(id, method, params));
+			ids.add(id);
+			batchRequests.add(pendingRequest);
+		}
+
+		try {
+			if (!this.send(batchJson.toJSONString()))
+				return null;
+
+			long deadline = System.currentTimeMillis() + timeout;
+			List<JSONObject> responses = new ArrayList<>(batchRequests.size());
+			boolean anyResponse = false;
+
+			for (PendingRequest pendingRequest : batchRequests) {
+				JSONObject response = this.await(pendingRequest, deadline);
+				if (response == null && this.isClosed)
+					return null;
+
+				anyResponse |= response != null;
+				responses.add(response);
+			}
+
+			return anyResponse ? responses : null;
+		} finally {
+			ids.forEach(this.pendingRequests::remove);
+		}
+	}
+
+	/** Closes socket, failing any requests still awaiting responses. */
+	public void close() {
+		this.isClosed = true;
+
+		try {
+			this.socket.close();
+		} catch (IOException e) {
+			// We did try...
+		}
+
+		// Wake up anyone still waiting
+		this.pendingRequests.values().forEach(pendingRequest -> pendingRequest.future.complete(null));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static JSONObject buildRequest(long id, String method, JSONArray params) {
+		JSONObject requestJson = new JSONObject();
+		requestJson.put("id", id);
+		requestJson.put("method", method);
+		requestJson.put("jsonrpc", "2.0");
+		requestJson.put("params", params);
+		return requestJson;
+	}
+
+	private boolean send(String request) {
+		if (this.isClosed)
+			return false;
+
+		LOGGER.trace(() -> String.format("Request to %s: %s", this.server, request));
+
+		byte[] requestBytes = (request + "\n").getBytes(StandardCharsets.UTF_8);
+
+		try {
+			// Requests must not interleave on the wire
+			synchronized (this.outputStream) {
+				this.outputStream.write(requestBytes);
+				this.outputStream.flush();
+			}
+
+			return true;
+		} catch (IOException e) {
+			// Unable to send -- caller can try another server
+			this.close();
+			return false;
+		} catch (NoSuchMethodError e) {
+			// Likely an SSL dependency issue - retries are unlikely to succeed
+			LOGGER.error("ElectrumX output stream error", e);
+			this.close();
+			return false;
+		}
+	}
+
+	private JSONObject await(PendingRequest pendingRequest, long deadline) {
+		long remaining = deadline - System.currentTimeMillis();
+
+		try {
+			return pendingRequest.future.get(Math.max(0L, remaining), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException | ExecutionException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private void readResponses() {
+		try {
+			String line;
+			while (!this.isClosed && (line = this.reader.readLine()) != null) {
+				if (line.isEmpty())
+					continue;
+
+				final String response = line;
+				LOGGER.trace(() -> String.format("Response from %s: %s", this.server, response));
+
+				Object responseObj = JSONValue.parse(response);
+
+				if (responseObj instanceof JSONArray) {
+					// Batch response, whose entries can be in any order
+					for (Object entry : (JSONArray) responseObj)
+						if (entry instanceof JSONObject)
+							this.dispatch((JSONObject) entry);
+				} else if (responseObj instanceof JSONObject) {
+					this.dispatch((JSONObject) responseObj);
+				} else {
+					// Unexpected response - caller can try another server
+					LOGGER.debug(() -> String.format("Unparseable response from ElectrumX server %s", this.server));
+					break;
+				}
+			}
+		} catch (IOException e) {
+			// Connection lost
+		} finally {
+			this.close();
+		}
+	}
+
+	private void dispatch(JSONObject responseJson) {
+		Object idObj = responseJson.get("id");
+		if (!(idObj instanceof Long))
+			// Subscription notification, or error not relating to any request
+			return;
+
+		PendingRequest pendingRequest = this.pendingRequests.get(idObj);
+		if (pendingRequest == null)
+			// Caller gave up waiting
+			return;
+
+		if (pendingRequest.isTimed)
+			this.server.addResponseTime(System.currentTimeMillis() - pendingRequest.sendTime);
+
+		pendingRequest.future.complete(responseJson);
+	}
+
+}
@@ -0,0 +1,483 @@
+package org.qortal.crosschain;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.qortal.settings.Settings;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Class ForeignChainCache
+ *
+ * Persistent cache of immutable foreign-chain data for one network, so wallet scans and
+ * trade-bot checks don't re-download it after a restart.
+ *
+ * Transactions are keyed by hash, so their content can't change. Block headers are keyed by height,
+ * so callers should only store headers deep enough not to be reorganized.
+ *
+ * Entries are held in memory, least-recently-used first, and appended to a file as they are added.
+ * Once the file holds too many stale records, it is rewritten with only the current entries.
+ */
+public class ForeignChainCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(ForeignChainCache.class);
+
+    private static final int FILE_MAGIC = 0x51464343; // "QFCC"
+    private static final int FILE_VERSION = 2;
+
+    /** Sanity limit on record length, to detect corruption */
+    private static final int MAX_RECORD_LENGTH = 4 * 1024 * 1024;
+
+    private static final byte TRANSACTION = 1;
+    private static final byte RAW_TRANSACTION = 2;
+    private static final byte BLOCK_HEADER = 3;
+
+    private static final Map<String, ForeignChainCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final int maxEntries;
+
+    /** Cache key -> BitcoinyTransaction or byte[], in access order */
+    private final LinkedHashMap<String, Object> entries;
+
+    private DataOutputStream output;
+    /** Number of records in file, including stale ones */
+    private int fileRecordCount = 0;
+
+    /**
+     * Get Instance
+     *
+     * @param netId the foreign network, e.g. "Bitcoin-MAIN"
+     *
+     * @return the cache for this network, or null if persistent caching is disabled
+     */
+    public static ForeignChainCache getInstance(String netId) {
+        int maxEntries = Settings.getInstance().getForeignChainCacheLimit();
+        if (maxEntries <= 0)
+            return null;
+
+        return INSTANCES.computeIfAbsent(netId, id -> {
+            String filename = id.replaceAll("[^A-Za-z0-9_.-]", "_") + ".dat";
+            return new ForeignChainCache(Paths.get(Settings.getInstance().getForeignChainCachePath(), filename), maxEntries);
+        });
+    }
+
+    /**
+     * Opens cache backed by <tt>path</tt>, loading any existing entries.
+     *
+     * @param path the cache file, created if missing
+     * @param maxEntries the maximum number of entries to keep
+     */
+    public ForeignChainCache(Path path, int maxEntries) {
+        this.path = path;
+        this.maxEntries = maxEntries;
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > ForeignChainCache.this.maxEntries;
+            }
+        };
+
+        boolean isFileValid = this.load();
+
+        try {
+            if (!isFileValid || this.fileRecordCount > this.entries.size())
+                this.compact();
+            else
+                this.openOutput();
+        } catch (IOException e) {
+            this.disablePersistence(e);
+        }
+    }
+
+    /**
+     * Get Transaction
+     *
+     * @param txHash the transaction hash
+     *
+     * @return the transaction, or null if not cached
+     */
+    public synchronized BitcoinyTransaction getTransaction(String txHash) {
+        return (BitcoinyTransaction) this.entries.get(transactionKey(txHash));
+    }
+
+    /**
+     * Put Transaction
+     *
+     * @param transaction a confirmed transaction
+     */
+    public synchronized void putTransaction(BitcoinyTransaction transaction) {
+        this.put(transactionKey(transaction.txHash), transaction);
+    }
+
+    /**
+     * Get Raw Transaction
+     *
+     * NOTE: Do not mutate returned byte[]!
+     *
+     * @param txHash the transaction hash
+     *
+     * @return the serialized transaction, or null if not cached
+     */
+    public synchronized byte[] getRawTransaction(String txHash) {
+        return (byte[]) this.entries.get(rawTransactionKey(txHash));
+    }
+
+    /**
+     * Put Raw Transaction
+     *
+     * @param txHash the transaction hash
+     * @param rawTransaction the serialized transaction
+     */
+    public synchronized void putRawTransaction(String txHash, byte[] rawTransaction) {
+        this.put(rawTransactionKey(txHash), rawTransaction);
+    }
+
+    /**
+     * Get Block Header
+     *
+     * NOTE: Do not mutate returned byte[]!
+     *
+     * @param height the block height
+     *
+     * @return the raw block header, or null if not cached
+     */
+    public synchronized byte[] getBlockHeader(int height) {
+        return (byte[]) this.entries.get(blockHeaderKey(height));
+    }
+
+    /**
+     * Put Block Header
+     *
+     * @param height the block height, which should be too deep to be reorganized
+     * @param blockHeader the raw block header
+     */
+    public synchronized void putBlockHeader(int height, byte[] blockHeader) {
+        this.put(blockHeaderKey(height), blockHeader);
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /** Closes cache file. Entries remain available in memory, but are no longer persisted. */
+    public synchronized void close() {
+        if (this.output == null)
+            return;
+
+        try {
+            this.output.close();
+        } catch (IOException e) {
+            // We did try...
+        }
+
+        this.output = null;
+    }
+
+    private static String transactionKey(String txHash) {
+        return "t" + txHash;
+    }
+
+    private static String rawTransactionKey(String txHash) {
+        return "r" + txHash;
+    }
+
+    private static String blockHeaderKey(int height) {
+        return "h" + height;
+    }
+
+    private void put(String key, Object value) {
+        this.entries.put(key, value);
+
+        if (this.output == null)
+            return;
+
+        try {
+            this.writeRecord(this.output, key, value);
+            this.output.flush();
+            this.fileRecordCount++;
+
+            // Rewrite file once it's mostly stale records
+            if (this.fileRecordCount > 2 * this.maxEntries)
+                this.compact();
+        } catch (IOException e) {
+            this.disablePersistence(e);
+        }
+    }
+
+    /** Stops writing to cache file, after failing to write to it. Entries remain available in memory. */
+    private void disablePersistence(IOException e) {
+        LOGGER.warn("Unable to write foreign chain cache {} - continuing without persistence: {}", this.path, e.getMessage());
+        this.close();
+    }
+
+    /**
+     * Loads entries from file.
+     *
+     * @return false if file was corrupt, or of unknown format, and needs rewriting
+     */
+    private boolean load() {
+        if (!Files.exists(this.path))
+            return true;
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.path)))) {
+            if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_VERSION)
+                return false;
+
+            while (true) {
+                int length;
+                try {
+                    length = input.readInt();
+                } catch (EOFException e) {
+                    // Clean end of file
+                    return true;
+                }
+
+                if (length <= 0 || length > MAX_RECORD_LENGTH)
+                    return false;
+
+                long expectedChecksum = input.readInt() & 0xffffffffL;
+                byte[] record = new byte[length];
+                input.readFully(record);
+
+                CRC32 crc32 = new CRC32();
+                crc32.update(record);
+                if (crc32.getValue() != expectedChecksum)
+                    return false;
+
+                this.readRecord(record);
+                this.fileRecordCount++;
+            }
+        } catch (EOFException e) {
+            // Truncated record, e.g. due to crash mid-write
+            return false;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.info("Discarding unreadable part of foreign chain cache {}: {}", this.path, e.getMessage());
+            return false;
+        }
+    }
+
+    private void openOutput() throws IOException {
+        Files.createDirectories(this.path.toAbsolutePath().getParent());
+
+        boolean isNewFile = !Files.exists(this.path);
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.path.toFile(), true)));
+
+        if (isNewFile) {
+            this.output.writeInt(FILE_MAGIC);
+            this.output.writeInt(FILE_VERSION);
+            this.output.flush();
+        }
+    }
+
+    /** Rewrites file with only current entries. */
+    private void compact() throws IOException {
+        this.close();
+
+        Files.createDirectories(this.path.toAbsolutePath().getParent());
+        Path tempPath = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+
+        try (DataOutputStream tempOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+            tempOutput.writeInt(FILE_MAGIC);
+            tempOutput.writeInt(FILE_VERSION);
+
+            // Least-recently-used first, so reloading preserves order
+            for (Map.Entry<String, Object> entry : this.entries.entrySet())
+                this.writeRecord(tempOutput, entry.getKey(), entry.getValue());
+        }
+
+        try {
+            Files.move(tempPath, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, this.path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        this.fileRecordCount = this.entries.size();
+
+        this.openOutput();
+    }
+
+    private void writeRecord(DataOutputStream output, String key, Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+
+        switch (key.charAt(0)) {
+            case 't':
+                record.writeByte(TRANSACTION);
+                writeTransaction(record, (BitcoinyTransaction) value);
+                break;
+
+            case 'r':
+                record.writeByte(RAW_TRANSACTION);
+                writeString(record, key.substring(1));
+                writeBytes(record, (byte[]) value);
+                break;
+
+            case 'h':
+                record.writeByte(BLOCK_HEADER);
+                record.writeInt(Integer.parseInt(key.substring(1)));
+                writeBytes(record, (byte[]) value);
+                break;
+
+            default:
+                throw new IllegalStateException("Unexpected foreign chain cache key " + key);
+        }
+
+        record.flush();
+        byte[] recordBytes = bytes.toByteArray();
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(recordBytes);
+
+        output.writeInt(recordBytes.length);
+        output.writeInt((int) crc32.getValue());
+        output.write(recordBytes);
+    }
+
+    private void readRecord(byte[] recordBytes) throws IOException {
+        DataInputStream record = new DataInputStream(new ByteArrayInputStream(recordBytes));
+
+        byte type = record.readByte();
+        switch (type) {
+            case TRANSACTION: {
+                BitcoinyTransaction transaction = readTransaction(record);
+                this.entries.put(transactionKey(transaction.txHash), transaction);
+                break;
+            }
+
+            case RAW_TRANSACTION: {
+                String txHash = readString(record);
+                this.entries.put(rawTransactionKey(txHash), readBytes(record));
+                break;
+            }
+
+            case BLOCK_HEADER: {
+                int height = record.readInt();
+                this.entries.put(blockHeaderKey(height), readBytes(record));
+                break;
+            }
+
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private static void writeTransaction(DataOutputStream record, BitcoinyTransaction transaction) throws IOException {
+        writeString(record, transaction.txHash);
+        record.writeInt(transaction.size);
+        record.writeInt(transaction.locktime);
+        writeNullableInt(record, transaction.timestamp);
+
+        record.writeInt(transaction.inputs.size());
+        for (BitcoinyTransaction.Input input : transaction.inputs) {
+            writeNullableString(record, input.scriptSig);
+            record.writeInt(input.sequence);
+            writeNullableString(record, input.outputTxHash);
+            record.writeInt(input.outputVout);
+        }
+
+        record.writeInt(transaction.outputs.size());
+        for (BitcoinyTransaction.Output output : transaction.outputs) {
+            writeNullableString(record, output.scriptPubKey);
+            record.writeLong(output.value);
+
+            if (output.addresses == null) {
+                record.writeInt(-1);
+                continue;
+            }
+
+            record.writeInt(output.addresses.size());
+            for (String address : output.addresses)
+                writeString(record, address);
+        }
+    }
+
+    private static BitcoinyTransaction readTransaction(DataInputStream record) throws IOException {
+        String txHash = readString(record);
+        int size = record.readInt();
+        int locktime = record.readInt();
+        Integer timestamp = readNullableInt(record);
+
+        int inputCount = record.readInt();
+        List<BitcoinyTransaction.Input> inputs = new ArrayList<>(inputCount);
+        for (int i = 0; i < inputCount; ++i) {
+            String scriptSig = readNullableString(record);
+            int sequence = record.readInt();
+            String outputTxHash = readNullableString(record);
+            int outputVout = record.readInt();
+
+            inputs.add(new BitcoinyTransaction.Input(scriptSig, sequence, outputTxHash, outputVout));
+        }
+
+        int outputCount = record.readInt();
+        List<BitcoinyTransaction.Output> outputs = new ArrayList<>(outputCount);
+        for (int i = 0; i < outputCount; ++i) {
+            String scriptPubKey = readNullableString(record);
+            long value = record.readLong();
+
+            List<String> addresses = null;
+            int addressCount = record.readInt();
+            if (addressCount >= 0) {
+                addresses = new ArrayList<>(addressCount);
+                for (int j = 0; j < addressCount; ++j)
+                    addresses.add(readString(record));
+            }
+
+            outputs.add(new BitcoinyTransaction.Output(scriptPubKey, value, addresses));
+        }
+
+        return new BitcoinyTransaction(txHash, size, locktime, timestamp, inputs, outputs);
+    }
+
+    private static void writeBytes(DataOutputStream record, byte[] bytes) throws IOException {
+        record.writeInt(bytes.length);
+        record.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream record) throws IOException {
+        byte[] bytes = new byte[record.readInt()];
+        record.readFully(bytes);
+        return bytes;
+    }
+
+    /** Unlike writeUTF(), copes with strings longer than 64KB, e.g. large scripts */
+    private static void writeString(DataOutputStream record, String value) throws IOException {
+        writeBytes(record, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream record) throws IOException {
+        return new String(readBytes(record), StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableString(DataOutputStream record, String value) throws IOException {
+        record.writeBoolean(value != null);
+        if (value != null)
+            writeString(record, value);
+    }
+
+    private static String readNullableString(DataInputStream record) throws IOException {
+        return record.readBoolean() ? readString(record) : null;
+    }
+
+    private static void writeNullableInt(DataOutputStream record, Integer value) throws IOException {
+        record.writeBoolean(value != null);
+        if (value != null)
+            record.writeInt(value);
+    }
+
+    private static Integer readNullableInt(DataInputStream record) throws IOException {
+        return record.readBoolean() ? record.readInt() : null;
+    }
+}
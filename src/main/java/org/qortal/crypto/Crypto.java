@@ -14,7 +14,11 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public abstract class Crypto {
 
@@ -25,6 +29,9 @@ public abstract class Crypto {
 	public static final byte AT_ADDRESS_VERSION = 23; // A
 	public static final byte NODE_ADDRESS_VERSION = 53; // N
 
+	/** Maximum number of signatures verified together, limiting individual rechecks when one is invalid */
+	public static final int VERIFY_BATCH_SIZE = 64;
+
 	/**
 	 * Returns 32-byte SHA-256 digest of message passed in input.
 	 * 
@@ -264,6 +271,64 @@ public abstract class Crypto {
 		}
 	}
 
+	/**
+	 * Verifies many signatures, returning whether each is valid, in same order as passed.
+	 * <p>
+	 * Signatures are checked in batches of up to {@link #VERIFY_BATCH_SIZE} using
+	 * {@link Qortal25519Extras#verifyBatch(List, List, List)}, which is much quicker than checking each in turn.
+	 * If a batch fails, its signatures are checked individually to find which are invalid.
+	 * <p>
+	 * Not for block validation, or anything that must agree with it, such as accepting unconfirmed transactions -
+	 * see {@link Qortal25519Extras#verifyBatch(List, List, List)} for why. So currently only used by benchmarks.
+	 */
+	public static boolean[] verifyBatch(List<byte[]> publicKeys, List<byte[]> signatures, List<byte[]> messages) {
+		checkBatchSizes(publicKeys, signatures, messages);
+		boolean[] isValid = new boolean[publicKeys.size()];
+
+		for (int from = 0; from < isValid.length; from += VERIFY_BATCH_SIZE)
+			verifyBatch(publicKeys, signatures, messages, from, Math.min(from + VERIFY_BATCH_SIZE, isValid.length), isValid);
+
+		return isValid;
+	}
+
+	/**
+	 * Verifies many signatures, as {@link #verifyBatch(List, List, List)}, but with batches spread across <tt>executor</tt>.
+	 */
+	public static boolean[] verifyBatch(List<byte[]> publicKeys, List<byte[]> signatures, List<byte[]> messages, Executor executor) {
+		checkBatchSizes(publicKeys, signatures, messages);
+		boolean[] isValid = new boolean[publicKeys.size()];
+
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (int from = 0; from < isValid.length; from += VERIFY_BATCH_SIZE) {
+			final int batchFrom = from;
+			final int batchTo = Math.min(from + VERIFY_BATCH_SIZE, isValid.length);
+
+			// Batches write to separate parts of isValid
+			futures.add(CompletableFuture.runAsync(() -> verifyBatch(publicKeys, signatures, messages, batchFrom, batchTo, isValid), executor));
+		}
+
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+		return isValid;
+	}
+
+	private static void checkBatchSizes(List<byte[]> publicKeys, List<byte[]> signatures, List<byte[]> messages) {
+		if (signatures.size() != publicKeys.size() || messages.size() != publicKeys.size())
+			throw new IllegalArgumentException("Batch lists must be same size");
+	}
+
+	private static void verifyBatch(List<byte[]> publicKeys, List<byte[]> signatures, List<byte[]> messages, int from, int to, boolean[] isValid) {
+		boolean isBatchValid;
+		try {
+			isBatchValid = Qortal25519Extras.verifyBatch(publicKeys.subList(from, to), signatures.subList(from, to), messages.subList(from, to));
+		} catch (Exception e) {
+			isBatchValid = false;
+		}
+
+		for (int i = from; i < to; ++i)
+			isValid[i] = isBatchValid || verify(publicKeys.get(i), signatures.get(i), messages.get(i));
+	}
+
 	public static byte[] sign(Ed25519PrivateKeyParameters edPrivateKeyParams, byte[] message) {
 		byte[] signature = new byte[SIGNATURE_LENGTH];
 
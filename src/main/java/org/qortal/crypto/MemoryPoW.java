@@ -7,6 +7,9 @@ import java.util.concurrent.TimeoutException;
 
 public class MemoryPoW {
 
+	private static final long INITIAL_SEED = 8682522807148012L;
+	private static final long SEED_MULTIPLIER = 1181783497276652981L;
+
 	/**
 	 * Compute a MemoryPoW nonce
 	 *
@@ -54,8 +57,7 @@ public class MemoryPoW {
 		long[] workBuffer = new long[longBufferLength];
 		long[] state = new long[4];
 
-		long seed = 8682522807148012L;
-		long seedMultiplier = 1181783497276652981L;
+		long seed = INITIAL_SEED;
 
 		// For each nonce...
 		int nonce = -1;
@@ -74,7 +76,7 @@ public class MemoryPoW {
 				}
 			}
 
-			seed *= seedMultiplier; // per nonce
+			seed *= SEED_MULTIPLIER; // per nonce
 
 			state[0] = longHash[0] ^ seed;
 			state[1] = longHash[1] ^ seed;
@@ -121,11 +123,7 @@ public class MemoryPoW {
 
 		long[] state = new long[4];
 
-		long seed = 8682522807148012L;
-		long seedMultiplier = 1181783497276652981L;
-
-		for (int i = 0; i <= nonce; ++i)
-			seed *= seedMultiplier;
+		long seed = seedForNonce(nonce);
 
 		state[0] = longHash[0] ^ seed;
 		state[1] = longHash[1] ^ seed;
@@ -146,6 +144,33 @@ public class MemoryPoW {
 		return Long.numberOfLeadingZeros(result) >= difficulty;
 	}
 
+	/**
+	 * Returns seed used for given nonce, i.e. INITIAL_SEED * SEED_MULTIPLIER<sup>nonce + 1</sup> (mod 2<sup>64</sup>).
+	 * <p>
+	 * Equivalent to multiplying by SEED_MULTIPLIER once per nonce, as {@link #compute2(byte[], int, long, Long)} does,
+	 * but uses exponentiation by squaring so verification cost doesn't grow with nonce.
+	 */
+	public static long seedForNonce(int nonce) {
+		long seed = INITIAL_SEED;
+
+		// Negative nonces never multiplied seed, so neither should we
+		if (nonce < 0)
+			return seed;
+
+		long multiplier = SEED_MULTIPLIER;
+		long exponent = nonce + 1L;
+
+		while (exponent != 0) {
+			if ((exponent & 1) != 0)
+				seed *= multiplier;
+
+			multiplier *= multiplier;
+			exponent >>>= 1;
+		}
+
+		return seed;
+	}
+
 	private static final long xoshiro256p(long[] state) {
 		final long result = state[0] + state[3];
 		final long temp = state[1] << 17;
@@ -0,0 +1,118 @@
+package org.qortal.crypto;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * MemoryPoW verification engine for a fixed work buffer length.
+ * <p>
+ * Each thread reuses its own work buffer, instead of allocating a new one per verification,
+ * and batches are verified in parallel using a dedicated fork-join pool.
+ * Memory use is therefore bounded by (pool parallelism + calling threads) * work buffer length.
+ *
+ * @ThreadSafe
+ */
+public class MemoryPoWVerifier {
+
+	/** Batches smaller than this are verified on the calling thread. */
+	private static final int MIN_PARALLEL_BATCH_SIZE = 2;
+
+	private final int workBufferLength;
+	private final ThreadLocal<long[]> workBuffers;
+	private final ForkJoinPool pool;
+
+	public MemoryPoWVerifier(String name, int workBufferLength, int parallelism) {
+		this.workBufferLength = workBufferLength;
+		this.workBuffers = ThreadLocal.withInitial(() -> new long[workBufferLength / 8]);
+
+		this.pool = new ForkJoinPool(parallelism, pool -> {
+			ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName(name + "-" + thread.getPoolIndex());
+			thread.setDaemon(true);
+			return thread;
+		}, null, false);
+	}
+
+	public int getWorkBufferLength() {
+		return this.workBufferLength;
+	}
+
+	/** Returns this thread's reusable work buffer. Contents are overwritten by every verification. */
+	public long[] getWorkBuffer() {
+		return this.workBuffers.get();
+	}
+
+	/** Verifies a single nonce using this thread's reusable work buffer. */
+	public boolean verify(byte[] data, long difficulty, int nonce) {
+		return MemoryPoW.verify2(data, this.getWorkBuffer(), this.workBufferLength, difficulty, nonce);
+	}
+
+	/**
+	 * Verifies all items in parallel, stopping early if any item is invalid.
+	 *
+	 * @param items items to verify
+	 * @param verifier called with each item and the executing thread's work buffer, returning whether item is valid
+	 * @return true if all items are valid
+	 * @throws InterruptedException if interrupted while waiting for verification to complete
+	 */
+	public <T> boolean verifyAll(Collection<T> items, BiPredicate<T, long[]> verifier) throws InterruptedException {
+		if (items.size() < MIN_PARALLEL_BATCH_SIZE) {
+			for (T item : items)
+				if (!verifier.test(item, this.getWorkBuffer()))
+					return false;
+
+			return true;
+		}
+
+		return this.runInPool(() -> items.parallelStream().allMatch(item -> verifier.test(item, this.getWorkBuffer())));
+	}
+
+	/**
+	 * Verifies all items in parallel, returning only the valid ones.
+	 *
+	 * @param items items to verify
+	 * @param verifier called with each item and the executing thread's work buffer, returning whether item is valid
+	 * @return set of valid items
+	 * @throws InterruptedException if interrupted while waiting for verification to complete
+	 */
+	public <T> Set<T> filterValid(Collection<T> items, BiPredicate<T, long[]> verifier) throws InterruptedException {
+		if (items.size() < MIN_PARALLEL_BATCH_SIZE) {
+			Set<T> validItems = new HashSet<>();
+
+			for (T item : items)
+				if (verifier.test(item, this.getWorkBuffer()))
+					validItems.add(item);
+
+			return validItems;
+		}
+
+		return this.runInPool(() -> items.parallelStream()
+				.filter(item -> verifier.test(item, this.getWorkBuffer()))
+				.collect(Collectors.toSet()));
+	}
+
+	private <R> R runInPool(Callable<R> task) throws InterruptedException {
+		try {
+			// Parallel stream tasks run in the pool that submitted them, i.e. our dedicated pool
+			return this.pool.submit(task).get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+
+			throw new IllegalStateException("MemoryPoW verification failed", cause);
+		}
+	}
+
+	public void shutdown() {
+		this.pool.shutdownNow();
+	}
+
+}
@@ -10,6 +10,7 @@ import org.bouncycastle.math.raw.Nat256;
 import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Additions to BouncyCastle providing:
@@ -18,12 +19,18 @@ import java.util.Collection;
  *     <li>Ed25519 to X25519 key conversion</li>
  *     <li>Aggregate public keys</li>
  *     <li>Aggregate signatures</li>
+ *     <li>Batch verification of standard signatures</li>
  * </ul>
  */
 public abstract class Qortal25519Extras extends BouncyCastleEd25519 {
 
 	private static final SecureRandom SECURE_RANDOM = new SecureRandom();
 
+	/** wNAF width for points in batch verification, as used by BouncyCastle for a single public key */
+	private static final int BATCH_WNAF_WIDTH = 5;
+	/** Size of random batch verification coefficients, in bytes */
+	private static final int BATCH_COEFFICIENT_BYTES = 16;
+
 	public static byte[] toX25519PublicKey(byte[] ed25519PublicKey) {
 		int[] one = new int[X25519Field.SIZE];
 		X25519Field.one(one);
@@ -231,4 +238,152 @@ public abstract class Qortal25519Extras extends BouncyCastleEd25519 {
 
 		return Arrays.equals(check, R);
 	}
+
+	/**
+	 * Verifies many standard Ed25519 signatures at once, returning whether <b>all</b> are valid.
+	 * <p>
+	 * Rather than checking [S<sub>i</sub>]B = R<sub>i</sub> + [k<sub>i</sub>]A<sub>i</sub> for each signature,
+	 * checks a random linear combination:
+	 * [&Sigma; z<sub>i</sub>S<sub>i</sub>]B = &Sigma; [z<sub>i</sub>]R<sub>i</sub> + &Sigma; [z<sub>i</sub>k<sub>i</sub>]A<sub>i</sub>
+	 * for secret random 128-bit z<sub>i</sub>, as one multi-scalar multiplication.
+	 * This shares point doublings, and the base point multiplication, across the whole batch.
+	 * <p>
+	 * A false result doesn't say which signatures are invalid, so callers need to check individually then.
+	 * <p>
+	 * Signatures from honest signers give the same result as {@link Crypto#verify(byte[], byte[], byte[])}.
+	 * But deliberately crafted signatures, with small-order components, can pass here yet fail individually,
+	 * so block validation, and importing of unconfirmed transactions, still verify individually.
+	 * <p>
+	 * Kept for benchmarking against individual verification, e.g. by <tt>BatchSignatureVerificationBenchmark</tt>,
+	 * rather than for use by the node itself.
+	 */
+	public static boolean verifyBatch(List<byte[]> publicKeys, List<byte[]> signatures, List<byte[]> messages) {
+		int count = publicKeys.size();
+		if (signatures.size() != count || messages.size() != count)
+			throw new IllegalArgumentException("Batch lists must be same size");
+
+		if (count == 0)
+			return true;
+
+		precompute();
+
+		final int tableSize = 1 << (BATCH_WNAF_WIDTH - 2);
+
+		// Each signature contributes two points: public key A and R
+		byte[][] pointWnafs = new byte[count * 2][];
+		PointExt[][] pointTables = new PointExt[count * 2][];
+
+		byte[] zero = new byte[SCALAR_BYTES];
+		byte[] sumS = new byte[SCALAR_BYTES];
+
+		Digest d = createDigest();
+		byte[] h = new byte[d.getDigestSize()];
+
+		for (int i = 0; i < count; ++i) {
+			byte[] publicKey = publicKeys.get(i);
+			byte[] signature = signatures.get(i);
+			byte[] message = messages.get(i);
+
+			if (publicKey == null || publicKey.length != PUBLIC_KEY_SIZE
+					|| signature == null || signature.length != SIGNATURE_SIZE
+					|| message == null)
+				return false;
+
+			byte[] R = Arrays.copyOfRange(signature, 0, POINT_BYTES);
+			byte[] s = Arrays.copyOfRange(signature, POINT_BYTES, SIGNATURE_SIZE);
+
+			if (!checkScalarVar(s))
+				// s out of bounds
+				return false;
+
+			// Both points negated, so valid batch sums to neutral point
+			PointAffine pA = new PointAffine();
+			if (!decodePointVar(publicKey, 0, true, pA))
+				// Failed to decode
+				return false;
+
+			PointAffine pR = new PointAffine();
+			if (!decodePointVar(R, 0, true, pR))
+				// Failed to decode, or out of bounds
+				return false;
+
+			d.update(R, 0, POINT_BYTES);
+			d.update(publicKey, 0, POINT_BYTES);
+			d.update(message, 0, message.length);
+			d.doFinal(h, 0);
+
+			byte[] k = reduceScalar(h);
+
+			byte[] z = new byte[SCALAR_BYTES];
+			SECURE_RANDOM.nextBytes(z);
+			Arrays.fill(z, BATCH_COEFFICIENT_BYTES, SCALAR_BYTES, (byte) 0);
+
+			// sumS += z * s (mod L)
+			sumS = calculateS(sumS, z, s);
+
+			// z * k (mod L)
+			byte[] zk = calculateS(zero, z, k);
+
+			pointWnafs[i * 2] = toWnaf(zk);
+			pointTables[i * 2] = pointPrecomputeVar(pointCopy(pA), tableSize);
+
+			pointWnafs[i * 2 + 1] = toWnaf(z);
+			pointTables[i * 2 + 1] = pointPrecomputeVar(pointCopy(pR), tableSize);
+		}
+
+		int[] nS = new int[SCALAR_INTS];
+		decodeScalar(sumS, 0, nS);
+		byte[] baseWnaf = getWnafVar(nS, WNAF_WIDTH_BASE);
+
+		// Interleaved (Straus) multi-scalar multiplication
+		PointAccum pSum = new PointAccum();
+		pointSetNeutral(pSum);
+
+		for (int bit = 252;;) {
+			int wb = baseWnaf[bit];
+			if (wb != 0) {
+				int sign = wb >> 31;
+				int index = (wb ^ sign) >>> 1;
+
+				pointAddVar(sign != 0, precompBaseTable[index], pSum);
+			}
+
+			for (int p = 0; p < pointWnafs.length; ++p) {
+				int wp = pointWnafs[p][bit];
+				if (wp != 0) {
+					int sign = wp >> 31;
+					int index = (wp ^ sign) >>> 1;
+
+					pointAddVar(sign != 0, pointTables[p][index], pSum);
+				}
+			}
+
+			if (--bit < 0)
+				break;
+
+			pointDouble(pSum);
+		}
+
+		return isNeutralVar(pSum);
+	}
+
+	private static byte[] toWnaf(byte[] scalar) {
+		int[] n = new int[SCALAR_INTS];
+		decodeScalar(scalar, 0, n);
+		return getWnafVar(n, BATCH_WNAF_WIDTH);
+	}
+
+	/** Returns whether projective point is neutral, i.e. x = 0 and y = z. */
+	private static boolean isNeutralVar(PointAccum p) {
+		int[] x = F.create();
+		F.copy(p.x, 0, x, 0);
+		F.normalize(x);
+		if (!F.isZeroVar(x))
+			return false;
+
+		int[] yMinusZ = F.create();
+		F.sub(p.y, p.z, yMinusZ);
+		F.normalize(yMinusZ);
+		return F.isZeroVar(yMinusZ);
+	}
 }
@@ -1,12 +1,92 @@
 package org.qortal.data.arbitrary;
 
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * In-memory copy of ArbitraryResourcesCache/ArbitraryMetadataCache, and of name levels, for QDN searches.
+ * <p>
+ * Each service's list is an immutable snapshot, replaced as a whole whenever it changes,
+ * so searches never see a partially updated list.
+ * <p>
+ * Once change tracking is enabled, repository sessions report the resources, names and accounts
+ * they modified when they commit. These are applied by {@code HSQLDBCacheUtils} to the affected
+ * snapshots only, instead of periodically reloading everything.
+ */
 public class ArbitraryResourceCache {
     private ConcurrentHashMap<Integer, List<ArbitraryResourceData>> dataByService = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, Integer> levelByName = new ConcurrentHashMap<>();
+    /** Search index for each service's snapshot, built on first search after snapshot changes */
+    private final ConcurrentHashMap<Integer, ArbitraryResourceIndex> indexByService = new ConcurrentHashMap<>();
+
+    /** Identifies a cached resource, case-insensitively, as the repository's status updates do. */
+    public static class ResourceKey {
+        public final int service;
+        public final String name;
+        public final String identifier;
+
+        public ResourceKey(int service, String name, String identifier) {
+            this.service = service;
+            this.name = name.toLowerCase();
+            // In the cache we store null identifiers as "default", as it is part of the primary key
+            this.identifier = (identifier == null ? "default" : identifier).toLowerCase();
+        }
+
+        public static ResourceKey of(ArbitraryResourceData arbitraryResourceData) {
+            return new ResourceKey(arbitraryResourceData.service.value, arbitraryResourceData.name, arbitraryResourceData.identifier);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this)
+                return true;
+
+            if (!(o instanceof ResourceKey))
+                return false;
+
+            ResourceKey other = (ResourceKey) o;
+
+            return this.service == other.service && this.name.equals(other.name) && this.identifier.equals(other.identifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.service, this.name, this.identifier);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %d %s", this.name, this.service, this.identifier);
+        }
+    }
+
+    /** Resources, names and accounts (whose level might have changed) modified since last applied. */
+    public static class Changes {
+        public final Set<ResourceKey> resources = new HashSet<>();
+        public final Set<String> names = new HashSet<>();
+        public final Set<String> accounts = new HashSet<>();
+
+        public boolean isEmpty() {
+            return this.resources.isEmpty() && this.names.isEmpty() && this.accounts.isEmpty();
+        }
+
+        public int size() {
+            return this.resources.size() + this.names.size() + this.accounts.size();
+        }
+
+        private void addAll(Changes other) {
+            this.resources.addAll(other.resources);
+            this.names.addAll(other.names);
+            this.accounts.addAll(other.accounts);
+        }
+    }
+
+    private volatile boolean isTrackingChanges = false;
+    private volatile boolean isRebuildRequired = true;
+    private Changes pendingChanges = new Changes();
 
     private ArbitraryResourceCache() {}
 
@@ -23,4 +103,70 @@ public class ArbitraryResourceCache {
     public ConcurrentHashMap<Integer, List<ArbitraryResourceData>> getDataByService() {
         return this.dataByService;
     }
+
+    /** Replaces service's snapshot with <tt>data</tt>, or removes it if <tt>data</tt> is empty. */
+    public void setServiceData(int service, List<ArbitraryResourceData> data) {
+        if (data.isEmpty())
+            this.dataByService.remove(service);
+        else
+            this.dataByService.put(service, List.copyOf(data));
+
+        // Index is rebuilt from new snapshot on next search
+        this.indexByService.remove(service);
+    }
+
+    /** Removes snapshots for services other than <tt>services</tt>. */
+    public void retainServices(Set<Integer> services) {
+        this.dataByService.keySet().retainAll(services);
+        this.indexByService.keySet().retainAll(services);
+    }
+
+    /** Returns search index for service's current snapshot, or null if service has no data. */
+    public ArbitraryResourceIndex getIndex(int service) {
+        return this.indexByService.computeIfAbsent(service, k -> {
+            List<ArbitraryResourceData> data = this.dataByService.get(k);
+            return data != null ? new ArbitraryResourceIndex(data) : null;
+        });
+    }
+
+    /** Whether repository sessions should report their changes, i.e. cache is in use. */
+    public boolean isTrackingChanges() {
+        return this.isTrackingChanges;
+    }
+
+    /** Starts accepting changes. Called before the initial full load, so nothing committed during the load is missed. */
+    public void enableChangeTracking() {
+        this.isTrackingChanges = true;
+    }
+
+    public boolean isRebuildRequired() {
+        return this.isRebuildRequired;
+    }
+
+    /** Requests full reload, e.g. because incremental changes couldn't be applied. */
+    public void requestRebuild() {
+        this.isRebuildRequired = true;
+    }
+
+    /** Called once full reload completes. Any changes committed during reload are still pending, and are reapplied. */
+    public void onRebuilt() {
+        this.isRebuildRequired = false;
+    }
+
+    /** Called by repository session once <tt>changes</tt> have been committed. */
+    public void onChangesCommitted(Changes changes) {
+        if (!this.isTrackingChanges)
+            return;
+
+        synchronized (this) {
+            this.pendingChanges.addAll(changes);
+        }
+    }
+
+    /** Returns, and forgets, all changes committed since last call. */
+    public synchronized Changes takePendingChanges() {
+        Changes changes = this.pendingChanges;
+        this.pendingChanges = new Changes();
+        return changes;
+    }
 }
@@ -0,0 +1,228 @@
+package org.qortal.data.arbitrary;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Immutable search index over one service's cached resources.
+ * <p>
+ * Resources are held in creation order, so a resource's position doubles as its ID,
+ * and any sorted list of IDs is also in creation order.
+ * <p>
+ * Name, identifier, title and description are indexed by lower-case trigram, so "contains" and
+ * "prefix" searches can intersect a few posting lists instead of scanning every resource.
+ * Trigram matches are only candidates - callers still need to check the actual text.
+ * Terms shorter than a trigram can't be narrowed down this way, so match everything.
+ */
+public class ArbitraryResourceIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_IDS = new int[0];
+
+    public enum Field {
+        NAME(data -> data.name),
+        IDENTIFIER(data -> data.identifier),
+        TITLE(data -> data.metadata != null ? data.metadata.getTitle() : null),
+        DESCRIPTION(data -> data.metadata != null ? data.metadata.getDescription() : null);
+
+        private final Function<ArbitraryResourceData, String> getter;
+
+        Field(Function<ArbitraryResourceData, String> getter) {
+            this.getter = getter;
+        }
+    }
+
+    private static final Comparator<ArbitraryResourceData> CREATED_WHEN_COMPARATOR
+            = Comparator.comparingLong(data -> data.created != null ? data.created : Long.MIN_VALUE);
+
+    /** Resources, in creation order */
+    private final ArbitraryResourceData[] resources;
+    /** Per field, IDs of resources containing each trigram */
+    private final Map<Field, Map<String, int[]>> idsByGramByField = new EnumMap<>(Field.class);
+    /** IDs of resources for each lower-case name */
+    private final Map<String, int[]> idsByName;
+
+    public ArbitraryResourceIndex(List<ArbitraryResourceData> resources) {
+        this.resources = resources.toArray(new ArbitraryResourceData[0]);
+        // Stable sort, so equal creation times keep their original order
+        Arrays.sort(this.resources, CREATED_WHEN_COMPARATOR);
+
+        for (Field field : Field.values()) {
+            Map<String, IdList> idsByGram = new HashMap<>();
+
+            for (int id = 0; id < this.resources.length; ++id) {
+                String value = field.getter.apply(this.resources[id]);
+                if (value == null)
+                    continue;
+
+                for (String gram : toGrams(value.toLowerCase()))
+                    idsByGram.computeIfAbsent(gram, k -> new IdList()).add(id);
+            }
+
+            this.idsByGramByField.put(field, toArrays(idsByGram));
+        }
+
+        Map<String, IdList> idsByName = new HashMap<>();
+        for (int id = 0; id < this.resources.length; ++id)
+            if (this.resources[id].name != null)
+                idsByName.computeIfAbsent(this.resources[id].name.toLowerCase(), k -> new IdList()).add(id);
+
+        this.idsByName = toArrays(idsByName);
+    }
+
+    public int size() {
+        return this.resources.length;
+    }
+
+    /** Returns all resources, in creation order. */
+    public List<ArbitraryResourceData> getAll() {
+        return Collections.unmodifiableList(Arrays.asList(this.resources));
+    }
+
+    /** Returns resources with IDs in <tt>ids</tt>, or all resources if <tt>ids</tt> is null, in creation order. */
+    public List<ArbitraryResourceData> getResources(int[] ids) {
+        if (ids == null)
+            return this.getAll();
+
+        List<ArbitraryResourceData> resources = new ArrayList<>(ids.length);
+        for (int id : ids)
+            resources.add(this.resources[id]);
+
+        return resources;
+    }
+
+    /**
+     * Returns sorted IDs of resources whose <tt>field</tt> might contain <tt>term</tt>, case-insensitively,
+     * or null if <tt>term</tt> is too short to narrow down.
+     * <p>
+     * As prefix matches are a subset of "contains" matches, these candidates serve for both.
+     */
+    public int[] getCandidates(Field field, String term) {
+        Set<String> grams = toGrams(term.toLowerCase());
+        if (grams.isEmpty())
+            return null;
+
+        Map<String, int[]> idsByGram = this.idsByGramByField.get(field);
+
+        // Intersect shortest lists first, so we can bail out early
+        List<int[]> postings = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            int[] ids = idsByGram.get(gram);
+            if (ids == null)
+                return NO_IDS;
+
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(ids -> ids.length));
+
+        int[] candidates = postings.get(0);
+        for (int i = 1; i < postings.size() && candidates.length > 0; ++i)
+            candidates = intersect(candidates, postings.get(i));
+
+        return candidates;
+    }
+
+    /** Returns sorted IDs of resources whose name is one of <tt>names</tt>, case-insensitively. */
+    public int[] getByNames(Collection<String> names) {
+        int[] ids = NO_IDS;
+
+        for (String name : names)
+            ids = union(ids, this.idsByName.getOrDefault(name.toLowerCase(), NO_IDS));
+
+        return ids;
+    }
+
+    /** Returns intersection of sorted ID lists, where null means all IDs. */
+    public static int[] intersect(int[] a, int[] b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                ++i;
+            } else if (a[i] > b[j]) {
+                ++j;
+            } else {
+                result[count++] = a[i];
+                ++i;
+                ++j;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    /** Returns union of sorted ID lists, where null means all IDs. */
+    public static int[] union(int[] a, int[] b) {
+        if (a == null || b == null)
+            return null;
+
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[count++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[count++] = b[j++];
+            } else {
+                result[count++] = a[i++];
+                ++j;
+            }
+        }
+
+        while (i < a.length)
+            result[count++] = a[i++];
+
+        while (j < b.length)
+            result[count++] = b[j++];
+
+        return Arrays.copyOf(result, count);
+    }
+
+    private static Set<String> toGrams(String value) {
+        if (value.length() < GRAM_LENGTH)
+            return Collections.emptySet();
+
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); ++i)
+            grams.add(value.substring(i, i + GRAM_LENGTH));
+
+        return grams;
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, IdList> idLists) {
+        Map<String, int[]> arrays = new HashMap<>(idLists.size() * 4 / 3 + 1);
+        idLists.forEach((key, idList) -> arrays.put(key, idList.toArray()));
+        return arrays;
+    }
+
+    /** Growable list of ascending IDs, without boxing */
+    private static class IdList {
+        private int[] ids = new int[4];
+        private int count = 0;
+
+        private void add(int id) {
+            // IDs are added in order, and each resource's grams are de-duplicated, but be safe
+            if (this.count > 0 && this.ids[this.count - 1] == id)
+                return;
+
+            if (this.count == this.ids.length)
+                this.ids = Arrays.copyOf(this.ids, this.count * 2);
+
+            this.ids[this.count++] = id;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(this.ids, this.count);
+        }
+    }
+
+}
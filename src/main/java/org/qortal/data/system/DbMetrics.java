@@ -0,0 +1,89 @@
+package org.qortal.data.system;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import java.util.List;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+public class DbMetrics {
+
+    private long since;
+
+    private long openSessions;
+
+    private long connectionRequests;
+
+    private long connectionWaitTotalMicros;
+
+    private long connectionWaitMaxMicros;
+
+    private long[] connectionWaitHistogram;
+
+    private long statementCacheHits;
+
+    private long statementCacheMisses;
+
+    /** Upper bound of each latency bucket. Final bucket is unbounded. */
+    private long[] latencyBucketBoundsMicros;
+
+    private List<DbQueryStats> queries;
+
+    public DbMetrics() {
+    }
+
+    public DbMetrics(long since, long openSessions, long connectionRequests, long connectionWaitTotalMicros, long connectionWaitMaxMicros,
+            long[] connectionWaitHistogram, long statementCacheHits, long statementCacheMisses, long[] latencyBucketBoundsMicros,
+            List<DbQueryStats> queries) {
+        this.since = since;
+        this.openSessions = openSessions;
+        this.connectionRequests = connectionRequests;
+        this.connectionWaitTotalMicros = connectionWaitTotalMicros;
+        this.connectionWaitMaxMicros = connectionWaitMaxMicros;
+        this.connectionWaitHistogram = connectionWaitHistogram;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.latencyBucketBoundsMicros = latencyBucketBoundsMicros;
+        this.queries = queries;
+    }
+
+    /** When metrics were last reset, as milliseconds since epoch */
+    public long getSince() {
+        return since;
+    }
+
+    public long getOpenSessions() {
+        return openSessions;
+    }
+
+    public long getConnectionRequests() {
+        return connectionRequests;
+    }
+
+    public long getConnectionWaitTotalMicros() {
+        return connectionWaitTotalMicros;
+    }
+
+    public long getConnectionWaitMaxMicros() {
+        return connectionWaitMaxMicros;
+    }
+
+    public long[] getConnectionWaitHistogram() {
+        return connectionWaitHistogram;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public long[] getLatencyBucketBoundsMicros() {
+        return latencyBucketBoundsMicros;
+    }
+
+    public List<DbQueryStats> getQueries() {
+        return queries;
+    }
+}
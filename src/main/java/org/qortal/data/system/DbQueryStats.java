@@ -0,0 +1,69 @@
+package org.qortal.data.system;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+public class DbQueryStats {
+
+    private String sql;
+
+    private long calls;
+
+    private long errors;
+
+    private long rows;
+
+    private long totalMicros;
+
+    private long maxMicros;
+
+    /** Call counts per latency bucket, with upper bounds given by {@link DbMetrics#getLatencyBucketBoundsMicros()} */
+    private long[] latencyHistogram;
+
+    public DbQueryStats() {
+    }
+
+    public DbQueryStats(String sql, long calls, long errors, long rows, long totalMicros, long maxMicros, long[] latencyHistogram) {
+        this.sql = sql;
+        this.calls = calls;
+        this.errors = errors;
+        this.rows = rows;
+        this.totalMicros = totalMicros;
+        this.maxMicros = maxMicros;
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /** Rows returned by queries, or changed by updates */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    public long getMeanMicros() {
+        return calls == 0 ? 0 : totalMicros / calls;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public long[] getLatencyHistogram() {
+        return latencyHistogram;
+    }
+}
@@ -0,0 +1,120 @@
+package org.qortal.data.system;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ReindexStatus {
+
+    private boolean running;
+
+    private boolean resumed;
+
+    private long startTimestamp;
+
+    private Long endTimestamp;
+
+    private int startHeight;
+
+    private int processedHeight;
+
+    private int committedHeight;
+
+    private int archiveHeight;
+
+    private long blocksProcessed;
+
+    private double blocksPerSecond;
+
+    private int prefetchedBlocks;
+
+    private long prefetchWaitMillis;
+
+    private long processMillis;
+
+    private long commitMillis;
+
+    public ReindexStatus() {
+    }
+
+    public ReindexStatus(boolean running, boolean resumed, long startTimestamp, Long endTimestamp, int startHeight, int processedHeight,
+            int committedHeight, int archiveHeight, long blocksProcessed, double blocksPerSecond, int prefetchedBlocks,
+            long prefetchWaitMillis, long processMillis, long commitMillis) {
+        this.running = running;
+        this.resumed = resumed;
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.startHeight = startHeight;
+        this.processedHeight = processedHeight;
+        this.committedHeight = committedHeight;
+        this.archiveHeight = archiveHeight;
+        this.blocksProcessed = blocksProcessed;
+        this.blocksPerSecond = blocksPerSecond;
+        this.prefetchedBlocks = prefetchedBlocks;
+        this.prefetchWaitMillis = prefetchWaitMillis;
+        this.processMillis = processMillis;
+        this.commitMillis = commitMillis;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Whether reindex continued from last committed block, instead of rebuilding from genesis */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public long getStartTimestamp() {
+        return startTimestamp;
+    }
+
+    /** When reindex finished or failed, or null if still running */
+    public Long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    public int getStartHeight() {
+        return startHeight;
+    }
+
+    public int getProcessedHeight() {
+        return processedHeight;
+    }
+
+    /** Height of last block committed to repository, from which an interrupted reindex can resume */
+    public int getCommittedHeight() {
+        return committedHeight;
+    }
+
+    public int getArchiveHeight() {
+        return archiveHeight;
+    }
+
+    public long getBlocksProcessed() {
+        return blocksProcessed;
+    }
+
+    public double getBlocksPerSecond() {
+        return blocksPerSecond;
+    }
+
+    /** Number of blocks decoded from archive, and queued for processing */
+    public int getPrefetchedBlocks() {
+        return prefetchedBlocks;
+    }
+
+    /** Time spent waiting for blocks to be decoded and signature-checked */
+    public long getPrefetchWaitMillis() {
+        return prefetchWaitMillis;
+    }
+
+    public long getProcessMillis() {
+        return processMillis;
+    }
+
+    public long getCommitMillis() {
+        return commitMillis;
+    }
+
+}
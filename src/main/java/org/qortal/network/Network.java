@@ -21,10 +21,11 @@ import org.qortal.repository.RepositoryManager;
 import org.qortal.settings.Settings;
 import org.qortal.utils.Base58;
 import org.qortal.utils.ExecuteProduceConsume;
-import org.qortal.utils.ExecuteProduceConsume.StatsSnapshot;
 import org.qortal.utils.NTP;
 import org.qortal.utils.NamedThreadFactory;
 
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -35,6 +36,7 @@ import java.security.SecureRandom;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
@@ -45,6 +47,29 @@ import java.util.stream.Collectors;
 public class Network {
     private static final Logger LOGGER = LogManager.getLogger(Network.class);
 
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class StatsSnapshot extends ExecuteProduceConsume.StatsSnapshot {
+        /** Number of broadcast messages serialized into shared frames */
+        public long broadcastFramesEncoded = 0L;
+        /** Number of bytes serialized into shared frames, i.e. encoded once per broadcast message */
+        public long broadcastBytesEncoded = 0L;
+        /** Number of bytes written to peers from shared frames, i.e. across all recipients */
+        public long broadcastBytesSent = 0L;
+        /** Number of receive buffers currently held by peers */
+        public long receiveBuffersInUse = 0L;
+        /** Total capacity of receive buffers currently held by peers */
+        public long receiveBufferBytesInUse = 0L;
+        /** Number of idle receive buffers pooled for reuse */
+        public long receiveBuffersPooled = 0L;
+        /** Total capacity of idle receive buffers pooled for reuse */
+        public long receiveBufferBytesPooled = 0L;
+        /** Number of receive buffers allocated since startup */
+        public long receiveBuffersAllocated = 0L;
+
+        public StatsSnapshot() {
+        }
+    }
+
     private static final int LISTEN_BACKLOG = 5;
     /**
      * How long before retrying after a connection failure, in milliseconds.
@@ -98,6 +123,7 @@ public class Network {
     private final String ourNodeId = Crypto.toNodeAddress(edPublicKeyParams.getEncoded());
 
     private final int maxMessageSize;
+    private final ReceiveBufferPool receiveBufferPool;
     private final int minOutboundPeers;
     private final int maxPeers;
 
@@ -155,10 +181,17 @@ public class Network {
 
     private volatile boolean isShuttingDown = false;
 
+    // Broadcast stats
+    private final LongAdder broadcastFramesEncoded = new LongAdder();
+    private final LongAdder broadcastBytesEncoded = new LongAdder();
+    private final LongAdder broadcastBytesSent = new LongAdder();
+
     // Constructors
 
     private Network() {
         maxMessageSize = 4 + 1 + 4 + BlockChain.getInstance().getMaxBlockSize();
+        receiveBufferPool = new ReceiveBufferPool(Math.min(Settings.getInstance().getNetworkReceiveBufferSize(), maxMessageSize),
+                maxMessageSize, Settings.getInstance().getNetworkReceiveBufferPoolSize());
 
         minOutboundPeers = Settings.getInstance().getMinOutboundPeers();
         maxPeers = Settings.getInstance().getMaxPeers();
@@ -296,8 +329,32 @@ public class Network {
         return this.maxMessageSize;
     }
 
+    /** Pool of direct buffers used by peers to receive messages. */
+    protected ReceiveBufferPool getReceiveBufferPool() {
+        return this.receiveBufferPool;
+    }
+
     public StatsSnapshot getStatsSnapshot() {
-        return this.networkEPC.getStatsSnapshot();
+        StatsSnapshot snapshot = new StatsSnapshot();
+
+        this.networkEPC.fillStatsSnapshot(snapshot);
+
+        snapshot.broadcastFramesEncoded = this.broadcastFramesEncoded.sum();
+        snapshot.broadcastBytesEncoded = this.broadcastBytesEncoded.sum();
+        snapshot.broadcastBytesSent = this.broadcastBytesSent.sum();
+
+        snapshot.receiveBuffersInUse = this.receiveBufferPool.getInUseCount();
+        snapshot.receiveBufferBytesInUse = this.receiveBufferPool.getInUseBytes();
+        snapshot.receiveBuffersPooled = this.receiveBufferPool.getPooledCount();
+        snapshot.receiveBufferBytesPooled = this.receiveBufferPool.getPooledBytes();
+        snapshot.receiveBuffersAllocated = this.receiveBufferPool.getAllocatedCount();
+
+        return snapshot;
+    }
+
+    /** Called by Peer when bytes from a shared broadcast frame have been written to its channel. */
+    protected void onSharedFrameBytesSent(int bytesSent) {
+        this.broadcastBytesSent.add(bytesSent);
     }
 
     // Peer lists
@@ -1623,16 +1680,50 @@ public class Network {
     }
 
     public void broadcast(Function<Peer, Message> peerMessageBuilder) {
-        for (Peer peer : getImmutableHandshakedPeers()) {
+        List<Peer> peers = getImmutableHandshakedPeers();
+
+        // Build all peers' messages first, so we know which messages are sent to more than one peer
+        List<Message> messages = new ArrayList<>(peers.size());
+        Map<Message, Integer> recipientCounts = new IdentityHashMap<>();
+        for (Peer peer : peers) {
             if (this.isShuttingDown)
                 return;
 
             Message message = peerMessageBuilder.apply(peer);
+            messages.add(message);
+
+            if (message != null) {
+                recipientCounts.merge(message, 1, Integer::sum);
+            }
+        }
+
+        for (int i = 0; i < peers.size(); ++i) {
+            if (this.isShuttingDown)
+                return;
+
+            Peer peer = peers.get(i);
+            Message message = messages.get(i);
 
             if (message == null) {
                 continue;
             }
 
+            // Serialize message only once, if builder returns the same message for many peers.
+            // Each peer's send queue then writes from its own duplicate of the shared, read-only frame.
+            // Messages built for a single peer have nothing to share, so are serialized as usual when sent.
+            if (recipientCounts.get(message) > 1) {
+                try {
+                    int bytesEncoded = message.shareFrame();
+                    if (bytesEncoded > 0) {
+                        this.broadcastFramesEncoded.increment();
+                        this.broadcastBytesEncoded.add(bytesEncoded);
+                    }
+                } catch (MessageException e) {
+                    LOGGER.warn("Failed to serialize {} message for broadcast: {}", message.getType().name(), e.getMessage());
+                    continue;
+                }
+            }
+
             if (!peer.sendMessage(message)) {
                 peer.disconnect("failed to broadcast message");
             }
@@ -28,6 +28,7 @@ import java.security.SecureRandom;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -72,13 +73,15 @@ public class Peer {
     private boolean isDataPeer;
 
     private final UUID peerConnectionId = UUID.randomUUID();
-    private final Object byteBufferLock = new Object();
+    private final ReentrantLock byteBufferLock = new ReentrantLock();
+    /** Receive buffer, from network's pool. Only held while there are unprocessed bytes. */
     private ByteBuffer byteBuffer;
     private Map<Integer, BlockingQueue<Message>> replyQueues;
     private LinkedBlockingQueue<Message> pendingMessages;
 
     private TransferQueue<Message> sendQueue;
     private ByteBuffer outputBuffer;
+    private boolean outputIsSharedFrame;
     private String outputMessageType;
     private int outputMessageId;
 
@@ -444,7 +447,7 @@ public class Peer {
         this.socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
         this.socketChannel.configureBlocking(false);
         Network.getInstance().setInterestOps(this.socketChannel, SelectionKey.OP_READ);
-        this.byteBuffer = null; // Defer allocation to when we need it, to save memory. Sorry GC!
+        this.byteBuffer = null; // Defer acquiring from pool to when we need it, to save memory
         this.sendQueue = new LinkedTransferQueue<>();
         this.replyQueues = new ConcurrentHashMap<>();
         this.pendingMessages = new LinkedBlockingQueue<>();
@@ -497,15 +500,18 @@ public class Peer {
      * @throws IOException If this channel is not yet connected
      */
     public void readChannel() throws IOException {
-        synchronized (this.byteBufferLock) {
+        final ReceiveBufferPool receiveBufferPool = Network.getInstance().getReceiveBufferPool();
+
+        this.byteBufferLock.lock();
+        try {
             while (true) {
                 if (!this.socketChannel.isOpen() || this.socketChannel.socket().isClosed()) {
                     return;
                 }
 
-                // Do we need to allocate byteBuffer?
+                // Do we need to acquire byteBuffer?
                 if (this.byteBuffer == null) {
-                    this.byteBuffer = ByteBuffer.allocate(Network.getInstance().getMaxMessageSize());
+                    this.byteBuffer = receiveBufferPool.acquire(receiveBufferPool.getMinBufferSize());
                 }
 
                 final int priorPosition = this.byteBuffer.position();
@@ -551,18 +557,36 @@ public class Peer {
                         // No complete message in buffer, no more bytes to read from socket
                         // even though there was room to read bytes
 
-                        /* DISABLED
-                        // If byteBuffer is empty then we can deallocate it, to save memory, albeit costing GC
-                        if (this.byteBuffer.remaining() == this.byteBuffer.capacity()) {
+                        if (this.byteBuffer.position() == 0) {
+                            // If byteBuffer is empty then return it to pool, so idle peers don't hold a buffer
+                            receiveBufferPool.release(this.byteBuffer);
                             this.byteBuffer = null;
+                        } else if (this.byteBuffer.capacity() > receiveBufferPool.getMinBufferSize()
+                                && this.byteBuffer.position() <= receiveBufferPool.getMinBufferSize()) {
+                            // Large message has been processed, so swap back to a smaller buffer
+                            this.byteBuffer = receiveBufferPool.resize(this.byteBuffer, this.byteBuffer.position());
                         }
-                        */
 
                         return;
                     }
 
                     if (message == null) {
                         // No complete message in buffer, but maybe more bytes to read from socket
+
+                        if (!this.byteBuffer.hasRemaining()) {
+                            // Buffer is full, so move to a buffer big enough for the message in flight
+                            int frameLength = Message.peekFrameLength(this.byteBuffer.asReadOnlyBuffer().flip());
+                            int minCapacity = Math.max(frameLength, this.byteBuffer.capacity() + 1);
+
+                            if (minCapacity > receiveBufferPool.getMaxBufferSize()) {
+                                this.disconnect(String.format("Message length %d larger than max %d",
+                                        frameLength, receiveBufferPool.getMaxBufferSize()));
+                                return;
+                            }
+
+                            this.byteBuffer = receiveBufferPool.resize(this.byteBuffer, minCapacity);
+                        }
+
                         break;
                     }
 
@@ -610,6 +634,30 @@ public class Peer {
                     Network.getInstance().wakeupChannelSelector();
                 }
             }
+        } finally {
+            this.byteBufferLock.unlock();
+
+            this.releaseByteBufferIfClosed();
+        }
+    }
+
+    /**
+     * Returns receive buffer to pool if channel has been closed.
+     * <p>
+     * Called after closing channel and after reading from channel, by whichever thread is last,
+     * as we can't block on byteBufferLock during shutdown.
+     */
+    private void releaseByteBufferIfClosed() {
+        if (this.socketChannel.isOpen() || !this.byteBufferLock.tryLock())
+            return;
+
+        try {
+            if (this.byteBuffer != null) {
+                Network.getInstance().getReceiveBufferPool().release(this.byteBuffer);
+                this.byteBuffer = null;
+            }
+        } finally {
+            this.byteBufferLock.unlock();
         }
     }
 
@@ -640,7 +688,8 @@ public class Peer {
                     return false;
 
                 try {
-                    this.outputBuffer = ByteBuffer.wrap(message.toBytes());
+                    this.outputBuffer = message.toByteBuffer();
+                    this.outputIsSharedFrame = message.hasSharedFrame();
                     this.outputMessageType = message.getType().name();
                     this.outputMessageId = message.getId();
 
@@ -662,6 +711,9 @@ public class Peer {
             // If output byte buffer is not null, send from that
             int bytesWritten = this.socketChannel.write(outputBuffer);
 
+            if (this.outputIsSharedFrame)
+                Network.getInstance().onSharedFrameBytesSent(bytesWritten);
+
             LOGGER.trace("[{}] Sent {} bytes of {} message with ID {} to peer {} ({} total)", this.peerConnectionId,
                     bytesWritten, this.outputMessageType, this.outputMessageId, this, outputBuffer.limit());
 
@@ -675,6 +727,7 @@ public class Peer {
                 this.outputMessageType = null;
                 this.outputMessageId = 0;
                 this.outputBuffer = null;
+                this.outputIsSharedFrame = false;
             }
         }
     }
@@ -859,6 +912,8 @@ public class Peer {
             }
         }
 
+        this.releaseByteBufferIfClosed();
+
         if (logStats && !this.receivedMessageStats.isEmpty()) {
             StringBuilder statsBuilder = new StringBuilder(1024);
             statsBuilder.append("peer ").append(this).append(" message stats:\n=received=");
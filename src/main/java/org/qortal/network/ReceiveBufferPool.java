@@ -0,0 +1,159 @@
+package org.qortal.network;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of direct byte buffers used by peers to receive network data.
+ * <p>
+ * Buffers come in power-of-two size classes, from {@code minBufferSize} up to {@code maxBufferSize}
+ * (which is the final size class even if not a power of two).
+ * Peers start with a minimum-size buffer and only move up a size class while a large message is in flight.
+ * <p>
+ * Released buffers are kept for reuse as long as total pooled bytes stay within {@code maxPooledBytes},
+ * otherwise they are left for GC to free.
+ *
+ * @ThreadSafe
+ */
+public class ReceiveBufferPool {
+
+    private final int[] sizeClasses;
+    private final ConcurrentLinkedDeque<ByteBuffer>[] pooledBuffers;
+    private final long maxPooledBytes;
+
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final LongAdder pooledCount = new LongAdder();
+    private final LongAdder inUseBytes = new LongAdder();
+    private final LongAdder inUseCount = new LongAdder();
+    private final LongAdder allocatedCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public ReceiveBufferPool(int minBufferSize, int maxBufferSize, long maxPooledBytes) {
+        if (minBufferSize <= 0 || minBufferSize > maxBufferSize)
+            throw new IllegalArgumentException("Invalid receive buffer sizes");
+
+        int sizeClassCount = 1;
+        for (long size = minBufferSize; size < maxBufferSize; size *= 2)
+            ++sizeClassCount;
+
+        this.sizeClasses = new int[sizeClassCount];
+        this.pooledBuffers = new ConcurrentLinkedDeque[sizeClassCount];
+
+        long size = minBufferSize;
+        for (int i = 0; i < sizeClassCount; ++i) {
+            this.sizeClasses[i] = (int) Math.min(size, maxBufferSize);
+            this.pooledBuffers[i] = new ConcurrentLinkedDeque<>();
+            size *= 2;
+        }
+
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    public int getMinBufferSize() {
+        return this.sizeClasses[0];
+    }
+
+    public int getMaxBufferSize() {
+        return this.sizeClasses[this.sizeClasses.length - 1];
+    }
+
+    /**
+     * Returns a cleared buffer with capacity of at least <tt>minCapacity</tt>.
+     *
+     * @throws IllegalArgumentException if <tt>minCapacity</tt> is larger than maximum buffer size
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        int sizeClass = this.sizeClassFor(minCapacity);
+
+        ByteBuffer buffer = this.pooledBuffers[sizeClass].pollFirst();
+        if (buffer != null) {
+            this.pooledBytes.addAndGet(-buffer.capacity());
+            this.pooledCount.decrement();
+            buffer.clear();
+        } else {
+            buffer = ByteBuffer.allocateDirect(this.sizeClasses[sizeClass]);
+            this.allocatedCount.increment();
+        }
+
+        this.inUseBytes.add(buffer.capacity());
+        this.inUseCount.increment();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer with capacity of at least <tt>minCapacity</tt>, containing
+     * <tt>buffer</tt>'s data (from 0 up to position), and releases <tt>buffer</tt> back to pool.
+     * <p>
+     * Used both to grow a full buffer and to shrink a mostly empty one.
+     */
+    public ByteBuffer resize(ByteBuffer buffer, int minCapacity) {
+        ByteBuffer newBuffer = this.acquire(minCapacity);
+
+        buffer.flip();
+        newBuffer.put(buffer);
+
+        this.release(buffer);
+        return newBuffer;
+    }
+
+    /** Returns buffer to pool. Caller must not use buffer afterwards. */
+    public void release(ByteBuffer buffer) {
+        this.inUseBytes.add(-buffer.capacity());
+        this.inUseCount.decrement();
+
+        if (buffer.capacity() > this.getMaxBufferSize())
+            // Not one of ours
+            return;
+
+        int sizeClass = this.sizeClassFor(buffer.capacity());
+        if (this.sizeClasses[sizeClass] != buffer.capacity())
+            // Not one of ours
+            return;
+
+        if (this.pooledBytes.addAndGet(buffer.capacity()) > this.maxPooledBytes) {
+            // Pool is full, so let GC free buffer
+            this.pooledBytes.addAndGet(-buffer.capacity());
+            return;
+        }
+
+        this.pooledCount.increment();
+        this.pooledBuffers[sizeClass].offerFirst(buffer);
+    }
+
+    private int sizeClassFor(int capacity) {
+        for (int i = 0; i < this.sizeClasses.length; ++i)
+            if (this.sizeClasses[i] >= capacity)
+                return i;
+
+        throw new IllegalArgumentException(String.format("Requested buffer size %d larger than max %d",
+                capacity, this.getMaxBufferSize()));
+    }
+
+    /** Number of buffers currently held by peers */
+    public long getInUseCount() {
+        return this.inUseCount.sum();
+    }
+
+    /** Total capacity of buffers currently held by peers */
+    public long getInUseBytes() {
+        return this.inUseBytes.sum();
+    }
+
+    /** Number of idle buffers available for reuse */
+    public long getPooledCount() {
+        return this.pooledCount.sum();
+    }
+
+    /** Total capacity of idle buffers available for reuse */
+    public long getPooledBytes() {
+        return this.pooledBytes.get();
+    }
+
+    /** Number of buffers allocated since pool was created */
+    public long getAllocatedCount() {
+        return this.allocatedCount.sum();
+    }
+
+}
@@ -55,6 +55,9 @@ public abstract class Message {
 	/** Serialized outgoing message checksum. Expected to be written to by subclass. */
 	protected byte[] checksumBytes;
 
+	/** Complete serialized outgoing message, shared read-only between peers when broadcasting. Built on demand. */
+	private volatile ByteBuffer sharedFrame;
+
 	/** Typically called by subclass when constructing message from received network data. */
 	protected Message(int id, MessageType type) {
 		this.id = id;
@@ -76,6 +79,9 @@ public abstract class Message {
 
 	public void setId(int id) {
 		this.id = id;
+
+		// ID is part of serialized form, so any shared frame is now stale
+		this.sharedFrame = null;
 	}
 
 	public MessageType getType() {
@@ -153,6 +159,37 @@ public abstract class Message {
 		}
 	}
 
+	/**
+	 * Returns total length of the message frame at start of buffer, without consuming any bytes.
+	 * <p>
+	 * Useful for sizing receive buffers before all of a message's data has arrived.
+	 * Does not validate message header; {@link #fromByteBuffer(ByteBuffer)} does that.
+	 *
+	 * @param readOnlyBuffer ByteBuffer containing bytes read from network, from position up to limit
+	 * @return frame length in bytes, or -1 if not enough bytes to determine frame length
+	 */
+	public static int peekFrameLength(ByteBuffer readOnlyBuffer) {
+		int start = readOnlyBuffer.position();
+		int headerLength = MAGIC_LENGTH + TYPE_LENGTH + HAS_ID_LENGTH;
+
+		if (readOnlyBuffer.remaining() < headerLength)
+			return -1;
+
+		if (readOnlyBuffer.get(start + MAGIC_LENGTH + TYPE_LENGTH) != 0)
+			headerLength += ID_LENGTH;
+
+		if (readOnlyBuffer.remaining() < headerLength + DATA_SIZE_LENGTH)
+			return -1;
+
+		int dataSize = readOnlyBuffer.getInt(start + headerLength);
+		headerLength += DATA_SIZE_LENGTH;
+
+		if (dataSize <= 0)
+			return headerLength;
+
+		return headerLength + CHECKSUM_LENGTH + dataSize;
+	}
+
 	protected static byte[] generateChecksum(byte[] data) {
 		return Arrays.copyOfRange(Crypto.digest(data), 0, CHECKSUM_LENGTH);
 	}
@@ -209,6 +246,48 @@ public abstract class Message {
 		}
 	}
 
+	/**
+	 * Serializes this message, once, into a read-only frame that can be shared by many peers' send queues.
+	 * <p>
+	 * Subsequent calls to {@link #toByteBuffer()} return a {@link ByteBuffer#duplicate()} of this frame,
+	 * so sending the same message to many peers does not re-serialize it per peer.
+	 *
+	 * @return number of bytes newly serialized, or 0 if frame was already built
+	 * @throws MessageException if message could not be serialized
+	 */
+	public int shareFrame() throws MessageException {
+		if (this.sharedFrame != null)
+			return 0;
+
+		synchronized (this) {
+			if (this.sharedFrame != null)
+				return 0;
+
+			byte[] frameBytes = this.toBytes();
+			this.sharedFrame = ByteBuffer.wrap(frameBytes).asReadOnlyBuffer();
+			return frameBytes.length;
+		}
+	}
+
+	/** Returns whether this message has been serialized into a shared frame. */
+	public boolean hasSharedFrame() {
+		return this.sharedFrame != null;
+	}
+
+	/**
+	 * Returns serialized message, ready for writing to a channel.
+	 * <p>
+	 * If message has a shared frame then a duplicate of that frame is returned,
+	 * with its own position/limit, otherwise message is serialized afresh.
+	 */
+	public ByteBuffer toByteBuffer() throws MessageException {
+		ByteBuffer frame = this.sharedFrame;
+		if (frame != null)
+			return frame.duplicate();
+
+		return ByteBuffer.wrap(this.toBytes());
+	}
+
 	public static <M extends Message> M cloneWithNewId(M message, int newId) {
 		M clone;
 
@@ -23,6 +23,16 @@ public interface ATRepository {
 	/** Returns list of executable ATs, empty if none found */
 	public List<ATData> getAllExecutableATs() throws DataException;
 
+	/**
+	 * Returns list of executable ATs due to run, given current blockchain height, empty if none found.
+	 * <p>
+	 * Note that running ATs see blockchain height, i.e. height of previous block, not height of block being built.
+	 * <p>
+	 * Excludes ATs sleeping until a later height, as running them would have no effect,
+	 * unless they are frozen or could be woken by a message.
+	 */
+	public List<ATData> getExecutableATs(int blockchainHeight) throws DataException;
+
 	/** Returns list of ATs with matching code hash, optionally executable only. */
 	public List<ATData> getATsByFunctionality(byte[] codeHash, Boolean isExecutable, Integer limit, Integer offset, Boolean reverse) throws DataException;
 
@@ -62,6 +72,13 @@ public interface ATRepository {
 	 */
 	public ATStateData getLatestATState(String atAddress) throws DataException;
 
+	/**
+	 * Returns state hash of latest ATStateData for an AT, or null if none found.
+	 * <p>
+	 * Cheaper than {@link #getLatestATState(String)} as full state data isn't fetched.
+	 */
+	public byte[] getLatestATStateHash(String atAddress) throws DataException;
+
 	/**
 	 * Returns final ATStateData for ATs matching codeHash (required)
 	 * and specific data segment value (optional).
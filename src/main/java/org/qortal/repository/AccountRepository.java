@@ -2,7 +2,9 @@ package org.qortal.repository;
 
 import org.qortal.data.account.*;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -14,6 +16,9 @@ public interface AccountRepository {
 	/** Returns all general information about account, e.g. public key, last reference, default group ID. */
 	public AccountData getAccount(String address) throws DataException;
 
+	/** Returns general information about multiple accounts, omitting any not found. Order is not guaranteed. */
+	public List<AccountData> getAccounts(Collection<String> addresses) throws DataException;
+
 	/** Returns accounts with <b>any</b> bit set in given mask. */
 	public List<AccountData> getFlaggedAccounts(int mask) throws DataException;
 
@@ -190,6 +195,12 @@ public interface AccountRepository {
 	/** Batch update of account asset balances. */
 	public void setAssetBalances(List<AccountBalanceData> accountBalances) throws DataException;
 
+	/** Reports QORT balance changes from processing block at <tt>height</tt> to balance recorder, once committed. */
+	public void recordBlockBalanceChanges(int height, Map<String, Long> balanceChanges) throws DataException;
+
+	/** Reports orphaning of block at <tt>height</tt> to balance recorder, once committed. */
+	public void recordBlockOrphaned(int height) throws DataException;
+
 	public void save(AccountBalanceData accountBalanceData) throws DataException;
 
 	public void delete(String address, long assetId) throws DataException;
@@ -11,22 +11,73 @@ import org.qortal.transform.block.BlockTransformer;
 import org.qortal.utils.Triple;
 
 import java.io.*;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
 import static org.qortal.transform.Transformer.INT_LENGTH;
 
 public class BlockArchiveReader {
 
+    /**
+     * Memory-mapped archive file, with its fixed header and block index already parsed.
+     * <p>
+     * Slices of {@code mappedBuffer} are handed out to callers, so it must never be written to.
+     */
+    private static class MappedArchiveFile {
+        private final int version;
+        private final int startHeight;
+        private final int endHeight;
+        /** Absolute offset into file of each block's height/length/data, indexed by (height - startHeight) */
+        private final int[] blockOffsets;
+        private final ByteBuffer mappedBuffer;
+
+        private MappedArchiveFile(int version, int startHeight, int endHeight, int[] blockOffsets, ByteBuffer mappedBuffer) {
+            this.version = version;
+            this.startHeight = startHeight;
+            this.endHeight = endHeight;
+            this.blockOffsets = blockOffsets;
+            this.mappedBuffer = mappedBuffer;
+        }
+    }
+
     private static BlockArchiveReader instance;
     private Map<String, Triple<Integer, Integer, Integer>> fileListCache;
+    /** Filenames keyed by start height, for quick lookup of the file containing a given height */
+    private NavigableMap<Integer, String> filenamesByStartHeight;
+
+    private final Path archivePath;
+    private final int maxMappedFiles;
+    /** Least-recently-used memory-mapped archive files, keyed by filename. Synchronize on this map before use. */
+    private final LinkedHashMap<String, MappedArchiveFile> mappedFiles;
 
     private static final Logger LOGGER = LogManager.getLogger(BlockArchiveReader.class);
 
     public BlockArchiveReader() {
+        this(Paths.get(Settings.getInstance().getRepositoryPath(), "archive").toAbsolutePath(),
+                Settings.getInstance().getArchiveReaderMappedFileCount());
+    }
 
+    /**
+     * @param archivePath directory containing block archive files
+     * @param maxMappedFiles maximum number of archive files to keep memory-mapped, or 0 to use regular file I/O
+     */
+    public BlockArchiveReader(Path archivePath, int maxMappedFiles) {
+        this.archivePath = archivePath;
+        this.maxMappedFiles = maxMappedFiles;
+        this.mappedFiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MappedArchiveFile> eldest) {
+                // Evicted mappings are released when garbage collected
+                return this.size() > maxMappedFiles;
+            }
+        };
     }
 
     public static synchronized BlockArchiveReader getInstance() {
@@ -38,10 +89,10 @@ public class BlockArchiveReader {
     }
 
     private void fetchFileList() {
-        Path archivePath = Paths.get(Settings.getInstance().getRepositoryPath(), "archive").toAbsolutePath();
-        File archiveDirFile = archivePath.toFile();
+        File archiveDirFile = this.archivePath.toFile();
         String[] files = archiveDirFile.list();
         Map<String, Triple<Integer, Integer, Integer>> map = new HashMap<>();
+        NavigableMap<Integer, String> byStartHeight = new TreeMap<>();
 
         if (files != null) {
             for (String file : files) {
@@ -59,8 +110,10 @@ public class BlockArchiveReader {
                 Integer endHeight = Integer.parseInt(parts[1]);
                 Integer range = endHeight - startHeight;
                 map.put(filename, new Triple(startHeight, endHeight, range));
+                byStartHeight.put(startHeight, filename);
             }
         }
+        this.filenamesByStartHeight = Collections.unmodifiableNavigableMap(byStartHeight);
         this.fileListCache = Map.copyOf(map);
     }
 
@@ -82,17 +135,19 @@ public class BlockArchiveReader {
             this.fetchFileList();
         }
 
-        Triple<byte[], Integer, Integer> serializedBlock = this.fetchSerializedBlockBytesForHeight(height);
+        Triple<ByteBuffer, Integer, Integer> serializedBlock = this.fetchSerializedBlockSliceForHeight(height);
         if (serializedBlock == null) {
             return null;
         }
-        byte[] serializedBytes = serializedBlock.getA();
-        Integer serializationVersion = serializedBlock.getB();
-        if (serializedBytes == null || serializationVersion == null) {
+
+        return this.transformBlock(serializedBlock.getA(), serializedBlock.getB(), height);
+    }
+
+    private BlockTransformation transformBlock(ByteBuffer byteBuffer, Integer serializationVersion, int height) {
+        if (byteBuffer == null || serializationVersion == null) {
             return null;
         }
 
-        ByteBuffer byteBuffer = ByteBuffer.wrap(serializedBytes);
         BlockTransformation blockInfo = null;
         try {
             switch (serializationVersion) {
@@ -137,12 +192,29 @@ public class BlockArchiveReader {
 
         List<BlockTransformation> blockInfoList = new ArrayList<>();
 
-        for (int height = startHeight; height <= endHeight; height++) {
-            BlockTransformation blockInfo = this.fetchBlockAtHeight(height);
-            if (blockInfo == null) {
-                return blockInfoList;
+        int height = startHeight;
+        while (height <= endHeight) {
+            // Resolve each archive file only once, then decode consecutive blocks straight from its mapping
+            MappedArchiveFile mappedFile = this.getMappedFileForHeight(height);
+            if (mappedFile == null) {
+                // Not mapped (or mapping disabled) so fall back to per-block reads
+                BlockTransformation blockInfo = this.fetchBlockAtHeight(height);
+                if (blockInfo == null) {
+                    return blockInfoList;
+                }
+                blockInfoList.add(blockInfo);
+                height++;
+                continue;
+            }
+
+            int lastHeightInFile = Math.min(endHeight, mappedFile.endHeight);
+            for (; height <= lastHeightInFile; height++) {
+                BlockTransformation blockInfo = this.transformBlock(sliceBlock(mappedFile, height), mappedFile.version, height);
+                if (blockInfo == null) {
+                    return blockInfoList;
+                }
+                blockInfoList.add(blockInfo);
             }
-            blockInfoList.add(blockInfo);
         }
         return blockInfoList;
     }
@@ -176,24 +248,26 @@ public class BlockArchiveReader {
             this.fetchFileList();
         }
 
-        Iterator it = this.fileListCache.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry pair = (Map.Entry) it.next();
-            if (pair == null && pair.getKey() == null && pair.getValue() == null) {
-                continue;
-            }
-            Triple<Integer, Integer, Integer> heightInfo = (Triple<Integer, Integer, Integer>) pair.getValue();
-            Integer startHeight = heightInfo.getA();
-            Integer endHeight = heightInfo.getB();
+        Map<String, Triple<Integer, Integer, Integer>> fileList = this.fileListCache;
+        NavigableMap<Integer, String> byStartHeight = this.filenamesByStartHeight;
+        if (fileList == null || byStartHeight == null) {
+            return null;
+        }
 
-            if (height >= startHeight && height <= endHeight) {
-                // Found the correct file
-                String filename = (String) pair.getKey();
-                return filename;
-            }
+        // Candidate is the file with the greatest start height not above requested height
+        Map.Entry<Integer, String> entry = byStartHeight.floorEntry(height);
+        if (entry == null) {
+            return null;
         }
 
-        return null;
+        String filename = entry.getValue();
+        Triple<Integer, Integer, Integer> heightInfo = fileList.get(filename);
+        if (heightInfo == null || height > heightInfo.getB()) {
+            return null;
+        }
+
+        // Found the correct file
+        return filename;
     }
 
     public Triple<byte[], Integer, Integer> fetchSerializedBlockBytesForSignature(byte[] signature, boolean includeHeightPrefix, Repository repository) {
@@ -232,15 +306,167 @@ public class BlockArchiveReader {
     }
 
     public Triple<byte[], Integer, Integer> fetchSerializedBlockBytesForHeight(int height) {
+        if (this.maxMappedFiles > 0) {
+            Triple<ByteBuffer, Integer, Integer> serializedBlock = this.fetchSerializedBlockSliceForHeight(height);
+            if (serializedBlock == null) {
+                return null;
+            }
+
+            ByteBuffer blockSlice = serializedBlock.getA();
+            byte[] blockBytes = new byte[blockSlice.remaining()];
+            blockSlice.get(blockBytes);
+            return new Triple<>(blockBytes, serializedBlock.getB(), height);
+        }
+
+        return this.readSerializedBlockBytesForHeight(height);
+    }
+
+    /**
+     * Returns serialized block bytes as a read-only slice of the memory-mapped archive file, without copying.
+     * <p>
+     * Falls back to reading a copy via regular file I/O if memory-mapping is disabled.
+     * <p>
+     * The slice keeps the whole archive file mapped for as long as it is reachable, even after
+     * {@link #invalidateFileListCache()}, and on some platforms (e.g. Windows) a mapped file can't be deleted.
+     * So callers must use the slice straight away and not hold on to it, otherwise a later archive rebuild
+     * can't delete the old archive. Use {@link #fetchSerializedBlockBytesForHeight(int)} to keep a copy instead.
+     *
+     * @return Triple of (block bytes, serialization version, height), or null if not found
+     */
+    public Triple<ByteBuffer, Integer, Integer> fetchSerializedBlockSliceForHeight(int height) {
+        if (this.maxMappedFiles <= 0) {
+            Triple<byte[], Integer, Integer> serializedBlock = this.readSerializedBlockBytesForHeight(height);
+            if (serializedBlock == null || serializedBlock.getA() == null) {
+                return null;
+            }
+
+            return new Triple<>(ByteBuffer.wrap(serializedBlock.getA()), serializedBlock.getB(), height);
+        }
+
+        MappedArchiveFile mappedFile = this.getMappedFileForHeight(height);
+        if (mappedFile == null) {
+            return null;
+        }
+
+        ByteBuffer blockSlice = sliceBlock(mappedFile, height);
+        if (blockSlice == null) {
+            return null;
+        }
+
+        return new Triple<>(blockSlice, mappedFile.version, height);
+    }
+
+    private MappedArchiveFile getMappedFileForHeight(int height) {
+        if (this.maxMappedFiles <= 0) {
+            return null;
+        }
+
         String filename = this.getFilenameForHeight(height);
         if (filename == null) {
             // We don't have this block in the archive
             // Invalidate the file list cache in case it is out of date
-            this.invalidateFileListCache();
+            this.invalidateFileList();
             return null;
         }
 
-        Path filePath = Paths.get(Settings.getInstance().getRepositoryPath(), "archive", filename).toAbsolutePath();
+        synchronized (this.mappedFiles) {
+            MappedArchiveFile mappedFile = this.mappedFiles.get(filename);
+            if (mappedFile != null) {
+                return mappedFile;
+            }
+
+            mappedFile = this.mapFile(filename);
+            if (mappedFile != null) {
+                this.mappedFiles.put(filename, mappedFile);
+            }
+
+            return mappedFile;
+        }
+    }
+
+    private MappedArchiveFile mapFile(String filename) {
+        Path filePath = this.archivePath.resolve(filename);
+
+        try (FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            // Mapping remains valid after channel is closed
+            MappedByteBuffer mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+
+            // Get info about this file (the "fixed length header")
+            final int version = mappedBuffer.getInt();
+            final int startHeight = mappedBuffer.getInt();
+            final int endHeight = mappedBuffer.getInt();
+            mappedBuffer.getInt(); // Block count (unused)
+            final int variableHeaderLength = mappedBuffer.getInt();
+            final int fixedHeaderLength = mappedBuffer.position();
+            // End of fixed length header
+
+            // Make sure the version is one we recognize
+            if (version != 1 && version != 2) {
+                LOGGER.info("Error: unknown version in file {}: {}", filename, version);
+                return null;
+            }
+
+            // Parse block index from variable length header, converting to absolute file offsets
+            final int dataSegmentStartIndex = fixedHeaderLength + variableHeaderLength + INT_LENGTH; // Confirmed correct
+            final int blockCount = Math.min(endHeight - startHeight + 1, variableHeaderLength / INT_LENGTH);
+            int[] blockOffsets = new int[Math.max(blockCount, 0)];
+            for (int i = 0; i < blockOffsets.length; ++i) {
+                blockOffsets[i] = dataSegmentStartIndex + mappedBuffer.getInt();
+            }
+
+            return new MappedArchiveFile(version, startHeight, endHeight, blockOffsets, mappedBuffer);
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            LOGGER.info("File {} not found: {}", filename, e.getMessage());
+            return null;
+        } catch (IOException | BufferUnderflowException e) {
+            LOGGER.info("Unable to map archive file {}: {}", filename, e.getMessage());
+            return null;
+        }
+    }
+
+    private static ByteBuffer sliceBlock(MappedArchiveFile mappedFile, int height) {
+        // Verify that the block is within the reported range
+        final int blockIndex = height - mappedFile.startHeight;
+        if (blockIndex < 0 || blockIndex >= mappedFile.blockOffsets.length) {
+            LOGGER.info("Error: requested height {} but the range of mapped file is {}-{}",
+                    height, mappedFile.startHeight, mappedFile.endHeight);
+            return null;
+        }
+
+        try {
+            // Duplicate so concurrent readers don't disturb each other's positions
+            ByteBuffer buffer = mappedFile.mappedBuffer.duplicate();
+            buffer.position(mappedFile.blockOffsets[blockIndex]);
+
+            // Read the block metadata
+            int blockHeight = buffer.getInt();
+            int blockLength = buffer.getInt();
+
+            // Ensure the block height matches the one requested
+            if (blockHeight != height) {
+                LOGGER.info("Error: height {} does not match requested: {}", blockHeight, height);
+                return null;
+            }
+
+            ByteBuffer blockSlice = buffer.slice();
+            blockSlice.limit(blockLength);
+            return blockSlice.asReadOnlyBuffer();
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            LOGGER.info("Unable to read block {} from mapped archive: {}", height, e.getMessage());
+            return null;
+        }
+    }
+
+    private Triple<byte[], Integer, Integer> readSerializedBlockBytesForHeight(int height) {
+        String filename = this.getFilenameForHeight(height);
+        if (filename == null) {
+            // We don't have this block in the archive
+            // Invalidate the file list cache in case it is out of date
+            this.invalidateFileList();
+            return null;
+        }
+
+        Path filePath = this.archivePath.resolve(filename);
         RandomAccessFile file = null;
         try {
             file = new RandomAccessFile(filePath.toString(), "r");
@@ -336,8 +562,19 @@ public class BlockArchiveReader {
         return maxEndHeight;
     }
 
-    public void invalidateFileListCache() {
+    private void invalidateFileList() {
         this.fileListCache = null;
+        this.filenamesByStartHeight = null;
+    }
+
+    public void invalidateFileListCache() {
+        this.invalidateFileList();
+
+        // Archive files may have been rewritten, so drop any stale mappings too.
+        // Mappings are only released once garbage collected, and only if no caller still holds a slice of them.
+        synchronized (this.mappedFiles) {
+            this.mappedFiles.clear();
+        }
     }
 
 }
@@ -2,6 +2,7 @@ package org.qortal.repository;
 
 import org.qortal.data.group.*;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface GroupRepository {
@@ -73,6 +74,9 @@ public interface GroupRepository {
 
 	public boolean memberExists(int groupId, String address) throws DataException;
 
+	/** Returns which of passed addresses are members of group. Order is not guaranteed. */
+	public List<String> getMemberAddresses(int groupId, Collection<String> addresses) throws DataException;
+
 	public List<GroupMemberData> getGroupMembers(int groupId, Integer limit, Integer offset, Boolean reverse) throws DataException;
 
 	public default List<GroupMemberData> getGroupMembers(int groupId) throws DataException {
@@ -7,31 +7,97 @@ import org.qortal.block.GenesisBlock;
 import org.qortal.controller.Controller;
 import org.qortal.data.block.BlockArchiveData;
 import org.qortal.data.block.BlockData;
+import org.qortal.data.system.ReindexStatus;
 import org.qortal.data.transaction.TransactionData;
 import org.qortal.settings.Settings;
 import org.qortal.transaction.Transaction;
 import org.qortal.transform.block.BlockTransformation;
 import org.qortal.utils.Base58;
 import org.qortal.utils.NTP;
-
-import java.util.concurrent.TimeoutException;
-
+import org.qortal.utils.NamedThreadFactory;
+
+import java.util.concurrent.*;
+
+/**
+ * Rebuilds chainstate by reprocessing blocks from the block archive.
+ * <p>
+ * Blocks are processed as a pipeline:
+ * <ul>
+ * <li>a prefetch thread decodes archived blocks ahead of processing</li>
+ * <li>validator threads run stateless signature checks on decoded blocks, via {@link Block#preValidate()}</li>
+ * <li>the calling thread validates and processes blocks in order, committing to repository every few blocks</li>
+ * </ul>
+ * Each commit leaves the repository at a consistent block height,
+ * so an interrupted reindex can be resumed from the last committed block.
+ */
 public class ReindexManager {
 
     private static final Logger LOGGER = LogManager.getLogger(ReindexManager.class);
 
+    private static class PrefetchedBlock {
+        private final int height;
+        private final Block block;
+        /** Result of {@link Block#preValidate()} */
+        private final Future<Boolean> preValidation;
+
+        private PrefetchedBlock(int height, Block block, Future<Boolean> preValidation) {
+            this.height = height;
+            this.block = block;
+            this.preValidation = preValidation;
+        }
+    }
+
+    /** Marks end of archived blocks in prefetch queue */
+    private static final PrefetchedBlock END_OF_ARCHIVE = new PrefetchedBlock(0, null, null);
+
+    /** Current, or most recent, reindex, for status reporting */
+    private static volatile ReindexManager latestReindex;
+
     private Repository repository;
 
     private final int pruneAndTrimBlockInterval = 2000;
     private final int maintenanceBlockInterval = 50000;
 
-    private boolean resume = false;
+    private final boolean resume;
+    private final int prefetchBlockCount;
+    private final int commitBlockCount;
+
+    private BlockingQueue<PrefetchedBlock> prefetchedBlocks;
+    private BlockData lastProcessedBlockData;
+    private int uncommittedBlockCount = 0;
+
+    // Progress, also read by API threads
+    private volatile boolean isRunning = false;
+    private volatile long startTimestamp;
+    private volatile Long endTimestamp;
+    private volatile int startHeight;
+    private volatile int processedHeight;
+    private volatile int committedHeight;
+    private volatile int archiveHeight;
+    private volatile long blocksProcessed = 0;
+    private volatile long prefetchWaitMillis = 0;
+    private volatile long processMillis = 0;
+    private volatile long commitMillis = 0;
 
     public ReindexManager() {
+        this(false);
+    }
 
+    /**
+     * @param resume whether to continue from last block committed by an interrupted reindex,
+     *               instead of rebuilding repository from genesis
+     */
+    public ReindexManager(boolean resume) {
+        this.resume = resume;
+        this.prefetchBlockCount = Math.max(1, Settings.getInstance().getReindexPrefetchBlockCount());
+        this.commitBlockCount = Math.max(1, Settings.getInstance().getReindexCommitBlockCount());
     }
 
     public void reindex() throws DataException {
+        latestReindex = this;
+        this.startTimestamp = System.currentTimeMillis();
+        this.isRunning = true;
+
         try {
             this.runPreChecks();
             this.rebuildRepository();
@@ -45,9 +111,34 @@ public class ReindexManager {
 
         } catch (InterruptedException e) {
             throw new DataException("Interrupted before complete");
+        } finally {
+            this.isRunning = false;
+            this.endTimestamp = System.currentTimeMillis();
         }
     }
 
+    /** Returns progress of current, or most recent, reindex, or null if no reindex has run since startup. */
+    public static ReindexStatus getStatus() {
+        ReindexManager reindex = latestReindex;
+        if (reindex == null)
+            return null;
+
+        return reindex.buildStatus();
+    }
+
+    private ReindexStatus buildStatus() {
+        Long endTimestamp = this.endTimestamp;
+        long elapsed = (endTimestamp != null ? endTimestamp : System.currentTimeMillis()) - this.startTimestamp;
+        double blocksPerSecond = elapsed > 0 ? this.blocksProcessed * 1000.0 / elapsed : 0.0;
+
+        BlockingQueue<PrefetchedBlock> prefetchedBlocks = this.prefetchedBlocks;
+        int prefetchedBlockCount = this.isRunning && prefetchedBlocks != null ? prefetchedBlocks.size() : 0;
+
+        return new ReindexStatus(this.isRunning, this.resume, this.startTimestamp, endTimestamp, this.startHeight, this.processedHeight,
+                this.committedHeight, this.archiveHeight, this.blocksProcessed, blocksPerSecond, prefetchedBlockCount,
+                this.prefetchWaitMillis, this.processMillis, this.commitMillis);
+    }
+
     private void runPreChecks() throws DataException, InterruptedException {
         LOGGER.info("Running pre-checks...");
         if (Settings.getInstance().isTopOnly()) {
@@ -61,6 +152,13 @@ public class ReindexManager {
             LOGGER.info("Waiting for NTP...");
             Thread.sleep(5000L);
         }
+
+        if (resume) {
+            try (final Repository repository = RepositoryManager.getRepository()) {
+                if (repository.getBlockRepository().getBlockchainHeight() < 1)
+                    throw new DataException("No reindex progress to resume. Please reindex from genesis.");
+            }
+        }
     }
 
     private void rebuildRepository() throws DataException {
@@ -91,42 +189,122 @@ public class ReindexManager {
         this.repository.saveChanges();
     }
 
-    private void processBlocks() throws DataException {
+    private void processBlocks() throws DataException, InterruptedException {
         LOGGER.info("Processing blocks...");
 
         int height = this.repository.getBlockRepository().getBlockchainHeight();
-        while (true) {
-            height++;
+        this.startHeight = height;
+        this.processedHeight = height;
+        this.committedHeight = height;
+        this.archiveHeight = BlockArchiveReader.getInstance().getHeightOfLastArchivedBlock();
 
-            boolean processed = this.processBlock(height);
-            if (!processed) {
-                LOGGER.info("Block {} couldn't be processed. If this is the last archived block, then the process is complete.", height);
-                break; // TODO: check if complete
-            }
+        ExecutorService validatorExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new NamedThreadFactory("Reindex validator", Thread.NORM_PRIORITY));
+        this.prefetchedBlocks = new ArrayBlockingQueue<>(this.prefetchBlockCount);
+
+        final int firstHeight = height + 1;
+        Thread prefetchThread = new Thread(() -> this.prefetchBlocks(firstHeight, validatorExecutor), "Reindex prefetcher");
+        prefetchThread.setDaemon(true);
+        prefetchThread.start();
 
-            // Prune and trim regularly, leaving a buffer
-            if (height >= pruneAndTrimBlockInterval*2 && height % pruneAndTrimBlockInterval == 0) {
-                int startHeight = Math.max(height - pruneAndTrimBlockInterval*2, 2);
-                int endHeight = height - pruneAndTrimBlockInterval;
-                LOGGER.info("Pruning and trimming blocks {} to {}...", startHeight, endHeight);
-                this.repository.getATRepository().rebuildLatestAtStates(height - 250);
-                this.repository.saveChanges();
-                this.prune(startHeight, endHeight);
-                this.trim(startHeight, endHeight);
+        try {
+            while (true) {
+                PrefetchedBlock prefetchedBlock = this.takePrefetchedBlock();
+                if (prefetchedBlock == END_OF_ARCHIVE) {
+                    LOGGER.info("Block {} couldn't be processed. If this is the last archived block, then the process is complete.", height + 1);
+                    break; // TODO: check if complete
+                }
+
+                height = prefetchedBlock.height;
+                this.processBlock(prefetchedBlock.block);
+
+                boolean isPruneAndTrimHeight = height >= pruneAndTrimBlockInterval*2 && height % pruneAndTrimBlockInterval == 0;
+                boolean isMaintenanceHeight = height % maintenanceBlockInterval == 0;
+
+                // Commit in batches of blocks, and always before pruning, trimming or maintenance
+                if (this.uncommittedBlockCount >= this.commitBlockCount || isPruneAndTrimHeight || isMaintenanceHeight)
+                    this.commit();
+
+                // Prune and trim regularly, leaving a buffer
+                if (isPruneAndTrimHeight) {
+                    int startHeight = Math.max(height - pruneAndTrimBlockInterval*2, 2);
+                    int endHeight = height - pruneAndTrimBlockInterval;
+                    LOGGER.info("Pruning and trimming blocks {} to {}...", startHeight, endHeight);
+                    this.repository.getATRepository().rebuildLatestAtStates(height - 250);
+                    this.repository.saveChanges();
+                    this.prune(startHeight, endHeight);
+                    this.trim(startHeight, endHeight);
+
+                    // Persist progress to disk, in case we need to resume
+                    this.requestCheckpoint();
+                }
+
+                // Run repository maintenance regularly, to keep blockchain.data size down
+                if (isMaintenanceHeight) {
+                    this.runRepositoryMaintenance();
+                }
             }
 
-            // Run repository maintenance regularly, to keep blockchain.data size down
-            if (height % maintenanceBlockInterval == 0) {
-                this.runRepositoryMaintenance();
+            this.commit();
+        } finally {
+            prefetchThread.interrupt();
+            validatorExecutor.shutdownNow();
+        }
+    }
+
+    /** Decodes archived blocks, starting at <tt>height</tt>, queueing them for processing while validators check their signatures. */
+    private void prefetchBlocks(int height, ExecutorService validatorExecutor) {
+        try {
+            while (true) {
+                Block block = this.fetchBlock(height);
+                if (block == null) {
+                    this.prefetchedBlocks.put(END_OF_ARCHIVE);
+                    return;
+                }
+
+                Future<Boolean> preValidation = validatorExecutor.submit(block::preValidate);
+                this.prefetchedBlocks.put(new PrefetchedBlock(height, block, preValidation));
+
+                ++height;
+            }
+        } catch (InterruptedException | RejectedExecutionException e) {
+            // Reindex has finished, or failed
+        } catch (RuntimeException e) {
+            // Pass failure on to processing thread
+            CompletableFuture<Boolean> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+
+            try {
+                this.prefetchedBlocks.put(new PrefetchedBlock(height, null, failure));
+            } catch (InterruptedException e2) {
+                // Reindex has failed anyway
             }
         }
     }
 
-    private boolean processBlock(int height) throws DataException {
-        Block block = this.fetchBlock(height);
-        if (block == null) {
-            return false;
+    /** Waits for, then returns, next prefetched block, once its signatures have been checked. */
+    private PrefetchedBlock takePrefetchedBlock() throws DataException, InterruptedException {
+        long before = System.currentTimeMillis();
+
+        try {
+            PrefetchedBlock prefetchedBlock = this.prefetchedBlocks.take();
+            if (prefetchedBlock == END_OF_ARCHIVE)
+                return prefetchedBlock;
+
+            if (!prefetchedBlock.preValidation.get())
+                throw new DataException(String.format("Invalid signature in archived block at height %d", prefetchedBlock.height));
+
+            return prefetchedBlock;
+        } catch (ExecutionException e) {
+            throw new DataException("Unable to decode or validate archived block", e.getCause());
+        } finally {
+            this.prefetchWaitMillis += System.currentTimeMillis() - before;
         }
+    }
+
+    private void processBlock(Block block) throws DataException {
+        long before = System.currentTimeMillis();
+        int height = block.getBlockData().getHeight();
 
         // Transactions are stored without approval status so determine that now
         for (Transaction transaction : block.getTransactions())
@@ -153,11 +331,28 @@ public class ReindexManager {
         // Add to block archive table, since this originated from the archive but the chainstate has to be rebuilt
         this.addToBlockArchive(block.getBlockData());
 
+        this.lastProcessedBlockData = block.getBlockData();
+        this.uncommittedBlockCount++;
+
+        this.processedHeight = height;
+        this.blocksProcessed++;
+        this.processMillis += System.currentTimeMillis() - before;
+    }
+
+    /** Commits processed blocks, if any, to repository. */
+    private void commit() throws DataException {
+        if (this.uncommittedBlockCount == 0)
+            return;
+
+        long before = System.currentTimeMillis();
+
         this.repository.saveChanges();
 
-        Controller.getInstance().onNewBlock(block.getBlockData());
+        this.commitMillis += System.currentTimeMillis() - before;
+        this.uncommittedBlockCount = 0;
+        this.committedHeight = this.lastProcessedBlockData.getHeight();
 
-        return true;
+        Controller.getInstance().onNewBlock(this.lastProcessedBlockData);
     }
 
     private Block fetchBlock(int height) {
@@ -179,7 +374,6 @@ public class ReindexManager {
         BlockArchiveData blockArchiveData = new BlockArchiveData(blockData);
         this.repository.getBlockArchiveRepository().save(blockArchiveData);
         this.repository.getBlockArchiveRepository().setBlockArchiveHeight(blockData.getHeight()+1);
-        this.repository.saveChanges();
     }
 
     private void prune(int startHeight, int endHeight) throws DataException {
@@ -100,16 +100,28 @@ public class HSQLDBATRepository implements ATRepository {
 
 	@Override
 	public List<ATData> getAllExecutableATs() throws DataException {
+		return this.getExecutableATs("");
+	}
+
+	@Override
+	public List<ATData> getExecutableATs(int blockchainHeight) throws DataException {
+		// Sleeping ATs only wake before sleep_until_height if woken by a message, or if frozen
+		return this.getExecutableATs("AND (is_sleeping = false OR sleep_until_height IS NULL OR sleep_until_height <= ? "
+				+ "OR sleep_until_message_timestamp IS NOT NULL OR is_frozen = true) ", blockchainHeight);
+	}
+
+	private List<ATData> getExecutableATs(String extraConditions, Object... bindParams) throws DataException {
 		String sql = "SELECT AT_address, creator, created_when, version, asset_id, code_bytes, code_hash, "
 				+ "is_sleeping, sleep_until_height, had_fatal_error, "
 				+ "is_frozen, frozen_balance, sleep_until_message_timestamp "
 				+ "FROM ATs "
 				+ "WHERE is_finished = false "
+				+ extraConditions
 				+ "ORDER BY created_when ASC";
 
 		List<ATData> executableATs = new ArrayList<>();
 
-		try (ResultSet resultSet = this.repository.checkedExecute(sql)) {
+		try (ResultSet resultSet = this.repository.checkedExecute(sql, bindParams)) {
 			if (resultSet == null)
 				return executableATs;
 
@@ -402,6 +414,26 @@ public class HSQLDBATRepository implements ATRepository {
 		}
 	}
 
+	@Override
+	public byte[] getLatestATStateHash(String atAddress) throws DataException {
+		String sql = "SELECT state_hash "
+				+ "FROM ATStates "
+				+ "WHERE AT_address = ? "
+				// Order by AT_address and height to use compound primary key as index
+				// Both must be the same direction (DESC) also
+				+ "ORDER BY AT_address DESC, height DESC "
+				+ "LIMIT 1 ";
+
+		try (ResultSet resultSet = this.repository.checkedExecute(sql, atAddress)) {
+			if (resultSet == null)
+				return null;
+
+			return resultSet.getBytes(1);
+		} catch (SQLException e) {
+			throw new DataException("Unable to fetch latest AT state hash from repository", e);
+		}
+	}
+
 	@Override
 	public List<ATStateData> getMatchingFinalATStates(byte[] codeHash, String buyerAddress, String sellerAddress, Boolean isFinished,
 			Integer dataByteOffset, Long expectedValue, Integer minimumFinalHeight,
@@ -3,13 +3,16 @@ package org.qortal.repository.hsqldb;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.qortal.asset.Asset;
+import org.qortal.controller.hsqldb.BalanceDeltaJournal;
 import org.qortal.data.account.*;
+import org.qortal.data.arbitrary.ArbitraryResourceCache;
 import org.qortal.repository.AccountRepository;
 import org.qortal.repository.DataException;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -32,6 +35,9 @@ public class HSQLDBAccountRepository implements AccountRepository {
 	}
 
 	protected static final Logger LOGGER = LogManager.getLogger(HSQLDBAccountRepository.class);
+
+	/** Number of addresses per query when fetching multiple accounts */
+	private static final int BULK_FETCH_CHUNK_SIZE = 500;
 	// General account
 
 	@Override
@@ -57,6 +63,42 @@ public class HSQLDBAccountRepository implements AccountRepository {
 		}
 	}
 
+	@Override
+	public List<AccountData> getAccounts(Collection<String> addresses) throws DataException {
+		StringBuilder sql = new StringBuilder(8 * BULK_FETCH_CHUNK_SIZE);
+		sql.append("SELECT reference, public_key, default_group_id, flags, level, blocks_minted, blocks_minted_adjustment, blocks_minted_penalty, Accounts.account FROM ");
+		HSQLDBRepository.temporaryValuesTableSql(sql, BULK_FETCH_CHUNK_SIZE, "TmpAccounts", "account");
+		sql.append("JOIN Accounts ON Accounts.account = TmpAccounts.account");
+
+		// Padding in final chunk can produce duplicates
+		Map<String, AccountData> accounts = new HashMap<>();
+
+		for (Object[] chunk : HSQLDBRepository.temporaryValuesChunks(addresses, BULK_FETCH_CHUNK_SIZE)) {
+			try (ResultSet resultSet = this.repository.checkedExecute(sql.toString(), chunk)) {
+				if (resultSet == null)
+					continue;
+
+				do {
+					byte[] reference = resultSet.getBytes(1);
+					byte[] publicKey = resultSet.getBytes(2);
+					int defaultGroupId = resultSet.getInt(3);
+					int flags = resultSet.getInt(4);
+					int level = resultSet.getInt(5);
+					int blocksMinted = resultSet.getInt(6);
+					int blocksMintedAdjustment = resultSet.getInt(7);
+					int blocksMintedPenalty = resultSet.getInt(8);
+					String address = resultSet.getString(9);
+
+					accounts.put(address, new AccountData(address, reference, publicKey, defaultGroupId, flags, level, blocksMinted, blocksMintedAdjustment, blocksMintedPenalty));
+				} while (resultSet.next());
+			} catch (SQLException e) {
+				throw new DataException("Unable to fetch accounts from repository", e);
+			}
+		}
+
+		return new ArrayList<>(accounts.values());
+	}
+
 	@Override
 	public List<AccountData> getFlaggedAccounts(int mask) throws DataException {
 		String sql = "SELECT reference, public_key, default_group_id, flags, level, blocks_minted, blocks_minted_adjustment, blocks_minted_penalty, account FROM Accounts WHERE BITAND(flags, ?) != 0";
@@ -259,6 +301,11 @@ public class HSQLDBAccountRepository implements AccountRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to save account's level into repository", e);
 		}
+
+		// Names owned by this account now have a different level
+		ArbitraryResourceCache.Changes changes = this.repository.getPendingCacheChanges();
+		if (changes != null)
+			changes.accounts.add(accountData.getAddress());
 	}
 
 	@Override
@@ -604,6 +651,16 @@ public class HSQLDBAccountRepository implements AccountRepository {
 	}
 
 
+	@Override
+	public void recordBlockBalanceChanges(int height, Map<String, Long> balanceChanges) throws DataException {
+		this.repository.onBlockBalanceChanges(BalanceDeltaJournal.BlockDeltas.processed(height, balanceChanges));
+	}
+
+	@Override
+	public void recordBlockOrphaned(int height) throws DataException {
+		this.repository.onBlockBalanceChanges(BalanceDeltaJournal.BlockDeltas.orphaned(height));
+	}
+
 	@Override
 	public void setAssetBalances(List<AccountBalanceData> accountBalances) throws DataException {
 		// Nothing to do?
@@ -886,83 +943,20 @@ public class HSQLDBAccountRepository implements AccountRepository {
 
 	@Override
 	public Integer getRewardShareIndex(byte[] rewardSharePublicKey) throws DataException {
-		if (!this.rewardShareExists(rewardSharePublicKey))
-			return null;
-
-		String sql = "SELECT COUNT(*) FROM RewardShares WHERE reward_share_public_key < ?";
-
-		try (ResultSet resultSet = this.repository.checkedExecute(sql, rewardSharePublicKey)) {
-			return resultSet.getInt(1);
-		} catch (SQLException e) {
-			throw new DataException("Unable to determine reward-share index in repository", e);
-		}
+		return this.repository.getRewardShareIndex().indexOf(rewardSharePublicKey);
 	}
 
 	@Override
 	public RewardShareData getRewardShareByIndex(int index) throws DataException {
-		String sql = "SELECT minter_public_key, minter, recipient, share_percent, reward_share_public_key FROM RewardShares "
-				+ "ORDER BY reward_share_public_key ASC "
-				+ "OFFSET ? LIMIT 1";
-
-		try (ResultSet resultSet = this.repository.checkedExecute(sql, index)) {
-			if (resultSet == null)
-				return null;
-
-			byte[] minterPublicKey = resultSet.getBytes(1);
-			String minter = resultSet.getString(2);
-			String recipient = resultSet.getString(3);
-			int sharePercent = resultSet.getInt(4);
-			byte[] rewardSharePublicKey = resultSet.getBytes(5);
-
-			return new RewardShareData(minterPublicKey, minter, recipient, rewardSharePublicKey, sharePercent);
-		} catch (SQLException e) {
-			throw new DataException("Unable to fetch indexed reward-share from repository", e);
-		}
+		return this.repository.getRewardShareIndex().get(index);
 	}
 
 	@Override
 	public List<RewardShareData> getRewardSharesByIndexes(int[] indexes) throws DataException {
-		String sql = "SELECT minter_public_key, minter, recipient, share_percent, reward_share_public_key FROM RewardShares "
-				+ "ORDER BY reward_share_public_key ASC";
-
 		if (indexes == null)
 			return null;
 
-		List<RewardShareData> rewardShares = new ArrayList<>();
-		if (indexes.length == 0)
-			return rewardShares;
-
-		try (ResultSet resultSet = this.repository.checkedExecute(sql)) {
-			if (resultSet == null)
-				return null;
-
-			int rowNum = 1;
-			for (int i = 0; i < indexes.length; ++i) {
-				final int index = indexes[i];
-
-				while (rowNum < index + 1) { // +1 because in JDBC, first row is row 1
-					if (!resultSet.next())
-						// Index is out of bounds
-						return null;
-
-					++rowNum;
-				}
-
-				byte[] minterPublicKey = resultSet.getBytes(1);
-				String minter = resultSet.getString(2);
-				String recipient = resultSet.getString(3);
-				int sharePercent = resultSet.getInt(4);
-				byte[] rewardSharePublicKey = resultSet.getBytes(5);
-
-				RewardShareData rewardShareData = new RewardShareData(minterPublicKey, minter, recipient, rewardSharePublicKey, sharePercent);
-
-				rewardShares.add(rewardShareData);
-			}
-
-			return rewardShares;
-		} catch (SQLException e) {
-			throw new DataException("Unable to fetch indexed reward-shares from repository", e);
-		}
+		return this.repository.getRewardShareIndex().get(indexes);
 	}
 
 	@Override
@@ -987,15 +981,23 @@ public class HSQLDBAccountRepository implements AccountRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to save reward-share info into repository", e);
 		}
+
+		this.repository.onRewardShareChange(RewardShareIndex.Change.save(rewardShareData));
 	}
 
 	@Override
 	public void delete(byte[] minterPublickey, String recipient) throws DataException {
+		RewardShareData rewardShareData = this.getRewardShare(minterPublickey, recipient);
+		if (rewardShareData == null)
+			return;
+
 		try {
 			this.repository.delete("RewardShares", "minter_public_key = ? and recipient = ?", minterPublickey, recipient);
 		} catch (SQLException e) {
 			throw new DataException("Unable to delete reward-share info from repository", e);
 		}
+
+		this.repository.onRewardShareChange(RewardShareIndex.Change.delete(rewardShareData.getRewardSharePublicKey()));
 	}
 
 	// Minting accounts used by BlockMinter
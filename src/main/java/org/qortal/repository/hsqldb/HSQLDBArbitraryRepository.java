@@ -737,7 +737,8 @@ public class HSQLDBArbitraryRepository implements ArbitraryRepository {
 					defaultResource, mode, minLevel, followedOnly, excludeBlocked, includeMetadata, includeStatus,
 					before, after, limit, offset, reverse);
 
-			if( !list.isEmpty() ) {
+			// Cache might legitimately have no candidates matching the criteria, so only fall back if it has no data for service
+			if( !list.isEmpty() || (service != null && ArbitraryResourceCache.getInstance().getDataByService().containsKey(service.value)) ) {
 				List<ArbitraryResourceData> results
 					= HSQLDBCacheUtils.filterList(
 						list,
@@ -1141,6 +1142,8 @@ public class HSQLDBArbitraryRepository implements ArbitraryRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to save arbitrary resource info into repository", e);
 		}
+
+		this.recordCacheChange(arbitraryResourceData);
 	}
 
 	@Override
@@ -1155,6 +1158,8 @@ public class HSQLDBArbitraryRepository implements ArbitraryRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to set status for arbitrary resource", e);
 		}
+
+		this.recordCacheChange(arbitraryResourceData);
 	}
 
 	@Override
@@ -1168,6 +1173,8 @@ public class HSQLDBArbitraryRepository implements ArbitraryRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to delete account from repository", e);
 		}
+
+		this.recordCacheChange(arbitraryResourceData);
 	}
 
 
@@ -1214,6 +1221,8 @@ public class HSQLDBArbitraryRepository implements ArbitraryRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to save arbitrary metadata into repository", e);
 		}
+
+		this.recordCacheChange(arbitraryResourceData);
 	}
 
 	@Override
@@ -1230,5 +1239,14 @@ public class HSQLDBArbitraryRepository implements ArbitraryRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to delete account from repository", e);
 		}
+
+		this.recordCacheChange(arbitraryResourceData);
+	}
+
+	/** Notes resource as changed, so ArbitraryResourceCache can update it once we commit. */
+	private void recordCacheChange(ArbitraryResourceData arbitraryResourceData) {
+		ArbitraryResourceCache.Changes changes = this.repository.getPendingCacheChanges();
+		if (changes != null)
+			changes.resources.add(ArbitraryResourceCache.ResourceKey.of(arbitraryResourceData));
 	}
 }
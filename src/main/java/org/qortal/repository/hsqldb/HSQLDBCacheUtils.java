@@ -3,19 +3,19 @@ package org.qortal.repository.hsqldb;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.qortal.api.SearchMode;
-import org.qortal.api.resource.TransactionsResource;
 import org.qortal.arbitrary.misc.Category;
 import org.qortal.arbitrary.misc.Service;
 import org.qortal.controller.Controller;
+import org.qortal.controller.hsqldb.BalanceDeltaJournal;
 import org.qortal.data.account.AccountBalanceData;
 import org.qortal.data.account.AddressAmountData;
 import org.qortal.data.account.BlockHeightRange;
 import org.qortal.data.account.BlockHeightRangeAddressAmounts;
 import org.qortal.data.arbitrary.ArbitraryResourceCache;
 import org.qortal.data.arbitrary.ArbitraryResourceData;
+import org.qortal.data.arbitrary.ArbitraryResourceIndex;
 import org.qortal.data.arbitrary.ArbitraryResourceMetadata;
 import org.qortal.data.arbitrary.ArbitraryResourceStatus;
-import org.qortal.data.transaction.TransactionData;
 import org.qortal.repository.DataException;
 import org.qortal.repository.Repository;
 import org.qortal.repository.RepositoryManager;
@@ -30,14 +30,18 @@ import java.time.format.DateTimeFormatter;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -67,6 +71,20 @@ public class HSQLDBCacheUtils {
     public static final String BALANCE_RECORDER_TIMER = "Balance Recorder Timer";
     public static final String BALANCE_RECORDER_TIMER_TASK = "Balance Recorder Timer Task";
 
+    /** Maximum number of changes to apply to the cache incrementally, beyond which we refill it instead */
+    private static final int MAX_INCREMENTAL_CHANGES = 5000;
+
+    private static final String RESOURCES_SQL
+            = "SELECT name, service, identifier, size, status, created_when, updated_when, "
+            + "title, description, category, tag1, tag2, tag3, tag4, tag5 "
+            + "FROM ArbitraryResourcesCache "
+            + "LEFT JOIN ArbitraryMetadataCache USING (service, name, identifier) ";
+
+    private static final String NAME_LEVEL_SQL
+            = "SELECT name, level "
+            + "FROM NAMES "
+            + "INNER JOIN ACCOUNTS on owner = account ";
+
     /**
      *
      * @param cache
@@ -118,15 +136,77 @@ public class HSQLDBCacheUtils {
 
         List<ArbitraryResourceData> candidates = new ArrayList<>();
 
-        // cache all results for requested service
-        if( service != null ) {
-            candidates.addAll(cache.getDataByService().getOrDefault(service.value, new ArrayList<>(0)));
-        }
         // if no requested, then empty cache
+        if( service == null )
+            return candidates;
+
+        ArbitraryResourceIndex index = cache.getIndex(service.value);
+        if( index == null )
+            return candidates;
+
+        // narrow down to resources that could match the text criteria, in creation order,
+        // leaving the exact matching to filterList
+        candidates.addAll(index.getResources(getCandidateIds(index, query, identifier, names, title, description, exactMatchNames, defaultResource)));
 
         return candidates;
     }
 
+    /**
+     * Get Candidate IDs
+     *
+     * Intersect the index's posting lists for each text criterion given.
+     * The result is a superset of the matches, whether prefix only or not.
+     *
+     * @return the sorted candidate IDs, or null if every resource is a candidate
+     */
+    private static int[] getCandidateIds(
+            ArbitraryResourceIndex index,
+            String query,
+            String identifier,
+            List<String> names,
+            String title,
+            String description,
+            List<String> exactMatchNames,
+            boolean defaultResource) {
+
+        int[] ids = null;
+
+        if( query != null ) {
+            if( defaultResource ) {
+                ids = index.getCandidates(ArbitraryResourceIndex.Field.NAME, query);
+            }
+            else {
+                int[] queryIds = new int[0];
+                for( ArbitraryResourceIndex.Field field : ArbitraryResourceIndex.Field.values() )
+                    queryIds = ArbitraryResourceIndex.union(queryIds, index.getCandidates(field, query));
+
+                ids = queryIds;
+            }
+        }
+
+        if( identifier != null )
+            ids = ArbitraryResourceIndex.intersect(ids, index.getCandidates(ArbitraryResourceIndex.Field.IDENTIFIER, identifier));
+
+        if( title != null )
+            ids = ArbitraryResourceIndex.intersect(ids, index.getCandidates(ArbitraryResourceIndex.Field.TITLE, title));
+
+        if( description != null )
+            ids = ArbitraryResourceIndex.intersect(ids, index.getCandidates(ArbitraryResourceIndex.Field.DESCRIPTION, description));
+
+        if( exactMatchNames != null && !exactMatchNames.isEmpty() ) {
+            ids = ArbitraryResourceIndex.intersect(ids, index.getByNames(exactMatchNames));
+        }
+        else if( names != null && !names.isEmpty() ) {
+            int[] nameIds = new int[0];
+            for( String name : names )
+                nameIds = ArbitraryResourceIndex.union(nameIds, index.getCandidates(ArbitraryResourceIndex.Field.NAME, name));
+
+            ids = ArbitraryResourceIndex.intersect(ids, nameIds);
+        }
+
+        return ids;
+    }
+
     /**
      * Filter candidates
      *
@@ -250,29 +330,84 @@ public class HSQLDBCacheUtils {
                     )).values().stream().filter(Optional::isPresent).map(Optional::get); // if there is a value for the group, then retain it
         }
 
-        // sort
-        if( reverse.isPresent() && reverse.get())
-            stream = stream.sorted(CREATED_WHEN_COMPARATOR.reversed());
-        else
-            stream = stream.sorted(CREATED_WHEN_COMPARATOR);
-
-        // skip to offset
-        if( offset.isPresent() ) stream = stream.skip(offset.get());
+        // sort, skip to offset, truncate to limit
+        Comparator<? super ArbitraryResourceData> comparator
+                = reverse.isPresent() && reverse.get() ? CREATED_WHEN_COMPARATOR.reversed() : CREATED_WHEN_COMPARATOR;
 
-        // truncate to limit
-        if( limit.isPresent() && limit.get() > 0 ) stream = stream.limit(limit.get());
+        stream = sortedPage(stream, comparator, offset.orElse(0), limit.filter(value -> value > 0));
 
-        // include metadata
-        if( includeMetadata.isEmpty() || !includeMetadata.get() )
-            stream = stream.peek( candidate -> candidate.metadata = null );
+        // candidates are shared with the cache, so copy them before removing anything
+        boolean retainMetadata = includeMetadata.isPresent() && includeMetadata.get();
+        boolean retainStatus = includeStatus.isPresent() && includeStatus.get();
 
-        // include status
-        if( includeStatus.isEmpty() || !includeStatus.get() )
-            stream = stream.peek( candidate -> candidate.status = null);
+        if( !retainMetadata || !retainStatus )
+            stream = stream.map( candidate -> copyOf(candidate, retainMetadata, retainStatus) );
 
         return stream.collect(Collectors.toList());
     }
 
+    /**
+     * Sorted Page
+     *
+     * Sort the stream, then skip and limit it. If there's a limit, only the top offset + limit items
+     * are selected, using a bounded heap, rather than sorting everything.
+     * Like a stable sort, equal items keep their stream order.
+     *
+     * @param stream the stream to sort
+     * @param comparator the sort order
+     * @param offset the number of items to skip
+     * @param limit the maximum number of items, if any
+     *
+     * @return the sorted page
+     */
+    private static Stream<ArbitraryResourceData> sortedPage(
+            Stream<ArbitraryResourceData> stream,
+            Comparator<? super ArbitraryResourceData> comparator,
+            int offset,
+            Optional<Integer> limit) {
+
+        if( limit.isEmpty() )
+            return stream.sorted(comparator).skip(offset);
+
+        List<ArbitraryResourceData> items = stream.collect(Collectors.toList());
+        int pageEnd = (int) Math.min((long) offset + limit.get(), items.size());
+
+        if( pageEnd <= offset )
+            return Stream.empty();
+
+        // order by comparator, then by stream position
+        Comparator<Integer> positionComparator
+                = Comparator.<Integer, ArbitraryResourceData>comparing(items::get, comparator).thenComparing(Comparator.naturalOrder());
+
+        // max-heap holding the best pageEnd items found so far
+        PriorityQueue<Integer> heap = new PriorityQueue<>(pageEnd + 1, positionComparator.reversed());
+        for( int position = 0; position < items.size(); ++position ) {
+            heap.add(position);
+
+            if( heap.size() > pageEnd )
+                heap.poll();
+        }
+
+        List<Integer> positions = new ArrayList<>(heap);
+        positions.sort(positionComparator);
+
+        return positions.subList(offset, pageEnd).stream().map(items::get);
+    }
+
+    private static ArbitraryResourceData copyOf(ArbitraryResourceData candidate, boolean retainMetadata, boolean retainStatus) {
+        ArbitraryResourceData copy = new ArbitraryResourceData();
+        copy.name = candidate.name;
+        copy.service = candidate.service;
+        copy.identifier = candidate.identifier;
+        copy.size = candidate.size;
+        copy.created = candidate.created;
+        copy.updated = candidate.updated;
+        copy.metadata = retainMetadata ? candidate.metadata : null;
+        copy.status = retainStatus ? candidate.status : null;
+
+        return copy;
+    }
+
     /**
      * Filter Terms
      *
@@ -371,8 +506,10 @@ public class HSQLDBCacheUtils {
     /**
      * Start Caching
      *
+     * Fills the cache on first run, then applies changes committed since the previous run.
+     *
      * @param priorityRequested the thread priority to fill cache in
-     * @param frequency         the frequency to fill the cache (in seconds)
+     * @param frequency         the frequency to update the cache (in seconds)
      *
      * @return the data cache
      */
@@ -387,7 +524,7 @@ public class HSQLDBCacheUtils {
                 Thread.currentThread().setName(DB_CACHE_TIMER_TASK);
 
                 try (final HSQLDBRepository respository = (HSQLDBRepository) Controller.REPOSITORY_FACTORY.getRepository()) {
-                    fillCache(ArbitraryResourceCache.getInstance(), respository);
+                    updateCache(ArbitraryResourceCache.getInstance(), respository);
                 }
                 catch( DataException e ) {
                     LOGGER.error(e.getMessage(), e);
@@ -402,19 +539,34 @@ public class HSQLDBCacheUtils {
     /**
      * Start Recording Balances
      *
-     * @param balancesByHeight height -> account balances
+     * Blocks' reward balance changes are journalled by BalanceDeltaJournal as they are committed.
+     * Each recording sums the changes journalled since the previous recording into a new balance dynamic.
+     *
      * @param balanceDynamics every balance dynamic
      * @param priorityRequested the requested thread priority
      * @param frequency the recording frequencies, in minutes
      * @param capacity the maximum size of balanceDynamics
      */
     public static void startRecordingBalances(
-            final ConcurrentHashMap<Integer, List<AccountBalanceData>> balancesByHeight,
             CopyOnWriteArrayList<BlockHeightRangeAddressAmounts> balanceDynamics,
             int priorityRequested,
             int frequency,
             int capacity) {
 
+        final BalanceDeltaJournal journal = BalanceDeltaJournal.getInstance();
+
+        try (final Repository repository = RepositoryManager.getRepository()) {
+            // block being processed right now might not get reported, so start journal above it
+            int blockchainHeight = repository.getBlockRepository().getBlockchainHeight();
+            journal.startRecording(blockchainHeight + 1, Settings.getInstance().getBalanceRecorderJournalCapacity());
+        } catch (DataException e) {
+            LOGGER.error("Unable to start balance recording: " + e.getMessage(), e);
+            return;
+        }
+
+        // end of latest recorded range
+        final AtomicInteger priorHeight = new AtomicInteger(journal.getBaseHeight());
+
         Timer timer = buildTimer(BALANCE_RECORDER_TIMER, priorityRequested);
 
         TimerTask task = new TimerTask() {
@@ -423,38 +575,41 @@ public class HSQLDBCacheUtils {
 
                 Thread.currentThread().setName(BALANCE_RECORDER_TIMER_TASK);
 
-                int currentHeight = recordCurrentBalances(balancesByHeight);
+                int currentHeight = journal.getLatestHeight();
 
-                LOGGER.debug("recorded balances: height = " + currentHeight);
+                LOGGER.debug("recording balances: height = " + currentHeight);
 
-                // remove invalidated recordings, recording after current height
-                BalanceRecorderUtils.removeRecordingsAboveHeight(currentHeight, balancesByHeight);
+                // remove invalidated dynamics, on or after lowest orphaned height
+                Integer orphanedHeight = journal.takeLowestOrphanedHeight();
+                if( orphanedHeight != null ) {
+                    BalanceRecorderUtils.removeDynamicsOnOrAboveHeight(orphanedHeight, balanceDynamics);
 
-                // remove invalidated dynamics, on or after current height
-                BalanceRecorderUtils.removeDynamicsOnOrAboveHeight(currentHeight, balanceDynamics);
+                    priorHeight.set(Math.min(priorHeight.get(), orphanedHeight - 1));
+                }
 
-                // if there are 2 or more recordings, then produce balance dynamics for the first 2 recordings
-                if( balancesByHeight.size() > 1 ) {
+                // nothing new since prior recording
+                if( currentHeight <= priorHeight.get() ) return;
 
-                    Optional<Integer> priorHeight = BalanceRecorderUtils.getPriorHeight(currentHeight, balancesByHeight);
+                BlockHeightRange blockHeightRange
+                    = new BlockHeightRange(
+                        priorHeight.get(),
+                        currentHeight,
+                        BalanceRecorderUtils.isRewardDistributionRange(priorHeight.get(), currentHeight));
 
-                    // if there is a prior height
-                    if(priorHeight.isPresent()) {
+                priorHeight.set(currentHeight);
 
-                        boolean isRewardDistribution = BalanceRecorderUtils.isRewardDistributionRange(priorHeight.get(), currentHeight);
+                // if this range has a reward recording block or if other blocks are enabled for recording
+                if( blockHeightRange.isRewardDistribution() || !Settings.getInstance().isRewardRecordingOnly() ) {
+                    Optional<List<AddressAmountData>> balanceChanges
+                        = journal.sumIfCovered(blockHeightRange.getBegin(), blockHeightRange.getEnd());
 
-                        // if this range has a reward recording block or if other blocks are enabled for recording
-                        if( isRewardDistribution || !Settings.getInstance().isRewardRecordingOnly() ) {
-                            produceBalanceDynamics(currentHeight, priorHeight, isRewardDistribution, balancesByHeight, balanceDynamics, capacity);
-                        }
-                    }
-                    else {
-                        LOGGER.warn("Expecting prior height and nothing was discovered, current height = " + currentHeight);
+                    // if journal has already dropped some of the range
+                    if( !balanceChanges.isPresent() ) {
+                        LOGGER.warn("Balance changes no longer held for range " + blockHeightRange);
+                        return;
                     }
-                }
-                // else this should be the first recording
-                else {
-                    LOGGER.info("first balance recording completed");
+
+                    produceBalanceDynamics(blockHeightRange, balanceChanges.get(), balanceDynamics, capacity);
                 }
             }
         };
@@ -463,22 +618,13 @@ public class HSQLDBCacheUtils {
         timer.scheduleAtFixedRate(task, 300_000, frequency * 60_000);
     }
 
-    private static void produceBalanceDynamics(int currentHeight, Optional<Integer> priorHeight, boolean isRewardDistribution, ConcurrentHashMap<Integer, List<AccountBalanceData>> balancesByHeight, CopyOnWriteArrayList<BlockHeightRangeAddressAmounts> balanceDynamics, int capacity) {
-        BlockHeightRange blockHeightRange = new BlockHeightRange(priorHeight.get(), currentHeight, isRewardDistribution);
-
+    private static void produceBalanceDynamics(BlockHeightRange blockHeightRange, List<AddressAmountData> balanceChanges, CopyOnWriteArrayList<BlockHeightRangeAddressAmounts> balanceDynamics, int capacity) {
         LOGGER.debug("building dynamics for block heights: range = " + blockHeightRange);
 
-        List<AccountBalanceData> currentBalances = balancesByHeight.get(currentHeight);
-
-        ArrayList<TransactionData> transactions = getTransactionDataForBlocks(blockHeightRange);
-
-        LOGGER.info("transactions counted for balance adjustments: count = " + transactions.size());
         List<AddressAmountData> currentDynamics
             = BalanceRecorderUtils.buildBalanceDynamics(
-                currentBalances,
-                balancesByHeight.get(priorHeight.get()),
-                Settings.getInstance().getMinimumBalanceRecording(),
-                transactions);
+                balanceChanges,
+                Settings.getInstance().getMinimumBalanceRecording());
 
         LOGGER.debug("dynamics built: count = " + currentDynamics.size());
 
@@ -493,8 +639,6 @@ public class HSQLDBCacheUtils {
 
         balanceDynamics.add(amounts);
 
-        BalanceRecorderUtils.removeRecordingsBelowHeight(currentHeight - Settings.getInstance().getBalanceRecorderRollbackAllowance(), balancesByHeight);
-
         while(balanceDynamics.size() > capacity) {
             BlockHeightRangeAddressAmounts oldestDynamics = BalanceRecorderUtils.removeOldestDynamics(balanceDynamics);
 
@@ -502,59 +646,6 @@ public class HSQLDBCacheUtils {
         }
     }
 
-    private static ArrayList<TransactionData> getTransactionDataForBlocks(BlockHeightRange blockHeightRange) {
-        ArrayList<TransactionData> transactions;
-
-        try (final Repository repository = RepositoryManager.getRepository()) {
-            List<byte[]> signatures
-                = repository.getTransactionRepository().getSignaturesMatchingCriteria(
-                    blockHeightRange.getBegin() + 1, blockHeightRange.getEnd() - blockHeightRange.getBegin(),
-                    null, null,null, null, null,
-                    TransactionsResource.ConfirmationStatus.CONFIRMED,
-                    null, null, null);
-
-            transactions = new ArrayList<>(signatures.size());
-            for (byte[] signature : signatures) {
-                transactions.add(repository.getTransactionRepository().fromSignature(signature));
-            }
-
-            LOGGER.debug(String.format("Found %s transactions for " + blockHeightRange, transactions.size()));
-        } catch (Exception e) {
-            transactions = new ArrayList<>(0);
-            LOGGER.warn("Problems getting transactions for balance recording: " + e.getMessage());
-        }
-        return transactions;
-    }
-
-    private static int recordCurrentBalances(ConcurrentHashMap<Integer, List<AccountBalanceData>> balancesByHeight) {
-        int currentHeight;
-
-        try (final HSQLDBRepository repository = (HSQLDBRepository) Controller.REPOSITORY_FACTORY.getRepository()) {
-
-            // get current balances
-            List<AccountBalanceData> accountBalances = getAccountBalances(repository);
-
-            // get anyone of the balances
-            Optional<AccountBalanceData> data = accountBalances.stream().findAny();
-
-            // if there are any balances, then record them
-            if (data.isPresent()) {
-                // map all new balances to the current height
-                balancesByHeight.put(data.get().getHeight(), accountBalances);
-
-                currentHeight =  data.get().getHeight();
-            }
-            else {
-                currentHeight = Integer.MAX_VALUE;
-            }
-        } catch (DataException e) {
-            LOGGER.error(e.getMessage(), e);
-            currentHeight = Integer.MAX_VALUE;
-        }
-
-        return currentHeight;
-    }
-
     /**
      * Build Timer
      *
@@ -587,14 +678,64 @@ public class HSQLDBCacheUtils {
         return timer;
     }
 
+    /**
+     * Update Cache
+     *
+     * Apply changes committed since the last update, or fill the cache from scratch
+     * if it has never been filled or couldn't be updated.
+     *
+     * @param cache the cache to update
+     * @param repository the data source to update the cache with
+     */
+    public static void updateCache(ArbitraryResourceCache cache, HSQLDBRepository repository) {
+
+        if( cache.isRebuildRequired() ) {
+            fillCache(cache, repository);
+            // fall through to apply anything committed while filling
+        }
+
+        if( cache.isRebuildRequired() )
+            return;
+
+        ArbitraryResourceCache.Changes changes = cache.takePendingChanges();
+
+        if( changes.isEmpty() )
+            return;
+
+        // bulk changes, e.g. cache rebuilds, are quicker to reload in one go
+        if( changes.size() > MAX_INCREMENTAL_CHANGES ) {
+            LOGGER.info("Too many arbitrary resource changes to apply incrementally: count = " + changes.size());
+            cache.requestRebuild();
+            fillCache(cache, repository);
+            return;
+        }
+
+        try {
+            applyResourceChanges(cache, changes.resources, repository);
+            applyNameChanges(cache.getLevelByName(), changes.names, changes.accounts, repository);
+
+            LOGGER.debug("Applied arbitrary resource cache changes: count = " + changes.size());
+        }
+        catch (Exception e) {
+            LOGGER.warn("Unable to apply arbitrary resource cache changes, will rebuild: " + e.getMessage());
+            cache.requestRebuild();
+        }
+    }
+
     /**
      * Fill Cache
      *
+     * Replace the entire contents of the cache. Each service's data is swapped in as a whole,
+     * so searches never see a partially filled cache.
+     *
      * @param cache the cache to fill
      * @param repository the data source to fill the cache with
      */
     public static void fillCache(ArbitraryResourceCache cache, HSQLDBRepository repository) {
 
+        // start tracking before we query, so anything committed during the fill is applied afterwards
+        cache.enableChangeTracking();
+
         try {
             // ensure all data is committed in, before we query it
             repository.saveChanges();
@@ -605,13 +746,17 @@ public class HSQLDBCacheUtils {
                     = resources.stream()
                         .collect(Collectors.groupingBy(data -> data.service.value));
 
-            // lock, clear and refill
-            synchronized (cache.getDataByService()) {
-                cache.getDataByService().clear();
-                cache.getDataByService().putAll(dataByService);
-            }
+            // swap in new snapshots, then drop services that no longer have data
+            dataByService.forEach(cache::setServiceData);
+            cache.retainServices(dataByService.keySet());
 
-            fillNamepMap(cache.getLevelByName(), repository);
+            Map<String, Integer> levelByName = new HashMap<>();
+            fillNamepMap(levelByName, repository);
+
+            cache.getLevelByName().putAll(levelByName);
+            cache.getLevelByName().keySet().retainAll(levelByName.keySet());
+
+            cache.onRebuilt();
         }
         catch (SQLNonTransientConnectionException e ) {
             LOGGER.warn("Connection problems. Retry later.");
@@ -621,6 +766,80 @@ public class HSQLDBCacheUtils {
         }
     }
 
+    /**
+     * Apply Resource Changes
+     *
+     * Reread changed resources, then replace the snapshots of the services they belong to.
+     *
+     * @param cache the cache to update
+     * @param changedResources the resources that have been saved, deleted or had their metadata or status changed
+     * @param repository the data source
+     *
+     * @throws SQLException
+     */
+    private static void applyResourceChanges(
+            ArbitraryResourceCache cache,
+            Set<ArbitraryResourceCache.ResourceKey> changedResources,
+            HSQLDBRepository repository) throws SQLException {
+
+        Map<Integer, List<ArbitraryResourceCache.ResourceKey>> changedByService
+                = changedResources.stream().collect(Collectors.groupingBy(key -> key.service));
+
+        for( Map.Entry<Integer, List<ArbitraryResourceCache.ResourceKey>> entry : changedByService.entrySet() ) {
+            Set<ArbitraryResourceCache.ResourceKey> keys = new HashSet<>(entry.getValue());
+
+            // the current state of each changed resource, if it still exists
+            List<ArbitraryResourceData> updatedData = new ArrayList<>();
+            for( ArbitraryResourceCache.ResourceKey key : keys )
+                updatedData.addAll(getResources(repository, key));
+
+            List<ArbitraryResourceData> data = new ArrayList<>(cache.getDataByService().getOrDefault(entry.getKey(), List.of()));
+            data.removeIf(candidate -> keys.contains(ArbitraryResourceCache.ResourceKey.of(candidate)));
+            data.addAll(updatedData);
+
+            cache.setServiceData(entry.getKey(), data);
+        }
+    }
+
+    /**
+     * Apply Name Changes
+     *
+     * Reread levels for changed names, and for names owned by accounts whose level changed.
+     *
+     * @param levelByName name -> level
+     * @param changedNames the names that have been saved or deleted
+     * @param changedAccounts the accounts whose level has been changed
+     * @param repository the data source
+     *
+     * @throws SQLException
+     */
+    private static void applyNameChanges(
+            Map<String, Integer> levelByName,
+            Set<String> changedNames,
+            Set<String> changedAccounts,
+            HSQLDBRepository repository) throws SQLException {
+
+        for( String name : changedNames ) {
+            try (ResultSet resultSet = repository.checkedExecute(NAME_LEVEL_SQL + "WHERE name = ?", name)) {
+                if (resultSet == null)
+                    levelByName.remove(name);
+                else
+                    levelByName.put(resultSet.getString(1), resultSet.getInt(2));
+            }
+        }
+
+        for( String account : changedAccounts ) {
+            try (ResultSet resultSet = repository.checkedExecute(NAME_LEVEL_SQL + "WHERE owner = ?", account)) {
+                if (resultSet == null)
+                    continue;
+
+                do {
+                    levelByName.put(resultSet.getString(1), resultSet.getInt(2));
+                } while (resultSet.next());
+            }
+        }
+    }
+
     /**
      * Fill Name Map
      *
@@ -631,17 +850,11 @@ public class HSQLDBCacheUtils {
      *
      * @throws SQLException
      */
-    private static void fillNamepMap(ConcurrentHashMap<String, Integer> levelByName, HSQLDBRepository repository ) throws SQLException {
-
-        StringBuilder sql = new StringBuilder(512);
-
-        sql.append("SELECT name, level ");
-        sql.append("FROM NAMES ");
-        sql.append("INNER JOIN ACCOUNTS on owner = account ");
+    private static void fillNamepMap(Map<String, Integer> levelByName, HSQLDBRepository repository ) throws SQLException {
 
         Statement statement = repository.connection.createStatement();
 
-        ResultSet resultSet = statement.executeQuery(sql.toString());
+        ResultSet resultSet = statement.executeQuery(NAME_LEVEL_SQL);
 
         if (resultSet == null)
             return;
@@ -666,17 +879,9 @@ public class HSQLDBCacheUtils {
 
         List<ArbitraryResourceData> resources = new ArrayList<>();
 
-        StringBuilder sql = new StringBuilder(512);
-
-        sql.append("SELECT name, service, identifier, size, status, created_when, updated_when, ");
-        sql.append("title, description, category, tag1, tag2, tag3, tag4, tag5 ");
-        sql.append("FROM ArbitraryResourcesCache ");
-        sql.append("LEFT JOIN ArbitraryMetadataCache USING (service, name, identifier) WHERE name IS NOT NULL");
-
-        List<ArbitraryResourceData> arbitraryResources = new ArrayList<>();
         Statement statement = repository.connection.createStatement();
 
-        ResultSet resultSet = statement.executeQuery(sql.toString());
+        ResultSet resultSet = statement.executeQuery(RESOURCES_SQL + "WHERE name IS NOT NULL");
 
         if (resultSet == null)
             return resources;
@@ -685,61 +890,92 @@ public class HSQLDBCacheUtils {
             return resources;
 
         do {
-            String nameResult = resultSet.getString(1);
-            int serviceResult = resultSet.getInt(2);
-            String identifierResult = resultSet.getString(3);
-            Integer sizeResult = resultSet.getInt(4);
-            Integer status = resultSet.getInt(5);
-            Long created = resultSet.getLong(6);
-            Long updated = resultSet.getLong(7);
-
-            String titleResult = resultSet.getString(8);
-            String descriptionResult = resultSet.getString(9);
-            String category = resultSet.getString(10);
-            String tag1 = resultSet.getString(11);
-            String tag2 = resultSet.getString(12);
-            String tag3 = resultSet.getString(13);
-            String tag4 = resultSet.getString(14);
-            String tag5 = resultSet.getString(15);
-
-            if (Objects.equals(identifierResult, "default")) {
-                // Map "default" back to null. This is optional but probably less confusing than returning "default".
-                identifierResult = null;
-            }
+            resources.add( toArbitraryResourceData(resultSet) );
+        } while (resultSet.next());
 
-            ArbitraryResourceData arbitraryResourceData = new ArbitraryResourceData();
-            arbitraryResourceData.name = nameResult;
-            arbitraryResourceData.service = Service.valueOf(serviceResult);
-            arbitraryResourceData.identifier = identifierResult;
-            arbitraryResourceData.size = sizeResult;
-            arbitraryResourceData.created = created;
-            arbitraryResourceData.updated = (updated == 0) ? null : updated;
-
-            arbitraryResourceData.setStatus(ArbitraryResourceStatus.Status.valueOf(status));
-
-            ArbitraryResourceMetadata metadata = new ArbitraryResourceMetadata();
-            metadata.setTitle(titleResult);
-            metadata.setDescription(descriptionResult);
-            metadata.setCategory(Category.uncategorizedValueOf(category));
-
-            List<String> tags = new ArrayList<>();
-            if (tag1 != null) tags.add(tag1);
-            if (tag2 != null) tags.add(tag2);
-            if (tag3 != null) tags.add(tag3);
-            if (tag4 != null) tags.add(tag4);
-            if (tag5 != null) tags.add(tag5);
-            metadata.setTags(!tags.isEmpty() ? tags : null);
-
-            if (metadata.hasMetadata()) {
-                arbitraryResourceData.metadata = metadata;
-            }
+        return resources;
+    }
 
-            resources.add( arbitraryResourceData );
-        } while (resultSet.next());
+    /**
+     * Get Resources
+     *
+     * @param repository source data
+     * @param key the resource to get, matched case-insensitively
+     *
+     * @return the matching resources, empty if the resource no longer exists
+     * @throws SQLException
+     */
+    private static List<ArbitraryResourceData> getResources( HSQLDBRepository repository, ArbitraryResourceCache.ResourceKey key) throws SQLException {
+
+        List<ArbitraryResourceData> resources = new ArrayList<>();
+
+        String sql = RESOURCES_SQL + "WHERE service = ? AND LCASE(name) = ? AND LCASE(identifier) = ?";
+
+        try (ResultSet resultSet = repository.checkedExecute(sql, key.service, key.name, key.identifier)) {
+            if (resultSet == null)
+                return resources;
+
+            do {
+                resources.add( toArbitraryResourceData(resultSet) );
+            } while (resultSet.next());
+        }
 
         return resources;
     }
 
+    private static ArbitraryResourceData toArbitraryResourceData(ResultSet resultSet) throws SQLException {
+        String nameResult = resultSet.getString(1);
+        int serviceResult = resultSet.getInt(2);
+        String identifierResult = resultSet.getString(3);
+        Integer sizeResult = resultSet.getInt(4);
+        Integer status = resultSet.getInt(5);
+        Long created = resultSet.getLong(6);
+        Long updated = resultSet.getLong(7);
+
+        String titleResult = resultSet.getString(8);
+        String descriptionResult = resultSet.getString(9);
+        String category = resultSet.getString(10);
+        String tag1 = resultSet.getString(11);
+        String tag2 = resultSet.getString(12);
+        String tag3 = resultSet.getString(13);
+        String tag4 = resultSet.getString(14);
+        String tag5 = resultSet.getString(15);
+
+        if (Objects.equals(identifierResult, "default")) {
+            // Map "default" back to null. This is optional but probably less confusing than returning "default".
+            identifierResult = null;
+        }
+
+        ArbitraryResourceData arbitraryResourceData = new ArbitraryResourceData();
+        arbitraryResourceData.name = nameResult;
+        arbitraryResourceData.service = Service.valueOf(serviceResult);
+        arbitraryResourceData.identifier = identifierResult;
+        arbitraryResourceData.size = sizeResult;
+        arbitraryResourceData.created = created;
+        arbitraryResourceData.updated = (updated == 0) ? null : updated;
+
+        arbitraryResourceData.setStatus(ArbitraryResourceStatus.Status.valueOf(status));
+
+        ArbitraryResourceMetadata metadata = new ArbitraryResourceMetadata();
+        metadata.setTitle(titleResult);
+        metadata.setDescription(descriptionResult);
+        metadata.setCategory(Category.uncategorizedValueOf(category));
+
+        List<String> tags = new ArrayList<>();
+        if (tag1 != null) tags.add(tag1);
+        if (tag2 != null) tags.add(tag2);
+        if (tag3 != null) tags.add(tag3);
+        if (tag4 != null) tags.add(tag4);
+        if (tag5 != null) tags.add(tag5);
+        metadata.setTags(!tags.isEmpty() ? tags : null);
+
+        if (metadata.hasMetadata()) {
+            arbitraryResourceData.metadata = metadata;
+        }
+
+        return arbitraryResourceData;
+    }
+
     public static List<AccountBalanceData> getAccountBalances(HSQLDBRepository repository) {
 
         StringBuilder sql = new StringBuilder();
@@ -8,10 +8,15 @@ import org.qortal.repository.GroupRepository;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 public class HSQLDBGroupRepository implements GroupRepository {
 
+	/** Number of addresses per query when checking multiple group members */
+	private static final int BULK_FETCH_CHUNK_SIZE = 500;
+
 	protected HSQLDBRepository repository;
 
 	public HSQLDBGroupRepository(HSQLDBRepository repository) {
@@ -485,6 +490,34 @@ public class HSQLDBGroupRepository implements GroupRepository {
 		}
 	}
 
+	@Override
+	public List<String> getMemberAddresses(int groupId, Collection<String> addresses) throws DataException {
+		StringBuilder sql = new StringBuilder(8 * BULK_FETCH_CHUNK_SIZE);
+		sql.append("SELECT DISTINCT GroupMembers.address FROM ");
+		HSQLDBRepository.temporaryValuesTableSql(sql, BULK_FETCH_CHUNK_SIZE, "TmpAddresses", "address");
+		sql.append("JOIN GroupMembers ON GroupMembers.group_id = ? AND GroupMembers.address = TmpAddresses.address");
+
+		List<String> members = new ArrayList<>();
+
+		for (Object[] chunk : HSQLDBRepository.temporaryValuesChunks(addresses, BULK_FETCH_CHUNK_SIZE)) {
+			Object[] bindParams = Arrays.copyOf(chunk, chunk.length + 1);
+			bindParams[chunk.length] = groupId;
+
+			try (ResultSet resultSet = this.repository.checkedExecute(sql.toString(), bindParams)) {
+				if (resultSet == null)
+					continue;
+
+				do {
+					members.add(resultSet.getString(1));
+				} while (resultSet.next());
+			} catch (SQLException e) {
+				throw new DataException("Unable to fetch group members from repository", e);
+			}
+		}
+
+		return members;
+	}
+
 	@Override
 	public List<GroupMemberData> getGroupMembers(int groupId, Integer limit, Integer offset, Boolean reverse) throws DataException {
 		StringBuilder sql = new StringBuilder(256);
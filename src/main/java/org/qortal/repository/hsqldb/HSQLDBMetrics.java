@@ -0,0 +1,293 @@
+package org.qortal.repository.hsqldb;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hsqldb.jdbc.JDBCResultSet;
+import org.qortal.data.system.DbMetrics;
+import org.qortal.data.system.DbQueryStats;
+import org.qortal.settings.Settings;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregate repository telemetry: per-SQL call counts, latency histograms and row counts,
+ * plus open sessions, connection pool waits and prepared statement cache use.
+ * <p>
+ * SQL is keyed by the string passed to {@link HSQLDBRepository#prepareStatement(String)},
+ * which is already a template with <tt>?</tt> placeholders for nearly all queries.
+ * To bound memory use with dynamically built SQL, statements beyond
+ * {@link #MAX_TRACKED_STATEMENTS} are aggregated under {@link #OTHER_STATEMENTS}.
+ * <p>
+ * Available via <tt>GET /admin/dbmetrics</tt> and JMX, as {@value #OBJECT_NAME}.
+ *
+ * @ThreadSafe
+ */
+public class HSQLDBMetrics implements HSQLDBMetricsMXBean {
+
+	private static final Logger LOGGER = LogManager.getLogger(HSQLDBMetrics.class);
+
+	public static final String OBJECT_NAME = "org.qortal:type=Repository,name=HSQLDBMetrics";
+
+	/** Upper bound of each latency bucket, in microseconds. Final bucket is unbounded. */
+	private static final long[] LATENCY_BUCKET_BOUNDS_MICROS = { 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L };
+
+	private static final int MAX_TRACKED_STATEMENTS = 2000;
+	private static final String OTHER_STATEMENTS = "(other)";
+
+	private static final int JMX_TOP_QUERIES = 20;
+
+	public enum Order {
+		TOTAL_TIME(DbQueryStats::getTotalMicros),
+		MAX_TIME(DbQueryStats::getMaxMicros),
+		MEAN_TIME(DbQueryStats::getMeanMicros),
+		CALLS(DbQueryStats::getCalls),
+		ROWS(DbQueryStats::getRows),
+		ERRORS(DbQueryStats::getErrors);
+
+		private final ToLongFunction<DbQueryStats> value;
+
+		Order(ToLongFunction<DbQueryStats> value) {
+			this.value = value;
+		}
+	}
+
+	private static class Timings {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalMicros = new LongAdder();
+		private final AtomicLong maxMicros = new AtomicLong();
+		private final LongAdder[] histogram = new LongAdder[LATENCY_BUCKET_BOUNDS_MICROS.length + 1];
+
+		private Timings() {
+			for (int i = 0; i < this.histogram.length; ++i)
+				this.histogram[i] = new LongAdder();
+		}
+
+		private void record(long micros) {
+			this.count.increment();
+			this.totalMicros.add(micros);
+			this.maxMicros.accumulateAndGet(micros, Math::max);
+
+			int bucket = 0;
+			while (bucket < LATENCY_BUCKET_BOUNDS_MICROS.length && micros >= LATENCY_BUCKET_BOUNDS_MICROS[bucket])
+				++bucket;
+
+			this.histogram[bucket].increment();
+		}
+
+		private long[] getHistogram() {
+			long[] histogram = new long[this.histogram.length];
+			for (int i = 0; i < histogram.length; ++i)
+				histogram[i] = this.histogram[i].sum();
+
+			return histogram;
+		}
+	}
+
+	private static class StatementMetrics {
+		private final Timings timings = new Timings();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder rows = new LongAdder();
+	}
+
+	private static HSQLDBMetrics instance;
+
+	private final boolean isEnabled;
+
+	private final Map<String, StatementMetrics> statementMetrics = new ConcurrentHashMap<>();
+	private final LongAdder openSessions = new LongAdder();
+	private final Timings connectionWaits = new Timings();
+	private final LongAdder statementCacheHits = new LongAdder();
+	private final LongAdder statementCacheMisses = new LongAdder();
+	private volatile long since = System.currentTimeMillis();
+
+	private HSQLDBMetrics(boolean isEnabled) {
+		this.isEnabled = isEnabled;
+	}
+
+	public static synchronized HSQLDBMetrics getInstance() {
+		if (instance == null) {
+			instance = new HSQLDBMetrics(Settings.getInstance().isRepositoryMetricsEnabled());
+
+			if (instance.isEnabled)
+				instance.registerMBean();
+		}
+
+		return instance;
+	}
+
+	private void registerMBean() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+
+			if (!mBeanServer.isRegistered(objectName))
+				mBeanServer.registerMBean(this, objectName);
+		} catch (JMException e) {
+			LOGGER.warn("Unable to register repository metrics with JMX: {}", e.getMessage());
+		}
+	}
+
+	public boolean isEnabled() {
+		return this.isEnabled;
+	}
+
+	/** Returns start time for later call to {@link #recordStatement(String, long, long, boolean)}, or 0 if disabled. */
+	public long startTimer() {
+		return this.isEnabled ? System.nanoTime() : 0L;
+	}
+
+	/** Records execution of <tt>sql</tt>, that started at <tt>startNanos</tt> and affected/returned <tt>rows</tt>. */
+	public void recordStatement(String sql, long startNanos, long rows, boolean isError) {
+		if (!this.isEnabled)
+			return;
+
+		long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+
+		StatementMetrics metrics = this.statementMetrics.get(sql);
+		if (metrics == null) {
+			String key = this.statementMetrics.size() < MAX_TRACKED_STATEMENTS ? sql : OTHER_STATEMENTS;
+			metrics = this.statementMetrics.computeIfAbsent(key, k -> new StatementMetrics());
+		}
+
+		metrics.timings.record(micros);
+		metrics.rows.add(rows);
+		if (isError)
+			metrics.errors.increment();
+	}
+
+	/** Records wait for a pooled connection, that started at <tt>startNanos</tt>. */
+	public void recordConnectionWait(long startNanos) {
+		if (!this.isEnabled)
+			return;
+
+		this.connectionWaits.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+	}
+
+	public void recordSessionOpened() {
+		this.openSessions.increment();
+	}
+
+	public void recordSessionClosed() {
+		this.openSessions.decrement();
+	}
+
+	public void recordStatementCacheLookup(boolean isHit) {
+		if (!this.isEnabled)
+			return;
+
+		if (isHit)
+			this.statementCacheHits.increment();
+		else
+			this.statementCacheMisses.increment();
+	}
+
+	/**
+	 * Returns number of rows in <tt>resultSet</tt>, which must be positioned on first row (or null if no rows),
+	 * without moving cursor, or 0 if row count isn't available.
+	 */
+	/* package */ static long countRows(ResultSet resultSet) {
+		if (resultSet == null)
+			return 0;
+
+		// Embedded HSQLDB result sets are fully materialized, so we can ask for their size
+		if (resultSet instanceof JDBCResultSet) {
+			JDBCResultSet jdbcResultSet = (JDBCResultSet) resultSet;
+			if (jdbcResultSet.result != null && jdbcResultSet.result.getNavigator() != null)
+				return jdbcResultSet.result.getNavigator().getSize();
+		}
+
+		return 0;
+	}
+
+	public DbMetrics getMetrics(Order order, int limit) {
+		List<DbQueryStats> queries = this.getQueries(order, limit);
+
+		return new DbMetrics(this.since, this.getOpenSessions(), this.getConnectionRequests(),
+				this.getConnectionWaitTotalMicros(), this.getConnectionWaitMaxMicros(), this.connectionWaits.getHistogram(),
+				this.getStatementCacheHits(), this.getStatementCacheMisses(), LATENCY_BUCKET_BOUNDS_MICROS.clone(), queries);
+	}
+
+	public List<DbQueryStats> getQueries(Order order, int limit) {
+		return this.statementMetrics.entrySet().stream()
+				.map(entry -> {
+					StatementMetrics metrics = entry.getValue();
+					return new DbQueryStats(entry.getKey(), metrics.timings.count.sum(), metrics.errors.sum(), metrics.rows.sum(),
+							metrics.timings.totalMicros.sum(), metrics.timings.maxMicros.get(), metrics.timings.getHistogram());
+				})
+				.sorted(Comparator.comparingLong(order.value).reversed())
+				.limit(limit)
+				.collect(Collectors.toList());
+	}
+
+	// MXBean
+
+	@Override
+	public long getOpenSessions() {
+		return this.openSessions.sum();
+	}
+
+	@Override
+	public long getConnectionRequests() {
+		return this.connectionWaits.count.sum();
+	}
+
+	@Override
+	public long getConnectionWaitTotalMicros() {
+		return this.connectionWaits.totalMicros.sum();
+	}
+
+	@Override
+	public long getConnectionWaitMaxMicros() {
+		return this.connectionWaits.maxMicros.get();
+	}
+
+	@Override
+	public long getStatementCacheHits() {
+		return this.statementCacheHits.sum();
+	}
+
+	@Override
+	public long getStatementCacheMisses() {
+		return this.statementCacheMisses.sum();
+	}
+
+	@Override
+	public List<DbQueryStats> getTopQueriesByTotalTime() {
+		return this.getQueries(Order.TOTAL_TIME, JMX_TOP_QUERIES);
+	}
+
+	@Override
+	public List<DbQueryStats> getTopQueriesByMaxTime() {
+		return this.getQueries(Order.MAX_TIME, JMX_TOP_QUERIES);
+	}
+
+	/** Clears accumulated statement, connection and cache metrics. Open session count is unaffected. */
+	@Override
+	public void reset() {
+		this.statementMetrics.clear();
+
+		this.connectionWaits.count.reset();
+		this.connectionWaits.totalMicros.reset();
+		this.connectionWaits.maxMicros.set(0);
+		for (LongAdder bucket : this.connectionWaits.histogram)
+			bucket.reset();
+
+		this.statementCacheHits.reset();
+		this.statementCacheMisses.reset();
+		this.since = System.currentTimeMillis();
+	}
+
+}
@@ -0,0 +1,32 @@
+package org.qortal.repository.hsqldb;
+
+import org.qortal.data.system.DbQueryStats;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link HSQLDBMetrics}, registered as {@value HSQLDBMetrics#OBJECT_NAME}.
+ */
+public interface HSQLDBMetricsMXBean {
+
+	long getOpenSessions();
+
+	long getConnectionRequests();
+
+	long getConnectionWaitTotalMicros();
+
+	long getConnectionWaitMaxMicros();
+
+	long getStatementCacheHits();
+
+	long getStatementCacheMisses();
+
+	/** Top 20 SQL statements by total execution time */
+	List<DbQueryStats> getTopQueriesByTotalTime();
+
+	/** Top 20 SQL statements by slowest single execution */
+	List<DbQueryStats> getTopQueriesByMaxTime();
+
+	void reset();
+
+}
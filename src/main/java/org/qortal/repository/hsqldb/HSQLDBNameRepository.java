@@ -1,5 +1,6 @@
 package org.qortal.repository.hsqldb;
 
+import org.qortal.data.arbitrary.ArbitraryResourceCache;
 import org.qortal.data.naming.NameData;
 import org.qortal.repository.DataException;
 import org.qortal.repository.NameRepository;
@@ -348,6 +349,8 @@ public class HSQLDBNameRepository implements NameRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to save name info into repository", e);
 		}
+
+		this.recordCacheChange(nameData.getName());
 	}
 
 	@Override
@@ -357,6 +360,14 @@ public class HSQLDBNameRepository implements NameRepository {
 		} catch (SQLException e) {
 			throw new DataException("Unable to delete name info from repository", e);
 		}
+
+		this.recordCacheChange(name);
+	}
+
+	private void recordCacheChange(String name) {
+		ArbitraryResourceCache.Changes changes = this.repository.getPendingCacheChanges();
+		if (changes != null)
+			changes.names.add(name);
 	}
 
 }
@@ -2,7 +2,9 @@ package org.qortal.repository.hsqldb;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.qortal.controller.hsqldb.BalanceDeltaJournal;
 import org.qortal.crypto.Crypto;
+import org.qortal.data.arbitrary.ArbitraryResourceCache;
 import org.qortal.globalization.Translator;
 import org.qortal.gui.SysTray;
 import org.qortal.repository.*;
@@ -40,6 +42,25 @@ public class HSQLDBRepository implements Repository {
 	protected List<String> sqlStatements;
 	protected long sessionId;
 	protected final Map<String, PreparedStatement> preparedStatementCache = new HashMap<>();
+	protected final HSQLDBMetrics metrics = HSQLDBMetrics.getInstance();
+	/** Changes to report to ArbitraryResourceCache once committed, or null if none */
+	protected ArbitraryResourceCache.Changes pendingCacheChanges = null;
+	protected final HSQLDBRepositoryFactory repositoryFactory;
+	/** Uncommitted reward-share changes, to apply to factory's RewardShareIndex on commit */
+	protected final List<RewardShareIndex.Change> pendingRewardShareChanges = new ArrayList<>();
+	/** Number of pending reward-share changes when each savepoint was set, in same order as <tt>savepoints</tt> */
+	protected final Deque<Integer> savepointRewardShareChanges = new ArrayDeque<>(3);
+	/** Committed reward-share index with our pending changes applied, and the committed index it was based on */
+	protected RewardShareIndex pendingRewardShareIndex = null;
+	protected RewardShareIndex pendingRewardShareIndexBase = null;
+	/** Factory's reward-share generation when our current transaction began */
+	protected long rewardShareIndexGeneration;
+	/** Reward-share index loaded using this session, if reward-shares were committed since our transaction began */
+	protected RewardShareIndex snapshotRewardShareIndex = null;
+	/** Uncommitted block balance changes, to report to BalanceDeltaJournal on commit */
+	protected final List<BalanceDeltaJournal.BlockDeltas> pendingBalanceChanges = new ArrayList<>();
+	/** Number of pending block balance changes when each savepoint was set, in same order as <tt>savepoints</tt> */
+	protected final Deque<Integer> savepointBalanceChanges = new ArrayDeque<>(3);
 	// We want the same object corresponding to the actual DB
 	protected final Object trimHeightsLock = RepositoryManager.getRepositoryFactory();
 	protected final Object latestATStatesLock = RepositoryManager.getRepositoryFactory();
@@ -62,8 +83,9 @@ public class HSQLDBRepository implements Repository {
 	// Constructors
 
 	// NB: no visibility modifier so only callable from within same package
-	/* package */ HSQLDBRepository(Connection connection) throws DataException {
+	/* package */ HSQLDBRepository(Connection connection, HSQLDBRepositoryFactory repositoryFactory) throws DataException {
 		this.connection = connection;
+		this.repositoryFactory = repositoryFactory;
 
 		this.slowQueryThreshold = Settings.getInstance().getSlowQueryThreshold();
 		if (this.slowQueryThreshold != null)
@@ -88,6 +110,10 @@ public class HSQLDBRepository implements Repository {
 		synchronized (CHECKPOINT_LOCK) {
 			assertEmptyTransaction("connection creation");
 		}
+
+		this.rewardShareIndexGeneration = this.repositoryFactory.getRewardShareIndexGeneration();
+
+		this.metrics.recordSessionOpened();
 	}
 
 	// Getters / setters
@@ -172,6 +198,80 @@ public class HSQLDBRepository implements Repository {
 		this.debugState = debugState;
 	}
 
+	// ArbitraryResourceCache change tracking
+
+	/**
+	 * Returns changes to report to ArbitraryResourceCache on commit, or null if cache isn't tracking changes.
+	 * <p>
+	 * Changes rolled back via savepoint are still reported, which is harmless as the cache
+	 * rereads affected entries from the repository.
+	 */
+	/* package */ ArbitraryResourceCache.Changes getPendingCacheChanges() {
+		if (!ArbitraryResourceCache.getInstance().isTrackingChanges())
+			return null;
+
+		if (this.pendingCacheChanges == null)
+			this.pendingCacheChanges = new ArbitraryResourceCache.Changes();
+
+		return this.pendingCacheChanges;
+	}
+
+	// RewardShareIndex change tracking
+
+	/* package */ void onRewardShareChange(RewardShareIndex.Change change) {
+		this.pendingRewardShareChanges.add(change);
+		this.pendingRewardShareIndex = null;
+		this.snapshotRewardShareIndex = null;
+	}
+
+	/**
+	 * Returns reward-shares, ordered by public key, as seen by this repository session.
+	 * <p>
+	 * This is the committed state as of this session's transaction snapshot, plus this session's uncommitted changes.
+	 * If no reward-shares were committed since our transaction began, this is the factory's shared committed index
+	 * with our changes applied. Otherwise the shared index might be newer than our snapshot, so reward-shares
+	 * are loaded using this session instead.
+	 */
+	/* package */ RewardShareIndex getRewardShareIndex() throws DataException {
+		RewardShareIndex committedIndex = this.repositoryFactory.getRewardShareIndex(this.rewardShareIndexGeneration);
+		if (committedIndex == null) {
+			// Loading from repository includes our uncommitted changes
+			if (this.snapshotRewardShareIndex == null)
+				this.snapshotRewardShareIndex = RewardShareIndex.of(this.getAccountRepository().getRewardShares());
+
+			return this.snapshotRewardShareIndex;
+		}
+
+		if (this.pendingRewardShareChanges.isEmpty())
+			return committedIndex;
+
+		if (this.pendingRewardShareIndex == null || this.pendingRewardShareIndexBase != committedIndex) {
+			this.pendingRewardShareIndex = committedIndex.apply(this.pendingRewardShareChanges);
+			this.pendingRewardShareIndexBase = committedIndex;
+		}
+
+		return this.pendingRewardShareIndex;
+	}
+
+	private void clearPendingRewardShareChanges() {
+		this.pendingRewardShareChanges.clear();
+		this.savepointRewardShareChanges.clear();
+		this.pendingRewardShareIndex = null;
+		this.pendingRewardShareIndexBase = null;
+		this.snapshotRewardShareIndex = null;
+	}
+
+	// BalanceDeltaJournal change tracking
+
+	/* package */ void onBlockBalanceChanges(BalanceDeltaJournal.BlockDeltas blockDeltas) {
+		this.pendingBalanceChanges.add(blockDeltas);
+	}
+
+	private void clearPendingBalanceChanges() {
+		this.pendingBalanceChanges.clear();
+		this.savepointBalanceChanges.clear();
+	}
+
 	// Transaction COMMIT / ROLLBACK / savepoints
 
 	@Override
@@ -179,7 +279,10 @@ public class HSQLDBRepository implements Repository {
 		long beforeQuery = this.slowQueryThreshold == null ? 0 : System.currentTimeMillis();
 
 		try {
-			this.connection.commit();
+			if (this.pendingRewardShareChanges.isEmpty())
+				this.connection.commit();
+			else
+				this.repositoryFactory.commitRewardShareChanges(this.connection, this.pendingRewardShareChanges);
 
 			if (this.slowQueryThreshold != null) {
 				long queryTime = System.currentTimeMillis() - beforeQuery;
@@ -190,10 +293,19 @@ public class HSQLDBRepository implements Repository {
 					logStatements();
 				}
 			}
+			if (this.pendingCacheChanges != null)
+				ArbitraryResourceCache.getInstance().onChangesCommitted(this.pendingCacheChanges);
+
+			if (!this.pendingBalanceChanges.isEmpty())
+				BalanceDeltaJournal.getInstance().onChangesCommitted(this.pendingBalanceChanges);
 		} catch (SQLException e) {
 			throw new DataException("commit error", e);
 		} finally {
 			this.savepoints.clear();
+			this.pendingCacheChanges = null;
+			this.clearPendingRewardShareChanges();
+			this.clearPendingBalanceChanges();
+			this.rewardShareIndexGeneration = this.repositoryFactory.getRewardShareIndexGeneration();
 
 			// Before clearing statements so we can log what led to assertion error
 			assertEmptyTransaction("transaction commit");
@@ -211,6 +323,10 @@ public class HSQLDBRepository implements Repository {
 			throw new DataException("rollback error", e);
 		} finally {
 			this.savepoints.clear();
+			this.pendingCacheChanges = null;
+			this.clearPendingRewardShareChanges();
+			this.clearPendingBalanceChanges();
+			this.rewardShareIndexGeneration = this.repositoryFactory.getRewardShareIndexGeneration();
 
 			// Before clearing statements so we can log what led to assertion error
 			assertEmptyTransaction("transaction rollback");
@@ -229,6 +345,8 @@ public class HSQLDBRepository implements Repository {
 
 			Savepoint savepoint = this.connection.setSavepoint();
 			this.savepoints.push(savepoint);
+			this.savepointRewardShareChanges.push(this.pendingRewardShareChanges.size());
+			this.savepointBalanceChanges.push(this.pendingBalanceChanges.size());
 
 			// Update query log with savepoint ID
 			if (this.sqlStatements != null)
@@ -244,12 +362,23 @@ public class HSQLDBRepository implements Repository {
 			throw new DataException("no savepoint to rollback");
 
 		Savepoint savepoint = this.savepoints.pop();
+		int rewardShareChangesCount = this.savepointRewardShareChanges.pop();
+		int balanceChangesCount = this.savepointBalanceChanges.pop();
 
 		try {
 			if (this.sqlStatements != null)
 				this.sqlStatements.add("ROLLBACK TO SAVEPOINT [" + savepoint.getSavepointId() + "]");
 
 			this.connection.rollback(savepoint);
+
+			if (this.pendingRewardShareChanges.size() > rewardShareChangesCount) {
+				this.pendingRewardShareChanges.subList(rewardShareChangesCount, this.pendingRewardShareChanges.size()).clear();
+				this.pendingRewardShareIndex = null;
+				this.snapshotRewardShareIndex = null;
+			}
+
+			if (this.pendingBalanceChanges.size() > balanceChangesCount)
+				this.pendingBalanceChanges.subList(balanceChangesCount, this.pendingBalanceChanges.size()).clear();
 		} catch (SQLException e) {
 			throw new DataException("savepoint rollback error", e);
 		}
@@ -272,6 +401,9 @@ public class HSQLDBRepository implements Repository {
 			this.preparedStatementCache.clear();
 			this.sqlStatements = null;
 			this.savepoints.clear();
+			this.pendingCacheChanges = null;
+			this.clearPendingRewardShareChanges();
+			this.clearPendingBalanceChanges();
 
 			// If a checkpoint has been requested, we could perform that now
 			this.maybeCheckpoint();
@@ -279,6 +411,8 @@ public class HSQLDBRepository implements Repository {
 			// Give connection back to the pool
 			this.connection.close();
 			this.connection = null;
+
+			this.metrics.recordSessionClosed();
 		} catch (SQLException e) {
 			throw new DataException("Error while closing repository", e);
 		}
@@ -580,7 +714,10 @@ public class HSQLDBRepository implements Repository {
 
 			preparedStatement =  this.connection.prepareStatement(sql);
 			this.preparedStatementCache.put(sql, preparedStatement);
+			this.metrics.recordStatementCacheLookup(false);
 		} else {
+			this.metrics.recordStatementCacheLookup(true);
+
 			// Clean up ready for reuse
 			preparedStatement.clearBatch();
 			preparedStatement.clearParameters();
@@ -606,8 +743,17 @@ public class HSQLDBRepository implements Repository {
 		// They are cleaned up when connection/session is closed.
 
 		long beforeQuery = this.slowQueryThreshold == null ? 0 : System.currentTimeMillis();
+		long metricsStart = this.metrics.startTimer();
+
+		ResultSet resultSet;
+		try {
+			resultSet = this.checkedExecuteResultSet(preparedStatement, objects);
+		} catch (SQLException e) {
+			this.metrics.recordStatement(sql, metricsStart, 0, true);
+			throw e;
+		}
 
-		ResultSet resultSet = this.checkedExecuteResultSet(preparedStatement, objects);
+		this.metrics.recordStatement(sql, metricsStart, HSQLDBMetrics.countRows(resultSet), false);
 
 		if (this.slowQueryThreshold != null) {
 			long queryTime = System.currentTimeMillis() - beforeQuery;
@@ -702,11 +848,14 @@ public class HSQLDBRepository implements Repository {
 		}
 
 		long beforeQuery = this.slowQueryThreshold == null ? 0 : System.currentTimeMillis();
+		long metricsStart = this.metrics.startTimer();
 
 		int[] updateCounts = null;
 		try {
 			updateCounts = preparedStatement.executeBatch();
 		} catch (SQLException e) {
+			this.metrics.recordStatement(sql, metricsStart, 0, true);
+
 			if (isDeadlockException(e))
 				// We want more info on what other DB sessions are doing to cause this
 				examineException(e);
@@ -732,6 +881,8 @@ public class HSQLDBRepository implements Repository {
 			totalCount += updateCounts[i];
 		}
 
+		this.metrics.recordStatement(sql, metricsStart, totalCount, false);
+
 		return totalCount;
 	}
 
@@ -746,13 +897,28 @@ public class HSQLDBRepository implements Repository {
 	 * @throws SQLException
 	 */
 	public Long callIdentity() throws SQLException {
+		final String sql = "CALL IDENTITY()";
+
 		// We don't need to use HSQLDBRepository.prepareStatement for this as it's so trivial
-		try (PreparedStatement preparedStatement = this.connection.prepareStatement("CALL IDENTITY()");
-				ResultSet resultSet = this.checkedExecuteResultSet(preparedStatement)) {
-			if (resultSet == null)
-				return null;
+		try (PreparedStatement preparedStatement = this.connection.prepareStatement(sql)) {
+			long metricsStart = this.metrics.startTimer();
+
+			ResultSet resultSet;
+			try {
+				resultSet = this.checkedExecuteResultSet(preparedStatement);
+			} catch (SQLException e) {
+				this.metrics.recordStatement(sql, metricsStart, 0, true);
+				throw e;
+			}
+
+			try (resultSet) {
+				this.metrics.recordStatement(sql, metricsStart, resultSet == null ? 0 : 1, false);
 
-			return resultSet.getLong(1);
+				if (resultSet == null)
+					return null;
+
+				return resultSet.getLong(1);
+			}
 		}
 	}
 
@@ -879,6 +1045,29 @@ public class HSQLDBRepository implements Repository {
 		stringBuilder.append(") ");
 	}
 
+	/**
+	 * Splits values into equal-sized chunks, for binding to {@link #temporaryValuesTableSql(StringBuilder, int, String, String)}.
+	 * <p>
+	 * Final chunk is padded by repeating its last value, so every query uses the same SQL
+	 * and hence the same cached prepared statement. Callers need to tolerate duplicate rows.
+	 */
+	/* package */ static List<Object[]> temporaryValuesChunks(Collection<?> values, int chunkSize) {
+		List<Object> distinctValues = new ArrayList<>(new LinkedHashSet<>(values));
+		List<Object[]> chunks = new ArrayList<>();
+
+		for (int start = 0; start < distinctValues.size(); start += chunkSize) {
+			Object[] chunk = new Object[chunkSize];
+
+			int end = Math.min(start + chunkSize, distinctValues.size());
+			for (int i = 0; i < chunkSize; ++i)
+				chunk[i] = distinctValues.get(Math.min(start + i, end - 1));
+
+			chunks.add(chunk);
+		}
+
+		return chunks;
+	}
+
 	/**
 	 * Appends SQL for filling a temporary VALUES table, literal values ARE supplied.
 	 * <p>
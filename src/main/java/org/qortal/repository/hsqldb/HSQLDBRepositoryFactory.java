@@ -31,6 +31,12 @@ public class HSQLDBRepositoryFactory implements RepositoryFactory {
 	private HSQLDBPool connectionPool;
 	private final boolean wasPristine;
 
+	private final Object rewardShareIndexLock = new Object();
+	/** Committed reward-shares, or null if not yet loaded */
+	private RewardShareIndex rewardShareIndex = null;
+	/** Incremented on every commit involving reward-shares, so we can detect stale loads */
+	private long rewardShareIndexGeneration = 0;
+
 	/**
 	 * Constructs new RepositoryFactory using passed <tt>connectionUrl</tt>.
 	 * 
@@ -95,7 +101,7 @@ public class HSQLDBRepositoryFactory implements RepositoryFactory {
 	@Override
 	public Repository getRepository() throws DataException {
 		try {
-			return new HSQLDBRepository(this.getConnection());
+			return new HSQLDBRepository(this.getConnection(), this);
 		} catch (SQLException e) {
 			throw new DataException("Repository instantiation error", e);
 		}
@@ -108,15 +114,83 @@ public class HSQLDBRepositoryFactory implements RepositoryFactory {
 			if (connection == null)
 				return null;
 
-			return new HSQLDBRepository(connection);
+			return new HSQLDBRepository(connection, this);
 		} catch (SQLException e) {
 			throw new DataException("Repository instantiation error", e);
 		}
 	}
 
+	// Reward-share index
+
+	/** Returns number of reward-share commits so far, for comparison with {@link #getRewardShareIndex(long)}. */
+	/* package */ long getRewardShareIndexGeneration() {
+		synchronized (this.rewardShareIndexLock) {
+			return this.rewardShareIndexGeneration;
+		}
+	}
+
+	/**
+	 * Returns committed reward-share index, loading it if necessary, but only if there have been
+	 * no reward-share commits since <tt>generation</tt>. Returns null otherwise, or if unable to load.
+	 * <p>
+	 * Index is loaded using a new repository session, so that its snapshot is no older than <tt>generation</tt>.
+	 * Loaded index is only kept if there were no reward-share commits while loading.
+	 */
+	/* package */ RewardShareIndex getRewardShareIndex(long generation) throws DataException {
+		synchronized (this.rewardShareIndexLock) {
+			if (this.rewardShareIndexGeneration != generation)
+				return null;
+
+			if (this.rewardShareIndex != null)
+				return this.rewardShareIndex;
+		}
+
+		RewardShareIndex loadedIndex;
+		// Caller already holds a connection, so don't wait for another
+		try (final HSQLDBRepository repository = (HSQLDBRepository) this.tryRepository()) {
+			if (repository == null)
+				return null;
+
+			try {
+				loadedIndex = RewardShareIndex.of(repository.getAccountRepository().getRewardShares());
+			} finally {
+				repository.discardChanges();
+			}
+		}
+
+		synchronized (this.rewardShareIndexLock) {
+			if (this.rewardShareIndexGeneration != generation)
+				return null;
+
+			if (this.rewardShareIndex == null)
+				this.rewardShareIndex = loadedIndex;
+
+			return this.rewardShareIndex;
+		}
+	}
+
+	/**
+	 * Commits <tt>connection</tt> and applies its reward-share changes to committed index.
+	 * <p>
+	 * Both happen while holding lock, so a generation read by another session is either before
+	 * or after the commit, never in between.
+	 */
+	/* package */ void commitRewardShareChanges(Connection connection, List<RewardShareIndex.Change> changes) throws SQLException {
+		synchronized (this.rewardShareIndexLock) {
+			connection.commit();
+
+			++this.rewardShareIndexGeneration;
+
+			if (this.rewardShareIndex != null)
+				this.rewardShareIndex = this.rewardShareIndex.apply(changes);
+		}
+	}
+
 	private Connection getConnection() throws SQLException {
 		final long before = System.currentTimeMillis();
+		final long metricsStart = HSQLDBMetrics.getInstance().startTimer();
 		Connection connection = this.connectionPool.getConnection();
+		HSQLDBMetrics.getInstance().recordConnectionWait(metricsStart);
 		final long delay = System.currentTimeMillis() - before;
 
 		if (delay > SLOW_CONNECTION_THRESHOLD)
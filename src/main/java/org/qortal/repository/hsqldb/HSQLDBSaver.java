@@ -66,7 +66,19 @@ public class HSQLDBSaver {
 				PreparedStatement preparedStatement = repository.prepareStatement(sql);
 				this.bindValues(preparedStatement);
 
-				return preparedStatement.execute();
+				long metricsStart = repository.metrics.startTimer();
+
+				boolean result;
+				try {
+					result = preparedStatement.execute();
+				} catch (SQLException e) {
+					repository.metrics.recordStatement(sql, metricsStart, 0, true);
+					throw e;
+				}
+
+				repository.metrics.recordStatement(sql, metricsStart, Math.max(preparedStatement.getUpdateCount(), 0), false);
+
+				return result;
 			} catch (SQLException e) {
 				throw repository.examineException(e);
 			}
@@ -0,0 +1,232 @@
+package org.qortal.repository.hsqldb;
+
+import org.qortal.data.account.RewardShareData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable snapshot of reward-shares, ordered by reward-share public key.
+ * <p>
+ * Ordering matches <tt>ORDER BY reward_share_public_key</tt> in HSQLDB (unsigned byte comparison),
+ * so positions here are the indexes used by blocks' encoded online accounts.
+ * <p>
+ * Backed by a persistent, size-annotated treap so lookups by key or by index are O(log n),
+ * and modified copies share all but O(log n) nodes with the original.
+ */
+public class RewardShareIndex {
+
+	/** Reward-share addition/update, or removal if <tt>rewardShareData</tt> is null. */
+	public static class Change {
+		private final byte[] rewardSharePublicKey;
+		private final RewardShareData rewardShareData;
+
+		private Change(byte[] rewardSharePublicKey, RewardShareData rewardShareData) {
+			this.rewardSharePublicKey = rewardSharePublicKey;
+			this.rewardShareData = rewardShareData;
+		}
+
+		public static Change save(RewardShareData rewardShareData) {
+			return new Change(rewardShareData.getRewardSharePublicKey(), rewardShareData);
+		}
+
+		public static Change delete(byte[] rewardSharePublicKey) {
+			return new Change(rewardSharePublicKey, null);
+		}
+	}
+
+	private static class Node {
+		final RewardShareData data;
+		final int priority;
+		final Node left;
+		final Node right;
+		final int size;
+
+		Node(RewardShareData data, int priority, Node left, Node right) {
+			this.data = data;
+			this.priority = priority;
+			this.left = left;
+			this.right = right;
+			this.size = 1 + size(left) + size(right);
+		}
+
+		Node withChildren(Node left, Node right) {
+			return new Node(this.data, this.priority, left, right);
+		}
+
+		byte[] key() {
+			return this.data.getRewardSharePublicKey();
+		}
+	}
+
+	public static final RewardShareIndex EMPTY = new RewardShareIndex(null);
+
+	private static final Comparator<RewardShareData> KEY_COMPARATOR =
+			(a, b) -> compareKeys(a.getRewardSharePublicKey(), b.getRewardSharePublicKey());
+
+	private final Node root;
+
+	private RewardShareIndex(Node root) {
+		this.root = root;
+	}
+
+	public static RewardShareIndex of(Collection<RewardShareData> rewardShares) {
+		List<RewardShareData> sorted = new ArrayList<>(rewardShares);
+		sorted.sort(KEY_COMPARATOR);
+
+		RewardShareIndex index = EMPTY;
+		for (RewardShareData rewardShareData : sorted)
+			index = index.with(rewardShareData);
+
+		return index;
+	}
+
+	public int size() {
+		return size(this.root);
+	}
+
+	/** Returns position of reward-share with passed public key, or null if not present. */
+	public Integer indexOf(byte[] rewardSharePublicKey) {
+		int index = 0;
+		Node node = this.root;
+
+		while (node != null) {
+			int comparison = compareKeys(rewardSharePublicKey, node.key());
+
+			if (comparison == 0)
+				return index + size(node.left);
+
+			if (comparison < 0) {
+				node = node.left;
+			} else {
+				index += size(node.left) + 1;
+				node = node.right;
+			}
+		}
+
+		return null;
+	}
+
+	/** Returns reward-share at passed position, or null if out of bounds. */
+	public RewardShareData get(int index) {
+		if (index < 0 || index >= this.size())
+			return null;
+
+		Node node = this.root;
+		while (true) {
+			int leftSize = size(node.left);
+
+			if (index == leftSize)
+				return node.data;
+
+			if (index < leftSize) {
+				node = node.left;
+			} else {
+				index -= leftSize + 1;
+				node = node.right;
+			}
+		}
+	}
+
+	/** Returns reward-shares at passed positions, or null if any position is out of bounds. */
+	public List<RewardShareData> get(int[] indexes) {
+		List<RewardShareData> rewardShares = new ArrayList<>(indexes.length);
+
+		for (int index : indexes) {
+			RewardShareData rewardShareData = this.get(index);
+			if (rewardShareData == null)
+				return null;
+
+			rewardShares.add(rewardShareData);
+		}
+
+		return rewardShares;
+	}
+
+	/** Returns copy of this index with passed reward-share added, or replacing entry with same public key. */
+	public RewardShareIndex with(RewardShareData rewardShareData) {
+		byte[] key = rewardShareData.getRewardSharePublicKey();
+
+		Node[] lowerAndRest = split(this.root, key, false);
+		Node[] sameAndHigher = split(lowerAndRest[1], key, true);
+
+		Node node = new Node(rewardShareData, priority(key), null, null);
+		return new RewardShareIndex(merge(merge(lowerAndRest[0], node), sameAndHigher[1]));
+	}
+
+	/** Returns copy of this index without reward-share with passed public key. */
+	public RewardShareIndex without(byte[] rewardSharePublicKey) {
+		Node[] lowerAndRest = split(this.root, rewardSharePublicKey, false);
+		Node[] sameAndHigher = split(lowerAndRest[1], rewardSharePublicKey, true);
+
+		if (sameAndHigher[0] == null)
+			return this;
+
+		return new RewardShareIndex(merge(lowerAndRest[0], sameAndHigher[1]));
+	}
+
+	public RewardShareIndex apply(List<Change> changes) {
+		RewardShareIndex index = this;
+
+		for (Change change : changes)
+			index = change.rewardShareData != null
+					? index.with(change.rewardShareData)
+					: index.without(change.rewardSharePublicKey);
+
+		return index;
+	}
+
+	// Treap internals
+
+	/** Same ordering as HSQLDB's VARBINARY comparison. */
+	private static int compareKeys(byte[] a, byte[] b) {
+		return Arrays.compareUnsigned(a, b);
+	}
+
+	/** Deterministic priority, so the same set of reward-shares always produces the same tree shape. */
+	private static int priority(byte[] key) {
+		return Arrays.hashCode(key) * 0x9E3779B9;
+	}
+
+	private static int size(Node node) {
+		return node == null ? 0 : node.size;
+	}
+
+	/**
+	 * Splits into nodes with keys before <tt>key</tt> and the rest.
+	 * If <tt>inclusive</tt> then a node matching <tt>key</tt> goes into the first part.
+	 */
+	private static Node[] split(Node node, byte[] key, boolean inclusive) {
+		if (node == null)
+			return new Node[] { null, null };
+
+		int comparison = compareKeys(node.key(), key);
+		boolean goesLeft = comparison < 0 || (inclusive && comparison == 0);
+
+		if (goesLeft) {
+			Node[] parts = split(node.right, key, inclusive);
+			return new Node[] { node.withChildren(node.left, parts[0]), parts[1] };
+		}
+
+		Node[] parts = split(node.left, key, inclusive);
+		return new Node[] { parts[0], node.withChildren(parts[1], node.right) };
+	}
+
+	/** Merges two treaps, where all keys in <tt>lower</tt> are before all keys in <tt>higher</tt>. */
+	private static Node merge(Node lower, Node higher) {
+		if (lower == null)
+			return higher;
+
+		if (higher == null)
+			return lower;
+
+		if (lower.priority > higher.priority)
+			return lower.withChildren(lower.left, merge(lower.right, higher));
+
+		return higher.withChildren(merge(lower, higher.left), higher.right);
+	}
+
+}
@@ -179,6 +179,12 @@ public class Settings {
 	private long archiveInterval = 7171L; // milliseconds
 	/** Serialization version to use when building an archive */
 	private int defaultArchiveVersion = 2;
+	/** Maximum number of block archive files to keep memory-mapped for reading, or 0 to read via regular file I/O */
+	private int archiveReaderMappedFileCount = 8;
+	/** Number of archived blocks to decode and signature-check ahead of processing when reindexing */
+	private int reindexPrefetchBlockCount = 256;
+	/** Number of reindexed blocks to process between repository commits. Value of 1 commits after every block. */
+	private int reindexCommitBlockCount = 100;
 
 	/** Whether to automatically bootstrap instead of syncing from genesis */
 	private boolean bootstrap = true;
@@ -206,8 +212,18 @@ public class Settings {
 	private int maxNetworkThreadPoolSize = 512;
 	/** Maximum number of threads for network proof-of-work compute, used during handshaking. */
 	private int networkPoWComputePoolSize = 4;
+	/** Initial size of each peer's receive buffer, in bytes. Buffers grow, temporarily, for larger messages. */
+	private int networkReceiveBufferSize = 32 * 1024;
+	/** Maximum total size of idle receive buffers kept for reuse, in bytes. */
+	private long networkReceiveBufferPoolSize = 64 * 1024 * 1024L;
+	/** Number of threads used to verify online accounts' proof-of-work nonces in parallel. */
+	private int onlineAccountsPoWVerifyPoolSize = Math.max(1, Runtime.getRuntime().availableProcessors());
+	/** Number of threads used to verify incoming unconfirmed transactions' signatures in parallel. */
+	private int transactionSignatureVerifyPoolSize = Math.max(1, Runtime.getRuntime().availableProcessors());
 	/** Maximum number of retry attempts if a peer fails to respond with the requested data */
 	private int maxRetries = 3;
+	/** Number of blocks to request ahead from peer when catching up. Values of 0 or 1 fetch one block at a time. */
+	private int syncPrefetchBlockCount = 8;
 
 	/** The number of seconds of no activity before recovery mode begins */
 	public long recoveryModeTimeout = 9999999999999L;
@@ -258,6 +274,8 @@ public class Settings {
 	// Repository related
 	/** Queries that take longer than this are logged. (milliseconds) */
 	private Long slowQueryThreshold = null;
+	/** Whether to collect per-SQL timings, connection pool waits, etc. See <tt>GET /admin/dbmetrics</tt> */
+	private boolean repositoryMetricsEnabled = true;
 	/** Repository storage path. */
 	private String repositoryPath = "db";
 	/** Repository connection pool size. Needs to be a bit bigger than maxNetworkThreadPoolSize */
@@ -337,6 +355,11 @@ public class Settings {
 	/** How many units of data to be kept in a blockchain cache before the cache should be reduced or cleared. */
 	private int blockchainCacheLimit = 1000;
 
+	/** Where to persist confirmed foreign-chain transactions and block headers, one file per network */
+	private String foreignChainCachePath = "foreign-cache";
+	/** Maximum number of transactions and block headers persisted per foreign network, or 0 to disable */
+	private int foreignChainCacheLimit = 20000;
+
 	// Data storage (QDN)
 
 	/** Data storage enabled/disabled*/
@@ -364,6 +387,10 @@ public class Settings {
 
 	/** Whether to validate every layer when building arbitrary data, or just the final layer */
 	private boolean validateAllDataLayers = false;
+	/** Digest version to record in newly created patches. Version 2 hashes files in parallel, but requires all nodes to understand it. */
+	private int arbitraryDataPatchDigestVersion = 1;
+	/** Number of threads used to hash files when computing version 2 directory digests */
+	private int arbitraryDataDigestThreadCount = Math.max(1, Runtime.getRuntime().availableProcessors());
 
 	/** Whether to allow public (decryptable) data to be stored */
 	private boolean publicDataEnabled = true;
@@ -489,11 +516,20 @@ public class Settings {
 	/**
 	 * Balance Recorder Rollback Allowance
 	 *
-	 * If the balance recorder is enabled, it must protect its prior balances by this number of blocks in case of
-	 * a blockchain rollback and reorganization.
+	 * No longer used, as the balance recorder now rolls back its journal when blocks are orphaned.
+	 * Kept so that existing settings files still parse.
 	 */
+	@Deprecated
 	private int balanceRecorderRollbackAllowance = 100;
 
+	/**
+	 * Balance Recorder Journal Capacity
+	 *
+	 * The maximum number of per-account, per-block balance changes the balance recorder keeps in memory.
+	 * Oldest blocks are dropped first.
+	 */
+	private int balanceRecorderJournalCapacity = 2_000_000;
+
 	/**
 	 * Is Reward Recording Only
 	 *
@@ -944,8 +980,28 @@ public class Settings {
 		return this.networkPoWComputePoolSize;
 	}
 
+	public int getNetworkReceiveBufferSize() {
+		return this.networkReceiveBufferSize;
+	}
+
+	public long getNetworkReceiveBufferPoolSize() {
+		return this.networkReceiveBufferPoolSize;
+	}
+
+	public int getOnlineAccountsPoWVerifyPoolSize() {
+		return this.onlineAccountsPoWVerifyPoolSize;
+	}
+
+	public int getTransactionSignatureVerifyPoolSize() {
+		return this.transactionSignatureVerifyPoolSize;
+	}
+
 	public int getMaxRetries() { return this.maxRetries; }
 
+	public int getSyncPrefetchBlockCount() {
+		return this.syncPrefetchBlockCount;
+	}
+
 	public long getRecoveryModeTimeout() {
 		return recoveryModeTimeout;
 	}
@@ -1010,6 +1066,10 @@ public class Settings {
 		return this.slowQueryThreshold;
 	}
 
+	public boolean isRepositoryMetricsEnabled() {
+		return this.repositoryMetricsEnabled;
+	}
+
 	public String getRepositoryPath() {
 		return this.repositoryPath;
 	}
@@ -1172,6 +1232,18 @@ public class Settings {
 		return this.defaultArchiveVersion;
 	}
 
+	public int getArchiveReaderMappedFileCount() {
+		return this.archiveReaderMappedFileCount;
+	}
+
+	public int getReindexPrefetchBlockCount() {
+		return this.reindexPrefetchBlockCount;
+	}
+
+	public int getReindexCommitBlockCount() {
+		return this.reindexCommitBlockCount;
+	}
+
 
 	public boolean getBootstrap() {
 		return this.bootstrap;
@@ -1190,6 +1262,14 @@ public class Settings {
 		return blockchainCacheLimit;
 	}
 
+	public String getForeignChainCachePath() {
+		return this.foreignChainCachePath;
+	}
+
+	public int getForeignChainCacheLimit() {
+		return this.foreignChainCacheLimit;
+	}
+
 	public boolean isQdnEnabled() {
 		return this.qdnEnabled;
 	}
@@ -1230,6 +1310,14 @@ public class Settings {
 		return this.validateAllDataLayers;
 	}
 
+	public int getArbitraryDataPatchDigestVersion() {
+		return this.arbitraryDataPatchDigestVersion;
+	}
+
+	public int getArbitraryDataDigestThreadCount() {
+		return this.arbitraryDataDigestThreadCount;
+	}
+
 	public boolean isPublicDataEnabled() {
 		return this.publicDataEnabled;
 	}
@@ -1322,8 +1410,8 @@ public class Settings {
 		return topBalanceLoggingLimit;
 	}
 
-	public int getBalanceRecorderRollbackAllowance() {
-		return balanceRecorderRollbackAllowance;
+	public int getBalanceRecorderJournalCapacity() {
+		return balanceRecorderJournalCapacity;
 	}
 
 	public boolean isRewardRecordingOnly() {
@@ -217,7 +217,7 @@ public class ChatTransaction extends Transaction {
 			throw new RuntimeException("Unable to transform transaction to byte array for verification", e);
 		}
 
-		if (!Crypto.verify(this.transactionData.getCreatorPublicKey(), signature, transactionBytes))
+		if (!this.isCreatorSignatureValid(transactionBytes))
 			return false;
 
 		int nonce = this.chatTransactionData.getNonce();
@@ -5,7 +5,6 @@ import org.qortal.account.PrivateKeyAccount;
 import org.qortal.account.PublicKeyAccount;
 import org.qortal.asset.Asset;
 import org.qortal.block.BlockChain;
-import org.qortal.crypto.Crypto;
 import org.qortal.crypto.MemoryPoW;
 import org.qortal.data.PaymentData;
 import org.qortal.data.transaction.BaseTransactionData;
@@ -246,7 +245,7 @@ public class MessageTransaction extends Transaction {
 			throw new RuntimeException("Unable to transform transaction to byte array for verification", e);
 		}
 
-		if (!Crypto.verify(this.transactionData.getCreatorPublicKey(), signature, transactionBytes))
+		if (!this.isCreatorSignatureValid(transactionBytes))
 			return false;
 
 		// If feee is non-zero then we don't check nonce
@@ -275,6 +275,8 @@ public abstract class Transaction {
 	protected TransactionData transactionData;
 	/** Cached creator account. Use <tt>getCreator()</tt> to access. */
 	private PublicKeyAccount creator = null;
+	/** Result of creator signature check by <tt>preVerifySignature()</tt>, or null if not yet checked. */
+	private Boolean isCreatorSignatureValid = null;
 
 	// Constructors
 
@@ -501,6 +503,8 @@ public abstract class Transaction {
 	// Processing
 
 	public void sign(PrivateKeyAccount signer) {
+		this.isCreatorSignatureValid = null;
+
 		try {
 			this.transactionData.setSignature(signer.sign(TransactionTransformer.toBytesForSigning(transactionData)));
 		} catch (TransformationException e) {
@@ -513,6 +517,9 @@ public abstract class Transaction {
 		if (signature == null)
 			return false;
 
+		if (this.isCreatorSignatureValid != null)
+			return this.isCreatorSignatureValid;
+
 		try {
 			return Crypto.verify(this.transactionData.getCreatorPublicKey(), signature, TransactionTransformer.toBytesForSigning(transactionData));
 		} catch (TransformationException e) {
@@ -520,6 +527,38 @@ public abstract class Transaction {
 		}
 	}
 
+	/**
+	 * Checks creator's signature ahead of {@link #isSignatureValid()}, which then reuses the result.
+	 * <p>
+	 * Only the signature itself is checked. Any type-specific checks, e.g. nonces, are left to {@link #isSignatureValid()}.
+	 * <p>
+	 * Doesn't use repository, so can be called on a worker thread, e.g. by {@link org.qortal.block.Block#preValidate()},
+	 * but only for transactions that won't be modified afterwards, such as those received from peers.
+	 *
+	 * @return whether creator's signature is valid
+	 */
+	public boolean preVerifySignature() {
+		byte[] signature = this.transactionData.getSignature();
+		if (signature == null)
+			return false;
+
+		try {
+			this.isCreatorSignatureValid = Crypto.verify(this.transactionData.getCreatorPublicKey(), signature, TransactionTransformer.toBytesForSigning(transactionData));
+		} catch (TransformationException e) {
+			return false;
+		}
+
+		return this.isCreatorSignatureValid;
+	}
+
+	/** Returns whether creator's signature over <tt>transactionBytes</tt> is valid, reusing result from {@link #preVerifySignature()} if available. */
+	protected boolean isCreatorSignatureValid(byte[] transactionBytes) {
+		if (this.isCreatorSignatureValid != null)
+			return this.isCreatorSignatureValid;
+
+		return Crypto.verify(this.transactionData.getCreatorPublicKey(), this.transactionData.getSignature(), transactionBytes);
+	}
+
 	/**
 	 * Returns whether transaction can be added to unconfirmed transactions.
 	 * 
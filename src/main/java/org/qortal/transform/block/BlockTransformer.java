@@ -432,10 +432,6 @@ public class BlockTransformer extends Transformer {
 		try {
 			List<Transaction> transactions = block.getTransactions();
 
-			ByteArrayOutputStream bytes = new ByteArrayOutputStream(MINTER_SIGNATURE_LENGTH + transactions.size() * TransactionTransformer.SIGNATURE_LENGTH);
-
-			bytes.write(block.getBlockData().getMinterSignature());
-
 			for (Transaction transaction : transactions) {
 				// We don't include AT-Transactions as AT-state/output is dealt with elsewhere in the block code
 				if (transaction.getTransactionData().getType() == TransactionType.AT)
@@ -443,12 +439,31 @@ public class BlockTransformer extends Transformer {
 
 				if (!transaction.isSignatureValid())
 					throw new TransformationException("Transaction signature invalid when building block's transactions signature");
+			}
+
+			return getBytesForTransactionsSignature(block.getBlockData().getMinterSignature(), transactions);
+		} catch (DataException e) {
+			throw new TransformationException(e);
+		}
+	}
+
+	/** Returns bytes for block's transactions signature, without checking transactions' own signatures. */
+	public static byte[] getBytesForTransactionsSignature(byte[] minterSignature, List<Transaction> transactions) throws TransformationException {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(MINTER_SIGNATURE_LENGTH + transactions.size() * TransactionTransformer.SIGNATURE_LENGTH);
+
+			bytes.write(minterSignature);
+
+			for (Transaction transaction : transactions) {
+				// We don't include AT-Transactions as AT-state/output is dealt with elsewhere in the block code
+				if (transaction.getTransactionData().getType() == TransactionType.AT)
+					continue;
 
 				bytes.write(transaction.getTransactionData().getSignature());
 			}
 
 			return bytes.toByteArray();
-		} catch (IOException | DataException e) {
+		} catch (IOException e) {
 			throw new TransformationException(e);
 		}
 	}
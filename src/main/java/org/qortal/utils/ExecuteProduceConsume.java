@@ -78,14 +78,19 @@ public abstract class ExecuteProduceConsume implements Runnable {
 	public StatsSnapshot getStatsSnapshot() {
 		StatsSnapshot snapshot = new StatsSnapshot();
 
+		this.fillStatsSnapshot(snapshot);
+
+		return snapshot;
+	}
+
+	/** Copies current stats into passed snapshot, which may be a subclass with extra fields. */
+	public void fillStatsSnapshot(StatsSnapshot snapshot) {
 		snapshot.activeThreadCount = this.activeThreadCount.get();
 		snapshot.greatestActiveThreadCount = this.greatestActiveThreadCount.get();
 		snapshot.consumerCount = this.consumerCount.get();
 		snapshot.tasksProduced = this.tasksProduced.get();
 		snapshot.tasksConsumed = this.tasksConsumed.get();
 		snapshot.spawnFailures = this.spawnFailures.get();
-
-		return snapshot;
 	}
 
 	protected void onSpawnFailure() {
@@ -6,9 +6,12 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.qortal.account.PrivateKeyAccount;
+import org.qortal.block.BlockChain;
 import org.qortal.controller.BlockMinter;
+import org.qortal.controller.repository.BlockArchiveRebuilder;
 import org.qortal.data.at.ATStateData;
 import org.qortal.data.block.BlockData;
+import org.qortal.data.system.ReindexStatus;
 import org.qortal.data.transaction.TransactionData;
 import org.qortal.repository.*;
 import org.qortal.repository.hsqldb.HSQLDBRepository;
@@ -20,11 +23,13 @@ import org.qortal.transaction.DeployAtTransaction;
 import org.qortal.transaction.Transaction;
 import org.qortal.transform.TransformationException;
 import org.qortal.transform.block.BlockTransformation;
+import org.qortal.transform.block.BlockTransformer;
 import org.qortal.utils.BlockArchiveUtils;
 import org.qortal.utils.NTP;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.SQLException;
@@ -610,6 +615,131 @@ public class BlockArchiveV2Tests extends Common {
 	}
 
 
+	@Test
+	public void testReindexResume() throws DataException, InterruptedException, TransformationException, IOException, IllegalAccessException {
+		final byte[] archivedBlockSignature;
+
+		try (final Repository repository = RepositoryManager.getRepository()) {
+
+			System.out.println("Starting testReindexResume");
+
+			// Mint some blocks so that we are able to archive them later
+			System.out.println("Minting 100 blocks...");
+			BlockUtils.mintBlocks(repository, 100);
+			System.out.println("Finished minting blocks.");
+
+			// Assume 90 blocks are trimmed (this specifies the first untrimmed height)
+			repository.getBlockRepository().setOnlineAccountsSignaturesTrimHeight(91);
+			repository.getATRepository().setAtTrimHeight(91);
+
+			// Write blocks 2-90 to the archive, without pausing between blocks
+			System.out.println("Writing blocks 2 to 90 to the archive...");
+			FieldUtils.writeField(Settings.getInstance(), "archivingPause", 0L, true);
+			BlockArchiveWriter writer = new BlockArchiveWriter(0, 90, repository);
+			writer.setShouldEnforceFileSizeTarget(false); // To avoid the need to pre-calculate file sizes
+			assertEquals(BlockArchiveWriter.BlockArchiveWriteResult.OK, writer.write());
+			assertEquals(90 - 1, writer.getWrittenCount());
+			BlockArchiveReader.getInstance().invalidateFileListCache();
+
+			archivedBlockSignature = repository.getBlockRepository().fromHeight(90).getSignature();
+
+			// Simulate an interrupted reindex, by orphaning back to block 40
+			System.out.println("Orphaning back to block 40...");
+			BlockUtils.orphanToBlock(repository, 40);
+			repository.saveChanges();
+			assertEquals(40, repository.getBlockRepository().getBlockchainHeight());
+		}
+
+		// Use small batches, so that several commits are needed
+		FieldUtils.writeField(Settings.getInstance(), "reindexCommitBlockCount", 7, true);
+		FieldUtils.writeField(Settings.getInstance(), "reindexPrefetchBlockCount", 4, true);
+
+		// Online accounts' nonces in test blocks aren't genuine, so move time on until they're old enough to be ignored
+		NTP.setFixedOffset(BlockChain.getInstance().getOnlineAccountSignaturesMinLifetime() + 7 * 24 * 60 * 60 * 1000L);
+
+		System.out.println("Resuming reindex...");
+		new ReindexManager(true).reindex();
+
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			// Reindex should have processed remaining archived blocks
+			assertEquals(90, repository.getBlockRepository().getBlockchainHeight());
+			assertArrayEquals(archivedBlockSignature, repository.getBlockRepository().fromHeight(90).getSignature());
+			assertEquals(91, repository.getBlockArchiveRepository().getBlockArchiveHeight());
+		}
+
+		ReindexStatus status = ReindexManager.getStatus();
+		assertNotNull(status);
+		assertFalse(status.isRunning());
+		assertTrue(status.isResumed());
+		assertEquals(40, status.getStartHeight());
+		assertEquals(90, status.getCommittedHeight());
+		assertEquals(90 - 40, status.getBlocksProcessed());
+
+		System.out.println("testReindexResume completed successfully.");
+	}
+
+	@Test
+	public void testRebuildWithMappedFiles() throws DataException, InterruptedException, TransformationException, IOException, IllegalAccessException {
+		final byte[] archivedBlockSignature;
+
+		try (final Repository repository = RepositoryManager.getRepository()) {
+
+			System.out.println("Starting testRebuildWithMappedFiles");
+
+			// Mint some blocks so that we are able to archive them later
+			System.out.println("Minting 100 blocks...");
+			BlockUtils.mintBlocks(repository, 100);
+			System.out.println("Finished minting blocks.");
+
+			// Assume 90 blocks are trimmed (this specifies the first untrimmed height)
+			repository.getBlockRepository().setOnlineAccountsSignaturesTrimHeight(91);
+			repository.getATRepository().setAtTrimHeight(91);
+
+			// Write blocks 2-90 to a V1 archive, without pausing between blocks
+			System.out.println("Writing blocks 2 to 90 to a V1 archive...");
+			FieldUtils.writeField(Settings.getInstance(), "archivingPause", 0L, true);
+			Path archivePath = Paths.get(Settings.getInstance().getRepositoryPath(), "archive");
+			BlockArchiveWriter writer = new BlockArchiveWriter(0, 90, 1, archivePath, repository);
+			writer.setShouldEnforceFileSizeTarget(false); // To avoid the need to pre-calculate file sizes
+			assertEquals(BlockArchiveWriter.BlockArchiveWriteResult.OK, writer.write());
+			assertEquals(90 - 1, writer.getWrittenCount());
+			repository.getBlockArchiveRepository().setBlockArchiveHeight(writer.getWrittenCount());
+			repository.saveChanges();
+
+			archivedBlockSignature = repository.getBlockRepository().fromHeight(90).getSignature();
+		}
+
+		// Map archive file, and read a block from it
+		BlockArchiveReader reader = BlockArchiveReader.getInstance();
+		reader.invalidateFileListCache();
+		assertEquals(1, reader.fetchSerializationVersionForHeight(2).intValue());
+		ByteBuffer block2Slice = reader.fetchSerializedBlockSliceForHeight(2).getA();
+		assertNotNull(block2Slice);
+		assertTrue(block2Slice.isReadOnly());
+
+		// A slice would keep old archive file mapped, stopping its deletion on some platforms,
+		// so block bytes wanted across a rebuild need copying, and the slice dropping
+		byte[] block2Bytes = reader.fetchSerializedBlockBytesForHeight(2).getA();
+		assertEquals(ByteBuffer.wrap(block2Bytes), block2Slice);
+		block2Slice = null;
+
+		System.out.println("Rebuilding archive as V2...");
+		new BlockArchiveRebuilder(2).start();
+
+		// Reader should have dropped old mappings, and now read from rebuilt archive
+		assertEquals(2, reader.fetchSerializationVersionForHeight(2).intValue());
+		assertEquals(2, reader.fetchSerializationVersionForHeight(90).intValue());
+		assertArrayEquals(archivedBlockSignature, reader.fetchBlockAtHeight(90).getBlockData().getSignature());
+
+		// Copy from old archive is still intact
+		assertArrayEquals(reader.fetchBlockAtHeight(2).getBlockData().getSignature(),
+				BlockTransformer.fromBytes(block2Bytes).getBlockData().getSignature());
+		assertFalse(Paths.get(Settings.getInstance().getRepositoryPath(), "archive-rebuild").toFile().exists());
+
+		System.out.println("testRebuildWithMappedFiles completed successfully.");
+	}
+
+
 	/**
 	 * Many nodes are missing an ATStatesHeightIndex due to an earlier bug
 	 * In these cases we disable archiving and pruning as this index is a
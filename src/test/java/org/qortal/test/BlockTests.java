@@ -7,6 +7,8 @@ import org.qortal.account.PrivateKeyAccount;
 import org.qortal.block.Block;
 import org.qortal.block.GenesisBlock;
 import org.qortal.data.block.BlockData;
+import org.qortal.data.transaction.PaymentTransactionData;
+import org.qortal.data.transaction.RegisterNameTransactionData;
 import org.qortal.data.transaction.TransactionData;
 import org.qortal.repository.DataException;
 import org.qortal.repository.Repository;
@@ -14,6 +16,7 @@ import org.qortal.repository.RepositoryManager;
 import org.qortal.test.common.BlockUtils;
 import org.qortal.test.common.Common;
 import org.qortal.test.common.TransactionUtils;
+import org.qortal.test.common.transaction.TestTransaction;
 import org.qortal.transaction.Transaction;
 import org.qortal.transaction.Transaction.TransactionType;
 import org.qortal.transform.TransformationException;
@@ -138,6 +141,86 @@ public class BlockTests extends Common {
 		}
 	}
 
+	@Test
+	public void testMintingManyTransactions() throws DataException {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			PrivateKeyAccount alice = Common.getTestAccount(repository, "alice");
+			PrivateKeyAccount bob = Common.getTestAccount(repository, "bob");
+
+			List<byte[]> signatures = new LinkedList<>();
+			for (int i = 0; i < 20; ++i) {
+				TransactionData transactionData = new PaymentTransactionData(TestTransaction.generateBase(alice), bob.getAddress(), 1000L + i);
+				TransactionUtils.signAndImportValid(repository, transactionData, alice);
+				signatures.add(transactionData.getSignature());
+			}
+
+			Block block = BlockUtils.mintBlock(repository);
+			assertEquals(20, block.getBlockData().getTransactionCount());
+
+			for (byte[] signature : signatures)
+				assertTrue(repository.getTransactionRepository().isConfirmed(signature));
+		}
+	}
+
+	@Test
+	public void testPreValidation() throws DataException, TransformationException {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			PrivateKeyAccount alice = Common.getTestAccount(repository, "alice");
+			PrivateKeyAccount bob = Common.getTestAccount(repository, "bob");
+
+			for (int i = 0; i < 10; ++i) {
+				TransactionData transactionData = new PaymentTransactionData(TestTransaction.generateBase(alice), bob.getAddress(), 1000L + i);
+				TransactionUtils.signAndImportValid(repository, transactionData, alice);
+			}
+
+			Block mintedBlock = BlockUtils.mintBlock(repository);
+			byte[] bytes = BlockTransformer.toBytes(mintedBlock);
+			int height = mintedBlock.getBlockData().getHeight();
+
+			// As received from peer
+			Block block = fromPeerBytes(repository, bytes, height);
+			assertTrue(block.preValidate());
+			assertTrue(block.isSignatureValid());
+
+			// Tampered transaction signature
+			BlockTransformation blockInfo = BlockTransformer.fromBytes(bytes);
+			blockInfo.getBlockData().setHeight(height);
+			blockInfo.getTransactions().get(3).getSignature()[0] ^= 0x01;
+
+			block = new Block(repository, blockInfo.getBlockData(), blockInfo.getTransactions(), blockInfo.getAtStates());
+			assertFalse(block.preValidate());
+			assertFalse(block.isSignatureValid());
+		}
+	}
+
+	private static Block fromPeerBytes(Repository repository, byte[] bytes, int height) throws TransformationException {
+		BlockTransformation blockInfo = BlockTransformer.fromBytes(bytes);
+		blockInfo.getBlockData().setHeight(height);
+
+		return new Block(repository, blockInfo.getBlockData(), blockInfo.getTransactions(), blockInfo.getAtStates());
+	}
+
+	@Test
+	public void testMintingSkipsConflictingTransaction() throws DataException {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			PrivateKeyAccount alice = Common.getTestAccount(repository, "alice");
+			PrivateKeyAccount bob = Common.getTestAccount(repository, "bob");
+
+			// Both registrations are valid alone, but only the first can be processed
+			TransactionData aliceTransactionData = new RegisterNameTransactionData(TestTransaction.generateBase(alice), "conflicting-name", "{}");
+			TransactionUtils.signAndImportValid(repository, aliceTransactionData, alice);
+
+			TransactionData bobTransactionData = new RegisterNameTransactionData(TestTransaction.generateBase(bob), "conflicting-name", "{}");
+			TransactionUtils.signAndImportValid(repository, bobTransactionData, bob);
+
+			Block block = BlockUtils.mintBlock(repository);
+			assertEquals(1, block.getBlockData().getTransactionCount());
+
+			assertTrue(repository.getTransactionRepository().isConfirmed(aliceTransactionData.getSignature()));
+			assertFalse(repository.getTransactionRepository().isConfirmed(bobTransactionData.getSignature()));
+		}
+	}
+
 	@Test
 	public void testLatestBlockCacheWithLatestBlock() throws DataException {
 		try (final Repository repository = RepositoryManager.getRepository()) {
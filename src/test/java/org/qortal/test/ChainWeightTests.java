@@ -20,6 +20,8 @@ import java.math.BigInteger;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -122,6 +124,66 @@ public class ChainWeightTests extends Common {
 		}
 	}
 
+	// Check fixed-width key distance arithmetic matches BigInteger arithmetic
+	@Test
+	public void testKeyDistanceArithmetic() {
+		byte[] zeros = new byte[Transformer.PUBLIC_KEY_LENGTH];
+		byte[] ones = new byte[Transformer.PUBLIC_KEY_LENGTH];
+		Arrays.fill(ones, (byte) 0xFF);
+		byte[] minSigned = new byte[Transformer.PUBLIC_KEY_LENGTH];
+		minSigned[0] = (byte) 0x80;
+		byte[] maxSigned = new byte[Transformer.PUBLIC_KEY_LENGTH];
+		Arrays.fill(maxSigned, (byte) 0xFF);
+		maxSigned[0] = (byte) 0x7F;
+
+		List<byte[]> keys = new ArrayList<>(Arrays.asList(zeros, ones, minSigned, maxSigned));
+		for (int i = 0; i < 200; ++i) {
+			byte[] key = new byte[Transformer.PUBLIC_KEY_LENGTH];
+			RANDOM.nextBytes(key);
+			keys.add(key);
+		}
+
+		for (byte[] idealKey : keys)
+			for (byte[] perturbedKey : keys.subList(0, 20))
+				for (int minterLevel = 1; minterLevel <= 10; ++minterLevel) {
+					BigInteger expectedDistance = Block.MAX_DISTANCE.subtract(new BigInteger(idealKey).subtract(new BigInteger(perturbedKey)).abs())
+							.divide(BigInteger.valueOf(minterLevel));
+
+					assertEquals(expectedDistance, Block.calcKeyDistance(idealKey, perturbedKey, minterLevel));
+				}
+	}
+
+	// Check that previously calculated block weights are only reused if block summary matches
+	@Test
+	public void testCachedBlockWeights() {
+		final int commonBlockHeight = 1000;
+		byte[] commonBlockSignature = new byte[BlockTransformer.BLOCK_SIGNATURE_LENGTH];
+		RANDOM.nextBytes(commonBlockSignature);
+
+		byte[] signature = new byte[BlockTransformer.BLOCK_SIGNATURE_LENGTH];
+		RANDOM.nextBytes(signature);
+		byte[] minterPublicKey = new byte[Transformer.PUBLIC_KEY_LENGTH];
+		RANDOM.nextBytes(minterPublicKey);
+
+		BlockSummaryData blockSummary = new BlockSummaryData(commonBlockHeight + 1, signature, minterPublicKey, 100);
+		blockSummary.setMinterLevel(5);
+		List<BlockSummaryData> blockSummaries = Collections.singletonList(blockSummary);
+
+		BigInteger expectedWeight = Block.calcBlockWeight(commonBlockHeight, commonBlockSignature, blockSummary);
+		assertEquals(expectedWeight, Block.calcChainWeight(commonBlockHeight, commonBlockSignature, blockSummaries, commonBlockHeight + 1));
+		assertEquals(expectedWeight, Block.calcChainWeight(commonBlockHeight, commonBlockSignature, blockSummaries, commonBlockHeight + 1));
+
+		// Same signatures, but different summary, e.g. from misbehaving peer
+		BlockSummaryData alteredBlockSummary = new BlockSummaryData(commonBlockHeight + 1, signature, minterPublicKey, 900);
+		alteredBlockSummary.setMinterLevel(5);
+		List<BlockSummaryData> alteredBlockSummaries = Collections.singletonList(alteredBlockSummary);
+
+		BigInteger alteredWeight = Block.calcBlockWeight(commonBlockHeight, commonBlockSignature, alteredBlockSummary);
+		assertFalse(expectedWeight.equals(alteredWeight));
+		assertEquals(alteredWeight, Block.calcChainWeight(commonBlockHeight, commonBlockSignature, alteredBlockSummaries, commonBlockHeight + 1));
+		assertEquals(expectedWeight, Block.calcChainWeight(commonBlockHeight, commonBlockSignature, blockSummaries, commonBlockHeight + 1));
+	}
+
 	// If typical key distance ranges from 1E75 to 1E77
 	// then we want lots of online accounts to push a 1E75 distance
 	// towards 1E77 so that it competes with a 1E77 key that has hardly any online accounts
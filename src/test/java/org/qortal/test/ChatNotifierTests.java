@@ -0,0 +1,113 @@
+package org.qortal.test;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.After;
+import org.junit.Test;
+import org.qortal.controller.ChatNotifier;
+import org.qortal.data.transaction.BaseTransactionData;
+import org.qortal.data.transaction.ChatTransactionData;
+import org.qortal.group.Group;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChatNotifierTests {
+
+	private static final String ALICE = "QgV4s3xnzLhVBEJxcYui4u4q11yhUHsd9v";
+	private static final String BOB = "QixPbJUwsaHsVEofJdozU9zgVqkK6aYhrK";
+	private static final String CHLOE = "QaUpHNhT3Ygx6avRiKobuLdusppR5biXjL";
+
+	private final List<Session> sessions = new ArrayList<>();
+
+	@After
+	public void afterTest() {
+		for (Session session : this.sessions)
+			ChatNotifier.getInstance().deregister(session);
+	}
+
+	private Session newSession() {
+		// We only need distinct session instances as map keys
+		Session session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] { Session.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						default:
+							return null;
+					}
+				});
+
+		this.sessions.add(session);
+		return session;
+	}
+
+	private static ChatTransactionData buildChat(String sender, String recipient, int txGroupId) {
+		BaseTransactionData baseTransactionData = new BaseTransactionData(0L, txGroupId, new byte[64], new byte[32], 0L, new byte[64]);
+		return new ChatTransactionData(baseTransactionData, sender, 0, recipient, null, new byte[0], false, false);
+	}
+
+	@Test
+	public void testRouting() {
+		ChatNotifier chatNotifier = ChatNotifier.getInstance();
+
+		List<String> notified = new ArrayList<>();
+
+		chatNotifier.register(newSession(), chatTransactionData -> notified.add("all"));
+		chatNotifier.registerForGroup(newSession(), 2, chatTransactionData -> notified.add("group2"));
+		chatNotifier.registerForGroup(newSession(), 3, chatTransactionData -> notified.add("group3"));
+		chatNotifier.registerForAddress(newSession(), ALICE, chatTransactionData -> notified.add("alice"));
+		chatNotifier.registerForAddress(newSession(), BOB, chatTransactionData -> notified.add("bob"));
+
+		// Group message
+		chatNotifier.onNewChatTransaction(buildChat(ALICE, null, 2));
+		assertEquals(List.of("all", "group2"), notified);
+		notified.clear();
+
+		// Direct message, from Alice to Bob
+		chatNotifier.onNewChatTransaction(buildChat(ALICE, BOB, Group.NO_GROUP));
+		assertEquals(3, notified.size());
+		assertTrue(notified.containsAll(List.of("all", "alice", "bob")));
+		notified.clear();
+
+		// Direct message, from Chloe to herself
+		chatNotifier.onNewChatTransaction(buildChat(CHLOE, CHLOE, Group.NO_GROUP));
+		assertEquals(List.of("all"), notified);
+		notified.clear();
+
+		// Only unrouted listeners care about group-membership changes
+		chatNotifier.onGroupMembershipChange();
+		assertEquals(List.of("all"), notified);
+		notified.clear();
+
+		// Deregistered sessions aren't notified
+		for (Session session : this.sessions)
+			chatNotifier.deregister(session);
+
+		chatNotifier.onNewChatTransaction(buildChat(ALICE, BOB, 2));
+		assertTrue(notified.isEmpty());
+	}
+
+	@Test
+	public void testReregister() {
+		ChatNotifier chatNotifier = ChatNotifier.getInstance();
+		Session session = newSession();
+
+		List<String> notified = new ArrayList<>();
+
+		chatNotifier.registerForGroup(session, 2, chatTransactionData -> notified.add("group2"));
+		// Replaces previous registration
+		chatNotifier.registerForAddress(session, ALICE, chatTransactionData -> notified.add("alice"));
+
+		chatNotifier.onNewChatTransaction(buildChat(BOB, null, 2));
+		assertTrue(notified.isEmpty());
+
+		chatNotifier.onNewChatTransaction(buildChat(BOB, ALICE, Group.NO_GROUP));
+		assertEquals(List.of("alice"), notified);
+	}
+
+}
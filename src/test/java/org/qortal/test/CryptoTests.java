@@ -30,8 +30,12 @@ import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
 
@@ -365,4 +369,75 @@ public class CryptoTests extends Common {
 
 	}
 
+	private static void buildBatch(int count, List<byte[]> publicKeys, List<byte[]> signatures, List<byte[]> messages) {
+		Random random = new Random(count);
+
+		for (int i = 0; i < count; ++i) {
+			byte[] privateKey = new byte[32];
+			random.nextBytes(privateKey);
+
+			byte[] message = new byte[1 + random.nextInt(200)];
+			random.nextBytes(message);
+
+			publicKeys.add(Crypto.toPublicKey(privateKey));
+			signatures.add(Crypto.sign(privateKey, message));
+			messages.add(message);
+		}
+	}
+
+	@Test
+	public void testVerifyBatch() {
+		List<byte[]> publicKeys = new ArrayList<>();
+		List<byte[]> signatures = new ArrayList<>();
+		List<byte[]> messages = new ArrayList<>();
+		buildBatch(150, publicKeys, signatures, messages);
+
+		assertTrue(Qortal25519Extras.verifyBatch(publicKeys, signatures, messages));
+
+		boolean[] isValid = Crypto.verifyBatch(publicKeys, signatures, messages);
+		for (boolean valid : isValid)
+			assertTrue(valid);
+
+		// Empty batch
+		assertTrue(Qortal25519Extras.verifyBatch(List.of(), List.of(), List.of()));
+		assertEquals(0, Crypto.verifyBatch(List.of(), List.of(), List.of()).length);
+	}
+
+	@Test
+	public void testVerifyBatchFindsInvalid() {
+		List<byte[]> publicKeys = new ArrayList<>();
+		List<byte[]> signatures = new ArrayList<>();
+		List<byte[]> messages = new ArrayList<>();
+		buildBatch(150, publicKeys, signatures, messages);
+
+		// Corrupt R
+		signatures.get(3)[0] ^= 0x01;
+		// Corrupt s
+		signatures.get(70)[40] ^= 0x01;
+		// Wrong message
+		messages.set(71, new byte[] { 1, 2, 3 });
+		// Wrong public key
+		publicKeys.set(100, publicKeys.get(101));
+		// s out of bounds
+		Arrays.fill(signatures.get(149), 32, 64, (byte) 0xff);
+
+		List<Integer> expectedInvalid = List.of(3, 70, 71, 100, 149);
+
+		assertFalse(Qortal25519Extras.verifyBatch(publicKeys, signatures, messages));
+
+		boolean[] isValid = Crypto.verifyBatch(publicKeys, signatures, messages);
+		for (int i = 0; i < isValid.length; ++i) {
+			assertEquals(Crypto.verify(publicKeys.get(i), signatures.get(i), messages.get(i)), isValid[i]);
+			assertEquals(!expectedInvalid.contains(i), isValid[i]);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			boolean[] isValidParallel = Crypto.verifyBatch(publicKeys, signatures, messages, executor);
+			assertTrue(Arrays.equals(isValid, isValidParallel));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 }
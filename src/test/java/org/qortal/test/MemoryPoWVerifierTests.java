@@ -0,0 +1,107 @@
+package org.qortal.test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.qortal.crypto.MemoryPoW;
+import org.qortal.crypto.MemoryPoWVerifier;
+import org.qortal.utils.NTP;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MemoryPoWVerifierTests {
+
+	private static final int WORK_BUFFER_LENGTH = 64 * 1024;
+	private static final int DIFFICULTY = 6;
+
+	private MemoryPoWVerifier verifier;
+
+	private static class Work {
+		final byte[] data;
+		final int nonce;
+
+		Work(byte[] data, int nonce) {
+			this.data = data;
+			this.nonce = nonce;
+		}
+	}
+
+	@Before
+	public void beforeTest() {
+		NTP.setFixedOffset(0L);
+		this.verifier = new MemoryPoWVerifier("Test-PoW", WORK_BUFFER_LENGTH, 4);
+	}
+
+	@After
+	public void afterTest() {
+		this.verifier.shutdown();
+	}
+
+	@Test
+	public void testSeedForNonce() {
+		// Compare against the original one-multiplication-per-nonce approach
+		long seed = 8682522807148012L;
+		final long seedMultiplier = 1181783497276652981L;
+
+		for (int nonce = 0; nonce < 10_000; ++nonce) {
+			seed *= seedMultiplier;
+			assertEquals(seed, MemoryPoW.seedForNonce(nonce));
+		}
+
+		// Negative nonces leave seed untouched
+		assertEquals(8682522807148012L, MemoryPoW.seedForNonce(-1));
+	}
+
+	@Test
+	public void testVerifyMatchesCompute() {
+		Random random = new Random(0L);
+
+		for (int i = 0; i < 5; ++i) {
+			byte[] data = new byte[64];
+			random.nextBytes(data);
+
+			int nonce = MemoryPoW.compute2(data, WORK_BUFFER_LENGTH, DIFFICULTY);
+
+			assertTrue(MemoryPoW.verify2(data, WORK_BUFFER_LENGTH, DIFFICULTY, nonce));
+			assertTrue(this.verifier.verify(data, DIFFICULTY, nonce));
+		}
+	}
+
+	@Test
+	public void testBatchVerification() throws InterruptedException {
+		Random random = new Random(1L);
+		List<Work> works = new ArrayList<>();
+
+		for (int i = 0; i < 20; ++i) {
+			byte[] data = new byte[64];
+			random.nextBytes(data);
+
+			works.add(new Work(data, MemoryPoW.compute2(data, WORK_BUFFER_LENGTH, DIFFICULTY)));
+		}
+
+		assertTrue(this.verifier.verifyAll(works, this::verifyWork));
+		assertEquals(new HashSet<>(works), this.verifier.filterValid(works, this::verifyWork));
+
+		// Find a nonce that doesn't satisfy difficulty, for the first data
+		byte[] badData = works.get(0).data;
+		int badNonce = 0;
+		while (MemoryPoW.verify2(badData, WORK_BUFFER_LENGTH, DIFFICULTY, badNonce))
+			++badNonce;
+
+		Work badWork = new Work(badData, badNonce);
+		works.add(badWork);
+
+		assertFalse(this.verifier.verifyAll(works, this::verifyWork));
+
+		Set<Work> validWorks = this.verifier.filterValid(works, this::verifyWork);
+		assertEquals(works.size() - 1, validWorks.size());
+		assertFalse(validWorks.contains(badWork));
+	}
+
+	private boolean verifyWork(Work work, long[] workBuffer) {
+		return MemoryPoW.verify2(work.data, workBuffer, WORK_BUFFER_LENGTH, DIFFICULTY, work.nonce);
+	}
+
+}
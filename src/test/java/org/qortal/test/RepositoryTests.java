@@ -1,5 +1,6 @@
 package org.qortal.test;
 
+import com.google.common.primitives.Longs;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Before;
@@ -7,26 +8,34 @@ import org.junit.Test;
 import org.qortal.account.Account;
 import org.qortal.account.PublicKeyAccount;
 import org.qortal.asset.Asset;
+import org.qortal.block.BlockChain;
 import org.qortal.crosschain.BitcoinACCTv1;
 import org.qortal.crypto.Crypto;
 import org.qortal.data.account.AccountBalanceData;
 import org.qortal.data.account.AccountData;
 import org.qortal.data.chat.ChatMessage;
+import org.qortal.data.system.DbQueryStats;
 import org.qortal.repository.DataException;
 import org.qortal.repository.Repository;
 import org.qortal.repository.RepositoryManager;
+import org.qortal.repository.hsqldb.HSQLDBMetrics;
+import org.qortal.repository.hsqldb.HSQLDBSaver;
 import org.qortal.repository.hsqldb.HSQLDBRepository;
 import org.qortal.test.common.BlockUtils;
 import org.qortal.test.common.Common;
+import org.qortal.test.common.TestAccount;
 
 import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.*;
 
 import static org.junit.Assert.*;
@@ -353,6 +362,101 @@ public class RepositoryTests extends Common {
 		}
 	}
 
+	@Test
+	public void testMetrics() throws SQLException, DataException {
+		HSQLDBMetrics metrics = HSQLDBMetrics.getInstance();
+		assertTrue(metrics.isEnabled());
+
+		final String sql = "SELECT counter FROM metricstest WHERE counter > ?";
+
+		try (final HSQLDBRepository hsqldb = (HSQLDBRepository) RepositoryManager.getRepository()) {
+			assertTrue(metrics.getOpenSessions() > 0);
+
+			hsqldb.prepareStatement("DROP TABLE IF EXISTS metricstest").execute();
+			hsqldb.prepareStatement("CREATE TABLE metricstest (id INT NOT NULL, counter INT NOT NULL, PRIMARY KEY(id))").execute();
+			hsqldb.prepareStatement("INSERT INTO metricstest (id, counter) VALUES (1, 10), (2, 20), (3, 30)").execute();
+
+			metrics.reset();
+
+			assertNotNull(hsqldb.checkedExecute(sql, 15));
+			assertNull(hsqldb.checkedExecute(sql, 100));
+
+			HSQLDBSaver saveHelper = new HSQLDBSaver("metricstest");
+			saveHelper.bind("id", 4).bind("counter", 40);
+			saveHelper.execute(hsqldb);
+		}
+
+		DbQueryStats queryStats = metrics.getQueries(HSQLDBMetrics.Order.CALLS, 10).stream()
+				.filter(stats -> stats.getSql().equals(sql))
+				.findFirst()
+				.orElse(null);
+
+		assertNotNull(queryStats);
+		assertEquals(2, queryStats.getCalls());
+		assertEquals(0, queryStats.getErrors());
+		// Two rows from first query, none from second
+		assertEquals(2, queryStats.getRows());
+		assertEquals(2, Arrays.stream(queryStats.getLatencyHistogram()).sum());
+
+		// Second query reused cached prepared statement
+		assertTrue(metrics.getStatementCacheHits() >= 1);
+
+		// Saves are counted too
+		DbQueryStats saveStats = metrics.getQueries(HSQLDBMetrics.Order.CALLS, 10).stream()
+				.filter(stats -> stats.getSql().startsWith("INSERT INTO metricstest "))
+				.findFirst()
+				.orElse(null);
+
+		assertNotNull(saveStats);
+		assertEquals(1, saveStats.getCalls());
+		assertEquals(0, saveStats.getErrors());
+		assertEquals(1, saveStats.getRows());
+	}
+
+	@Test
+	public void testBulkAccountFetch() throws DataException {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			List<String> addresses = new ArrayList<>();
+			for (TestAccount testAccount : Common.getTestAccounts(repository))
+				addresses.add(testAccount.getAddress());
+
+			// Enough unknown addresses to need multiple queries, plus a duplicate
+			for (int i = 0; i < 1200; ++i)
+				addresses.add(Crypto.toAddress(Crypto.digest(Longs.toByteArray(i))));
+			addresses.add(addresses.get(0));
+
+			List<AccountData> accounts = repository.getAccountRepository().getAccounts(addresses);
+			Set<String> expectedAddresses = new HashSet<>();
+			for (String address : addresses) {
+				AccountData expectedAccountData = repository.getAccountRepository().getAccount(address);
+				if (expectedAccountData == null)
+					continue;
+
+				expectedAddresses.add(address);
+
+				AccountData accountData = accounts.stream().filter(data -> data.getAddress().equals(address)).findFirst().orElse(null);
+				assertNotNull(accountData);
+				assertEquals(expectedAccountData.getLevel(), accountData.getLevel());
+				assertEquals(expectedAccountData.getFlags(), accountData.getFlags());
+				assertEquals(expectedAccountData.getBlocksMinted(), accountData.getBlocksMinted());
+				assertArrayEquals(expectedAccountData.getPublicKey(), accountData.getPublicKey());
+			}
+			assertEquals(expectedAddresses.size(), accounts.size());
+
+			int mintingGroupId = BlockChain.getInstance().getMintingGroupId();
+			Set<String> expectedMembers = new HashSet<>();
+			for (String address : addresses)
+				if (repository.getGroupRepository().memberExists(mintingGroupId, address))
+					expectedMembers.add(address);
+
+			List<String> members = repository.getGroupRepository().getMemberAddresses(mintingGroupId, addresses);
+			assertEquals(expectedMembers.size(), members.size());
+			assertEquals(expectedMembers, new HashSet<>(members));
+
+			assertTrue(repository.getAccountRepository().getAccounts(Collections.emptyList()).isEmpty());
+		}
+	}
+
 	/**
 	 * Test HSQLDB bug-fix for "General Error" in non-fully-qualified columns inside LATERAL()
 	 * <p>
@@ -0,0 +1,247 @@
+package org.qortal.test;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.qortal.block.Block;
+import org.qortal.block.BlockChain;
+import org.qortal.controller.Controller;
+import org.qortal.controller.Synchronizer;
+import org.qortal.controller.Synchronizer.SynchronizationResult;
+import org.qortal.data.block.BlockData;
+import org.qortal.data.block.BlockSummaryData;
+import org.qortal.data.network.PeerData;
+import org.qortal.event.EventBus;
+import org.qortal.event.Listener;
+import org.qortal.network.Peer;
+import org.qortal.network.PeerAddress;
+import org.qortal.network.message.BlockV2Message;
+import org.qortal.network.message.Message;
+import org.qortal.network.message.MessageException;
+import org.qortal.network.message.MessageType;
+import org.qortal.repository.DataException;
+import org.qortal.repository.Repository;
+import org.qortal.repository.RepositoryManager;
+import org.qortal.test.common.BlockUtils;
+import org.qortal.test.common.Common;
+import org.qortal.transform.TransformationException;
+import org.qortal.transform.block.BlockTransformer;
+import org.qortal.utils.NTP;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SynchronizerTests extends Common {
+
+	private static final int BLOCK_COUNT = 6;
+	private static final int PREFETCH_COUNT = 4;
+
+	/** Peer's blocks above common block, as signatures and height-prefixed BLOCK_V2 message data */
+	private final List<byte[]> peerSignatures = new ArrayList<>();
+	private final List<byte[]> peerBlockBytes = new ArrayList<>();
+
+	/** Serves peer's blocks, with earlier blocks taking longer so fetches complete out of order. */
+	private class StubPeer extends Peer {
+		private final int failIndex;
+		private final int stallIndex;
+
+		private final List<Integer> completionOrder = Collections.synchronizedList(new ArrayList<>());
+		private final CountDownLatch stalledFetchCancelled = new CountDownLatch(1);
+
+		/** @param failIndex index of block not to respond with, or -1
+		 *  @param stallIndex index of block to never respond with, unless interrupted, or -1 */
+		StubPeer(int failIndex, int stallIndex) {
+			super(new PeerData(PeerAddress.fromString("stub.peer:12392")));
+			this.failIndex = failIndex;
+			this.stallIndex = stallIndex;
+		}
+
+		@Override
+		public Message getResponse(Message message) throws InterruptedException {
+			if (message.getType() != MessageType.GET_BLOCK)
+				return null;
+
+			// Outgoing GetBlockMessage only has serialized form
+			byte[] signature;
+			try {
+				signature = (byte[]) FieldUtils.readField(message, "dataBytes", true);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+			int index = indexOfSignature(signature);
+
+			if (index == this.stallIndex) {
+				try {
+					Thread.sleep(Long.MAX_VALUE);
+				} catch (InterruptedException e) {
+					this.stalledFetchCancelled.countDown();
+					throw e;
+				}
+			}
+
+			Thread.sleep((BLOCK_COUNT - index) * 40L);
+			this.completionOrder.add(index);
+
+			if (index == this.failIndex)
+				return null;
+
+			try {
+				return BlockV2Message.fromByteBuffer(0, ByteBuffer.wrap(peerBlockBytes.get(index)));
+			} catch (MessageException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	@Before
+	public void beforeTest() throws DataException {
+		Common.useDefaultSettings();
+	}
+
+	@Test
+	public void testPipelinedBlocksAppliedInOrder() throws Exception {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			BlockData commonBlockData = buildPeerChain(repository);
+			final int commonHeight = commonBlockData.getHeight();
+
+			StubPeer peer = new StubPeer(-1, -1);
+
+			List<Integer> appliedHeights = new ArrayList<>();
+			SynchronizationResult result = applyNewBlocksPipelined(repository, commonBlockData, peer, appliedHeights);
+
+			assertEquals(SynchronizationResult.OK, result);
+
+			// Later blocks were fetched before earlier blocks...
+			assertTrue(peer.completionOrder.indexOf(1) < peer.completionOrder.indexOf(0));
+
+			// ...but blocks were still applied in height order
+			List<Integer> expectedHeights = new ArrayList<>();
+			for (int i = 1; i <= BLOCK_COUNT; ++i)
+				expectedHeights.add(commonHeight + i);
+			assertEquals(expectedHeights, appliedHeights);
+
+			for (int i = 0; i < BLOCK_COUNT; ++i)
+				assertArrayEquals(this.peerSignatures.get(i), repository.getBlockRepository().fromHeight(commonHeight + 1 + i).getSignature());
+		}
+	}
+
+	@Test
+	public void testPipelinedFailureStopsLaterBlocks() throws Exception {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			BlockData commonBlockData = buildPeerChain(repository);
+			final int commonHeight = commonBlockData.getHeight();
+
+			final int failIndex = 2;
+			StubPeer peer = new StubPeer(failIndex, -1);
+
+			List<Integer> appliedHeights = new ArrayList<>();
+			SynchronizationResult result = applyNewBlocksPipelined(repository, commonBlockData, peer, appliedHeights);
+
+			assertEquals(SynchronizationResult.NO_REPLY, result);
+
+			// Blocks after failed block were fetched, but not applied
+			assertTrue(peer.completionOrder.contains(failIndex + 1));
+			assertEquals(Arrays.asList(commonHeight + 1, commonHeight + 2), appliedHeights);
+			assertEquals(commonHeight + failIndex, repository.getBlockRepository().getBlockchainHeight());
+
+			for (int i = failIndex; i < BLOCK_COUNT; ++i)
+				assertNull(repository.getBlockRepository().fromSignature(this.peerSignatures.get(i)));
+		}
+	}
+
+	@Test
+	public void testPipelinedFailureCancelsOutstandingFetches() throws Exception {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			BlockData commonBlockData = buildPeerChain(repository);
+			final int commonHeight = commonBlockData.getHeight();
+
+			// Block at index 3 is in flight when block at index 1 fails
+			StubPeer peer = new StubPeer(1, 3);
+
+			List<Integer> appliedHeights = new ArrayList<>();
+			SynchronizationResult result = applyNewBlocksPipelined(repository, commonBlockData, peer, appliedHeights);
+
+			assertEquals(SynchronizationResult.NO_REPLY, result);
+			assertEquals(Collections.singletonList(commonHeight + 1), appliedHeights);
+
+			// Stalled fetch should have been interrupted, not left waiting for peer
+			assertTrue(peer.stalledFetchCancelled.await(5, TimeUnit.SECONDS));
+			assertFalse(peer.completionOrder.contains(3));
+		}
+	}
+
+	/** Mints peer's blocks, keeping copies, then orphans them back to returned common block. */
+	private BlockData buildPeerChain(Repository repository) throws DataException, TransformationException {
+		// Mint a few blocks so common block isn't genesis
+		BlockUtils.mintBlocks(repository, 2);
+		BlockData commonBlockData = repository.getBlockRepository().getLastBlock();
+
+		Block block = null;
+		for (int i = 0; i < BLOCK_COUNT; ++i) {
+			block = BlockUtils.mintBlock(repository);
+
+			byte[] blockBytes = BlockTransformer.toBytesV2(block);
+			ByteBuffer byteBuffer = ByteBuffer.allocate(4 + blockBytes.length);
+			byteBuffer.putInt(block.getBlockData().getHeight());
+			byteBuffer.put(blockBytes);
+
+			this.peerSignatures.add(block.getSignature());
+			this.peerBlockBytes.add(byteBuffer.array());
+		}
+
+		BlockUtils.orphanToBlock(repository, commonBlockData.getHeight());
+		assertEquals(commonBlockData.getHeight().intValue(), repository.getBlockRepository().getBlockchainHeight());
+
+		// Test accounts' online nonces are random, and replaced with each minted block, so age blocks past nonce checks
+		long peerTipTimestamp = block.getBlockData().getTimestamp();
+		NTP.setFixedOffset(peerTipTimestamp + BlockChain.getInstance().getOnlineAccountSignaturesMinLifetime() - System.currentTimeMillis());
+
+		return commonBlockData;
+	}
+
+	private SynchronizationResult applyNewBlocksPipelined(Repository repository, BlockData commonBlockData, Peer peer,
+			List<Integer> appliedHeights) throws Exception {
+		final int commonHeight = commonBlockData.getHeight();
+
+		List<BlockSummaryData> peerBlockSummaries = new ArrayList<>();
+		for (int i = 0; i < BLOCK_COUNT; ++i)
+			peerBlockSummaries.add(new BlockSummaryData(commonHeight + 1 + i, this.peerSignatures.get(i), null, 0));
+
+		Listener listener = event -> {
+			if (event instanceof Controller.NewBlockEvent)
+				appliedHeights.add(((Controller.NewBlockEvent) event).getBlockData().getHeight());
+		};
+		EventBus.INSTANCE.addListener(listener);
+
+		Method method = Synchronizer.class.getDeclaredMethod("applyNewBlocksPipelined", Repository.class, BlockData.class, int.class,
+				Peer.class, int.class, List.class, int.class);
+		method.setAccessible(true);
+
+		try {
+			return (SynchronizationResult) method.invoke(Synchronizer.getInstance(), repository, commonBlockData, commonHeight,
+					peer, commonHeight + BLOCK_COUNT, peerBlockSummaries, PREFETCH_COUNT);
+		} catch (InvocationTargetException e) {
+			throw (Exception) e.getCause();
+		} finally {
+			EventBus.INSTANCE.removeListener(listener);
+		}
+	}
+
+	private int indexOfSignature(byte[] signature) {
+		for (int i = 0; i < this.peerSignatures.size(); ++i)
+			if (Arrays.equals(this.peerSignatures.get(i), signature))
+				return i;
+
+		return -1;
+	}
+
+}
@@ -0,0 +1,218 @@
+package org.qortal.test;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.qortal.account.PrivateKeyAccount;
+import org.qortal.block.BlockChain;
+import org.qortal.controller.Controller;
+import org.qortal.controller.TransactionImporter;
+import org.qortal.crypto.Crypto;
+import org.qortal.crypto.Qortal25519Extras;
+import org.qortal.data.transaction.TransactionData;
+import org.qortal.network.message.MessageException;
+import org.qortal.network.message.TransactionMessage;
+import org.qortal.repository.DataException;
+import org.qortal.repository.Repository;
+import org.qortal.repository.RepositoryManager;
+import org.qortal.test.common.BlockUtils;
+import org.qortal.test.common.Common;
+import org.qortal.test.common.transaction.PaymentTestTransaction;
+import org.qortal.transaction.Transaction;
+import org.qortal.transform.TransformationException;
+import org.qortal.transform.transaction.TransactionTransformer;
+import org.qortal.utils.Base58;
+import org.qortal.utils.ByteArray;
+import org.qortal.utils.NTP;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TransactionImporterTests extends Common {
+
+	private static final BigInteger P = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+	private static final BigInteger L = BigInteger.ONE.shiftLeft(252).add(new BigInteger("27742317777372353535851937790883648493"));
+
+	private final Random random = new Random(1234L);
+
+	@Before
+	public void beforeTest() throws DataException {
+		Common.useDefaultSettings();
+		NTP.setFixedOffset(0L);
+	}
+
+	// Check that a signature that can pass batch verification, but fails individual verification, isn't imported
+	@Test
+	public void testSmallOrderSignatureRefused() throws DataException, TransformationException, MessageException {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			PrivateKeyAccount alice = Common.getTestAccount(repository, "alice");
+
+			for (int i = 0; i < 8; ++i) {
+				TransactionData transactionData = PaymentTestTransaction.randomTransaction(repository, alice, true);
+				byte[] message = TransactionTransformer.toBytesForSigning(transactionData);
+				transactionData.setSignature(craftSmallOrderSignature(alice.getPrivateKey(), message));
+
+				// Batch verification accepts crafted signature half the time, individual verification never does
+				assertFalse(Crypto.verify(alice.getPublicKey(), transactionData.getSignature(), message));
+				assertTrue(batchEverAccepts(alice.getPublicKey(), transactionData.getSignature(), message));
+
+				// As received from peer
+				byte[] messageBytes = TransactionTransformer.toBytes(transactionData);
+				TransactionImporter.getInstance().onNetworkTransactionMessage(null, TransactionMessage.fromByteBuffer(0, ByteBuffer.wrap(messageBytes)));
+				validateTransactionsInQueue();
+
+				assertFalse(getIncomingTransactions().containsKey(ByteArray.wrap(transactionData.getSignature())));
+				assertTrue(getInvalidUnconfirmedTransactions().containsKey(Base58.encode(transactionData.getSignature())));
+			}
+		}
+	}
+
+	// Check that a transaction with an already-checked signature is still dropped once it expires
+	@Test
+	public void testExpiredSigValidTransactionDropped() throws DataException, TransformationException, MessageException {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			PrivateKeyAccount alice = Common.getTestAccount(repository, "alice");
+
+			// Deadline is just after current chain tip, so will pass once next block is minted
+			Controller.getInstance().refillLatestBlocksCache();
+			long tipTimestamp = Controller.getInstance().getChainTip().getTimestamp();
+
+			TransactionData transactionData = PaymentTestTransaction.randomTransaction(repository, alice, true);
+			transactionData.setTimestamp(tipTimestamp - BlockChain.getInstance().getTransactionExpiryPeriod() + 1);
+			Transaction.fromData(repository, transactionData).sign(alice);
+
+			byte[] messageBytes = TransactionTransformer.toBytes(transactionData);
+			TransactionImporter.getInstance().onNetworkTransactionMessage(null, TransactionMessage.fromByteBuffer(0, ByteBuffer.wrap(messageBytes)));
+			validateTransactionsInQueue();
+
+			// Signature is valid, so transaction is waiting to be imported
+			assertTrue(getIncomingTransactions().containsKey(ByteArray.wrap(transactionData.getSignature())));
+
+			BlockUtils.mintBlock(repository);
+			Controller.getInstance().refillLatestBlocksCache();
+			assertTrue(Transaction.getDeadline(transactionData) <= Controller.getInstance().getChainTip().getTimestamp());
+
+			validateTransactionsInQueue();
+
+			assertFalse(getIncomingTransactions().containsKey(ByteArray.wrap(transactionData.getSignature())));
+			assertTrue(getInvalidUnconfirmedTransactions().containsKey(Base58.encode(transactionData.getSignature())));
+		}
+	}
+
+	/**
+	 * Returns signature (R + T, S) where R = [r]B and T is the point of order 2,
+	 * so that [S]B - [k]A - (R + T) = T instead of the neutral point.
+	 */
+	private byte[] craftSmallOrderSignature(byte[] privateKey, byte[] message) {
+		byte[] publicKey = Crypto.toPublicKey(privateKey);
+		BigInteger a = secretScalar(privateKey);
+
+		byte[] nonceSeed = new byte[32];
+		this.random.nextBytes(nonceSeed);
+		BigInteger r = secretScalar(nonceSeed);
+		byte[] R = Crypto.toPublicKey(nonceSeed);
+
+		// Adding order-2 point (0, -1) to (x, y) gives (-x, -y)
+		byte[] encodedY = Arrays.copyOf(R, 32);
+		boolean isXOdd = (encodedY[31] & 0x80) != 0;
+		encodedY[31] &= 0x7F;
+		BigInteger y = fromLittleEndian(encodedY);
+
+		byte[] perturbedR = toLittleEndian(P.subtract(y));
+		if (!isXOdd)
+			perturbedR[31] |= (byte) 0x80;
+
+		BigInteger k = fromLittleEndian(sha512(perturbedR, publicKey, message)).mod(L);
+		BigInteger s = r.add(k.multiply(a)).mod(L);
+
+		byte[] signature = new byte[64];
+		System.arraycopy(perturbedR, 0, signature, 0, 32);
+		System.arraycopy(toLittleEndian(s), 0, signature, 32, 32);
+		return signature;
+	}
+
+	private static boolean batchEverAccepts(byte[] publicKey, byte[] signature, byte[] message) {
+		for (int i = 0; i < 64; ++i)
+			if (Qortal25519Extras.verifyBatch(List.of(publicKey), List.of(signature), List.of(message)))
+				return true;
+
+		return false;
+	}
+
+	private static BigInteger secretScalar(byte[] seed) {
+		byte[] h = Arrays.copyOf(sha512(seed), 32);
+		h[0] &= (byte) 0xF8;
+		h[31] &= 0x7F;
+		h[31] |= 0x40;
+		return fromLittleEndian(h);
+	}
+
+	private static byte[] sha512(byte[]... inputs) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-512");
+			for (byte[] input : inputs)
+				digest.update(input);
+			return digest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private static BigInteger fromLittleEndian(byte[] bytes) {
+		byte[] bigEndian = new byte[bytes.length];
+		for (int i = 0; i < bytes.length; ++i)
+			bigEndian[i] = bytes[bytes.length - 1 - i];
+
+		return new BigInteger(1, bigEndian);
+	}
+
+	private static byte[] toLittleEndian(BigInteger value) {
+		byte[] littleEndian = new byte[32];
+		byte[] bigEndian = value.toByteArray();
+		for (int i = 0; i < bigEndian.length && i < 32; ++i)
+			littleEndian[i] = bigEndian[bigEndian.length - 1 - i];
+
+		return littleEndian;
+	}
+
+	private static void validateTransactionsInQueue() {
+		try {
+			Method method = TransactionImporter.class.getDeclaredMethod("validateTransactionsInQueue");
+			method.setAccessible(true);
+			method.invoke(TransactionImporter.getInstance());
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<ByteArray, ?> getIncomingTransactions() {
+		return (Map<ByteArray, ?>) getField("incomingTransactions");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Long> getInvalidUnconfirmedTransactions() {
+		return (Map<String, Long>) getField("invalidUnconfirmedTransactions");
+	}
+
+	private static Object getField(String name) {
+		try {
+			Field field = TransactionImporter.class.getDeclaredField(name);
+			field.setAccessible(true);
+			return field.get(TransactionImporter.getInstance());
+		} catch (NoSuchFieldException | IllegalAccessException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+}
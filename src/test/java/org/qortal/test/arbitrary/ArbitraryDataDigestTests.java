@@ -1,5 +1,6 @@
 package org.qortal.test.arbitrary;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.qortal.arbitrary.ArbitraryDataDigest;
@@ -8,13 +9,16 @@ import org.qortal.test.common.Common;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
 import java.util.UUID;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class ArbitraryDataDigestTests extends Common {
 
@@ -59,4 +63,62 @@ public class ArbitraryDataDigestTests extends Common {
         }
     }
 
+    @Test
+    public void testStreamingMatchesInMemoryDigest() throws IOException, DataException {
+        Path dataPath = Files.createTempDirectory("qortal-digest-test");
+        try {
+            // A file larger than the streaming read buffer, plus some small files in subdirectories
+            Random random = new Random(0L);
+            byte[] largeData = new byte[1024 * 1024 + 123];
+            random.nextBytes(largeData);
+            Files.write(dataPath.resolve("large.bin"), largeData);
+
+            Files.createDirectories(dataPath.resolve("sub/dir"));
+            Files.write(dataPath.resolve("sub/a.txt"), "a".getBytes(StandardCharsets.UTF_8));
+            Files.write(dataPath.resolve("sub/dir/b.txt"), "bb".getBytes(StandardCharsets.UTF_8));
+            Files.write(dataPath.resolve("empty.txt"), new byte[0]);
+
+            // Expected version 1 digest, using the original read-everything-into-memory approach
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (String relativePath : new String[] { "empty.txt", "large.bin", "sub/a.txt", "sub/dir/b.txt" }) {
+                sha256.update(Paths.get(relativePath).toString().getBytes(StandardCharsets.UTF_8));
+                sha256.update(Files.readAllBytes(dataPath.resolve(relativePath)));
+            }
+            byte[] expectedHash = sha256.digest();
+
+            ArbitraryDataDigest digest = new ArbitraryDataDigest(dataPath);
+            digest.compute();
+            assertArrayEquals(expectedHash, digest.getHash());
+
+            // Version 2 digest should be deterministic, and differ from version 1
+            ArbitraryDataDigest digestV2 = new ArbitraryDataDigest(dataPath, ArbitraryDataDigest.V2);
+            digestV2.compute();
+            assertFalse(digestV2.isHashValid(expectedHash));
+
+            for (int i = 0; i < 10; i++) {
+                ArbitraryDataDigest repeatDigest = new ArbitraryDataDigest(dataPath, ArbitraryDataDigest.V2);
+                repeatDigest.compute();
+                assertTrue(repeatDigest.isHashValid(digestV2.getHash()));
+            }
+
+            // .qortal folder is excluded from version 2 too
+            Files.createDirectories(dataPath.resolve(".qortal"));
+            Files.write(dataPath.resolve(".qortal/cache"), UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+            ArbitraryDataDigest qortalDigest = new ArbitraryDataDigest(dataPath, ArbitraryDataDigest.V2);
+            qortalDigest.compute();
+            assertTrue(qortalDigest.isHashValid(digestV2.getHash()));
+
+            // Modifying a file changes version 2 digest
+            Files.write(dataPath.resolve("sub/a.txt"), "A".getBytes(StandardCharsets.UTF_8));
+            ArbitraryDataDigest modifiedDigest = new ArbitraryDataDigest(dataPath, ArbitraryDataDigest.V2);
+            modifiedDigest.compute();
+            assertFalse(modifiedDigest.isHashValid(digestV2.getHash()));
+
+        } catch (NoSuchAlgorithmException e) {
+            fail("SHA-256 unavailable");
+        } finally {
+            FileUtils.deleteDirectory(dataPath.toFile());
+        }
+    }
+
 }
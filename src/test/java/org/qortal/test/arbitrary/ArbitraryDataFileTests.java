@@ -3,9 +3,17 @@ package org.qortal.test.arbitrary;
 import org.junit.Before;
 import org.junit.Test;
 import org.qortal.arbitrary.ArbitraryDataFile;
+import org.qortal.arbitrary.ArbitraryDataFileChunk;
+import org.qortal.crypto.Crypto;
 import org.qortal.repository.DataException;
 import org.qortal.test.common.Common;
+import org.qortal.utils.Base58;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
 import java.util.Random;
 
 import static org.junit.Assert.*;
@@ -76,4 +84,94 @@ public class ArbitraryDataFileTests extends Common {
 		assertEquals(originalFileDigest, arbitraryDataFile.digest58());
 	}
 
+	@Test
+	public void testSplitAndJoinAcrossChunkBoundary() throws DataException, IOException {
+		// One byte over a chunk boundary, so final chunk is a single byte
+		int fileSize = 3 * ArbitraryDataFile.CHUNK_SIZE + 1;
+		byte[] randomData = new byte[fileSize];
+		new Random().nextBytes(randomData); // No need for SecureRandom here
+
+		ArbitraryDataFile arbitraryDataFile = new ArbitraryDataFile(randomData, null, false);
+		arbitraryDataFile.save();
+		String originalFileDigest = arbitraryDataFile.digest58();
+
+		arbitraryDataFile.split(ArbitraryDataFile.CHUNK_SIZE);
+		assertEquals(4, arbitraryDataFile.chunkCount());
+		assertEquals(1, arbitraryDataFile.getChunks().get(3).size());
+
+		arbitraryDataFile.delete();
+		assertFalse(arbitraryDataFile.exists());
+
+		assertTrue(arbitraryDataFile.join());
+		assertArrayEquals(randomData, Files.readAllBytes(arbitraryDataFile.getFilePath()));
+		assertEquals(originalFileDigest, arbitraryDataFile.digest58());
+	}
+
+	@Test
+	public void testSplitAndJoinExactMultipleOfChunkSize() throws DataException, IOException {
+		int fileSize = 4 * ArbitraryDataFile.CHUNK_SIZE;
+		byte[] randomData = new byte[fileSize];
+		new Random().nextBytes(randomData); // No need for SecureRandom here
+
+		ArbitraryDataFile arbitraryDataFile = new ArbitraryDataFile(randomData, null, false);
+		arbitraryDataFile.save();
+		String originalFileDigest = arbitraryDataFile.digest58();
+
+		// Should be exactly 4 full chunks, without an empty trailing chunk
+		arbitraryDataFile.split(ArbitraryDataFile.CHUNK_SIZE);
+		assertEquals(4, arbitraryDataFile.chunkCount());
+		for (ArbitraryDataFileChunk chunk : arbitraryDataFile.getChunks())
+			assertEquals(ArbitraryDataFile.CHUNK_SIZE, chunk.size());
+
+		arbitraryDataFile.delete();
+		assertFalse(arbitraryDataFile.exists());
+
+		assertTrue(arbitraryDataFile.join());
+		assertArrayEquals(randomData, Files.readAllBytes(arbitraryDataFile.getFilePath()));
+		assertEquals(originalFileDigest, arbitraryDataFile.digest58());
+	}
+
+	@Test
+	public void testJoinedDigestNotStale() throws DataException, IOException {
+		int fileSize = 2 * ArbitraryDataFile.CHUNK_SIZE + 100;
+		byte[] randomData = new byte[fileSize];
+		new Random().nextBytes(randomData); // No need for SecureRandom here
+
+		ArbitraryDataFile arbitraryDataFile = new ArbitraryDataFile(randomData, null, false);
+		arbitraryDataFile.save();
+		String originalFileDigest = arbitraryDataFile.digest58();
+
+		arbitraryDataFile.split(ArbitraryDataFile.CHUNK_SIZE);
+		arbitraryDataFile.delete();
+		assertTrue(arbitraryDataFile.join());
+		assertEquals(originalFileDigest, arbitraryDataFile.digest58());
+
+		// Overwrite joined file with different data of the same length
+		Path filePath = arbitraryDataFile.getFilePath();
+		FileTime joinedModifiedTime = Files.getLastModifiedTime(filePath);
+		byte[] otherData = new byte[fileSize];
+		new Random().nextBytes(otherData);
+		Files.write(filePath, otherData);
+		Files.setLastModifiedTime(filePath, FileTime.fromMillis(joinedModifiedTime.toMillis() + 2000L));
+
+		// Digest should be of new file contents, not digest cached while joining
+		assertEquals(Base58.encode(Crypto.digest(otherData)), arbitraryDataFile.digest58());
+
+		// Re-joining restores original file, and its digest
+		assertTrue(arbitraryDataFile.join());
+		assertEquals(originalFileDigest, arbitraryDataFile.digest58());
+
+		// Truncate joined file, but keep its modification time
+		joinedModifiedTime = Files.getLastModifiedTime(filePath);
+		byte[] truncatedData = Arrays.copyOf(randomData, 100);
+		Files.write(filePath, truncatedData);
+		Files.setLastModifiedTime(filePath, joinedModifiedTime);
+		assertEquals(Base58.encode(Crypto.digest(truncatedData)), arbitraryDataFile.digest58());
+
+		// No digest once joined file is deleted
+		assertTrue(arbitraryDataFile.join());
+		arbitraryDataFile.delete();
+		assertNull(arbitraryDataFile.digest58());
+	}
+
 }
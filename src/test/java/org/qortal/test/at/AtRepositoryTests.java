@@ -1,6 +1,8 @@
 package org.qortal.test.at;
 
+import org.ciyam.at.CompilationException;
 import org.ciyam.at.MachineState;
+import org.ciyam.at.OpCode;
 import org.junit.Before;
 import org.junit.Test;
 import org.qortal.account.PrivateKeyAccount;
@@ -14,6 +16,7 @@ import org.qortal.test.common.BlockUtils;
 import org.qortal.test.common.Common;
 import org.qortal.transaction.DeployAtTransaction;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -412,4 +415,78 @@ public class AtRepositoryTests extends Common {
 			assertNull(atStateData.getStateData());
 		}
 	}
+
+	@Test
+	public void testGetExecutableATsSkipsSleepingATs() throws DataException {
+		final int sleepPeriod = 10;
+		byte[] creationBytes = buildSleepingAT(sleepPeriod);
+
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			PrivateKeyAccount deployer = Common.getTestAccount(repository, "alice");
+
+			long fundingAmount = 1_00000000L;
+			DeployAtTransaction deployAtTransaction = AtUtils.doDeployAT(repository, deployer, creationBytes, fundingAmount);
+			String atAddress = deployAtTransaction.getATAccount().getAddress();
+
+			// Mint block to allow AT to run, and go to sleep
+			BlockUtils.mintBlock(repository);
+			int sleepHeight = repository.getBlockRepository().getBlockchainHeight();
+
+			ATData atData = repository.getATRepository().fromATAddress(atAddress);
+			assertTrue(atData.getIsSleeping());
+			int wakeHeight = atData.getSleepUntilHeight();
+			assertTrue(wakeHeight > sleepHeight + 2);
+
+			// Sleeping AT is only due to run once blockchain reaches wake height
+			assertTrue(containsAT(repository.getATRepository().getAllExecutableATs(), atAddress));
+			assertFalse(containsAT(repository.getATRepository().getExecutableATs(sleepHeight), atAddress));
+			assertFalse(containsAT(repository.getATRepository().getExecutableATs(wakeHeight - 1), atAddress));
+			assertTrue(containsAT(repository.getATRepository().getExecutableATs(wakeHeight), atAddress));
+
+			// No AT states while sleeping
+			BlockUtils.mintBlocks(repository, wakeHeight - sleepHeight);
+			assertEquals(sleepHeight, repository.getATRepository().getLatestATState(atAddress).getHeight().intValue());
+
+			// AT wakes, runs and goes back to sleep
+			BlockUtils.mintBlock(repository);
+			ATStateData wokenAtStateData = repository.getATRepository().getLatestATState(atAddress);
+			assertEquals(wakeHeight + 1, wokenAtStateData.getHeight().intValue());
+			assertArrayEquals(wokenAtStateData.getStateHash(), repository.getATRepository().getLatestATStateHash(atAddress));
+
+			// Orphan back to before AT woke, then re-mint, which should produce the same AT state
+			BlockUtils.orphanToBlock(repository, wakeHeight - 1);
+			assertEquals(sleepHeight, repository.getATRepository().getLatestATState(atAddress).getHeight().intValue());
+			assertTrue(repository.getATRepository().fromATAddress(atAddress).getIsSleeping());
+
+			BlockUtils.mintBlocks(repository, 2);
+			ATStateData reWokenAtStateData = repository.getATRepository().getLatestATState(atAddress);
+			assertEquals(wakeHeight + 1, reWokenAtStateData.getHeight().intValue());
+			assertArrayEquals(wokenAtStateData.getStateHash(), reWokenAtStateData.getStateHash());
+		}
+	}
+
+	private static boolean containsAT(List<ATData> atDataList, String atAddress) {
+		return atDataList.stream().anyMatch(atData -> atData.getATAddress().equals(atAddress));
+	}
+
+	private static byte[] buildSleepingAT(int sleepPeriod) {
+		ByteBuffer codeByteBuffer = ByteBuffer.allocate(512);
+
+		try {
+			// Sleep for a number of blocks, then repeat
+			codeByteBuffer.put(OpCode.SLP_VAL.compile((long) sleepPeriod));
+			codeByteBuffer.put(OpCode.JMP_ADR.compile(0));
+		} catch (CompilationException e) {
+			throw new IllegalStateException("Unable to compile AT?", e);
+		}
+
+		codeByteBuffer.flip();
+
+		byte[] codeBytes = new byte[codeByteBuffer.limit()];
+		codeByteBuffer.get(codeBytes);
+
+		byte[] dataBytes = new byte[MachineState.VALUE_SIZE];
+
+		return MachineState.toCreationBytes((short) 2, codeBytes, dataBytes, (short) 0, (short) 0, 0L);
+	}
 }
@@ -0,0 +1,373 @@
+package org.qortal.test.crosschain;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.qortal.crosschain.*;
+import org.qortal.crosschain.ChainableServer.ConnectionType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/** Tests ElectrumX client against a local stub server, so no network access is needed. */
+public class ElectrumXStubTests {
+
+	static {
+		// This must go before any calls to LogManager/Logger
+		System.setProperty("java.util.logging.manager", "org.apache.logging.log4j.jul.LogManager");
+	}
+
+	private static final int CONCURRENT_REQUESTS = 4;
+	private static final String UNKNOWN_TX_HASH = "ff".repeat(32);
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private StubServer stubServer;
+	private ElectrumX electrumX;
+
+	@Before
+	public void beforeTest() throws IOException {
+		this.stubServer = new StubServer();
+
+		Map<ConnectionType, Integer> defaultPorts = new EnumMap<>(ConnectionType.class);
+		defaultPorts.put(ConnectionType.TCP, this.stubServer.getPort());
+
+		ElectrumX.Server server = new ElectrumX.Server("127.0.0.1", ConnectionType.TCP, this.stubServer.getPort());
+		this.electrumX = new ElectrumX("Stub-TEST", null, List.of(server), defaultPorts);
+	}
+
+	@After
+	public void afterTest() throws IOException {
+		this.stubServer.close();
+	}
+
+	@Test
+	public void testPipelinedRequests() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+
+		try {
+			List<Future<List<byte[]>>> futures = new ArrayList<>();
+			for (int i = 0; i < CONCURRENT_REQUESTS; ++i) {
+				final int startHeight = i + 1;
+				futures.add(executor.submit(() -> this.electrumX.getRawBlockHeaders(startHeight, 1)));
+			}
+
+			// Stub only replies once all requests have arrived, in reverse order
+			for (int i = 0; i < CONCURRENT_REQUESTS; ++i) {
+				List<byte[]> headers = futures.get(i).get(10, TimeUnit.SECONDS);
+				assertEquals(1, headers.size());
+				assertEquals("Response matched to wrong request", i + 1, headers.get(0)[0]);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(CONCURRENT_REQUESTS, this.stubServer.maxPendingHeaderRequests.get());
+		assertEquals(1, this.stubServer.connectionCount.get());
+	}
+
+	@Test
+	public void testBatchedTransactions() throws ForeignBlockchainException {
+		List<String> txHashes = new ArrayList<>();
+		for (int i = 1; i <= 5; ++i)
+			txHashes.add(String.format("%064x", i));
+
+		List<BitcoinyTransaction> transactions = this.electrumX.getTransactions(txHashes);
+
+		assertEquals(txHashes.size(), transactions.size());
+		for (int i = 0; i < txHashes.size(); ++i) {
+			assertEquals(txHashes.get(i), transactions.get(i).txHash);
+			assertEquals(i + 1, transactions.get(i).outputs.get(0).value);
+		}
+
+		assertEquals(1, this.stubServer.batchCount.get());
+		assertEquals(0, this.stubServer.singleTransactionCount.get());
+
+		// Cached, so no more requests
+		this.electrumX.getTransactions(txHashes);
+		assertEquals(1, this.stubServer.batchCount.get());
+	}
+
+	@Test
+	public void testBatchedUnknownTransaction() throws ForeignBlockchainException {
+		List<String> txHashes = List.of(String.format("%064x", 1), UNKNOWN_TX_HASH);
+
+		try {
+			this.electrumX.getTransactions(txHashes);
+			fail("Unknown transaction should cause NotFoundException");
+		} catch (ForeignBlockchainException.NotFoundException e) {
+			// Expected
+		}
+
+		// Unknown transaction was retried individually
+		assertEquals(1, this.stubServer.batchCount.get());
+		assertEquals(1, this.stubServer.singleTransactionCount.get());
+
+		// Known transaction was cached from batch
+		assertNotNull(this.electrumX.getTransaction(String.format("%064x", 1)));
+		assertEquals(1, this.stubServer.singleTransactionCount.get());
+	}
+
+	@Test
+	public void testPersistentCache() throws ForeignBlockchainException {
+		Path cachePath = this.temporaryFolder.getRoot().toPath().resolve("Stub-TEST.dat");
+
+		ForeignChainCache persistentCache = new ForeignChainCache(cachePath, 100);
+		this.electrumX.setPersistentCache(persistentCache);
+
+		String txHash = String.format("%064x", 1);
+		this.electrumX.getTransaction(txHash);
+		assertEquals(1, this.stubServer.singleTransactionCount.get());
+		persistentCache.close();
+
+		// As if restarted
+		ElectrumX.Server server = new ElectrumX.Server("127.0.0.1", ConnectionType.TCP, this.stubServer.getPort());
+		ElectrumX restartedElectrumX = new ElectrumX("Stub-TEST", null, List.of(server), Map.of(ConnectionType.TCP, this.stubServer.getPort()));
+		restartedElectrumX.setPersistentCache(new ForeignChainCache(cachePath, 100));
+
+		assertEquals(txHash, restartedElectrumX.getTransaction(txHash).txHash);
+		assertEquals(1, this.stubServer.singleTransactionCount.get());
+	}
+
+	/** Minimal ElectrumX server, answering each request line on its own thread. */
+	private static class StubServer {
+		private final ServerSocket serverSocket;
+		private final ExecutorService executor = Executors.newCachedThreadPool();
+		private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+		private final AtomicInteger connectionCount = new AtomicInteger();
+		private final AtomicInteger batchCount = new AtomicInteger();
+		private final AtomicInteger singleTransactionCount = new AtomicInteger();
+		private final AtomicInteger maxPendingHeaderRequests = new AtomicInteger();
+
+		private final List<JSONObject> pendingHeaderRequests = new ArrayList<>();
+
+		StubServer() throws IOException {
+			this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+			this.executor.execute(this::acceptConnections);
+		}
+
+		int getPort() {
+			return this.serverSocket.getLocalPort();
+		}
+
+		void close() throws IOException {
+			this.serverSocket.close();
+			for (Socket socket : this.sockets)
+				socket.close();
+
+			this.executor.shutdownNow();
+		}
+
+		private void acceptConnections() {
+			try {
+				while (true) {
+					Socket socket = this.serverSocket.accept();
+					this.sockets.add(socket);
+					this.connectionCount.incrementAndGet();
+					this.executor.execute(() -> this.readRequests(socket));
+				}
+			} catch (IOException e) {
+				// Closed
+			}
+		}
+
+		private void readRequests(Socket socket) {
+			try {
+				BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				OutputStream outputStream = socket.getOutputStream();
+
+				String line;
+				while ((line = reader.readLine()) != null) {
+					Object requestObj = JSONValue.parse(line);
+
+					if (requestObj instanceof JSONArray) {
+						this.batchCount.incrementAndGet();
+						this.executor.execute(() -> this.answerBatch((JSONArray) requestObj, outputStream));
+					} else {
+						this.executor.execute(() -> this.answer((JSONObject) requestObj, outputStream));
+					}
+				}
+			} catch (IOException e) {
+				// Closed
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void answerBatch(JSONArray batchJson, OutputStream outputStream) {
+			JSONArray responses = new JSONArray();
+			for (Object requestObj : batchJson)
+				responses.add(this.buildResponse((JSONObject) requestObj));
+
+			// Responses can be in any order
+			Collections.reverse(responses);
+			send(outputStream, responses.toJSONString());
+		}
+
+		private void answer(JSONObject requestJson, OutputStream outputStream) {
+			if ("blockchain.transaction.get".equals(requestJson.get("method")))
+				this.singleTransactionCount.incrementAndGet();
+
+			if (!"blockchain.block.headers".equals(requestJson.get("method"))) {
+				send(outputStream, this.buildResponse(requestJson).toJSONString());
+				return;
+			}
+
+			List<JSONObject> requests;
+			synchronized (this.pendingHeaderRequests) {
+				this.pendingHeaderRequests.add(requestJson);
+				this.maxPendingHeaderRequests.accumulateAndGet(this.pendingHeaderRequests.size(), Math::max);
+
+				if (this.pendingHeaderRequests.size() < CONCURRENT_REQUESTS)
+					return;
+
+				requests = new ArrayList<>(this.pendingHeaderRequests);
+				this.pendingHeaderRequests.clear();
+			}
+
+			Collections.reverse(requests);
+			for (JSONObject request : requests)
+				send(outputStream, this.buildResponse(request).toJSONString());
+		}
+
+		@SuppressWarnings("unchecked")
+		private JSONObject buildResponse(JSONObject requestJson) {
+			JSONArray params = (JSONArray) requestJson.get("params");
+
+			JSONObject responseJson = new JSONObject();
+			responseJson.put("id", requestJson.get("id"));
+			responseJson.put("jsonrpc", "2.0");
+
+			switch ((String) requestJson.get("method")) {
+				case "server.version":
+					responseJson.put("result", List.of("Stub 1.0", "1.4"));
+					break;
+
+				case "server.features": {
+					JSONObject features = new JSONObject();
+					features.put("protocol_min", "1.4");
+					features.put("protocol_max", "1.4");
+					responseJson.put("result", features);
+					break;
+				}
+
+				case "server.peers.subscribe":
+					responseJson.put("result", new JSONArray());
+					break;
+
+				case "blockchain.block.headers": {
+					int startHeight = ((Long) params.get(0)).intValue();
+					byte[] header = new byte[80];
+					header[0] = (byte) startHeight;
+
+					JSONObject result = new JSONObject();
+					result.put("count", 1L);
+					result.put("hex", bytesToHex(header));
+					responseJson.put("result", result);
+					break;
+				}
+
+				case "blockchain.transaction.get": {
+					String txHash = (String) params.get(0);
+
+					if (txHash.equals(UNKNOWN_TX_HASH)) {
+						JSONObject error = new JSONObject();
+						error.put("code", 2L);
+						error.put("message", "daemon error: DaemonError({'code': -5, 'message': 'No such mempool or blockchain transaction.'})");
+						responseJson.put("error", error);
+						break;
+					}
+
+					responseJson.put("result", buildTransaction(txHash));
+					break;
+				}
+
+				default:
+					JSONObject error = new JSONObject();
+					error.put("code", -32601L);
+					error.put("message", "unknown method");
+					responseJson.put("error", error);
+					break;
+			}
+
+			return responseJson;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static JSONObject buildTransaction(String txHash) {
+			JSONObject scriptSig = new JSONObject();
+			scriptSig.put("hex", "00");
+
+			JSONObject input = new JSONObject();
+			input.put("scriptSig", scriptSig);
+			input.put("sequence", 0L);
+			input.put("txid", "00".repeat(32));
+			input.put("vout", 0L);
+
+			JSONArray addresses = new JSONArray();
+			addresses.add("stub-address");
+
+			JSONObject scriptPubKey = new JSONObject();
+			scriptPubKey.put("hex", "00");
+			scriptPubKey.put("addresses", addresses);
+
+			// Value, in whole coins, matches transaction number
+			JSONObject output = new JSONObject();
+			output.put("value", Long.parseLong(txHash, 16) / 100000000.0);
+			output.put("scriptPubKey", scriptPubKey);
+
+			JSONArray inputs = new JSONArray();
+			inputs.add(input);
+
+			JSONArray outputs = new JSONArray();
+			outputs.add(output);
+
+			JSONObject transaction = new JSONObject();
+			transaction.put("txid", txHash);
+			transaction.put("size", 100L);
+			transaction.put("locktime", 0L);
+			transaction.put("time", 1600000000L);
+			transaction.put("vin", inputs);
+			transaction.put("vout", outputs);
+			return transaction;
+		}
+
+		private static String bytesToHex(byte[] bytes) {
+			StringBuilder sb = new StringBuilder();
+			for (byte b : bytes)
+				sb.append(String.format("%02x", b));
+
+			return sb.toString();
+		}
+
+		private static void send(OutputStream outputStream, String response) {
+			try {
+				synchronized (outputStream) {
+					outputStream.write((response + "\n").getBytes(StandardCharsets.UTF_8));
+					outputStream.flush();
+				}
+			} catch (IOException e) {
+				// Client went away
+			}
+		}
+	}
+
+}
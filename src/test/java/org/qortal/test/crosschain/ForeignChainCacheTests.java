@@ -0,0 +1,146 @@
+package org.qortal.test.crosschain;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.qortal.crosschain.BitcoinyTransaction;
+import org.qortal.crosschain.ForeignChainCache;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ForeignChainCacheTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private static String txHash(int i) {
+		return String.format("%064x", i);
+	}
+
+	private static BitcoinyTransaction buildTransaction(int i) {
+		List<BitcoinyTransaction.Input> inputs = List.of(new BitcoinyTransaction.Input("00".repeat(40000), -1, txHash(i + 1000), 1));
+		List<BitcoinyTransaction.Output> outputs = List.of(
+				new BitcoinyTransaction.Output("76a914", i * 1000L, List.of("address-" + i)),
+				new BitcoinyTransaction.Output("6a", 0L, null));
+
+		return new BitcoinyTransaction(txHash(i), 250, 0, 1600000000 + i, inputs, outputs);
+	}
+
+	@Test
+	public void testPersistence() throws IOException {
+		Path path = this.temporaryFolder.getRoot().toPath().resolve("Test-MAIN.dat");
+
+		ForeignChainCache cache = new ForeignChainCache(path, 100);
+		cache.putTransaction(buildTransaction(1));
+		cache.putRawTransaction(txHash(2), new byte[] { 1, 2, 3 });
+		cache.putBlockHeader(1234, new byte[80]);
+		cache.close();
+
+		cache = new ForeignChainCache(path, 100);
+		assertEquals(3, cache.size());
+
+		assertEquals(buildTransaction(1), cache.getTransaction(txHash(1)));
+		BitcoinyTransaction transaction = cache.getTransaction(txHash(1));
+		assertEquals(40000 * 2, transaction.inputs.get(0).scriptSig.length());
+		assertEquals(1000L, transaction.outputs.get(0).value);
+		assertEquals(List.of("address-1"), transaction.outputs.get(0).addresses);
+		assertNull(transaction.outputs.get(1).addresses);
+		assertEquals(Integer.valueOf(1600000001), transaction.timestamp);
+
+		assertArrayEquals(new byte[] { 1, 2, 3 }, cache.getRawTransaction(txHash(2)));
+		assertEquals(80, cache.getBlockHeader(1234).length);
+		assertNull(cache.getBlockHeader(1235));
+		cache.close();
+	}
+
+	@Test
+	public void testLongStrings() throws IOException {
+		Path path = this.temporaryFolder.getRoot().toPath().resolve("Test-MAIN.dat");
+
+		// Longer than writeUTF() allows
+		String longAddress = "a".repeat(70000);
+		String longTxHash = "f".repeat(70000);
+
+		List<BitcoinyTransaction.Output> outputs = List.of(new BitcoinyTransaction.Output("6a", 0L, List.of(longAddress)));
+		BitcoinyTransaction transaction = new BitcoinyTransaction(longTxHash, 250, 0, null, List.of(), outputs);
+
+		ForeignChainCache cache = new ForeignChainCache(path, 100);
+		cache.putTransaction(transaction);
+		cache.putRawTransaction(longTxHash, new byte[] { 1 });
+
+		// Still persisting after long strings
+		cache.putRawTransaction(txHash(1), new byte[] { 2 });
+		cache.close();
+
+		cache = new ForeignChainCache(path, 100);
+		assertEquals(3, cache.size());
+		assertEquals(transaction, cache.getTransaction(longTxHash));
+		assertArrayEquals(new byte[] { 1 }, cache.getRawTransaction(longTxHash));
+		assertArrayEquals(new byte[] { 2 }, cache.getRawTransaction(txHash(1)));
+		cache.close();
+	}
+
+	@Test
+	public void testEviction() throws IOException {
+		Path path = this.temporaryFolder.getRoot().toPath().resolve("Test-MAIN.dat");
+
+		ForeignChainCache cache = new ForeignChainCache(path, 10);
+		for (int i = 0; i < 10; ++i)
+			cache.putRawTransaction(txHash(i), new byte[] { (byte) i });
+
+		// Recently used entries survive
+		assertNotNull(cache.getRawTransaction(txHash(0)));
+
+		// Enough to trigger file rewrite, too
+		for (int i = 10; i < 25; ++i)
+			cache.putRawTransaction(txHash(i), new byte[] { (byte) i });
+
+		assertEquals(10, cache.size());
+		cache.close();
+
+		long compactedLength = path.toFile().length();
+
+		cache = new ForeignChainCache(path, 10);
+		assertEquals(10, cache.size());
+		assertNull(cache.getRawTransaction(txHash(0)));
+		assertNull(cache.getRawTransaction(txHash(1)));
+		assertNotNull(cache.getRawTransaction(txHash(24)));
+		cache.close();
+
+		assertTrue(path.toFile().length() <= compactedLength);
+	}
+
+	@Test
+	public void testTruncatedFile() throws IOException {
+		Path path = this.temporaryFolder.getRoot().toPath().resolve("Test-MAIN.dat");
+
+		ForeignChainCache cache = new ForeignChainCache(path, 100);
+		cache.putRawTransaction(txHash(1), new byte[] { 1 });
+		cache.putRawTransaction(txHash(2), new byte[] { 2 });
+		cache.close();
+
+		// Simulate crash part-way through writing last record
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.setLength(file.length() - 1);
+		}
+
+		cache = new ForeignChainCache(path, 100);
+		assertEquals(1, cache.size());
+		assertNotNull(cache.getRawTransaction(txHash(1)));
+
+		// Damaged record was discarded, so new records are readable
+		cache.putRawTransaction(txHash(3), new byte[] { 3 });
+		cache.close();
+
+		cache = new ForeignChainCache(path, 100);
+		assertEquals(2, cache.size());
+		assertNotNull(cache.getRawTransaction(txHash(3)));
+		cache.close();
+	}
+
+}
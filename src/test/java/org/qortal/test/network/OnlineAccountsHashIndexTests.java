@@ -0,0 +1,115 @@
+package org.qortal.test.network;
+
+import org.junit.Test;
+import org.qortal.controller.OnlineAccountsHashIndex;
+import org.qortal.data.network.OnlineAccountData;
+import org.qortal.transform.Transformer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class OnlineAccountsHashIndexTests {
+
+    private static final long TIMESTAMP = 1_700_000_100_000L;
+
+    private final Random random = new Random(0L);
+
+    private OnlineAccountData randomOnlineAccount(long timestamp) {
+        byte[] signature = new byte[Transformer.SIGNATURE_LENGTH];
+        random.nextBytes(signature);
+
+        byte[] publicKey = new byte[Transformer.PUBLIC_KEY_LENGTH];
+        random.nextBytes(publicKey);
+        // Restrict leading byte so buckets have several accounts
+        publicKey[0] &= 0x0f;
+
+        return new OnlineAccountData(timestamp, signature, publicKey, random.nextInt(500000));
+    }
+
+    /** Builds hashes from scratch, as OnlineAccountsManager used to. */
+    private static Map<Long, Map<Byte, byte[]>> rebuildHashes(Collection<OnlineAccountData> onlineAccounts) {
+        Map<Long, Map<Byte, byte[]>> hashesByTimestampThenByte = new HashMap<>();
+
+        for (OnlineAccountData onlineAccountData : onlineAccounts)
+            hashesByTimestampThenByte
+                    .computeIfAbsent(onlineAccountData.getTimestamp(), k -> new HashMap<>())
+                    .compute(onlineAccountData.getPublicKey()[0], (k, v) -> OnlineAccountsHashIndex.xorByteArrayInPlace(v, onlineAccountData.getPublicKey()));
+
+        return hashesByTimestampThenByte;
+    }
+
+    private static void assertHashesEqual(Map<Long, Map<Byte, byte[]>> expected, Map<Long, Map<Byte, byte[]>> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+
+        for (Long timestamp : expected.keySet()) {
+            Map<Byte, byte[]> expectedInnerMap = expected.get(timestamp);
+            Map<Byte, byte[]> actualInnerMap = actual.get(timestamp);
+
+            assertEquals(expectedInnerMap.keySet(), actualInnerMap.keySet());
+            for (Byte leadingByte : expectedInnerMap.keySet())
+                assertArrayEquals(expectedInnerMap.get(leadingByte), actualInnerMap.get(leadingByte));
+        }
+    }
+
+    @Test
+    public void testIncrementalMatchesRebuild() {
+        OnlineAccountsHashIndex index = new OnlineAccountsHashIndex();
+        List<OnlineAccountData> onlineAccounts = new ArrayList<>();
+
+        for (int i = 0; i < 500; ++i) {
+            OnlineAccountData onlineAccountData = randomOnlineAccount(TIMESTAMP + (i % 3) * 300_000L);
+            onlineAccounts.add(onlineAccountData);
+            index.add(onlineAccountData);
+        }
+
+        assertHashesEqual(rebuildHashes(onlineAccounts), index.getHashesByTimestampThenByte());
+
+        // Remove some accounts
+        Collections.shuffle(onlineAccounts, random);
+        for (int i = 0; i < 200; ++i)
+            index.remove(onlineAccounts.remove(onlineAccounts.size() - 1));
+
+        assertHashesEqual(rebuildHashes(onlineAccounts), index.getHashesByTimestampThenByte());
+
+        // Remove all accounts for one timestamp
+        index.removeOlderThan(TIMESTAMP + 300_000L);
+        onlineAccounts.removeIf(onlineAccountData -> onlineAccountData.getTimestamp() < TIMESTAMP + 300_000L);
+
+        assertHashesEqual(rebuildHashes(onlineAccounts), index.getHashesByTimestampThenByte());
+
+        // Removing everything leaves no hashes
+        for (OnlineAccountData onlineAccountData : onlineAccounts)
+            index.remove(onlineAccountData);
+
+        assertTrue(index.getHashesByTimestampThenByte().isEmpty());
+    }
+
+    @Test
+    public void testMismatchedAccounts() {
+        OnlineAccountsHashIndex ourIndex = new OnlineAccountsHashIndex();
+        OnlineAccountsHashIndex peersIndex = new OnlineAccountsHashIndex();
+
+        for (int i = 0; i < 100; ++i) {
+            OnlineAccountData onlineAccountData = randomOnlineAccount(TIMESTAMP);
+            ourIndex.add(onlineAccountData);
+            peersIndex.add(onlineAccountData);
+        }
+
+        // Identical hashes, so nothing to send
+        assertTrue(ourIndex.getMismatchedAccounts(peersIndex.getHashesByTimestampThenByte()).isEmpty());
+
+        // We have an extra account, so send all accounts in that bucket
+        OnlineAccountData extraOnlineAccount = randomOnlineAccount(TIMESTAMP);
+        ourIndex.add(extraOnlineAccount);
+
+        List<OnlineAccountData> mismatchedAccounts = ourIndex.getMismatchedAccounts(peersIndex.getHashesByTimestampThenByte());
+        assertTrue(mismatchedAccounts.contains(extraOnlineAccount));
+        for (OnlineAccountData onlineAccountData : mismatchedAccounts)
+            assertEquals(extraOnlineAccount.getPublicKey()[0], onlineAccountData.getPublicKey()[0]);
+
+        // Peer has no entries for timestamp, so send everything
+        assertEquals(101, ourIndex.getMismatchedAccounts(Collections.emptyMap()).size());
+    }
+
+}
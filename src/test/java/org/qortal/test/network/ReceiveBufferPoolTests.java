@@ -0,0 +1,136 @@
+package org.qortal.test.network;
+
+import org.junit.Test;
+import org.qortal.network.ReceiveBufferPool;
+import org.qortal.network.message.Message;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class ReceiveBufferPoolTests {
+
+    private static final int MIN_SIZE = 1024;
+    private static final int MAX_SIZE = 5000;
+
+    @Test
+    public void testSizeClasses() {
+        ReceiveBufferPool pool = new ReceiveBufferPool(MIN_SIZE, MAX_SIZE, 1024 * 1024);
+
+        assertEquals(MIN_SIZE, pool.acquire(1).capacity());
+        assertEquals(MIN_SIZE, pool.acquire(MIN_SIZE).capacity());
+        assertEquals(2048, pool.acquire(MIN_SIZE + 1).capacity());
+        assertEquals(4096, pool.acquire(4096).capacity());
+        // Final size class is max size, even though not a power of two
+        assertEquals(MAX_SIZE, pool.acquire(4097).capacity());
+
+        assertEquals(5, pool.getInUseCount());
+        assertEquals(5, pool.getAllocatedCount());
+
+        try {
+            pool.acquire(MAX_SIZE + 1);
+            fail("Buffer larger than max size should not be acquirable");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testReuse() {
+        ReceiveBufferPool pool = new ReceiveBufferPool(MIN_SIZE, MAX_SIZE, 1024 * 1024);
+
+        ByteBuffer buffer = pool.acquire(MIN_SIZE);
+        assertTrue(buffer.isDirect());
+        buffer.put((byte) 1);
+
+        pool.release(buffer);
+        assertEquals(0, pool.getInUseCount());
+        assertEquals(0, pool.getInUseBytes());
+        assertEquals(1, pool.getPooledCount());
+        assertEquals(MIN_SIZE, pool.getPooledBytes());
+
+        // Same buffer, but cleared
+        ByteBuffer reusedBuffer = pool.acquire(MIN_SIZE);
+        assertSame(buffer, reusedBuffer);
+        assertEquals(0, reusedBuffer.position());
+        assertEquals(1, pool.getAllocatedCount());
+        assertEquals(0, pool.getPooledCount());
+    }
+
+    @Test
+    public void testResize() {
+        ReceiveBufferPool pool = new ReceiveBufferPool(MIN_SIZE, MAX_SIZE, 1024 * 1024);
+
+        ByteBuffer buffer = pool.acquire(MIN_SIZE);
+        for (int i = 0; i < MIN_SIZE; ++i)
+            buffer.put((byte) i);
+
+        // Grow
+        ByteBuffer largeBuffer = pool.resize(buffer, MAX_SIZE);
+        assertEquals(MAX_SIZE, largeBuffer.capacity());
+        assertEquals(MIN_SIZE, largeBuffer.position());
+        for (int i = 0; i < MIN_SIZE; ++i)
+            assertEquals((byte) i, largeBuffer.get(i));
+
+        assertEquals(1, pool.getInUseCount());
+        assertEquals(MAX_SIZE, pool.getInUseBytes());
+        assertEquals(1, pool.getPooledCount());
+
+        // Shrink
+        largeBuffer.clear();
+        largeBuffer.put(new byte[] { 1, 2, 3 });
+        ByteBuffer smallBuffer = pool.resize(largeBuffer, largeBuffer.position());
+        assertSame(buffer, smallBuffer);
+        assertEquals(3, smallBuffer.position());
+        assertEquals(3, smallBuffer.get(2));
+
+        assertEquals(MIN_SIZE, pool.getInUseBytes());
+        assertEquals(MAX_SIZE, pool.getPooledBytes());
+    }
+
+    @Test
+    public void testPoolBound() {
+        ReceiveBufferPool pool = new ReceiveBufferPool(MIN_SIZE, MAX_SIZE, 2 * MIN_SIZE);
+
+        ByteBuffer[] buffers = new ByteBuffer[3];
+        for (int i = 0; i < buffers.length; ++i)
+            buffers[i] = pool.acquire(MIN_SIZE);
+
+        for (ByteBuffer buffer : buffers)
+            pool.release(buffer);
+
+        // Only two buffers fit within pool bound
+        assertEquals(2, pool.getPooledCount());
+        assertEquals(2 * MIN_SIZE, pool.getPooledBytes());
+        assertEquals(0, pool.getInUseCount());
+    }
+
+    @Test
+    public void testPeekFrameLength() {
+        ByteBuffer frame = ByteBuffer.allocate(64);
+
+        // MAGIC(4) + TYPE(4) + HAS-ID(1) + ID?(4) + DATA-SIZE(4) + CHECKSUM?(4) + DATA?(*)
+        frame.put(new byte[] { 0x51, 0x4f, 0x52, 0x54 });
+        frame.putInt(1);
+        assertEquals(-1, Message.peekFrameLength(frame.asReadOnlyBuffer().flip()));
+
+        frame.put((byte) 1);
+        frame.putInt(1234);
+        assertEquals(-1, Message.peekFrameLength(frame.asReadOnlyBuffer().flip()));
+
+        frame.putInt(1000);
+        ByteBuffer readOnlyBuffer = frame.asReadOnlyBuffer().flip();
+        assertEquals(4 + 4 + 1 + 4 + 4 + 4 + 1000, Message.peekFrameLength(readOnlyBuffer));
+        // No bytes consumed
+        assertEquals(0, readOnlyBuffer.position());
+
+        // No ID, no data
+        frame.clear();
+        frame.put(new byte[] { 0x51, 0x4f, 0x52, 0x54 });
+        frame.putInt(1);
+        frame.put((byte) 0);
+        frame.putInt(0);
+        assertEquals(4 + 4 + 1 + 4, Message.peekFrameLength(frame.asReadOnlyBuffer().flip()));
+    }
+
+}
@@ -0,0 +1,141 @@
+package org.qortal.test.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.qortal.account.PrivateKeyAccount;
+import org.qortal.arbitrary.misc.Service;
+import org.qortal.data.account.AccountData;
+import org.qortal.data.arbitrary.ArbitraryResourceCache;
+import org.qortal.data.arbitrary.ArbitraryResourceData;
+import org.qortal.data.arbitrary.ArbitraryResourceStatus;
+import org.qortal.data.transaction.RegisterNameTransactionData;
+import org.qortal.repository.DataException;
+import org.qortal.repository.Repository;
+import org.qortal.repository.RepositoryManager;
+import org.qortal.repository.hsqldb.HSQLDBCacheUtils;
+import org.qortal.repository.hsqldb.HSQLDBRepository;
+import org.qortal.test.common.BlockUtils;
+import org.qortal.test.common.Common;
+import org.qortal.test.common.TransactionUtils;
+import org.qortal.test.common.transaction.TestTransaction;
+import org.qortal.transaction.RegisterNameTransaction;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ArbitraryResourceCacheTests extends Common {
+
+	private final ArbitraryResourceCache cache = ArbitraryResourceCache.getInstance();
+
+	@Before
+	public void beforeTest() throws DataException {
+		Common.useDefaultSettings();
+
+		// Repository has been reset, so start from scratch
+		this.cache.requestRebuild();
+		this.cache.takePendingChanges();
+	}
+
+	private List<ArbitraryResourceData> getCachedResources(Service service) {
+		return this.cache.getDataByService().getOrDefault(service.value, List.of());
+	}
+
+	@Test
+	public void testIncrementalResourceChanges() throws DataException {
+		try (final HSQLDBRepository repository = (HSQLDBRepository) RepositoryManager.getRepository()) {
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+			assertFalse(this.cache.isRebuildRequired());
+			assertTrue(getCachedResources(Service.WEBSITE).isEmpty());
+
+			ArbitraryResourceData arbitraryResourceData = new ArbitraryResourceData(Service.WEBSITE, "test-site", null);
+			arbitraryResourceData.size = 1234;
+			arbitraryResourceData.created = 1_000L;
+			repository.getArbitraryRepository().save(arbitraryResourceData);
+
+			// Not visible until committed
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+			assertTrue(getCachedResources(Service.WEBSITE).isEmpty());
+
+			repository.saveChanges();
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+
+			List<ArbitraryResourceData> cachedResources = getCachedResources(Service.WEBSITE);
+			assertEquals(1, cachedResources.size());
+			assertEquals("test-site", cachedResources.get(0).name);
+			assertNull(cachedResources.get(0).identifier);
+
+			// Status change, with different case name
+			ArbitraryResourceData statusResourceData = new ArbitraryResourceData(Service.WEBSITE, "TEST-SITE", null);
+			repository.getArbitraryRepository().setStatus(statusResourceData, ArbitraryResourceStatus.Status.DOWNLOADED);
+			repository.saveChanges();
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+
+			cachedResources = getCachedResources(Service.WEBSITE);
+			assertEquals(1, cachedResources.size());
+			assertEquals(ArbitraryResourceStatus.Status.DOWNLOADED.value, cachedResources.get(0).status.getStatus().value);
+
+			// Rolled-back changes aren't applied
+			repository.getArbitraryRepository().delete(arbitraryResourceData);
+			repository.discardChanges();
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+			assertEquals(1, getCachedResources(Service.WEBSITE).size());
+
+			repository.getArbitraryRepository().delete(arbitraryResourceData);
+			repository.saveChanges();
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+			assertTrue(getCachedResources(Service.WEBSITE).isEmpty());
+		}
+	}
+
+	@Test
+	public void testIncrementalNameChanges() throws DataException {
+		try (final HSQLDBRepository repository = (HSQLDBRepository) RepositoryManager.getRepository()) {
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+
+			PrivateKeyAccount alice = Common.getTestAccount(repository, "alice");
+			String name = "cached-name";
+
+			RegisterNameTransactionData transactionData = new RegisterNameTransactionData(TestTransaction.generateBase(alice), name, "{}");
+			transactionData.setFee(new RegisterNameTransaction(null, null).getUnitFee(transactionData.getTimestamp()));
+			TransactionUtils.signAndMint(repository, transactionData, alice);
+
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+			assertEquals(Integer.valueOf(alice.getLevel()), this.cache.getLevelByName().get(name));
+
+			// Owner's level changes
+			AccountData accountData = repository.getAccountRepository().getAccount(alice.getAddress());
+			accountData.setLevel(accountData.getLevel() + 1);
+			repository.getAccountRepository().setLevel(accountData);
+			repository.saveChanges();
+
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+			assertEquals(Integer.valueOf(accountData.getLevel()), this.cache.getLevelByName().get(name));
+
+			// Orphaning registration removes name
+			BlockUtils.orphanLastBlock(repository);
+
+			HSQLDBCacheUtils.updateCache(this.cache, repository);
+			assertNull(this.cache.getLevelByName().get(name));
+		}
+	}
+
+	@Test
+	public void testRebuildAfterBulkChanges() throws DataException {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			HSQLDBCacheUtils.updateCache(this.cache, (HSQLDBRepository) repository);
+
+			ArbitraryResourceCache.Changes changes = new ArbitraryResourceCache.Changes();
+			for (int i = 0; i < 6000; ++i)
+				changes.names.add("name-" + i);
+
+			this.cache.onChangesCommitted(changes);
+
+			// Too many to apply one by one, so cache is refilled instead
+			HSQLDBCacheUtils.updateCache(this.cache, (HSQLDBRepository) repository);
+			assertFalse(this.cache.isRebuildRequired());
+			assertTrue(this.cache.takePendingChanges().isEmpty());
+		}
+	}
+
+}
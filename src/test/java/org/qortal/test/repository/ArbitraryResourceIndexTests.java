@@ -0,0 +1,176 @@
+package org.qortal.test.repository;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.qortal.api.SearchMode;
+import org.qortal.arbitrary.misc.Service;
+import org.qortal.data.arbitrary.ArbitraryResourceCache;
+import org.qortal.data.arbitrary.ArbitraryResourceData;
+import org.qortal.data.arbitrary.ArbitraryResourceIndex;
+import org.qortal.data.arbitrary.ArbitraryResourceMetadata;
+import org.qortal.repository.hsqldb.HSQLDBCacheUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class ArbitraryResourceIndexTests {
+
+    private static final Service SERVICE = Service.DOCUMENT;
+    private static final String[] WORDS = { "qortal", "hub", "Chess", "blog", "news", "photo", "Q-Mail", "tube", "app", "x" };
+
+    private final Random random = new Random(1234L);
+
+    @After
+    public void afterTest() {
+        ArbitraryResourceCache.getInstance().setServiceData(SERVICE.value, List.of());
+    }
+
+    private String randomText(int wordCount) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < wordCount; ++i) {
+            if (i > 0)
+                sb.append(random.nextBoolean() ? " " : "-");
+
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private List<ArbitraryResourceData> randomResources(int count) {
+        List<ArbitraryResourceData> resources = new ArrayList<>();
+
+        for (int i = 0; i < count; ++i) {
+            ArbitraryResourceData data = new ArbitraryResourceData();
+            data.name = randomText(1 + random.nextInt(2));
+            data.service = SERVICE;
+            data.identifier = random.nextInt(4) == 0 ? null : randomText(1 + random.nextInt(2));
+            data.created = (long) random.nextInt(count);
+
+            if (random.nextBoolean()) {
+                data.metadata = new ArbitraryResourceMetadata();
+                data.metadata.setTitle(randomText(2));
+                data.metadata.setDescription(random.nextBoolean() ? randomText(5) : null);
+            }
+
+            resources.add(data);
+        }
+
+        return resources;
+    }
+
+    @Test
+    public void testCandidatesAreSuperset() {
+        List<ArbitraryResourceData> resources = randomResources(500);
+        ArbitraryResourceIndex index = new ArbitraryResourceIndex(resources);
+
+        Assert.assertEquals(resources.size(), index.size());
+
+        for (String term : List.of("qort", "HUB", "ess", "-ma", "news pho", "zzz", "x")) {
+            int[] ids = index.getCandidates(ArbitraryResourceIndex.Field.NAME, term);
+
+            if (term.length() < 3) {
+                // Too short to narrow down
+                Assert.assertNull(ids);
+                continue;
+            }
+
+            Set<ArbitraryResourceData> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+            candidates.addAll(index.getResources(ids));
+
+            for (ArbitraryResourceData data : resources)
+                if (data.name.toLowerCase().contains(term.toLowerCase()))
+                    Assert.assertTrue(candidates.contains(data));
+        }
+    }
+
+    @Test
+    public void testCreationOrder() {
+        List<ArbitraryResourceData> resources = randomResources(200);
+        ArbitraryResourceIndex index = new ArbitraryResourceIndex(resources);
+
+        List<ArbitraryResourceData> all = index.getAll();
+        for (int i = 1; i < all.size(); ++i)
+            Assert.assertTrue(all.get(i - 1).created <= all.get(i).created);
+    }
+
+    @Test
+    public void testIntersectAndUnion() {
+        int[] a = { 1, 3, 5, 7 };
+        int[] b = { 3, 4, 5, 8 };
+
+        Assert.assertArrayEquals(new int[] { 3, 5 }, ArbitraryResourceIndex.intersect(a, b));
+        Assert.assertArrayEquals(new int[] { 1, 3, 4, 5, 7, 8 }, ArbitraryResourceIndex.union(a, b));
+
+        // null means everything
+        Assert.assertArrayEquals(a, ArbitraryResourceIndex.intersect(null, a));
+        Assert.assertNull(ArbitraryResourceIndex.union(null, a));
+    }
+
+    @Test
+    public void testIndexedSearchMatchesFullScan() {
+        List<ArbitraryResourceData> resources = randomResources(1000);
+        ArbitraryResourceCache cache = ArbitraryResourceCache.getInstance();
+        cache.setServiceData(SERVICE.value, resources);
+
+        String[] terms = { "qor", "chess", "Q-M", "blog news", "tube", "ap", "nothing" };
+
+        for (String term : terms) {
+            for (boolean prefixOnly : new boolean[] { false, true }) {
+                for (SearchMode mode : SearchMode.values()) {
+                    assertSameResults(cache, resources, mode, term, null, null, null, prefixOnly, null);
+                    assertSameResults(cache, resources, mode, null, term, null, null, prefixOnly, null);
+                    assertSameResults(cache, resources, mode, null, null, term, null, prefixOnly, null);
+                    assertSameResults(cache, resources, mode, null, null, null, List.of(term, "hub"), prefixOnly, null);
+                    assertSameResults(cache, resources, mode, "app", null, term, null, prefixOnly, null);
+                }
+            }
+        }
+
+        assertSameResults(cache, resources, SearchMode.ALL, null, null, null, null, false, List.of("CHESS", "hub"));
+    }
+
+    private void assertSameResults(ArbitraryResourceCache cache, List<ArbitraryResourceData> resources, SearchMode mode,
+            String query, String identifier, String title, List<String> names, boolean prefixOnly, List<String> exactMatchNames) {
+
+        List<ArbitraryResourceData> candidates = HSQLDBCacheUtils.callCache(cache, SERVICE, query, identifier, names, title, null,
+                prefixOnly, exactMatchNames, false, mode, null, null, null, true, true, null, null, 20, 5, false);
+
+        List<ArbitraryResourceData> expected = search(resources, mode, query, identifier, title, names, prefixOnly, exactMatchNames);
+        List<ArbitraryResourceData> actual = search(candidates, mode, query, identifier, title, names, prefixOnly, exactMatchNames);
+
+        // Ties on created time may be ordered differently, so only compare created times
+        Assert.assertEquals(
+                expected.stream().map(data -> data.created).collect(Collectors.toList()),
+                actual.stream().map(data -> data.created).collect(Collectors.toList()));
+    }
+
+    private static List<ArbitraryResourceData> search(List<ArbitraryResourceData> candidates, SearchMode mode,
+            String query, String identifier, String title, List<String> names, boolean prefixOnly, List<String> exactMatchNames) {
+
+        return HSQLDBCacheUtils.filterList(
+                candidates,
+                Map.of(),
+                Optional.of(mode),
+                Optional.of(SERVICE),
+                Optional.ofNullable(query),
+                Optional.ofNullable(identifier),
+                Optional.ofNullable(names),
+                Optional.ofNullable(title),
+                Optional.empty(),
+                prefixOnly,
+                Optional.ofNullable(exactMatchNames),
+                false,
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(true),
+                Optional.of(true),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(20),
+                Optional.of(5),
+                Optional.of(false));
+    }
+
+}
@@ -0,0 +1,259 @@
+package org.qortal.test.repository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.qortal.account.PrivateKeyAccount;
+import org.qortal.data.account.RewardShareData;
+import org.qortal.repository.DataException;
+import org.qortal.repository.Repository;
+import org.qortal.repository.RepositoryManager;
+import org.qortal.repository.hsqldb.HSQLDBRepository;
+import org.qortal.repository.hsqldb.HSQLDBRepositoryFactory;
+import org.qortal.repository.hsqldb.RewardShareIndex;
+import org.qortal.test.common.AccountUtils;
+import org.qortal.test.common.BlockUtils;
+import org.qortal.test.common.Common;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RewardShareIndexTests extends Common {
+
+	private final Random random = new Random(1234L);
+
+	@Before
+	public void beforeTest() throws DataException {
+		Common.useDefaultSettings();
+	}
+
+	@After
+	public void afterTest() throws DataException {
+		Common.orphanCheck();
+	}
+
+	private RewardShareData randomRewardShare(PrivateKeyAccount minterAccount) {
+		byte[] rewardSharePublicKey = new byte[32];
+		random.nextBytes(rewardSharePublicKey);
+
+		String recipient = AccountUtils.createRandomAccount(null).getAddress();
+
+		return new RewardShareData(minterAccount.getPublicKey(), minterAccount.getAddress(), recipient, rewardSharePublicKey, random.nextInt(100_00));
+	}
+
+	/** Reward-share public keys, in index order, according to the database */
+	private static List<byte[]> fetchOrderedKeys(Repository repository) throws DataException {
+		String sql = "SELECT reward_share_public_key FROM RewardShares ORDER BY reward_share_public_key";
+
+		List<byte[]> keys = new ArrayList<>();
+		try (ResultSet resultSet = ((HSQLDBRepository) repository).checkedExecute(sql)) {
+			if (resultSet == null)
+				return keys;
+
+			do {
+				keys.add(resultSet.getBytes(1));
+			} while (resultSet.next());
+		} catch (SQLException e) {
+			throw new DataException(e);
+		}
+
+		return keys;
+	}
+
+	private static void assertMatchesDatabase(Repository repository) throws DataException {
+		List<byte[]> keys = fetchOrderedKeys(repository);
+
+		int[] indexes = new int[keys.size()];
+		for (int i = 0; i < indexes.length; ++i)
+			indexes[i] = i;
+
+		List<RewardShareData> rewardShares = repository.getAccountRepository().getRewardSharesByIndexes(indexes);
+		assertNotNull(rewardShares);
+		assertEquals(keys.size(), rewardShares.size());
+
+		for (int i = 0; i < keys.size(); ++i) {
+			assertArrayEquals(keys.get(i), rewardShares.get(i).getRewardSharePublicKey());
+			assertEquals(Integer.valueOf(i), repository.getAccountRepository().getRewardShareIndex(keys.get(i)));
+			assertArrayEquals(keys.get(i), repository.getAccountRepository().getRewardShareByIndex(i).getRewardSharePublicKey());
+		}
+
+		// Out of bounds
+		assertNull(repository.getAccountRepository().getRewardSharesByIndexes(new int[] { 0, keys.size() }));
+		assertNull(repository.getAccountRepository().getRewardShareByIndex(keys.size()));
+	}
+
+	@Test
+	public void testIndexOperations() {
+		List<RewardShareData> rewardShares = new ArrayList<>();
+		for (int i = 0; i < 500; ++i) {
+			byte[] rewardSharePublicKey = new byte[32];
+			random.nextBytes(rewardSharePublicKey);
+			rewardShares.add(new RewardShareData(new byte[32], "minter", "recipient-" + i, rewardSharePublicKey, i));
+		}
+
+		RewardShareIndex index = RewardShareIndex.of(rewardShares);
+		assertEquals(rewardShares.size(), index.size());
+
+		// Keys with high bit set must sort after those without, like in HSQLDB
+		rewardShares.sort((a, b) -> Arrays.compareUnsigned(a.getRewardSharePublicKey(), b.getRewardSharePublicKey()));
+		for (int i = 0; i < rewardShares.size(); ++i) {
+			assertSame(rewardShares.get(i), index.get(i));
+			assertEquals(Integer.valueOf(i), index.indexOf(rewardShares.get(i).getRewardSharePublicKey()));
+		}
+
+		assertNull(index.get(-1));
+		assertNull(index.get(rewardShares.size()));
+		assertNull(index.indexOf(new byte[32]));
+
+		// Removal and replacement leave original untouched
+		RewardShareData removed = rewardShares.get(10);
+		RewardShareIndex smallerIndex = index.without(removed.getRewardSharePublicKey());
+		assertEquals(rewardShares.size() - 1, smallerIndex.size());
+		assertNull(smallerIndex.indexOf(removed.getRewardSharePublicKey()));
+		assertSame(rewardShares.get(11), smallerIndex.get(10));
+		assertSame(removed, index.get(10));
+
+		RewardShareData replacement = new RewardShareData(removed.getMinterPublicKey(), removed.getMinter(), removed.getRecipient(),
+				removed.getRewardSharePublicKey(), 0);
+		RewardShareIndex replacedIndex = index.with(replacement);
+		assertEquals(rewardShares.size(), replacedIndex.size());
+		assertSame(replacement, replacedIndex.get(10));
+		assertSame(removed, index.get(10));
+	}
+
+	@Test
+	public void testProcessAndOrphan() throws DataException {
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			assertMatchesDatabase(repository);
+
+			AccountUtils.rewardShare(repository, "alice", "bob", 5_00);
+			assertMatchesDatabase(repository);
+
+			AccountUtils.rewardShare(repository, "alice", "chloe", 10_00);
+			AccountUtils.rewardShare(repository, "alice", "dilbert", 15_00);
+			assertMatchesDatabase(repository);
+
+			// Cancel reward-share
+			AccountUtils.rewardShare(repository, "alice", "bob", -1);
+			assertMatchesDatabase(repository);
+
+			// Orphaning restores reward-shares
+			BlockUtils.orphanBlocks(repository, 4);
+			assertMatchesDatabase(repository);
+		}
+
+		// Other sessions see the same, committed, reward-shares
+		try (final Repository repository = RepositoryManager.getRepository()) {
+			assertMatchesDatabase(repository);
+		}
+	}
+
+	@Test
+	public void testUncommittedChanges() throws DataException {
+		try (final Repository repository = RepositoryManager.getRepository();
+				final Repository otherRepository = RepositoryManager.getRepository()) {
+			PrivateKeyAccount aliceAccount = Common.getTestAccount(repository, "alice");
+			int initialCount = fetchOrderedKeys(repository).size();
+
+			// Make sure committed index is loaded
+			assertMatchesDatabase(repository);
+
+			RewardShareData rewardShareData = randomRewardShare(aliceAccount);
+			repository.getAccountRepository().save(rewardShareData);
+			assertMatchesDatabase(repository);
+
+			// Not visible to other sessions until committed
+			assertNull(otherRepository.getAccountRepository().getRewardShareIndex(rewardShareData.getRewardSharePublicKey()));
+
+			// Changes rolled back via savepoint are removed from index
+			repository.setSavepoint();
+			RewardShareData rolledBackRewardShareData = randomRewardShare(aliceAccount);
+			repository.getAccountRepository().save(rolledBackRewardShareData);
+			repository.getAccountRepository().delete(rewardShareData.getMinterPublicKey(), rewardShareData.getRecipient());
+			assertMatchesDatabase(repository);
+			assertNull(repository.getAccountRepository().getRewardShareIndex(rewardShareData.getRewardSharePublicKey()));
+
+			repository.rollbackToSavepoint();
+			assertMatchesDatabase(repository);
+			assertNull(repository.getAccountRepository().getRewardShareIndex(rolledBackRewardShareData.getRewardSharePublicKey()));
+			assertNotNull(repository.getAccountRepository().getRewardShareIndex(rewardShareData.getRewardSharePublicKey()));
+
+			// Discarded changes are removed from index
+			repository.discardChanges();
+			assertEquals(initialCount, fetchOrderedKeys(repository).size());
+			assertMatchesDatabase(repository);
+
+			// Committed changes are visible to other sessions, once they start a new transaction
+			repository.getAccountRepository().save(rewardShareData);
+			repository.saveChanges();
+			otherRepository.discardChanges();
+			assertMatchesDatabase(otherRepository);
+			assertNotNull(otherRepository.getAccountRepository().getRewardShareIndex(rewardShareData.getRewardSharePublicKey()));
+
+			repository.getAccountRepository().delete(rewardShareData.getMinterPublicKey(), rewardShareData.getRecipient());
+			repository.saveChanges();
+			otherRepository.discardChanges();
+			assertMatchesDatabase(otherRepository);
+			assertEquals(initialCount, fetchOrderedKeys(otherRepository).size());
+		}
+	}
+
+	@Test
+	public void testOlderSnapshot() throws DataException {
+		try (final Repository repository = RepositoryManager.getRepository();
+				final Repository olderRepository = RepositoryManager.getRepository()) {
+			PrivateKeyAccount aliceAccount = Common.getTestAccount(repository, "alice");
+
+			// Start older session's transaction snapshot
+			int initialCount = fetchOrderedKeys(olderRepository).size();
+
+			RewardShareData rewardShareData = randomRewardShare(aliceAccount);
+			repository.getAccountRepository().save(rewardShareData);
+			repository.saveChanges();
+
+			// Older session sees reward-shares as of its snapshot, not latest committed index
+			assertMatchesDatabase(olderRepository);
+			assertNull(olderRepository.getAccountRepository().getRewardShareIndex(rewardShareData.getRewardSharePublicKey()));
+
+			// Committed index needs loading again, e.g. as if after startup
+			forgetCommittedIndex();
+
+			// Older session sees reward-shares as of its snapshot
+			assertMatchesDatabase(olderRepository);
+			assertEquals(initialCount, fetchOrderedKeys(olderRepository).size());
+			assertNull(olderRepository.getAccountRepository().getRewardShareIndex(rewardShareData.getRewardSharePublicKey()));
+
+			// ...and doesn't leave its older view as committed index for other sessions
+			try (final Repository newerRepository = RepositoryManager.getRepository()) {
+				assertMatchesDatabase(newerRepository);
+				assertNotNull(newerRepository.getAccountRepository().getRewardShareIndex(rewardShareData.getRewardSharePublicKey()));
+			}
+
+			// Older session sees latest once it starts a new transaction
+			olderRepository.discardChanges();
+			assertMatchesDatabase(olderRepository);
+			assertNotNull(olderRepository.getAccountRepository().getRewardShareIndex(rewardShareData.getRewardSharePublicKey()));
+
+			repository.getAccountRepository().delete(rewardShareData.getMinterPublicKey(), rewardShareData.getRecipient());
+			repository.saveChanges();
+		}
+	}
+
+	private static void forgetCommittedIndex() {
+		try {
+			Field field = HSQLDBRepositoryFactory.class.getDeclaredField("rewardShareIndex");
+			field.setAccessible(true);
+			field.set(RepositoryManager.getRepositoryFactory(), null);
+		} catch (NoSuchFieldException | IllegalAccessException e) {
+			fail();
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package org.qortal.test.utils;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.qortal.controller.hsqldb.BalanceDeltaJournal;
+import org.qortal.controller.hsqldb.BalanceDeltaJournal.BlockDeltas;
+import org.qortal.data.account.AddressAmountData;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class BalanceDeltaJournalTests {
+
+    public static final String ALICE = "alice";
+    public static final String BOB = "bob";
+    public static final String CHLOE = "chloe";
+
+    private BalanceDeltaJournal journal;
+
+    @Before
+    public void beforeTest() {
+        this.journal = BalanceDeltaJournal.getInstance();
+        this.journal.startRecording(10, Integer.MAX_VALUE);
+    }
+
+    private static Map<String, Long> changes(Object... addressesAndAmounts) {
+        Map<String, Long> changes = new HashMap<>();
+
+        for (int i = 0; i < addressesAndAmounts.length; i += 2)
+            changes.put((String) addressesAndAmounts[i], (Long) addressesAndAmounts[i + 1]);
+
+        return changes;
+    }
+
+    private void process(int height, Object... addressesAndAmounts) {
+        this.journal.onChangesCommitted(Arrays.asList(BlockDeltas.processed(height, changes(addressesAndAmounts))));
+    }
+
+    private void orphan(int height) {
+        this.journal.onChangesCommitted(Arrays.asList(BlockDeltas.orphaned(height)));
+    }
+
+    private static Map<String, Long> toMap(List<AddressAmountData> amounts) {
+        return amounts.stream().collect(Collectors.toMap(AddressAmountData::getAddress, AddressAmountData::getAmount));
+    }
+
+    @Test
+    public void testSum() {
+        process(11, ALICE, 100L, BOB, 50L);
+        process(12);
+        process(13, ALICE, 20L, BOB, -50L, CHLOE, 5L);
+
+        Assert.assertEquals(13, this.journal.getLatestHeight());
+        Assert.assertEquals(Arrays.asList(11, 13), this.journal.getHeights());
+        Assert.assertEquals(5, this.journal.size());
+
+        // bob nets to zero, so is excluded
+        Assert.assertEquals(changes(ALICE, 120L, CHLOE, 5L), toMap(this.journal.sum(10, 13)));
+
+        // begin is exclusive, end is inclusive
+        Assert.assertEquals(changes(ALICE, 100L, BOB, 50L), toMap(this.journal.sum(10, 12)));
+        Assert.assertEquals(changes(ALICE, 20L, BOB, -50L, CHLOE, 5L), toMap(this.journal.sum(11, 13)));
+        Assert.assertTrue(this.journal.sum(11, 12).isEmpty());
+
+        Assert.assertTrue(this.journal.covers(10, 13));
+        Assert.assertFalse(this.journal.covers(9, 13));
+        Assert.assertFalse(this.journal.covers(10, 14));
+        Assert.assertFalse(this.journal.covers(13, 13));
+    }
+
+    @Test
+    public void testSumIfCovered() {
+        process(11, ALICE, 100L);
+        process(12, BOB, 50L);
+
+        Assert.assertEquals(changes(ALICE, 100L, BOB, 50L), toMap(this.journal.sumIfCovered(10, 12).get()));
+        Assert.assertFalse(this.journal.sumIfCovered(9, 12).isPresent());
+        Assert.assertFalse(this.journal.sumIfCovered(10, 13).isPresent());
+
+        // no longer covered once orphaned
+        orphan(12);
+        Assert.assertFalse(this.journal.sumIfCovered(10, 12).isPresent());
+        Assert.assertEquals(changes(ALICE, 100L), toMap(this.journal.sumIfCovered(10, 11).get()));
+    }
+
+    @Test
+    public void testOrphan() {
+        process(11, ALICE, 100L);
+        process(12, BOB, 50L);
+        process(13, CHLOE, 5L);
+
+        Assert.assertNull(this.journal.takeLowestOrphanedHeight());
+
+        orphan(13);
+        orphan(12);
+
+        Assert.assertEquals(11, this.journal.getLatestHeight());
+        Assert.assertEquals(Arrays.asList(11), this.journal.getHeights());
+        Assert.assertFalse(this.journal.covers(10, 12));
+
+        // replacement blocks
+        process(12, CHLOE, 7L);
+        process(13, ALICE, 1L);
+
+        Assert.assertEquals(changes(ALICE, 101L, CHLOE, 7L), toMap(this.journal.sum(10, 13)));
+
+        Assert.assertEquals(Integer.valueOf(12), this.journal.takeLowestOrphanedHeight());
+        Assert.assertNull(this.journal.takeLowestOrphanedHeight());
+    }
+
+    @Test
+    public void testCapacity() {
+        this.journal.startRecording(10, 4);
+
+        process(11, ALICE, 1L, BOB, 2L);
+        process(12, ALICE, 3L, BOB, 4L);
+        Assert.assertEquals(10, this.journal.getBaseHeight());
+
+        // oldest block dropped to stay within capacity
+        process(13, CHLOE, 5L);
+        Assert.assertEquals(11, this.journal.getBaseHeight());
+        Assert.assertEquals(Arrays.asList(12, 13), this.journal.getHeights());
+        Assert.assertEquals(3, this.journal.size());
+
+        Assert.assertFalse(this.journal.covers(10, 13));
+        Assert.assertTrue(this.journal.covers(11, 13));
+        Assert.assertEquals(changes(ALICE, 3L, BOB, 4L, CHLOE, 5L), toMap(this.journal.sum(11, 13)));
+
+        // latest block is kept even if over capacity alone
+        process(14, ALICE, 1L, BOB, 1L, CHLOE, 1L, "dilbert", 1L, "eve", 1L);
+        Assert.assertEquals(13, this.journal.getBaseHeight());
+        Assert.assertEquals(Arrays.asList(14), this.journal.getHeights());
+        Assert.assertEquals(5, this.journal.sum(13, 14).size());
+    }
+
+}